@@ -0,0 +1,14 @@
+#!/bin/bash
+# Installs the catalogue, builds the benchmarks and runs them, writing JMH's JSON results to results/<commit>.json.
+# Extra arguments go to JMH, e.g. ./run.sh ApiServiceBenchmark -p catalogueSize=1000
+# Run against a local Postgres with JAVA_OPTS="-Dspring.datasource.url=jdbc:postgresql://localhost:32768/benchmarkdb ..."
+set -e
+cd "$(dirname "$0")"
+commit=$(git rev-parse --short HEAD)
+(cd .. && mvn -B -q install -DskipTests)
+mvn -B -q package
+mkdir -p results
+if [ -n "$JAVA_OPTS" ]; then
+    set -- -jvmArgsAppend "$JAVA_OPTS" "$@"
+fi
+java -jar target/benchmarks.jar -rf json -rff "results/$commit.json" "$@"
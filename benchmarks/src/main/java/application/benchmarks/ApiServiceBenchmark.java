@@ -0,0 +1,81 @@
+package application.benchmarks;
+
+import application.infrastructure.models.ApiCursor;
+import application.infrastructure.models.ApiSummary;
+import application.services.ApiService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ApiServiceBenchmark {
+
+    private static final int PAGE_SIZE = 50;
+
+    @Param({"10", "1000", "100000"})
+    int catalogueSize;
+
+    @Param({"false", "true"})
+    boolean cached;
+
+    private ConfigurableApplicationContext catalogue;
+    private ApiService apiService;
+    private PageRequest firstPage;
+    private PageRequest lastPage;
+    private ApiCursor middleCursor;
+
+    @Setup
+    public void startCatalogue() throws IOException {
+        if (cached) {
+            catalogue = Catalogues.start("--catalogue.cache.apis.maximum-size=10000", "--catalogue.cache.pages.maximum-weight=50000");
+        } else {
+            catalogue = Catalogues.start();
+        }
+        Catalogues.fill(catalogue, catalogueSize);
+        apiService = catalogue.getBean(ApiService.class);
+        firstPage = new PageRequest(0, PAGE_SIZE);
+        lastPage = new PageRequest((catalogueSize - 1) / PAGE_SIZE, PAGE_SIZE);
+        middleCursor = new ApiCursor(Catalogues.apiName(catalogueSize / 2), Catalogues.VERSION);
+    }
+
+    @TearDown
+    public void stopCatalogue() {
+        catalogue.close();
+    }
+
+    @Benchmark
+    public Page<ApiSummary> getAllApis_firstPage() {
+        return apiService.getAllApis(firstPage);
+    }
+
+    @Benchmark
+    public Page<ApiSummary> getAllApis_lastPage() {
+        return apiService.getAllApis(lastPage);
+    }
+
+    @Benchmark
+    public Slice<ApiSummary> getApisAfter_middleCursor() {
+        return apiService.getApisAfter(middleCursor, PAGE_SIZE);
+    }
+}
@@ -0,0 +1,104 @@
+package application.benchmarks;
+
+import application.CatalogueApplication;
+import application.infrastructure.ApiRegistrationRepository;
+import application.infrastructure.FileUtils;
+import application.infrastructure.models.Api;
+import application.infrastructure.models.SpecificationFile;
+import application.services.ApiService;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Starts the catalogue without its web server under the benchmark profile, which uses an in-memory H2 database
+ * unless spring.datasource.url is given as a system property, and fills it for the benchmarks.
+ */
+public final class Catalogues {
+
+    public static final String VERSION = "1.0";
+    public static final String SPECIFICATION_CONTENT_TYPE = "application/x-yaml";
+
+    private Catalogues() {
+    }
+
+    public static ConfigurableApplicationContext start(String... arguments) {
+        return startWithProfiles(new String[0], arguments);
+    }
+
+    /**
+     * Adds the given profiles after the benchmark profile, so that their properties take precedence.
+     */
+    public static ConfigurableApplicationContext startWithProfiles(String[] profiles, String... arguments) {
+        String[] activeProfiles = new String[profiles.length + 1];
+        activeProfiles[0] = "benchmark";
+        System.arraycopy(profiles, 0, activeProfiles, 1, profiles.length);
+        return new SpringApplicationBuilder(CatalogueApplication.class)
+                .web(false)
+                .profiles(activeProfiles)
+                .run(arguments);
+    }
+
+    public static String apiName(int index) {
+        return String.format("api-%07d", index);
+    }
+
+    public static Api saveApi(ConfigurableApplicationContext catalogue, String name, byte[] specification) throws IOException {
+        return catalogue.getBean(ApiService.class).saveApi(makeApi(name), specificationFile(name, specification));
+    }
+
+    public static MockMultipartFile specificationFile(String name, byte[] specification) {
+        return new MockMultipartFile("file", name + ".yaml", SPECIFICATION_CONTENT_TYPE, specification);
+    }
+
+    public static Api makeApi(String name) {
+        Api api = new Api();
+        api.setName(name);
+        api.setVersion(VERSION);
+        api.setSpecificationType("swagger");
+        return api;
+    }
+
+    // Only the first API goes through ApiService: the others share its specification file and are registered directly
+    // in a single transaction, which keeps the setup of a 100k APIs catalogue to seconds.
+    public static void fill(ConfigurableApplicationContext catalogue, int catalogueSize) throws IOException {
+        MockMultipartFile sharedFile = specificationFile(apiName(0), specification(1024));
+        catalogue.getBean(ApiService.class).saveApi(makeApi(apiName(0)), sharedFile);
+        SpecificationFile specificationFile = new SpecificationFile();
+        specificationFile.setContentType(SPECIFICATION_CONTENT_TYPE);
+        specificationFile.setContentHash(catalogue.getBean(FileUtils.class).digest(sharedFile).getHash());
+
+        ApiRegistrationRepository apiRegistrationRepository = catalogue.getBean(ApiRegistrationRepository.class);
+        TransactionTemplate transactionTemplate = new TransactionTemplate(catalogue.getBean(PlatformTransactionManager.class));
+        transactionTemplate.execute(status -> {
+            for (int index = 1; index < catalogueSize; index++) {
+                Api api = makeApi(apiName(index));
+                api.setLastModified(System.currentTimeMillis());
+                apiRegistrationRepository.upsertApi(api);
+                apiRegistrationRepository.upsertSpecificationFile(specificationFile);
+                apiRegistrationRepository.linkSpecificationFile(api.getId(), specificationFile.getId());
+            }
+            return null;
+        });
+    }
+
+    public static byte[] specification(int size) {
+        StringBuilder specification = new StringBuilder(size + 128);
+        specification.append("swagger: '2.0'\ninfo:\n  title: Benchmark API\n  version: '1.0'\npaths:\n");
+        for (int path = 0; specification.length() < size; path++) {
+            specification.append("  /resources/").append(path).append(":\n")
+                    .append("    get:\n")
+                    .append("      summary: Returns resource ").append(path).append('\n')
+                    .append("      responses:\n")
+                    .append("        '200':\n")
+                    .append("          description: The resource\n");
+        }
+        specification.setLength(size);
+        return specification.toString().getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,87 @@
+package application.benchmarks;
+
+import application.infrastructure.models.Api;
+import application.infrastructure.models.ApiSummary;
+import application.services.ApiService;
+import org.flywaydb.core.Flyway;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Compares the default persistence settings with the production profile under concurrent saves and reads. Meant to
+// run against Postgres, where the statement cache applies: ./run.sh PersistenceLoadBenchmark with JAVA_OPTS set to an
+// empty database. The production profile requires that database, having no in-memory default. Each run leaves that
+// database empty again.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(16)
+@Fork(1)
+public class PersistenceLoadBenchmark {
+
+    private static final int CATALOGUE_SIZE = 10000;
+
+    @Param({"default", "production"})
+    String persistence;
+
+    private ConfigurableApplicationContext catalogue;
+    private ApiService apiService;
+    private byte[] specification;
+    private long[] apiIds;
+    private final AtomicInteger savedApis = new AtomicInteger(CATALOGUE_SIZE);
+
+    @Setup
+    public void startCatalogue() throws IOException {
+        if ("production".equals(persistence)) {
+            catalogue = Catalogues.startWithProfiles(new String[]{"production"});
+        } else {
+            catalogue = Catalogues.start();
+        }
+        Catalogues.fill(catalogue, CATALOGUE_SIZE);
+        apiService = catalogue.getBean(ApiService.class);
+        specification = Catalogues.specification(4 * 1024);
+        // Ids are not contiguous: on Postgres, the upserts draw from the shared sequence even when they update.
+        apiIds = apiService.getApisAfter(null, CATALOGUE_SIZE).getContent().stream().mapToLong(ApiSummary::getId).toArray();
+    }
+
+    @TearDown
+    public void stopCatalogue() {
+        // Flyway's schema outlives the context, unlike the one Hibernate drops on close.
+        for (Flyway flyway : catalogue.getBeansOfType(Flyway.class).values()) {
+            flyway.clean();
+        }
+        catalogue.close();
+    }
+
+    @Benchmark
+    public Api saveApi() throws IOException {
+        String name = Catalogues.apiName(savedApis.getAndIncrement());
+        // Content of its own, so that concurrent saves do not all update the reference count of one file.
+        byte[] content = ("# " + name + "\n" + new String(specification, StandardCharsets.UTF_8)).getBytes(StandardCharsets.UTF_8);
+        return apiService.saveApi(Catalogues.makeApi(name), Catalogues.specificationFile(name, content));
+    }
+
+    @Benchmark
+    public Api getApi() {
+        return apiService.getApi(apiIds[ThreadLocalRandom.current().nextInt(apiIds.length)]);
+    }
+}
@@ -0,0 +1,74 @@
+package application.benchmarks;
+
+import application.controllers.ApiController;
+import application.infrastructure.models.Api;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.core.io.Resource;
+import org.springframework.http.ResponseEntity;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SpecificationDownloadBenchmark {
+
+    private static final int BUFFER_SIZE = 8192;
+
+    @Param({"1024", "65536", "1048576", "20971520"})
+    int specificationSize;
+
+    @Param({"identity", "gzip"})
+    String acceptEncoding;
+
+    private ConfigurableApplicationContext catalogue;
+    private ApiController apiController;
+    private long apiId;
+    private byte[] buffer;
+
+    @Setup
+    public void startCatalogue() throws IOException {
+        catalogue = Catalogues.start();
+        Api api = Catalogues.saveApi(catalogue, Catalogues.apiName(0), Catalogues.specification(specificationSize));
+        apiId = api.getId();
+        apiController = catalogue.getBean(ApiController.class);
+        buffer = new byte[BUFFER_SIZE];
+    }
+
+    @TearDown
+    public void stopCatalogue() {
+        catalogue.close();
+    }
+
+    @Benchmark
+    public long getSpecificationFile(Blackhole blackhole) throws IOException {
+        ResponseEntity<Resource> response = apiController.getSpecificationFile(apiId, acceptEncoding);
+        long length = 0;
+        try (InputStream content = response.getBody().getInputStream()) {
+            int read;
+            while ((read = content.read(buffer)) != -1) {
+                blackhole.consume(buffer);
+                length += read;
+            }
+        }
+        return length;
+    }
+}
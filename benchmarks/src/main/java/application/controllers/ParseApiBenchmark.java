@@ -0,0 +1,55 @@
+package application.controllers;
+
+import application.infrastructure.models.Api;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+// Lives in the controllers package to reach the package-private ApiController.parseApi. Run with -prof gc and compare
+// gc.alloc.rate.norm with parseApi_newObjectMapper, which parses the way parseApi did before it shared its reader.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ParseApiBenchmark {
+
+    private static final String API = "{\"name\":\"Shop API\",\"version\":\"1.4\",\"specificationType\":\"swagger\"}";
+    private static final String MALFORMED_API = "{\"name\":\"Shop API\",\"version\":";
+    private static final byte[] API_BYTES = API.getBytes(StandardCharsets.UTF_8);
+
+    private final ApiController apiController = new ApiController();
+
+    @Benchmark
+    public Api parseApi() throws IOException {
+        return apiController.parseApi(API);
+    }
+
+    @Benchmark
+    public Api parseApi_malformed() throws IOException {
+        return apiController.parseApi(MALFORMED_API);
+    }
+
+    @Benchmark
+    public Api parseApi_jsonPart() throws IOException {
+        return apiController.parseApi(new ByteArrayInputStream(API_BYTES));
+    }
+
+    @Benchmark
+    public Api parseApi_newObjectMapper() throws IOException {
+        return new ObjectMapper().readValue(API, Api.class);
+    }
+}
@@ -0,0 +1,68 @@
+package application.services;
+
+import application.benchmarks.Catalogues;
+import application.infrastructure.models.ApiSummary;
+import application.infrastructure.models.RenderedPage;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.thymeleaf.spring4.SpringTemplateEngine;
+import org.thymeleaf.templateresolver.ClassLoaderTemplateResolver;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Lives in the services package to render through the package-private ViewService.render, past the rendered page
+// cache. Run with -prof gc and compare gc.alloc.rate.norm across page sizes to see the allocations per row.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ViewServiceBenchmark {
+
+    @Param({"10", "50", "1000"})
+    int apiCount;
+
+    private ViewService viewService;
+    private List<ApiSummary> apis;
+
+    @Setup
+    public void makeApis() {
+        viewService = new ViewService();
+        viewService.templateEngine = templateEngine();
+        apis = new ArrayList<>(apiCount);
+        for (int index = 0; index < apiCount; index++) {
+            ApiSummary api = new ApiSummary(index, Catalogues.apiName(index), Catalogues.VERSION, "swagger");
+            api.setSpecificationPath("/catalogueApi/apis/" + index + "/specificationFile");
+            apis.add(api);
+        }
+    }
+
+    @Benchmark
+    public RenderedPage render() {
+        return viewService.render(apis);
+    }
+
+    // Mirrors the template configuration that Spring Boot applies to the application.
+    private static SpringTemplateEngine templateEngine() {
+        ClassLoaderTemplateResolver templateResolver = new ClassLoaderTemplateResolver();
+        templateResolver.setPrefix("templates/");
+        templateResolver.setSuffix(".html");
+        templateResolver.setTemplateMode("HTML5");
+        templateResolver.setCharacterEncoding("UTF-8");
+        SpringTemplateEngine templateEngine = new SpringTemplateEngine();
+        templateEngine.setTemplateResolver(templateResolver);
+        return templateEngine;
+    }
+}
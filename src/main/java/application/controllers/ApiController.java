@@ -1,24 +1,60 @@
 package application.controllers;
 
+import application.infrastructure.InvalidSpecificationFileException;
 import application.infrastructure.models.Api;
+import application.infrastructure.models.ApiBatchEntry;
+import application.infrastructure.models.ApiBatchRequest;
+import application.infrastructure.models.ApiChange;
+import application.infrastructure.models.ApiChangeSlice;
+import application.infrastructure.models.ApiCursor;
 import application.infrastructure.models.ApiError;
+import application.infrastructure.models.ApiImportResult;
+import application.infrastructure.models.ApiIngestJob;
+import application.infrastructure.models.ApiRevision;
+import application.infrastructure.models.ApiSearchResult;
+import application.infrastructure.models.ApiSummary;
+import application.infrastructure.models.ApiSummarySlice;
+import application.infrastructure.models.SpecificationDiff;
 import application.infrastructure.models.SpecificationFile;
+import application.infrastructure.models.SpecificationOperation;
+import application.services.ApiChangeFeed;
+import application.services.ApiImportService;
+import application.services.ApiIngestService;
+import application.services.ApiRevisionService;
 import application.services.ApiService;
+import application.services.ApiValidationError;
 import application.services.ApiValidationService;
 import com.fasterxml.jackson.core.JsonParseException;
 import com.fasterxml.jackson.databind.JsonMappingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
 import javassist.tools.web.BadHttpRequest;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.io.InputStreamResource;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.ResourceRegion;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.rest.webmvc.ResourceNotFoundException;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.util.StreamUtils;
+import org.springframework.util.StringUtils;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import javax.servlet.http.HttpServletResponse;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URI;
+import java.util.List;
+import java.util.concurrent.RejectedExecutionException;
 
 import static java.lang.Integer.min;
 
@@ -27,6 +63,18 @@ import static java.lang.Integer.min;
 public class ApiController {
 
     private static final int MAX_PAGE_SIZE = 50;
+    private static final int MAX_CHANGES_PAGE_SIZE = 500;
+    private static final int MAX_BATCH_SIZE = 1000;
+    private static final String LAST_EVENT_ID = "Last-Event-ID";
+    private static final String NDJSON_CONTENT_TYPE = "application/x-ndjson";
+    private static final String PREFER = "Prefer";
+    private static final String RESPOND_ASYNC = "respond-async";
+    private static final String JOBS_PATH = "/catalogueApi/apis/jobs/";
+    private static final String INGEST_RETRY_AFTER_SECONDS = "5";
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+    private static final ObjectReader API_READER = OBJECT_MAPPER.readerFor(Api.class);
+    private static final ObjectWriter IMPORT_RESULT_WRITER = OBJECT_MAPPER.writerFor(ApiImportResult.class);
+    private static final ObjectWriter BATCH_ENTRY_WRITER = OBJECT_MAPPER.writerFor(ApiBatchEntry.class);
 
     @Autowired
     ApiService apiService;
@@ -34,12 +82,29 @@ public class ApiController {
     @Autowired
     ApiValidationService apiValidationService;
 
+    @Autowired
+    ApiImportService apiImportService;
+
+    @Autowired
+    ApiIngestService apiIngestService;
+
+    @Autowired
+    ApiRevisionService apiRevisionService;
+
+    @Autowired
+    ApiChangeFeed apiChangeFeed;
+
     @RequestMapping(method = RequestMethod.POST)
     @ResponseBody
     public ResponseEntity saveApi(
-            @RequestParam("api") String apiParameter,
-            @RequestParam("file") MultipartFile uploadedFile) throws IOException, BadHttpRequest {
-        Api api = parseApi(apiParameter);
+            @RequestParam(value = "api", required = false) String apiParameter,
+            @RequestPart(value = "apiJson", required = false) MultipartFile apiPart,
+            @RequestParam("file") MultipartFile uploadedFile,
+            @RequestHeader(value = PREFER, required = false) String prefer) throws IOException, BadHttpRequest {
+        if (prefersAsync(prefer)) {
+            return submitApi(apiParameter, apiPart, uploadedFile);
+        }
+        Api api = readApi(apiParameter, apiPart);
         if (api == null) {
             return ResponseEntity.badRequest().build();
         }
@@ -48,24 +113,194 @@ public class ApiController {
             return ResponseEntity.badRequest().body(error);
         }
 
-        Api createdApi = apiService.saveApi(api, uploadedFile);
+        Api createdApi;
+        try {
+            createdApi = apiService.saveApi(api, uploadedFile);
+        } catch (InvalidSpecificationFileException invalidFileException) {
+            return ResponseEntity.badRequest().body(invalidFileException.toApiError());
+        }
 
         return new ResponseEntity<>(createdApi, HttpStatus.OK);
     }
 
+    ResponseEntity submitApi(String apiParameter, MultipartFile apiPart, MultipartFile uploadedFile) throws IOException {
+        Api api = readApi(apiParameter, apiPart);
+        if (api == null) {
+            return ResponseEntity.badRequest().build();
+        }
+        ApiError error = apiValidationService.validate(api);
+        if (error != null) {
+            return ResponseEntity.badRequest().body(error);
+        }
+
+        ApiIngestJob job;
+        try {
+            job = apiIngestService.submit(api, uploadedFile);
+        } catch (RejectedExecutionException queueFull) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, INGEST_RETRY_AFTER_SECONDS)
+                    .build();
+        }
+        return ResponseEntity.accepted()
+                .location(URI.create(JOBS_PATH + job.getId()))
+                .header("Preference-Applied", RESPOND_ASYNC)
+                .body(job);
+    }
+
+    @RequestMapping(method = RequestMethod.GET, value = "/jobs/{jobId}")
+    @ResponseBody
+    public ResponseEntity<ApiIngestJob> getIngestJob(@PathVariable String jobId) {
+        ApiIngestJob job = apiIngestService.getJob(jobId);
+        if (job == null) {
+            throw new ResourceNotFoundException();
+        }
+        return ResponseEntity.ok(job);
+    }
+
+    @RequestMapping(method = RequestMethod.POST, value = "/import")
+    public void importApis(@RequestParam("archive") MultipartFile archive, HttpServletResponse response) throws IOException {
+        response.setContentType(NDJSON_CONTENT_TYPE);
+        try {
+            apiImportService.importApis(archive, results -> {
+                OutputStream output = response.getOutputStream();
+                for (ApiImportResult result : results) {
+                    output.write(IMPORT_RESULT_WRITER.writeValueAsBytes(result));
+                    output.write('\n');
+                }
+                response.flushBuffer();
+            });
+        } catch (InvalidSpecificationFileException invalidArchiveException) {
+            response.setStatus(HttpServletResponse.SC_BAD_REQUEST);
+            response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+            response.getOutputStream().write(OBJECT_MAPPER.writeValueAsBytes(invalidArchiveException.toApiError()));
+        }
+    }
+
+    @RequestMapping(method = RequestMethod.POST, value = "/batch")
+    public void getApis(@RequestBody ApiBatchRequest request,
+                        @RequestParam(name = "content", defaultValue = "false", required = false) boolean withContent,
+                        HttpServletResponse response) throws IOException {
+        if (request.size() > MAX_BATCH_SIZE) {
+            ApiError error = new ApiError();
+            error.type = ApiValidationError.MALFORMATED_DATA;
+            error.message = "At most " + MAX_BATCH_SIZE + " APIs can be looked up at once";
+            response.setStatus(HttpServletResponse.SC_BAD_REQUEST);
+            response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+            response.getOutputStream().write(OBJECT_MAPPER.writeValueAsBytes(error));
+            return;
+        }
+        List<ApiBatchEntry> entries = apiService.getApis(request, withContent);
+        response.setContentType(NDJSON_CONTENT_TYPE);
+        OutputStream output = response.getOutputStream();
+        for (ApiBatchEntry entry : entries) {
+            BATCH_ENTRY_WRITER.writeValue(StreamUtils.nonClosing(output), entry);
+            output.write('\n');
+        }
+    }
+
     @RequestMapping(method = RequestMethod.GET, value = "/{apiId}")
     @ResponseBody
-    Api getApi(@PathVariable Long apiId) {
-        return apiService.getApi(apiId);
+    ResponseEntity<Api> getApi(@PathVariable Long apiId) {
+        Api api = apiService.getApi(apiId);
+        return ResponseEntity.ok()
+                .eTag(api.getId() + "." + api.getRevision())
+                .lastModified(api.getLastModified())
+                .body(api);
     }
 
     @RequestMapping(method = RequestMethod.GET, value = "/{apiId}/specificationFile")
     @ResponseBody
-    public ResponseEntity getSpecificationFile(@PathVariable Long apiId) {
+    public ResponseEntity<Resource> downloadSpecificationFile(@PathVariable Long apiId,
+                                                             @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+                                                             @RequestHeader(value = HttpHeaders.RANGE, required = false) String range,
+                                                             @RequestHeader(value = HttpHeaders.IF_RANGE, required = false) String ifRange,
+                                                             @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+                                                             HttpServletResponse response) throws IOException {
+        ResponseEntity<Resource> specificationFile = getSpecificationFile(apiId, acceptEncoding);
+        HttpHeaders headers = specificationFile.getHeaders();
+        // A matching If-None-Match is answered with 304 once the full response is returned.
+        if (range == null || !PartialContent.BYTES.equals(headers.getFirst(HttpHeaders.ACCEPT_RANGES))
+                || matchesAnyETag(ifNoneMatch, headers.getETag()) || !isUnchangedSince(ifRange, headers)) {
+            return specificationFile;
+        }
+        Resource content = specificationFile.getBody();
+        long length = content.contentLength();
+        List<ResourceRegion> regions = PartialContent.regionsOf(range, content, length);
+        if (regions == null) {
+            return specificationFile;
+        }
+        if (regions.isEmpty()) {
+            HttpHeaders unsatisfiedHeaders = new HttpHeaders();
+            unsatisfiedHeaders.set(HttpHeaders.ACCEPT_RANGES, PartialContent.BYTES);
+            unsatisfiedHeaders.set(HttpHeaders.CONTENT_RANGE, PartialContent.unsatisfiedRange(length));
+            return new ResponseEntity<>(unsatisfiedHeaders, HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE);
+        }
+        PartialContent.write(regions, length, headers, response);
+        return null;
+    }
+
+    public ResponseEntity<Resource> getSpecificationFile(Long apiId, String acceptEncoding) {
         Api api = apiService.getApi(apiId);
         SpecificationFile specificationFile = api.getSpecificationFile();
+        boolean sendGzip = specificationFile.isGzipEncoded() && acceptsGzip(acceptEncoding);
         HttpHeaders headers = getHttpHeadersWithGivenContentType(specificationFile);
-        return new ResponseEntity<>(specificationFile.getFileContent().getBytes(), headers, HttpStatus.OK);
+        headers.set(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        // Ranges are only served from the stored bytes: ranges of a decompressed file would inflate all that precedes them.
+        headers.set(HttpHeaders.ACCEPT_RANGES, specificationFile.isGzipEncoded() && !sendGzip ? PartialContent.NONE : PartialContent.BYTES);
+        headers.setLastModified(api.getLastModified());
+        if (sendGzip) {
+            headers.set(HttpHeaders.CONTENT_ENCODING, SpecificationFile.GZIP_ENCODING);
+            headers.setContentLength(specificationFile.getStoredLength());
+            headers.setETag('"' + specificationFile.getContentHash() + "-gzip\"");
+        } else {
+            headers.setContentLength(specificationFile.getContentLength());
+            headers.setETag('"' + specificationFile.getContentHash() + '"');
+        }
+        Resource content = apiService.getSpecificationFileContent(specificationFile, sendGzip);
+        return new ResponseEntity<>(content, headers, HttpStatus.OK);
+    }
+
+    @RequestMapping(method = RequestMethod.GET, value = "/{apiId}/operations")
+    @ResponseBody
+    public ResponseEntity<List<SpecificationOperation>> getOperations(@PathVariable Long apiId) {
+        Api api = apiService.getApi(apiId);
+        SpecificationFile specificationFile = api.getSpecificationFile();
+        return ResponseEntity.ok()
+                .eTag(specificationFile.getContentHash() + "-operations")
+                .lastModified(api.getLastModified())
+                .body(apiService.getOperations(specificationFile));
+    }
+
+    @RequestMapping(method = RequestMethod.GET, value = "/{apiId}/diff/{otherApiId}")
+    @ResponseBody
+    public ResponseEntity<SpecificationDiff> diffApis(@PathVariable Long apiId, @PathVariable Long otherApiId) {
+        SpecificationDiff diff = apiService.diffApis(apiId, otherApiId);
+        return ResponseEntity.ok()
+                .eTag(diff.getFromContentHash() + "-" + diff.getToContentHash() + "-diff")
+                .body(diff);
+    }
+
+    @RequestMapping(method = RequestMethod.GET, value = "/{apiId}/revisions")
+    @ResponseBody
+    public List<ApiRevision> getRevisions(@PathVariable Long apiId) {
+        apiService.getApi(apiId);
+        return apiRevisionService.getRevisions(apiId);
+    }
+
+    @RequestMapping(method = RequestMethod.GET, value = "/{apiId}/revisions/{revision}")
+    @ResponseBody
+    public ResponseEntity<Resource> getRevisionContent(@PathVariable Long apiId, @PathVariable long revision) throws IOException {
+        ApiRevision apiRevision = apiRevisionService.getRevision(apiId, revision);
+        InputStream content = apiRevision == null ? null : apiRevisionService.getRevisionContent(apiId, revision);
+        if (content == null) {
+            throw new ResourceNotFoundException();
+        }
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(HttpHeaders.CONTENT_TYPE, apiRevision.getContentType());
+        headers.setContentLength(apiRevision.getContentLength());
+        headers.setETag('"' + apiRevision.getContentHash() + '"');
+        headers.setLastModified(apiRevision.getLastModified());
+        return new ResponseEntity<>(new InputStreamResource(content), headers, HttpStatus.OK);
     }
 
     @RequestMapping(method = RequestMethod.DELETE, value = "/{apiId}")
@@ -76,20 +311,178 @@ public class ApiController {
 
     @RequestMapping(method = RequestMethod.GET)
     @ResponseBody
-    Page<Api> getAllApis(@RequestParam(name = "page", defaultValue = "0", required = false) int page, @RequestParam(name = "pageSize", defaultValue = "50", required = false) int givenPageSize) {
+    Page<ApiSummary> getAllApis(@RequestParam(name = "page", defaultValue = "0", required = false) int page, @RequestParam(name = "pageSize", defaultValue = "50", required = false) int givenPageSize) {
         int pageSize = min(givenPageSize, MAX_PAGE_SIZE);
         return apiService.getAllApis(new PageRequest(page, pageSize));
     }
 
-    private Api parseApi(String apiParameter) throws IOException {
+    @RequestMapping(method = RequestMethod.GET, params = "cursor")
+    @ResponseBody
+    ResponseEntity<ApiSummarySlice> getApisAfter(@RequestParam(name = "cursor") String cursorParameter, @RequestParam(name = "pageSize", defaultValue = "50", required = false) int givenPageSize) {
+        ApiCursor cursor = null;
+        if (!cursorParameter.isEmpty()) {
+            cursor = ApiCursor.decode(cursorParameter);
+            if (cursor == null) {
+                return ResponseEntity.badRequest().body(null);
+            }
+        }
+        int pageSize = min(givenPageSize, MAX_PAGE_SIZE);
+        Slice<ApiSummary> apis = apiService.getApisAfter(cursor, pageSize);
+        String nextCursor = null;
+        if (apis.hasNext()) {
+            ApiSummary lastApi = apis.getContent().get(apis.getNumberOfElements() - 1);
+            nextCursor = ApiCursor.after(lastApi).encode();
+        }
+        return ResponseEntity.ok(new ApiSummarySlice(apis.getContent(), pageSize, nextCursor));
+    }
+
+    @RequestMapping(method = RequestMethod.GET, value = "/changes")
+    @ResponseBody
+    ResponseEntity<ApiChangeSlice> getChanges(@RequestParam(name = "since", defaultValue = "0", required = false) long since,
+                                              @RequestParam(name = "limit", defaultValue = "100", required = false) int givenLimit) {
+        if (since < 0 || givenLimit < 1) {
+            return ResponseEntity.badRequest().body(null);
+        }
+        if (apiChangeFeed.isExpired(since)) {
+            return ResponseEntity.status(HttpStatus.GONE).body(null);
+        }
+        List<ApiChange> changes = apiChangeFeed.getChangesAfter(since, min(givenLimit, MAX_CHANGES_PAGE_SIZE));
+        long cursor = changes.isEmpty() ? since : changes.get(changes.size() - 1).getSequence();
+        return ResponseEntity.ok(new ApiChangeSlice(changes, cursor));
+    }
+
+    @RequestMapping(method = RequestMethod.GET, value = "/changes/stream")
+    public ResponseEntity<SseEmitter> streamChanges(@RequestParam(name = "since", defaultValue = "0", required = false) long since,
+                                                    @RequestHeader(value = LAST_EVENT_ID, required = false) Long lastEventId) {
+        long sequence = lastEventId != null ? lastEventId : since;
+        if (sequence < 0) {
+            return ResponseEntity.badRequest().body(null);
+        }
+        if (apiChangeFeed.isExpired(sequence)) {
+            return ResponseEntity.status(HttpStatus.GONE).body(null);
+        }
+        return ResponseEntity.ok(apiChangeFeed.subscribe(sequence));
+    }
+
+    @RequestMapping(method = RequestMethod.GET, value = "/search")
+    @ResponseBody
+    ResponseEntity<ApiSearchResult> searchApis(@RequestParam(name = "q") String query,
+                                               @RequestParam(name = "specificationType", required = false) String specificationType,
+                                               @RequestParam(name = "page", defaultValue = "0", required = false) int page,
+                                               @RequestParam(name = "pageSize", defaultValue = "50", required = false) int givenPageSize) {
+        if (!StringUtils.hasText(query) || page < 0 || givenPageSize < 1) {
+            return ResponseEntity.badRequest().body(null);
+        }
+        int pageSize = min(givenPageSize, MAX_PAGE_SIZE);
+        return ResponseEntity.ok(apiService.searchApis(query, specificationType, page, pageSize));
+    }
+
+    private Api readApi(String apiParameter, MultipartFile apiPart) throws IOException {
+        if (apiParameter != null) {
+            return parseApi(apiParameter);
+        }
+        if (apiPart != null) {
+            try (InputStream apiContent = apiPart.getInputStream()) {
+                return parseApi(apiContent);
+            }
+        }
+        return null;
+    }
+
+    Api parseApi(String apiParameter) throws IOException {
         try {
-            ObjectMapper objectMapper = new ObjectMapper();
-            return objectMapper.readValue(apiParameter, Api.class);
+            return API_READER.readValue(apiParameter);
         } catch (JsonParseException | JsonMappingException jsonParseException) {
             return null;
         }
     }
 
+    Api parseApi(InputStream apiContent) throws IOException {
+        try {
+            return API_READER.readValue(apiContent);
+        } catch (JsonParseException | JsonMappingException jsonParseException) {
+            return null;
+        }
+    }
+
+    private boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String coding : acceptEncoding.split(",")) {
+            String[] codingParameters = coding.split(";");
+            String codingName = codingParameters[0].trim();
+            if (codingName.equalsIgnoreCase(SpecificationFile.GZIP_ENCODING) || codingName.equals("*")) {
+                return !hasZeroQuality(codingParameters);
+            }
+        }
+        return false;
+    }
+
+    private boolean isUnchangedSince(String ifRange, HttpHeaders headers) {
+        if (ifRange == null) {
+            return true;
+        }
+        String validator = ifRange.trim();
+        if (validator.startsWith("\"") || validator.startsWith("W/")) {
+            return validator.equals(headers.getETag());
+        }
+        HttpHeaders ifRangeDate = new HttpHeaders();
+        ifRangeDate.set(HttpHeaders.IF_MODIFIED_SINCE, validator);
+        try {
+            return ifRangeDate.getIfModifiedSince() / 1000 == headers.getLastModified() / 1000;
+        } catch (IllegalArgumentException malformedDate) {
+            return false;
+        }
+    }
+
+    // If-None-Match compares entity tags weakly, and "*" matches any.
+    private static boolean matchesAnyETag(String ifNoneMatch, String eTag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String validator = candidate.trim();
+            if (validator.equals("*") || weakTag(validator).equals(weakTag(eTag))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String weakTag(String eTag) {
+        return eTag.startsWith("W/") ? eTag.substring(2) : eTag;
+    }
+
+    // Prefer holds comma-separated preferences, each with optional parameters after a semicolon (RFC 7240).
+    static boolean prefersAsync(String prefer) {
+        if (prefer == null) {
+            return false;
+        }
+        for (String preference : prefer.split(",")) {
+            String token = preference.split(";", 2)[0].split("=", 2)[0].trim();
+            if (token.equalsIgnoreCase(RESPOND_ASYNC)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean hasZeroQuality(String[] codingParameters) {
+        for (int i = 1; i < codingParameters.length; i++) {
+            String parameter = codingParameters[i].trim();
+            if (parameter.startsWith("q=")) {
+                try {
+                    return Double.parseDouble(parameter.substring(2)) == 0;
+                } catch (NumberFormatException invalidQuality) {
+                    // RFC 7231 has invalid parameters ignored, which leaves the coding acceptable.
+                    return false;
+                }
+            }
+        }
+        return false;
+    }
+
     private HttpHeaders getHttpHeadersWithGivenContentType(SpecificationFile specificationFile) {
         HttpHeaders headers = new HttpHeaders();
         String contentType = specificationFile.getContentType();
@@ -0,0 +1,38 @@
+package application.controllers;
+
+import application.services.ApiCache;
+import com.google.common.cache.CacheStats;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.ResponseBody;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/catalogueApi/caches")
+public class CacheController {
+
+    @Autowired
+    ApiCache apiCache;
+
+    @RequestMapping(method = RequestMethod.GET)
+    @ResponseBody
+    public Map<String, Map<String, Object>> getCacheStatistics() {
+        Map<String, Long> sizes = apiCache.sizes();
+        Map<String, Map<String, Object>> statistics = new LinkedHashMap<>();
+        for (Map.Entry<String, CacheStats> cacheStats : apiCache.statistics().entrySet()) {
+            CacheStats stats = cacheStats.getValue();
+            Map<String, Object> cacheStatistics = new LinkedHashMap<>();
+            cacheStatistics.put("size", sizes.get(cacheStats.getKey()));
+            cacheStatistics.put("hitCount", stats.hitCount());
+            cacheStatistics.put("missCount", stats.missCount());
+            cacheStatistics.put("hitRate", stats.hitRate());
+            cacheStatistics.put("evictionCount", stats.evictionCount());
+            statistics.put(cacheStats.getKey(), cacheStatistics);
+        }
+        return statistics;
+    }
+}
@@ -0,0 +1,27 @@
+package application.controllers;
+
+import application.infrastructure.MetricRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RestController;
+
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.io.Writer;
+
+@RestController
+@RequestMapping("/catalogueApi/metrics")
+public class MetricsController {
+
+    @Autowired
+    MetricRegistry metricRegistry;
+
+    @RequestMapping(method = RequestMethod.GET)
+    public void getMetrics(HttpServletResponse response) throws IOException {
+        response.setContentType(MetricRegistry.CONTENT_TYPE);
+        Writer writer = response.getWriter();
+        metricRegistry.writeTo(writer);
+        writer.flush();
+    }
+}
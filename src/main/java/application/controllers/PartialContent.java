@@ -0,0 +1,109 @@
+package application.controllers;
+
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.ResourceRegion;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRange;
+import org.springframework.http.HttpStatus;
+import org.springframework.util.MimeTypeUtils;
+import org.springframework.util.StreamUtils;
+
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Writes byte ranges of a resource as a 206 response, in a multipart/byteranges body when several ranges are asked
+ * for. Each range is read by skipping to its start, so stores that can seek never read the bytes before it.
+ */
+final class PartialContent {
+
+    static final String BYTES = "bytes";
+    static final String NONE = "none";
+    private static final int MAX_RANGES = 16;
+
+    private PartialContent() {
+    }
+
+    /**
+     * @return the regions to send, an empty list when no range can be satisfied, or null when the Range header
+     * should be ignored and the whole content sent
+     */
+    static List<ResourceRegion> regionsOf(String rangeHeader, Resource content, long length) {
+        List<HttpRange> ranges;
+        try {
+            ranges = HttpRange.parseRanges(rangeHeader);
+        } catch (IllegalArgumentException malformedRange) {
+            return null;
+        }
+        if (ranges.isEmpty() || ranges.size() > MAX_RANGES) {
+            return null;
+        }
+        List<ResourceRegion> regions = new ArrayList<>(ranges.size());
+        for (HttpRange range : ranges) {
+            long start = range.getRangeStart(length);
+            long end = range.getRangeEnd(length);
+            if (start < length && start <= end) {
+                regions.add(new ResourceRegion(content, start, end - start + 1));
+            }
+        }
+        return regions;
+    }
+
+    static void write(List<ResourceRegion> regions, long length, HttpHeaders headers, HttpServletResponse response) throws IOException {
+        response.setStatus(HttpStatus.PARTIAL_CONTENT.value());
+        for (Map.Entry<String, List<String>> header : headers.entrySet()) {
+            if (!HttpHeaders.CONTENT_LENGTH.equalsIgnoreCase(header.getKey()) && !HttpHeaders.CONTENT_TYPE.equalsIgnoreCase(header.getKey())) {
+                for (String value : header.getValue()) {
+                    response.addHeader(header.getKey(), value);
+                }
+            }
+        }
+        String contentType = headers.getFirst(HttpHeaders.CONTENT_TYPE);
+        OutputStream body = response.getOutputStream();
+        if (regions.size() == 1) {
+            ResourceRegion region = regions.get(0);
+            if (contentType != null) {
+                response.setContentType(contentType);
+            }
+            response.setHeader(HttpHeaders.CONTENT_RANGE, contentRange(region, length));
+            response.setHeader(HttpHeaders.CONTENT_LENGTH, Long.toString(region.getCount()));
+            copy(region, body);
+            return;
+        }
+        String boundary = MimeTypeUtils.generateMultipartBoundaryString();
+        response.setContentType("multipart/byteranges; boundary=" + boundary);
+        for (ResourceRegion region : regions) {
+            print(body, "\r\n--" + boundary + "\r\n");
+            if (contentType != null) {
+                print(body, HttpHeaders.CONTENT_TYPE + ": " + contentType + "\r\n");
+            }
+            print(body, HttpHeaders.CONTENT_RANGE + ": " + contentRange(region, length) + "\r\n\r\n");
+            copy(region, body);
+        }
+        print(body, "\r\n--" + boundary + "--\r\n");
+    }
+
+    static String unsatisfiedRange(long length) {
+        return BYTES + " */" + length;
+    }
+
+    private static String contentRange(ResourceRegion region, long length) {
+        return BYTES + " " + region.getPosition() + "-" + (region.getPosition() + region.getCount() - 1) + "/" + length;
+    }
+
+    private static void copy(ResourceRegion region, OutputStream body) throws IOException {
+        try (InputStream content = region.getResource().getInputStream()) {
+            StreamUtils.copyRange(content, body, region.getPosition(), region.getPosition() + region.getCount() - 1);
+        }
+    }
+
+    private static void print(OutputStream body, String text) throws IOException {
+        body.write(text.getBytes(StandardCharsets.US_ASCII));
+    }
+}
@@ -0,0 +1,45 @@
+package application.controllers;
+
+import application.infrastructure.MetricRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.HandlerMapping;
+import org.springframework.web.servlet.handler.HandlerInterceptorAdapter;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+/**
+ * Times every request handled by the controllers, tagged by the mapped URI pattern rather than the actual path so
+ * that the number of series stays bounded.
+ */
+@Component
+public class RequestMetricsInterceptor extends HandlerInterceptorAdapter {
+
+    private static final String START_ATTRIBUTE = RequestMetricsInterceptor.class.getName() + ".start";
+
+    @Autowired
+    MetricRegistry metricRegistry;
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (request.getAttribute(START_ATTRIBUTE) == null) {
+            request.setAttribute(START_ATTRIBUTE, System.nanoTime());
+        }
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        Object start = request.getAttribute(START_ATTRIBUTE);
+        if (start == null) {
+            return;
+        }
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        metricRegistry.timer("http_server_requests_seconds", "Time spent handling requests, by endpoint",
+                "method", request.getMethod(),
+                "uri", pattern == null ? "UNMATCHED" : pattern.toString(),
+                "status", Integer.toString(ex != null && response.getStatus() < 400 ? 500 : response.getStatus()))
+                .recordNanos(System.nanoTime() - (Long) start);
+    }
+}
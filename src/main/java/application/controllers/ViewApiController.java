@@ -1,14 +1,16 @@
 package application.controllers;
 
+import application.infrastructure.InvalidSpecificationFileException;
 import application.infrastructure.models.Api;
 import application.infrastructure.models.ApiError;
-import application.infrastructure.models.ViewApi;
+import application.infrastructure.models.RenderedPage;
 import application.services.ApiService;
 import application.services.ApiValidationService;
 import application.services.ViewService;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.RequestMapping;
@@ -17,7 +19,7 @@ import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
-import java.util.List;
+import java.nio.charset.StandardCharsets;
 
 @Controller
 public class ViewApiController {
@@ -25,6 +27,7 @@ public class ViewApiController {
     private static final int PAGE_SIZE = 50;
     private static final String SUCCESS_FIELD = "success";
     private static final String ERROR_MSG_FIELD = "errormsg";
+    private static final MediaType HTML_UTF8 = new MediaType(MediaType.TEXT_HTML, StandardCharsets.UTF_8);
 
     @Autowired
     ApiService apiService;
@@ -36,13 +39,12 @@ public class ViewApiController {
     ViewService viewService;
 
     @RequestMapping("/")
-    public String list(@RequestParam(value = "page", required = false, defaultValue = "0") Integer pageNumber, Model model){
-        PageRequest pageRequest = new PageRequest(pageNumber, PAGE_SIZE);
-        Page<Api> apisPage = apiService.getAllApis(pageRequest);
-        List<Api> apis = apisPage.getContent();
-        List<ViewApi> viewApis = viewService.listApis(apis);
-        model.addAttribute("apis", viewApis);
-        return "apis/list";
+    public ResponseEntity<byte[]> list(@RequestParam(value = "page", required = false, defaultValue = "0") Integer pageNumber){
+        RenderedPage page = viewService.renderApiList(new PageRequest(pageNumber, PAGE_SIZE));
+        return ResponseEntity.ok()
+                .contentType(HTML_UTF8)
+                .eTag(page.getETag())
+                .body(page.getContent());
     }
 
     @RequestMapping(value = "/new-api", method = RequestMethod.GET)
@@ -59,7 +61,9 @@ public class ViewApiController {
         Api api = buildApi(name, version, specificationType);
         ApiError error = apiValidationService.validate(api);
         if (error == null) {
-            apiService.saveApi(api, uploadedFile);
+            error = save(api, uploadedFile);
+        }
+        if (error == null) {
             model.addAttribute(SUCCESS_FIELD, true);
         } else {
             model.addAttribute(SUCCESS_FIELD, false);
@@ -68,6 +72,15 @@ public class ViewApiController {
         return "apis/new";
     }
 
+    private ApiError save(Api api, MultipartFile uploadedFile) throws IOException {
+        try {
+            apiService.saveApi(api, uploadedFile);
+            return null;
+        } catch (InvalidSpecificationFileException invalidFileException) {
+            return invalidFileException.toApiError();
+        }
+    }
+
     private Api buildApi(@RequestParam(value = "name", required = false) String name, @RequestParam(value = "version", required = false) String version, @RequestParam(value = "specificationType", required = false) String specificationType) {
         Api api = new Api();
         api.setName(name);
@@ -0,0 +1,107 @@
+package application.infrastructure;
+
+import application.infrastructure.models.ApiChange;
+import application.infrastructure.models.ApiChangeSequence;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import javax.annotation.PostConstruct;
+import java.util.ArrayList;
+import java.util.List;
+
+@Repository
+public class ApiChangeRepository {
+
+    private static final String POSTGRESQL = "PostgreSQL";
+
+    private static final String UPSERT_SEQUENCE = "insert into api_change_sequence (id, last_sequence) values (?, ?) " +
+            "on conflict (id) do update set last_sequence = api_change_sequence.last_sequence + excluded.last_sequence returning last_sequence";
+    private static final String INCREMENT_SEQUENCE = "update api_change_sequence set last_sequence = last_sequence + ? where id = ?";
+    private static final String INSERT_SEQUENCE = "insert into api_change_sequence (id, last_sequence) values (?, ?)";
+    private static final String SELECT_SEQUENCE = "select last_sequence from api_change_sequence where id = ?";
+    private static final String INSERT_CHANGE = "insert into api_change (sequence, type, api_id, name, version, specification_type, revision, changed_at) " +
+            "values (?, ?, ?, ?, ?, ?, ?, ?)";
+    private static final String SELECT_CHANGES_AFTER = "select sequence, type, api_id, name, version, specification_type, revision, changed_at " +
+            "from api_change where sequence > ? order by sequence limit ?";
+    private static final String SELECT_FIRST_SEQUENCE = "select min(sequence) from api_change";
+    private static final String DELETE_CHANGES_BEFORE_LAST = "delete from api_change " +
+            "where sequence <= (select last_sequence from api_change_sequence where id = ?) - ?";
+
+    private static final RowMapper<ApiChange> CHANGE_MAPPER = (resultSet, rowNumber) -> {
+        ApiChange change = new ApiChange();
+        change.setSequence(resultSet.getLong("sequence"));
+        change.setType(ApiChange.Type.valueOf(resultSet.getString("type")));
+        change.setApiId(resultSet.getLong("api_id"));
+        change.setName(resultSet.getString("name"));
+        change.setVersion(resultSet.getString("version"));
+        change.setSpecificationType(resultSet.getString("specification_type"));
+        long revision = resultSet.getLong("revision");
+        change.setRevision(resultSet.wasNull() ? null : revision);
+        change.setChangedAt(resultSet.getLong("changed_at"));
+        return change;
+    };
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    private boolean onConflictSupported;
+
+    @PostConstruct
+    public void detectDatabase() {
+        String databaseName = jdbcTemplate.execute((ConnectionCallback<String>) connection -> connection.getMetaData().getDatabaseProductName());
+        onConflictSupported = POSTGRESQL.equals(databaseName);
+    }
+
+    /**
+     * Gives the changes the next sequence numbers, in order, and stores them. The sequence row stays locked until the
+     * transaction ends, so changes become visible in sequence order and a reader never skips a change committed late.
+     * This serializes the commits of all writers on that row; a database sequence would not, but its numbers are taken
+     * outside of commit order, so a reader could move past a change that commits after a later number.
+     */
+    public void append(List<ApiChange> changes) {
+        long sequence = reserveSequences(changes.size()) - changes.size();
+        List<Object[]> rows = new ArrayList<>(changes.size());
+        for (ApiChange change : changes) {
+            change.setSequence(++sequence);
+            rows.add(new Object[]{change.getSequence(), change.getType().name(), change.getApiId(), change.getName(), change.getVersion(),
+                    change.getSpecificationType(), change.getRevision(), change.getChangedAt()});
+        }
+        jdbcTemplate.batchUpdate(INSERT_CHANGE, rows);
+    }
+
+    public List<ApiChange> findChangesAfter(long sequence, int limit) {
+        return jdbcTemplate.query(SELECT_CHANGES_AFTER, CHANGE_MAPPER, sequence, limit);
+    }
+
+    // Null when no change is stored.
+    public Long findFirstSequence() {
+        return jdbcTemplate.queryForObject(SELECT_FIRST_SEQUENCE, Long.class);
+    }
+
+    /**
+     * Deletes the changes numbered before the last retainedChanges ones. The sequence row is only read, so this does
+     * not wait for the writers.
+     */
+    public int deleteAllButLast(long retainedChanges) {
+        return jdbcTemplate.update(DELETE_CHANGES_BEFORE_LAST, ApiChangeSequence.ID, retainedChanges);
+    }
+
+    // Returns the last of the count sequence numbers taken.
+    private long reserveSequences(int count) {
+        if (onConflictSupported) {
+            return jdbcTemplate.queryForObject(UPSERT_SEQUENCE, Long.class, ApiChangeSequence.ID, count);
+        }
+        if (jdbcTemplate.update(INCREMENT_SEQUENCE, count, ApiChangeSequence.ID) == 0) {
+            try {
+                jdbcTemplate.update(INSERT_SEQUENCE, ApiChangeSequence.ID, count);
+            } catch (DuplicateKeyException concurrentInsert) {
+                jdbcTemplate.update(INCREMENT_SEQUENCE, count, ApiChangeSequence.ID);
+            }
+        }
+        return jdbcTemplate.queryForObject(SELECT_SEQUENCE, Long.class, ApiChangeSequence.ID);
+    }
+}
@@ -0,0 +1,125 @@
+package application.infrastructure;
+
+import application.infrastructure.models.Api;
+import application.infrastructure.models.SpecificationFile;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import javax.annotation.PostConstruct;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Writes APIs and their specification files with upserts, so that concurrent uploads of the same API or of the
+ * same content serialize on the row they share instead of failing on the unique constraints. PostgreSQL does it in
+ * one INSERT ... ON CONFLICT statement; other databases update, insert when nothing was updated, and update again
+ * when a concurrent writer inserted first.
+ */
+@Repository
+public class ApiRegistrationRepository {
+
+    private static final String POSTGRESQL = "PostgreSQL";
+
+    private static final String UPSERT_API = "insert into api (id, name, version, specification_type, revision, last_modified) " +
+            "values (nextval('hibernate_sequence'), ?, ?, ?, 1, ?) " +
+            "on conflict (name, version) do update set specification_type = excluded.specification_type, revision = api.revision + 1, last_modified = excluded.last_modified " +
+            "returning id, revision";
+    private static final String UPDATE_API = "update api set specification_type = ?, revision = revision + 1, last_modified = ? where name = ? and version = ?";
+    private static final String INSERT_API = "insert into api (name, version, specification_type, revision, last_modified) values (?, ?, ?, 1, ?)";
+    private static final String SELECT_API = "select id, revision from api where name = ? and version = ?";
+
+    private static final String UPSERT_SPECIFICATION_FILE = "insert into specification_file (id, content_hash, content_type, content_length, content_encoding, stored_length, reference_count) " +
+            "values (nextval('hibernate_sequence'), ?, ?, ?, ?, 0, 1) " +
+            "on conflict (content_hash, content_type) do update set reference_count = specification_file.reference_count + 1 " +
+            "returning id, reference_count";
+    private static final String INCREMENT_SPECIFICATION_FILE = "update specification_file set reference_count = reference_count + 1 where content_hash = ? and content_type = ?";
+    private static final String INSERT_SPECIFICATION_FILE = "insert into specification_file (content_hash, content_type, content_length, content_encoding, stored_length, reference_count) " +
+            "values (?, ?, ?, ?, 0, 1)";
+    private static final String SELECT_SPECIFICATION_FILE = "select id, reference_count from specification_file where content_hash = ? and content_type = ?";
+    private static final String UPDATE_STORED_LENGTH = "update specification_file set stored_length = ? where id = ?";
+
+    private static final String SELECT_LINK = "select specificationfile_id from api_specificationfile where api_id = ?";
+    private static final String UPDATE_LINK = "update api_specificationfile set specificationfile_id = ? where api_id = ?";
+    private static final String INSERT_LINK = "insert into api_specificationfile (api_id, specificationfile_id) values (?, ?)";
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    private boolean onConflictSupported;
+
+    @PostConstruct
+    public void detectDatabase() {
+        String databaseName = jdbcTemplate.execute((ConnectionCallback<String>) connection -> connection.getMetaData().getDatabaseProductName());
+        onConflictSupported = POSTGRESQL.equals(databaseName);
+    }
+
+    public void upsertApi(Api api) {
+        Map<String, Object> savedApi;
+        if (onConflictSupported) {
+            savedApi = jdbcTemplate.queryForMap(UPSERT_API, api.getName(), api.getVersion(), api.getSpecificationType(), api.getLastModified());
+        } else {
+            if (updateApi(api) == 0) {
+                try {
+                    jdbcTemplate.update(INSERT_API, api.getName(), api.getVersion(), api.getSpecificationType(), api.getLastModified());
+                } catch (DuplicateKeyException concurrentInsert) {
+                    updateApi(api);
+                }
+            }
+            savedApi = jdbcTemplate.queryForMap(SELECT_API, api.getName(), api.getVersion());
+        }
+        api.setId(((Number) savedApi.get("id")).longValue());
+        api.setRevision(((Number) savedApi.get("revision")).longValue());
+    }
+
+    // A file is deleted as soon as its last reference is released, so a single reference means it was just inserted.
+    public boolean upsertSpecificationFile(SpecificationFile specificationFile) {
+        Map<String, Object> savedSpecificationFile;
+        if (onConflictSupported) {
+            savedSpecificationFile = jdbcTemplate.queryForMap(UPSERT_SPECIFICATION_FILE, specificationFile.getContentHash(), specificationFile.getContentType(),
+                    specificationFile.getContentLength(), specificationFile.getContentEncoding());
+        } else {
+            if (incrementSpecificationFile(specificationFile) == 0) {
+                try {
+                    jdbcTemplate.update(INSERT_SPECIFICATION_FILE, specificationFile.getContentHash(), specificationFile.getContentType(),
+                            specificationFile.getContentLength(), specificationFile.getContentEncoding());
+                } catch (DuplicateKeyException concurrentInsert) {
+                    incrementSpecificationFile(specificationFile);
+                }
+            }
+            savedSpecificationFile = jdbcTemplate.queryForMap(SELECT_SPECIFICATION_FILE, specificationFile.getContentHash(), specificationFile.getContentType());
+        }
+        specificationFile.setId(((Number) savedSpecificationFile.get("id")).longValue());
+        int referenceCount = ((Number) savedSpecificationFile.get("reference_count")).intValue();
+        specificationFile.setReferenceCount(referenceCount);
+        return referenceCount == 1;
+    }
+
+    public void updateStoredLength(long specificationFileId, long storedLength) {
+        jdbcTemplate.update(UPDATE_STORED_LENGTH, storedLength, specificationFileId);
+    }
+
+    public void linkSpecificationFile(long apiId, long specificationFileId) {
+        jdbcTemplate.update(INSERT_LINK, apiId, specificationFileId);
+    }
+
+    public Long replaceSpecificationFile(long apiId, long specificationFileId) {
+        List<Long> previousSpecificationFileIds = jdbcTemplate.queryForList(SELECT_LINK, Long.class, apiId);
+        if (previousSpecificationFileIds.isEmpty()) {
+            linkSpecificationFile(apiId, specificationFileId);
+            return null;
+        }
+        jdbcTemplate.update(UPDATE_LINK, specificationFileId, apiId);
+        return previousSpecificationFileIds.get(0);
+    }
+
+    private int updateApi(Api api) {
+        return jdbcTemplate.update(UPDATE_API, api.getSpecificationType(), api.getLastModified(), api.getName(), api.getVersion());
+    }
+
+    private int incrementSpecificationFile(SpecificationFile specificationFile) {
+        return jdbcTemplate.update(INCREMENT_SPECIFICATION_FILE, specificationFile.getContentHash(), specificationFile.getContentType());
+    }
+}
@@ -1,14 +1,38 @@
 package application.infrastructure;
 
 import application.infrastructure.models.Api;
+import application.infrastructure.models.ApiSummary;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
-import org.springframework.data.repository.PagingAndSortingRepository;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
+
 @Repository
-public interface ApiRepository extends PagingAndSortingRepository<Api, Long> {
-    Api findByNameAndVersion(String name, String version);
+public interface ApiRepository extends JpaRepository<Api, Long> {
+    @Query(value = "select new application.infrastructure.models.ApiSummary(a.id, a.name, a.version, a.specificationType) from Api a order by a.name asc, a.version asc",
+            countQuery = "select count(a) from Api a")
+    Page<ApiSummary> findAllSummariesByOrderByNameAscVersionAsc(Pageable pageable);
+
+    @Query("select new application.infrastructure.models.ApiSummary(a.id, a.name, a.version, a.specificationType) from Api a order by a.name asc, a.version asc")
+    Slice<ApiSummary> findFirstSummaries(Pageable pageable);
+
+    @Query("select new application.infrastructure.models.ApiSummary(a.id, a.name, a.version, a.specificationType) from Api a " +
+            "where a.name >= :name and (a.name > :name or a.version > :version) order by a.name asc, a.version asc")
+    Slice<ApiSummary> findSummariesAfter(@Param("name") String name, @Param("version") String version, Pageable pageable);
+
+    @Query("select a from Api a left join fetch a.specificationFile where a.id > :id order by a.id asc")
+    Slice<Api> findWithSpecificationFileAfter(@Param("id") long id, Pageable pageable);
+
+    @Query("select a from Api a left join fetch a.specificationFile where a.id in :ids")
+    List<Api> findWithSpecificationFileByIdIn(@Param("ids") Collection<Long> ids);
 
-    Page<Api> findAllByOrderByNameAscVersionAsc(Pageable pageable);
+    // Selecting by name alone lets the (name, version) unique index serve the lookup on every database.
+    @Query("select a from Api a left join fetch a.specificationFile where a.name in :names")
+    List<Api> findWithSpecificationFileByNameIn(@Param("names") Collection<String> names);
 }
@@ -0,0 +1,92 @@
+package application.infrastructure;
+
+import application.infrastructure.models.ApiRevision;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import java.io.InputStream;
+import java.util.List;
+
+@Repository
+public class ApiRevisionRepository {
+
+    private static final String REVISION_COLUMNS = "api_id, revision, snapshot, content_type, content_length, content_hash, stored_length, last_modified";
+    private static final String INSERT_REVISION = "insert into api_revision (" + REVISION_COLUMNS + ", data) values (?, ?, ?, ?, ?, ?, ?, ?, ?)";
+    private static final String SELECT_REVISIONS = "select " + REVISION_COLUMNS + " from api_revision where api_id = ? order by revision desc";
+    private static final String SELECT_REVISION = "select " + REVISION_COLUMNS + " from api_revision where api_id = ? and revision = ?";
+    private static final String SELECT_LATEST_REVISIONS = "select coalesce(max(revision), 0), coalesce(max(case when snapshot then revision end), 0) " +
+            "from api_revision where api_id = ?";
+    private static final String SELECT_CHAIN = "select " + REVISION_COLUMNS + ", data from api_revision where api_id = ? and revision <= ? " +
+            "and revision >= (select max(revision) from api_revision where api_id = ? and revision <= ? and snapshot = true) order by revision asc";
+    private static final String DELETE_REVISIONS = "delete from api_revision where api_id = ?";
+
+    private static final RowMapper<ApiRevision> REVISION_MAPPER = (resultSet, rowNumber) -> {
+        ApiRevision revision = new ApiRevision();
+        revision.setApiId(resultSet.getLong("api_id"));
+        revision.setRevision(resultSet.getLong("revision"));
+        revision.setSnapshot(resultSet.getBoolean("snapshot"));
+        revision.setContentType(resultSet.getString("content_type"));
+        revision.setContentLength(resultSet.getLong("content_length"));
+        revision.setContentHash(resultSet.getString("content_hash"));
+        revision.setStoredLength(resultSet.getLong("stored_length"));
+        revision.setLastModified(resultSet.getLong("last_modified"));
+        return revision;
+    };
+
+    private static final RowMapper<ApiRevision> REVISION_WITH_DATA_MAPPER = (resultSet, rowNumber) -> {
+        ApiRevision revision = REVISION_MAPPER.mapRow(resultSet, rowNumber);
+        revision.setData(resultSet.getBytes("data"));
+        return revision;
+    };
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    /**
+     * Inserts the revision with the given data, streamed into the row: {@code dataLength} bytes are read from it.
+     */
+    public void append(ApiRevision revision, InputStream data, long dataLength) {
+        jdbcTemplate.update(INSERT_REVISION, preparedStatement -> {
+            preparedStatement.setLong(1, revision.getApiId());
+            preparedStatement.setLong(2, revision.getRevision());
+            preparedStatement.setBoolean(3, revision.isSnapshot());
+            preparedStatement.setString(4, revision.getContentType());
+            preparedStatement.setLong(5, revision.getContentLength());
+            preparedStatement.setString(6, revision.getContentHash());
+            preparedStatement.setLong(7, dataLength);
+            preparedStatement.setLong(8, revision.getLastModified());
+            // The int overload: older PostgreSQL drivers do not implement the long one.
+            preparedStatement.setBinaryStream(9, data, Math.toIntExact(dataLength));
+        });
+    }
+
+    public List<ApiRevision> findRevisions(long apiId) {
+        return jdbcTemplate.query(SELECT_REVISIONS, REVISION_MAPPER, apiId);
+    }
+
+    public ApiRevision findRevision(long apiId, long revision) {
+        List<ApiRevision> revisions = jdbcTemplate.query(SELECT_REVISION, REVISION_MAPPER, apiId, revision);
+        return revisions.isEmpty() ? null : revisions.get(0);
+    }
+
+    /**
+     * Returns the latest revision of the API and its latest snapshot revision, 0 when there is none.
+     */
+    public long[] findLatestRevisions(long apiId) {
+        return jdbcTemplate.queryForObject(SELECT_LATEST_REVISIONS, (resultSet, rowNumber) -> new long[]{resultSet.getLong(1), resultSet.getLong(2)}, apiId);
+    }
+
+    /**
+     * Returns the revisions needed to rebuild the given one: the latest snapshot at or before it, followed by the
+     * deltas up to it.
+     */
+    public List<ApiRevision> findChain(long apiId, long revision) {
+        return jdbcTemplate.query(SELECT_CHAIN, REVISION_WITH_DATA_MAPPER, apiId, revision, apiId, revision);
+    }
+
+    public void deleteRevisions(long apiId) {
+        jdbcTemplate.update(DELETE_REVISIONS, apiId);
+    }
+}
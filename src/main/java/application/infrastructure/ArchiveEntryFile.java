@@ -0,0 +1,72 @@
+package application.infrastructure;
+
+import org.springframework.util.StreamUtils;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+/**
+ * Presents a file of an import archive as an uploaded file, re-reading the entry on each call to getInputStream.
+ */
+public class ArchiveEntryFile implements MultipartFile {
+
+    private final ZipFile archive;
+    private final ZipEntry entry;
+    private final String contentType;
+
+    public ArchiveEntryFile(ZipFile archive, ZipEntry entry, String contentType) {
+        this.archive = archive;
+        this.entry = entry;
+        this.contentType = contentType;
+    }
+
+    @Override
+    public String getName() {
+        return entry.getName();
+    }
+
+    @Override
+    public String getOriginalFilename() {
+        return entry.getName();
+    }
+
+    @Override
+    public String getContentType() {
+        return contentType;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return entry.getSize() == 0;
+    }
+
+    @Override
+    public long getSize() {
+        return entry.getSize();
+    }
+
+    @Override
+    public byte[] getBytes() throws IOException {
+        try (InputStream content = getInputStream()) {
+            return StreamUtils.copyToByteArray(content);
+        }
+    }
+
+    @Override
+    public InputStream getInputStream() throws IOException {
+        return archive.getInputStream(entry);
+    }
+
+    @Override
+    public void transferTo(File destination) throws IOException {
+        try (InputStream content = getInputStream(); OutputStream output = new FileOutputStream(destination)) {
+            StreamUtils.copy(content, output);
+        }
+    }
+}
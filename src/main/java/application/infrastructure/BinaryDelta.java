@@ -0,0 +1,180 @@
+package application.infrastructure;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Encodes a target as COPY instructions, which take ranges of a base, and ADD instructions, which carry the bytes
+ * of the target that are not in the base. Matches are found by hashing the blocks of the base and rolling the same
+ * hash over the target, so encoding is linear in the size of both.
+ */
+public final class BinaryDelta {
+
+    private static final int BLOCK_SIZE = 16;
+    private static final int HASH_MULTIPLIER = 0x01000193;
+    private static final int HASH_MULTIPLIER_POWER = power(HASH_MULTIPLIER, BLOCK_SIZE - 1);
+    private static final int COPY = 1;
+    private static final int ADD = 2;
+
+    private BinaryDelta() {
+    }
+
+    public static byte[] encode(byte[] base, byte[] target) {
+        ByteArrayOutputStream delta = new ByteArrayOutputStream();
+        writeVarint(delta, target.length);
+        if (base.length < BLOCK_SIZE || target.length < BLOCK_SIZE) {
+            writeAdd(delta, target, 0, target.length);
+            return delta.toByteArray();
+        }
+
+        int[] blocks = indexBlocks(base);
+        int mask = blocks.length - 1;
+        int literalStart = 0;
+        int position = 0;
+        int hash = hash(target, 0);
+        while (position + BLOCK_SIZE <= target.length) {
+            int candidate = blocks[slot(hash, mask)] - 1;
+            if (candidate >= 0 && sameBlock(base, candidate, target, position)) {
+                int baseStart = candidate;
+                int targetStart = position;
+                while (baseStart > 0 && targetStart > literalStart && base[baseStart - 1] == target[targetStart - 1]) {
+                    baseStart--;
+                    targetStart--;
+                }
+                int baseEnd = candidate + BLOCK_SIZE;
+                int targetEnd = position + BLOCK_SIZE;
+                while (baseEnd < base.length && targetEnd < target.length && base[baseEnd] == target[targetEnd]) {
+                    baseEnd++;
+                    targetEnd++;
+                }
+                writeAdd(delta, target, literalStart, targetStart - literalStart);
+                writeCopy(delta, baseStart, targetEnd - targetStart);
+                literalStart = targetEnd;
+                position = targetEnd;
+                if (position + BLOCK_SIZE <= target.length) {
+                    hash = hash(target, position);
+                }
+            } else {
+                if (position + BLOCK_SIZE < target.length) {
+                    hash = (hash - target[position] * HASH_MULTIPLIER_POWER) * HASH_MULTIPLIER + target[position + BLOCK_SIZE];
+                }
+                position++;
+            }
+        }
+        writeAdd(delta, target, literalStart, target.length - literalStart);
+        return delta.toByteArray();
+    }
+
+    public static byte[] apply(byte[] base, byte[] delta) throws IOException {
+        InputStream instructions = new ByteArrayInputStream(delta);
+        byte[] target = new byte[readVarint(instructions)];
+        int position = 0;
+        while (position < target.length) {
+            int instruction = instructions.read();
+            if (instruction == COPY) {
+                int offset = readVarint(instructions);
+                int length = readVarint(instructions);
+                if ((long) offset + length > base.length || position + length > target.length) {
+                    throw new IOException("Delta copies outside of its base");
+                }
+                System.arraycopy(base, offset, target, position, length);
+                position += length;
+            } else if (instruction == ADD) {
+                int length = readVarint(instructions);
+                if (position + length > target.length || instructions.read(target, position, length) != length) {
+                    throw new IOException("Delta adds more bytes than it holds");
+                }
+                position += length;
+            } else {
+                throw new IOException("Unknown delta instruction " + instruction);
+            }
+        }
+        return target;
+    }
+
+    private static int[] indexBlocks(byte[] base) {
+        int blockCount = base.length / BLOCK_SIZE;
+        int[] blocks = new int[Integer.highestOneBit(blockCount * 2 - 1) << 1];
+        int mask = blocks.length - 1;
+        for (int offset = 0; offset + BLOCK_SIZE <= base.length; offset += BLOCK_SIZE) {
+            int slot = slot(hash(base, offset), mask);
+            if (blocks[slot] == 0) {
+                blocks[slot] = offset + 1;
+            }
+        }
+        return blocks;
+    }
+
+    private static int hash(byte[] bytes, int offset) {
+        int hash = 0;
+        for (int i = offset; i < offset + BLOCK_SIZE; i++) {
+            hash = hash * HASH_MULTIPLIER + bytes[i];
+        }
+        return hash;
+    }
+
+    private static int slot(int hash, int mask) {
+        int mixed = hash * 0x9E3779B9;
+        return (mixed ^ (mixed >>> 16)) & mask;
+    }
+
+    private static boolean sameBlock(byte[] base, int baseOffset, byte[] target, int targetOffset) {
+        for (int i = 0; i < BLOCK_SIZE; i++) {
+            if (base[baseOffset + i] != target[targetOffset + i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static void writeCopy(ByteArrayOutputStream delta, int offset, int length) {
+        delta.write(COPY);
+        writeVarint(delta, offset);
+        writeVarint(delta, length);
+    }
+
+    private static void writeAdd(ByteArrayOutputStream delta, byte[] target, int offset, int length) {
+        if (length == 0) {
+            return;
+        }
+        delta.write(ADD);
+        writeVarint(delta, length);
+        delta.write(target, offset, length);
+    }
+
+    private static void writeVarint(ByteArrayOutputStream output, int value) {
+        while ((value & ~0x7F) != 0) {
+            output.write((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        output.write(value);
+    }
+
+    private static int readVarint(InputStream input) throws IOException {
+        int value = 0;
+        for (int shift = 0; shift < 32; shift += 7) {
+            int read = input.read();
+            if (read < 0) {
+                throw new IOException("Truncated delta");
+            }
+            value |= (read & 0x7F) << shift;
+            if ((read & 0x80) == 0) {
+                if (value < 0) {
+                    throw new IOException("Malformed delta length");
+                }
+                return value;
+            }
+        }
+        throw new IOException("Malformed delta length");
+    }
+
+    private static int power(int value, int exponent) {
+        int result = 1;
+        for (int i = 0; i < exponent; i++) {
+            result *= value;
+        }
+        return result;
+    }
+}
@@ -0,0 +1,271 @@
+package application.infrastructure;
+
+import application.infrastructure.models.SpecificationFile;
+import com.google.common.util.concurrent.Striped;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.locks.Lock;
+
+/**
+ * Stores specification files under a directory, one file per content hash, so that specification files sharing
+ * a content share its bytes. Files are written next to their final name and renamed once complete, so readers never
+ * see a partial file, and are read through memory mappings so that serving them copies nothing into the heap.
+ * <p>
+ * The file system does not take part in transactions: a file written within a transaction is renamed into place when
+ * it commits, replacing the file of the same content if any, and dropped if it rolls back. A file deleted by a
+ * transaction is removed after it commits unless a specification file with the same content remains. Both happen
+ * under a lock of the content hash, so that a delete checking for references before an upload of the same content
+ * commits cannot remove the file that upload renames into place.
+ */
+@Component
+public class FileSystemSpecificationStore implements SpecificationStore {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(FileSystemSpecificationStore.class);
+    private static final String GZIP_SUFFIX = ".gz";
+    private static final String TEMPORARY_SUFFIX = ".tmp";
+    private static final int WRITE_BUFFER_SIZE = 64 * 1024;
+    private static final int CONTENT_HASH_LOCKS = 64;
+
+    @Autowired
+    SpecificationFileRepository specificationFileRepository;
+
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
+    private final Path directory;
+    private final Striped<Lock> contentHashLocks = Striped.lock(CONTENT_HASH_LOCKS);
+
+    @Autowired
+    public FileSystemSpecificationStore(@Value("${catalogue.specification.store.directory:specifications}") String directory) {
+        this.directory = Paths.get(directory);
+    }
+
+    @Override
+    public StoredContentOutputStream openOutputStream(SpecificationFile specificationFile) throws IOException {
+        Path path = pathOf(specificationFile);
+        Files.createDirectories(path.getParent());
+        Path temporaryPath = Files.createTempFile(path.getParent(), path.getFileName().toString(), TEMPORARY_SUFFIX);
+        return new RenamingOutputStream(specificationFile.getContentHash(), temporaryPath, path);
+    }
+
+    @Override
+    public InputStream read(SpecificationFile specificationFile) throws IOException {
+        try (FileChannel channel = FileChannel.open(pathOf(specificationFile), StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IOException("Specification file " + specificationFile.getId() + " is too large to be mapped");
+            }
+            return new ByteBufferInputStream(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    @Override
+    public boolean contains(SpecificationFile specificationFile) {
+        return Files.exists(pathOf(specificationFile));
+    }
+
+    /**
+     * Deletes the file once the current transaction commits, if no specification file references its content by
+     * then. Outside of a transaction, the file is deleted right away.
+     */
+    @Override
+    public void delete(SpecificationFile specificationFile) throws IOException {
+        String contentHash = specificationFile.getContentHash();
+        Path path = pathOf(specificationFile);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+                @Override
+                public void afterCommit() {
+                    deleteIfUnreferenced(contentHash, path);
+                }
+            });
+        } else {
+            Files.deleteIfExists(path);
+        }
+    }
+
+    Path pathOf(SpecificationFile specificationFile) {
+        String contentHash = specificationFile.getContentHash();
+        String fileName = specificationFile.isGzipEncoded() ? contentHash + GZIP_SUFFIX : contentHash;
+        return directory.resolve(contentHash.substring(0, 2)).resolve(contentHash.substring(2, 4)).resolve(fileName);
+    }
+
+    private void deleteIfUnreferenced(String contentHash, Path path) {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        transactionTemplate.setReadOnly(true);
+        Lock lock = contentHashLocks.get(contentHash);
+        lock.lock();
+        try {
+            if (transactionTemplate.execute(status -> specificationFileRepository.countByContentHash(contentHash)) == 0) {
+                Files.deleteIfExists(path);
+            }
+        } catch (IOException | RuntimeException e) {
+            LOGGER.warn("Could not delete specification file {}", path, e);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void moveIntoPlace(String contentHash, Path temporaryPath, Path path) throws IOException {
+        Lock lock = contentHashLocks.get(contentHash);
+        lock.lock();
+        try {
+            Files.move(temporaryPath, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private class RenamingOutputStream extends StoredContentOutputStream {
+        private final String contentHash;
+        private final Path temporaryPath;
+        private final Path path;
+        private final FileChannel channel;
+        private final ByteBuffer buffer = ByteBuffer.allocate(WRITE_BUFFER_SIZE);
+        private long length;
+        private boolean closed;
+
+        RenamingOutputStream(String contentHash, Path temporaryPath, Path path) throws IOException {
+            this.contentHash = contentHash;
+            this.temporaryPath = temporaryPath;
+            this.path = path;
+            this.channel = FileChannel.open(temporaryPath, StandardOpenOption.WRITE);
+        }
+
+        @Override
+        public long getLength() {
+            return length;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            if (!buffer.hasRemaining()) {
+                flushBuffer();
+            }
+            buffer.put((byte) b);
+            length++;
+        }
+
+        @Override
+        public void write(byte[] source, int offset, int count) throws IOException {
+            while (count > 0) {
+                if (!buffer.hasRemaining()) {
+                    flushBuffer();
+                }
+                int copied = Math.min(count, buffer.remaining());
+                buffer.put(source, offset, copied);
+                offset += copied;
+                count -= copied;
+                length += copied;
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (closed) {
+                return;
+            }
+            try {
+                flushBuffer();
+                channel.force(false);
+            } catch (IOException e) {
+                abort();
+                throw e;
+            }
+            closed = true;
+            channel.close();
+            if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+                moveIntoPlace(contentHash, temporaryPath, path);
+                return;
+            }
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+                @Override
+                public void afterCompletion(int status) {
+                    try {
+                        if (status == TransactionSynchronization.STATUS_COMMITTED) {
+                            moveIntoPlace(contentHash, temporaryPath, path);
+                        } else {
+                            Files.deleteIfExists(temporaryPath);
+                        }
+                    } catch (IOException | RuntimeException e) {
+                        LOGGER.warn("Could not put specification file {} in place", path, e);
+                    }
+                }
+            });
+        }
+
+        @Override
+        public void abort() throws IOException {
+            if (!closed) {
+                closed = true;
+                channel.close();
+                Files.deleteIfExists(temporaryPath);
+            }
+        }
+
+        private void flushBuffer() throws IOException {
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            buffer.clear();
+        }
+    }
+
+    private static class ByteBufferInputStream extends InputStream {
+        private final ByteBuffer buffer;
+
+        ByteBufferInputStream(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        @Override
+        public int read() {
+            return buffer.hasRemaining() ? buffer.get() & 0xFF : -1;
+        }
+
+        @Override
+        public int read(byte[] destination, int offset, int length) {
+            if (length == 0) {
+                return 0;
+            }
+            if (!buffer.hasRemaining()) {
+                return -1;
+            }
+            int count = Math.min(length, buffer.remaining());
+            buffer.get(destination, offset, count);
+            return count;
+        }
+
+        @Override
+        public long skip(long n) {
+            int skipped = (int) Math.max(0, Math.min(n, buffer.remaining()));
+            buffer.position(buffer.position() + skipped);
+            return skipped;
+        }
+
+        @Override
+        public int available() {
+            return buffer.remaining();
+        }
+    }
+}
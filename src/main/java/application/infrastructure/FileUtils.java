@@ -1,16 +1,78 @@
 package application.infrastructure;
 
+import application.infrastructure.models.ContentDigest;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
-import java.nio.charset.Charset;
+import java.io.InputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.zip.Deflater;
 
 @Service
 public class FileUtils {
 
-    public String multipartfileToString(MultipartFile uploadedFile) throws IOException {
-        byte[] fileByteContent = uploadedFile.getBytes();
-        return new String(fileByteContent, Charset.forName("UTF-8"));
+    private static final int BUFFER_SIZE = 8192;
+    private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+    private static final int COMPRESSION_SAMPLE_SIZE = 64 * 1024;
+    private static final int MIN_COMPRESSIBLE_SIZE = 1024;
+    private static final double MAX_COMPRESSED_RATIO = 0.9;
+
+    @Value("${catalogue.specification.max-size:20971520}")
+    long maxSpecificationSize;
+
+    public InputStream openSpecificationFile(MultipartFile uploadedFile) throws IOException {
+        return new SpecificationFileInputStream(uploadedFile.getInputStream(), maxSpecificationSize);
+    }
+
+    public ContentDigest digest(MultipartFile uploadedFile) throws IOException {
+        MessageDigest digest = sha256();
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        byte[] buffer = new byte[BUFFER_SIZE];
+        byte[] deflated = new byte[BUFFER_SIZE];
+        long length = 0;
+        long sampleLength = 0;
+        long compressedSampleLength = 0;
+        try (InputStream fileContent = openSpecificationFile(uploadedFile)) {
+            int read;
+            while ((read = fileContent.read(buffer)) != -1) {
+                digest.update(buffer, 0, read);
+                if (sampleLength < COMPRESSION_SAMPLE_SIZE) {
+                    sampleLength += read;
+                    deflater.setInput(buffer, 0, read);
+                    while (!deflater.needsInput()) {
+                        compressedSampleLength += deflater.deflate(deflated);
+                    }
+                }
+                length += read;
+            }
+            deflater.finish();
+            while (!deflater.finished()) {
+                compressedSampleLength += deflater.deflate(deflated);
+            }
+        } finally {
+            deflater.end();
+        }
+        boolean compressible = length >= MIN_COMPRESSIBLE_SIZE && compressedSampleLength < sampleLength * MAX_COMPRESSED_RATIO;
+        return new ContentDigest(toHex(digest.digest()), length, compressible);
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static String toHex(byte[] bytes) {
+        char[] hex = new char[bytes.length * 2];
+        for (int i = 0; i < bytes.length; i++) {
+            hex[i * 2] = HEX_DIGITS[(bytes[i] >> 4) & 0xF];
+            hex[i * 2 + 1] = HEX_DIGITS[bytes[i] & 0xF];
+        }
+        return new String(hex);
     }
 }
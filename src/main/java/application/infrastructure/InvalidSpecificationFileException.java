@@ -0,0 +1,23 @@
+package application.infrastructure;
+
+import application.infrastructure.models.ApiError;
+import application.services.ApiValidationError;
+
+import java.io.IOException;
+
+public class InvalidSpecificationFileException extends IOException {
+
+    private final ApiValidationError type;
+
+    public InvalidSpecificationFileException(ApiValidationError type, String message) {
+        super(message);
+        this.type = type;
+    }
+
+    public ApiError toApiError() {
+        ApiError error = new ApiError();
+        error.type = type;
+        error.message = getMessage();
+        return error;
+    }
+}
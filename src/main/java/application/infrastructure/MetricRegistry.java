@@ -0,0 +1,197 @@
+package application.infrastructure;
+
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.DoubleAdder;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.DoubleSupplier;
+
+/**
+ * Counters, gauges and histograms of the catalogue, written out in the Prometheus text format. Metrics are
+ * identified by a name and tag pairs; asking twice for the same metric returns the same instance, so callers may
+ * look metrics up on every use. Recording only touches striped adders and never locks.
+ */
+@Component
+public class MetricRegistry {
+
+    public static final double[] SECONDS_BUCKETS = {0.005, 0.01, 0.025, 0.05, 0.1, 0.25, 0.5, 1, 2.5, 5, 10};
+    public static final double[] BYTES_BUCKETS = {1024, 16 * 1024, 128 * 1024, 1024 * 1024, 4 * 1024 * 1024, 16 * 1024 * 1024, 64 * 1024 * 1024};
+    public static final String CONTENT_TYPE = "text/plain; version=0.0.4; charset=utf-8";
+
+    private final Map<String, Family> families = new ConcurrentSkipListMap<>();
+
+    public Counter counter(String name, String help, String... tags) {
+        return (Counter) family(name, help, "counter").metrics.computeIfAbsent(labels(tags), labels -> new Counter());
+    }
+
+    public Histogram timer(String name, String help, String... tags) {
+        return histogram(name, help, SECONDS_BUCKETS, tags);
+    }
+
+    public Histogram histogram(String name, String help, double[] buckets, String... tags) {
+        return (Histogram) family(name, help, "histogram").metrics.computeIfAbsent(labels(tags), labels -> new Histogram(buckets));
+    }
+
+    public void gauge(String name, String help, DoubleSupplier value, String... tags) {
+        family(name, help, "gauge").metrics.put(labels(tags), new FunctionMetric(value));
+    }
+
+    /**
+     * Registers a counter whose value is kept by another component, such as the hit count of a cache.
+     */
+    public void functionCounter(String name, String help, DoubleSupplier value, String... tags) {
+        family(name, help, "counter").metrics.put(labels(tags), new FunctionMetric(value));
+    }
+
+    public void writeTo(Writer writer) throws IOException {
+        for (Map.Entry<String, Family> family : families.entrySet()) {
+            String name = family.getKey();
+            writer.write("# HELP " + name + " " + family.getValue().help + "\n");
+            writer.write("# TYPE " + name + " " + family.getValue().type + "\n");
+            for (Map.Entry<String, Metric> metric : family.getValue().metrics.entrySet()) {
+                metric.getValue().writeTo(writer, name, metric.getKey());
+            }
+        }
+    }
+
+    private Family family(String name, String help, String type) {
+        Family family = families.computeIfAbsent(name, familyName -> new Family(help, type));
+        if (!family.type.equals(type)) {
+            throw new IllegalArgumentException("Metric " + name + " is a " + family.type + ", not a " + type);
+        }
+        return family;
+    }
+
+    private static String labels(String[] tags) {
+        if (tags.length % 2 != 0) {
+            throw new IllegalArgumentException("Tags must be name and value pairs: " + Arrays.toString(tags));
+        }
+        StringBuilder labels = new StringBuilder();
+        for (int i = 0; i < tags.length; i += 2) {
+            labels.append(labels.length() == 0 ? "" : ",").append(tags[i]).append("=\"").append(escape(tags[i + 1])).append('"');
+        }
+        return labels.toString();
+    }
+
+    private static String escape(String value) {
+        return String.valueOf(value).replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+    }
+
+    private static String sample(String name, String labels, String extraLabel, double value) {
+        String allLabels = labels.isEmpty() ? extraLabel : extraLabel.isEmpty() ? labels : labels + "," + extraLabel;
+        return name + (allLabels.isEmpty() ? "" : "{" + allLabels + "}") + " " + format(value) + "\n";
+    }
+
+    private static String format(double value) {
+        if (value == Double.POSITIVE_INFINITY) {
+            return "+Inf";
+        }
+        return value == Math.rint(value) && !Double.isInfinite(value) && Math.abs(value) < 1e15 ? Long.toString((long) value) : Double.toString(value);
+    }
+
+    private static final class Family {
+        private final String help;
+        private final String type;
+        private final Map<String, Metric> metrics = new ConcurrentHashMap<>();
+
+        private Family(String help, String type) {
+            this.help = help;
+            this.type = type;
+        }
+    }
+
+    private interface Metric {
+        void writeTo(Writer writer, String name, String labels) throws IOException;
+    }
+
+    public static final class Counter implements Metric {
+        private final LongAdder count = new LongAdder();
+
+        public void increment() {
+            count.increment();
+        }
+
+        public void increment(long amount) {
+            count.add(amount);
+        }
+
+        public long count() {
+            return count.sum();
+        }
+
+        @Override
+        public void writeTo(Writer writer, String name, String labels) throws IOException {
+            writer.write(sample(name, labels, "", count.sum()));
+        }
+    }
+
+    public static final class Histogram implements Metric {
+        private final double[] buckets;
+        private final LongAdder[] bucketCounts;
+        private final LongAdder count = new LongAdder();
+        private final DoubleAdder sum = new DoubleAdder();
+
+        private Histogram(double[] buckets) {
+            this.buckets = buckets.clone();
+            bucketCounts = new LongAdder[buckets.length];
+            for (int i = 0; i < buckets.length; i++) {
+                bucketCounts[i] = new LongAdder();
+            }
+        }
+
+        public void record(double value) {
+            int bucket = Arrays.binarySearch(buckets, value);
+            bucket = bucket < 0 ? -bucket - 1 : bucket;
+            if (bucket < buckets.length) {
+                bucketCounts[bucket].increment();
+            }
+            count.increment();
+            sum.add(value);
+        }
+
+        public void recordNanos(long nanos) {
+            record((double) nanos / TimeUnit.SECONDS.toNanos(1));
+        }
+
+        public long count() {
+            return count.sum();
+        }
+
+        public double sum() {
+            return sum.sum();
+        }
+
+        @Override
+        public void writeTo(Writer writer, String name, String labels) throws IOException {
+            long cumulativeCount = 0;
+            for (int i = 0; i < buckets.length; i++) {
+                cumulativeCount += bucketCounts[i].sum();
+                writer.write(sample(name + "_bucket", labels, "le=\"" + format(buckets[i]) + "\"", cumulativeCount));
+            }
+            long total = count.sum();
+            writer.write(sample(name + "_bucket", labels, "le=\"+Inf\"", Math.max(total, cumulativeCount)));
+            writer.write(sample(name + "_count", labels, "", total));
+            writer.write(sample(name + "_sum", labels, "", sum.sum()));
+        }
+    }
+
+    private static final class FunctionMetric implements Metric {
+        private final DoubleSupplier value;
+
+        private FunctionMetric(DoubleSupplier value) {
+            this.value = value;
+        }
+
+        @Override
+        public void writeTo(Writer writer, String name, String labels) throws IOException {
+            writer.write(sample(name, labels, "", value.getAsDouble()));
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package application.infrastructure;
+
+import application.infrastructure.models.SpecificationFile;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Writes to the target store and reads from the source store whatever has not been copied to the target yet, so
+ * that the catalogue keeps serving every specification file while they are being migrated.
+ */
+public class MigratingSpecificationStore implements SpecificationStore {
+
+    private final SpecificationStore source;
+    private final SpecificationStore target;
+
+    public MigratingSpecificationStore(SpecificationStore source, SpecificationStore target) {
+        this.source = source;
+        this.target = target;
+    }
+
+    public SpecificationStore getSource() {
+        return source;
+    }
+
+    public SpecificationStore getTarget() {
+        return target;
+    }
+
+    @Override
+    public StoredContentOutputStream openOutputStream(SpecificationFile specificationFile) throws IOException {
+        return target.openOutputStream(specificationFile);
+    }
+
+    @Override
+    public InputStream read(SpecificationFile specificationFile) throws IOException {
+        return target.contains(specificationFile) ? target.read(specificationFile) : source.read(specificationFile);
+    }
+
+    @Override
+    public boolean contains(SpecificationFile specificationFile) {
+        return target.contains(specificationFile) || source.contains(specificationFile);
+    }
+
+    @Override
+    public void delete(SpecificationFile specificationFile) throws IOException {
+        target.delete(specificationFile);
+        source.delete(specificationFile);
+    }
+}
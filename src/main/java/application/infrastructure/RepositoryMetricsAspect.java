@@ -0,0 +1,52 @@
+package application.infrastructure;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.util.ClassUtils;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Times the calls to the repositories of this package, which is where the catalogue spends its database time.
+ */
+@Aspect
+@Component
+public class RepositoryMetricsAspect {
+
+    private final Map<Class<?>, String> repositoryNames = new ConcurrentHashMap<>();
+
+    @Autowired
+    MetricRegistry metricRegistry;
+
+    @Around("execution(public * application.infrastructure.*Repository.*(..))")
+    public Object time(ProceedingJoinPoint joinPoint) throws Throwable {
+        long start = System.nanoTime();
+        String outcome = "error";
+        try {
+            Object result = joinPoint.proceed();
+            outcome = "success";
+            return result;
+        } finally {
+            metricRegistry.timer("catalogue_repository_seconds", "Time spent in repository calls",
+                    "repository", repositoryName(joinPoint.getThis()),
+                    "method", joinPoint.getSignature().getName(),
+                    "outcome", outcome)
+                    .recordNanos(System.nanoTime() - start);
+        }
+    }
+
+    private String repositoryName(Object repository) {
+        return repositoryNames.computeIfAbsent(repository.getClass(), repositoryClass -> {
+            for (Class<?> type : ClassUtils.getAllInterfacesForClass(repositoryClass)) {
+                if (type.getPackage() != null && type.getPackage().getName().equals(getClass().getPackage().getName())) {
+                    return type.getSimpleName();
+                }
+            }
+            return ClassUtils.getUserClass(repositoryClass).getSimpleName();
+        });
+    }
+}
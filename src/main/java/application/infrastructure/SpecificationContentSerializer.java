@@ -0,0 +1,52 @@
+package application.infrastructure;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.JsonStringEncoder;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+import org.springframework.core.io.Resource;
+
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Writes the content of a specification file as a JSON string, a chunk at a time, so that embedding large
+ * specifications in a response never holds a whole file in memory.
+ */
+public class SpecificationContentSerializer extends StdSerializer<Resource> {
+
+    private static final int CHUNK_SIZE = 8192;
+
+    public SpecificationContentSerializer() {
+        super(Resource.class);
+    }
+
+    @Override
+    public void serialize(Resource content, JsonGenerator generator, SerializerProvider provider) throws IOException {
+        JsonStringEncoder encoder = JsonStringEncoder.getInstance();
+        char[] buffer = new char[CHUNK_SIZE];
+        int pending = 0;
+        generator.writeRawValue("\"");
+        try (Reader reader = new InputStreamReader(content.getInputStream(), StandardCharsets.UTF_8)) {
+            int read;
+            while ((read = reader.read(buffer, pending, buffer.length - pending)) != -1) {
+                int end = pending + read;
+                // A surrogate pair must not be split between two raw writes.
+                int complete = Character.isHighSurrogate(buffer[end - 1]) ? end - 1 : end;
+                char[] quoted = encoder.quoteAsString(new String(buffer, 0, complete));
+                generator.writeRaw(quoted, 0, quoted.length);
+                pending = end - complete;
+                if (pending > 0) {
+                    buffer[0] = buffer[complete];
+                }
+            }
+        }
+        if (pending > 0) {
+            char[] quoted = encoder.quoteAsString(new String(buffer, 0, pending));
+            generator.writeRaw(quoted, 0, quoted.length);
+        }
+        generator.writeRaw('"');
+    }
+}
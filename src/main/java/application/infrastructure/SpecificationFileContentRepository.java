@@ -0,0 +1,167 @@
+package application.infrastructure;
+
+import application.infrastructure.models.SpecificationFile;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+
+import static application.infrastructure.models.SpecificationFileChunk.CHUNK_SIZE;
+
+@Repository
+public class SpecificationFileContentRepository implements SpecificationStore {
+
+    private static final String INSERT_CHUNK = "insert into specification_file_chunk (specification_file_id, chunk_index, data) values (?, ?, ?)";
+    private static final String SELECT_CHUNK = "select data from specification_file_chunk where specification_file_id = ? and chunk_index = ?";
+    private static final String COUNT_FIRST_CHUNK = "select count(*) from specification_file_chunk where specification_file_id = ? and chunk_index = 0";
+    private static final String DELETE_CHUNKS = "delete from specification_file_chunk where specification_file_id = ?";
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @Override
+    public ChunkOutputStream openOutputStream(SpecificationFile specificationFile) {
+        return new ChunkOutputStream(specificationFile.getId());
+    }
+
+    @Override
+    public InputStream read(SpecificationFile specificationFile) {
+        return new ChunkInputStream(specificationFile.getId(), specificationFile.getStoredLength());
+    }
+
+    @Override
+    public boolean contains(SpecificationFile specificationFile) {
+        return specificationFile.getStoredLength() == 0
+                || jdbcTemplate.queryForObject(COUNT_FIRST_CHUNK, Long.class, specificationFile.getId()) > 0;
+    }
+
+    @Override
+    public void delete(SpecificationFile specificationFile) {
+        jdbcTemplate.update(DELETE_CHUNKS, specificationFile.getId());
+    }
+
+    private byte[] readChunk(long specificationFileId, int chunkIndex) {
+        return jdbcTemplate.queryForObject(SELECT_CHUNK, byte[].class, specificationFileId, chunkIndex);
+    }
+
+    public class ChunkOutputStream extends StoredContentOutputStream {
+        private final long specificationFileId;
+        private final byte[] buffer = new byte[CHUNK_SIZE];
+        private int buffered;
+        private int chunkIndex;
+        private long length;
+        private boolean closed;
+
+        ChunkOutputStream(long specificationFileId) {
+            this.specificationFileId = specificationFileId;
+        }
+
+        @Override
+        public long getLength() {
+            return length;
+        }
+
+        @Override
+        public void write(int b) {
+            buffer[buffered++] = (byte) b;
+            length++;
+            if (buffered == CHUNK_SIZE) {
+                writeChunk();
+            }
+        }
+
+        @Override
+        public void write(byte[] source, int offset, int count) {
+            while (count > 0) {
+                int copied = Math.min(count, CHUNK_SIZE - buffered);
+                System.arraycopy(source, offset, buffer, buffered, copied);
+                buffered += copied;
+                offset += copied;
+                count -= copied;
+                length += copied;
+                if (buffered == CHUNK_SIZE) {
+                    writeChunk();
+                }
+            }
+        }
+
+        @Override
+        public void close() {
+            if (!closed) {
+                closed = true;
+                if (buffered > 0) {
+                    writeChunk();
+                }
+            }
+        }
+
+        @Override
+        public void abort() {
+            closed = true;
+        }
+
+        private void writeChunk() {
+            byte[] data = buffered == CHUNK_SIZE ? buffer : Arrays.copyOf(buffer, buffered);
+            jdbcTemplate.update(INSERT_CHUNK, specificationFileId, chunkIndex++, data);
+            buffered = 0;
+        }
+    }
+
+    private class ChunkInputStream extends InputStream {
+        private final long specificationFileId;
+        private final long contentLength;
+        private long position;
+        private byte[] chunk;
+        private int chunkIndex = -1;
+
+        ChunkInputStream(long specificationFileId, long contentLength) {
+            this.specificationFileId = specificationFileId;
+            this.contentLength = contentLength;
+        }
+
+        @Override
+        public int read() throws IOException {
+            if (!loadChunkAtPosition()) {
+                return -1;
+            }
+            return chunk[(int) (position++ % CHUNK_SIZE)] & 0xFF;
+        }
+
+        @Override
+        public int read(byte[] destination, int offset, int length) throws IOException {
+            if (length == 0) {
+                return 0;
+            }
+            if (!loadChunkAtPosition()) {
+                return -1;
+            }
+            int offsetInChunk = (int) (position % CHUNK_SIZE);
+            int count = Math.min(length, chunk.length - offsetInChunk);
+            System.arraycopy(chunk, offsetInChunk, destination, offset, count);
+            position += count;
+            return count;
+        }
+
+        @Override
+        public long skip(long n) {
+            long skipped = Math.max(0, Math.min(n, contentLength - position));
+            position += skipped;
+            return skipped;
+        }
+
+        private boolean loadChunkAtPosition() {
+            if (position >= contentLength) {
+                return false;
+            }
+            int wantedChunkIndex = (int) (position / CHUNK_SIZE);
+            if (wantedChunkIndex != chunkIndex) {
+                chunk = readChunk(specificationFileId, wantedChunkIndex);
+                chunkIndex = wantedChunkIndex;
+            }
+            return true;
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package application.infrastructure;
+
+import application.services.ApiValidationError;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Checks an uploaded specification while it is being read: the size limit and UTF-8 well-formedness are
+ * verified byte by byte, so the upload never has to be buffered to be validated.
+ */
+public class SpecificationFileInputStream extends FilterInputStream {
+
+    private final long maxSize;
+    private long size;
+    private int pendingContinuationBytes;
+    private int nextByteLowerBound = 0x80;
+    private int nextByteUpperBound = 0xBF;
+
+    public SpecificationFileInputStream(InputStream in, long maxSize) {
+        super(in);
+        this.maxSize = maxSize;
+    }
+
+    @Override
+    public int read() throws IOException {
+        int read = super.read();
+        if (read == -1) {
+            checkComplete();
+        } else {
+            check(read);
+        }
+        return read;
+    }
+
+    @Override
+    public int read(byte[] buffer, int offset, int length) throws IOException {
+        int read = super.read(buffer, offset, length);
+        if (read == -1) {
+            checkComplete();
+        }
+        for (int i = offset; i < offset + read; i++) {
+            check(buffer[i] & 0xFF);
+        }
+        return read;
+    }
+
+    @Override
+    public long skip(long n) throws IOException {
+        throw new IOException("Specification files must be read entirely to be validated");
+    }
+
+    @Override
+    public boolean markSupported() {
+        return false;
+    }
+
+    private void check(int currentByte) throws InvalidSpecificationFileException {
+        if (++size > maxSize) {
+            throw new InvalidSpecificationFileException(ApiValidationError.FILE_TOO_LARGE,
+                    String.format("Specification file exceeds the maximum size of %d bytes", maxSize));
+        }
+        if (pendingContinuationBytes > 0) {
+            if (currentByte < nextByteLowerBound || currentByte > nextByteUpperBound) {
+                throw malformed();
+            }
+            pendingContinuationBytes--;
+            nextByteLowerBound = 0x80;
+            nextByteUpperBound = 0xBF;
+        } else if (currentByte >= 0x80) {
+            startSequence(currentByte);
+        }
+    }
+
+    private void startSequence(int leadingByte) throws InvalidSpecificationFileException {
+        if (leadingByte >= 0xC2 && leadingByte <= 0xDF) {
+            pendingContinuationBytes = 1;
+        } else if (leadingByte >= 0xE0 && leadingByte <= 0xEF) {
+            pendingContinuationBytes = 2;
+            if (leadingByte == 0xE0) {
+                nextByteLowerBound = 0xA0;
+            } else if (leadingByte == 0xED) {
+                nextByteUpperBound = 0x9F;
+            }
+        } else if (leadingByte >= 0xF0 && leadingByte <= 0xF4) {
+            pendingContinuationBytes = 3;
+            if (leadingByte == 0xF0) {
+                nextByteLowerBound = 0x90;
+            } else if (leadingByte == 0xF4) {
+                nextByteUpperBound = 0x8F;
+            }
+        } else {
+            throw malformed();
+        }
+    }
+
+    private void checkComplete() throws InvalidSpecificationFileException {
+        if (pendingContinuationBytes > 0) {
+            throw malformed();
+        }
+    }
+
+    private InvalidSpecificationFileException malformed() {
+        return new InvalidSpecificationFileException(ApiValidationError.MALFORMATED_DATA,
+                String.format("Specification file is not valid UTF-8 (byte %d)", size));
+    }
+}
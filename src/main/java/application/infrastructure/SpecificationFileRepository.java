@@ -1,10 +1,26 @@
 package application.infrastructure;
 
 import application.infrastructure.models.SpecificationFile;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.PagingAndSortingRepository;
 import org.springframework.stereotype.Repository;
 
 @Repository
 public interface SpecificationFileRepository extends PagingAndSortingRepository<SpecificationFile, Long> {
 
+    @Modifying
+    @Query("update SpecificationFile f set f.referenceCount = f.referenceCount - 1 where f.id = ?1")
+    int decrementReferenceCount(long id);
+
+    @Modifying
+    @Query("delete from SpecificationFile f where f.id = ?1 and f.referenceCount <= 0")
+    int deleteIfUnreferenced(long id);
+
+    long countByContentHash(String contentHash);
+
+    @Query("select f from SpecificationFile f where f.id > ?1 order by f.id asc")
+    Slice<SpecificationFile> findAfter(long id, Pageable pageable);
 }
@@ -0,0 +1,42 @@
+package application.infrastructure;
+
+import application.infrastructure.models.SpecificationFile;
+import org.springframework.core.io.AbstractResource;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.zip.GZIPInputStream;
+
+public class SpecificationFileResource extends AbstractResource {
+
+    private static final int INFLATER_BUFFER_SIZE = 8192;
+
+    private final SpecificationFile specificationFile;
+    private final SpecificationStore specificationStore;
+    private final boolean encoded;
+
+    public SpecificationFileResource(SpecificationFile specificationFile, SpecificationStore specificationStore, boolean encoded) {
+        this.specificationFile = specificationFile;
+        this.specificationStore = specificationStore;
+        this.encoded = encoded;
+    }
+
+    @Override
+    public InputStream getInputStream() throws IOException {
+        InputStream storedContent = specificationStore.read(specificationFile);
+        if (specificationFile.isGzipEncoded() && !encoded) {
+            return new GZIPInputStream(storedContent, INFLATER_BUFFER_SIZE);
+        }
+        return storedContent;
+    }
+
+    @Override
+    public long contentLength() {
+        return encoded ? specificationFile.getStoredLength() : specificationFile.getContentLength();
+    }
+
+    @Override
+    public String getDescription() {
+        return "Specification file [" + specificationFile.getId() + "]";
+    }
+}
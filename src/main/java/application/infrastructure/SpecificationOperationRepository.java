@@ -0,0 +1,56 @@
+package application.infrastructure;
+
+import application.infrastructure.models.SpecificationOperation;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.List;
+
+@Repository
+public class SpecificationOperationRepository {
+
+    private static final String INSERT_OPERATIONS = "insert into specification_operation_index (specification_file_id, operations) values (?, ?)";
+    private static final String SELECT_OPERATIONS = "select operations from specification_operation_index where specification_file_id = ?";
+    private static final String DELETE_OPERATIONS = "delete from specification_operation_index where specification_file_id = ?";
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+    private static final ObjectReader OPERATIONS_READER = OBJECT_MAPPER.readerFor(new TypeReference<List<SpecificationOperation>>() {
+    });
+    private static final ObjectWriter OPERATIONS_WRITER = OBJECT_MAPPER.writerFor(new TypeReference<List<SpecificationOperation>>() {
+    });
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    public void save(long specificationFileId, List<SpecificationOperation> operations) throws IOException {
+        try {
+            jdbcTemplate.update(INSERT_OPERATIONS, specificationFileId, OPERATIONS_WRITER.writeValueAsBytes(operations));
+        } catch (DuplicateKeyException alreadyIndexed) {
+            // Another request indexed this specification file first, from the same content.
+        }
+    }
+
+    public List<SpecificationOperation> find(long specificationFileId) {
+        List<byte[]> operations = jdbcTemplate.queryForList(SELECT_OPERATIONS, byte[].class, specificationFileId);
+        if (operations.isEmpty()) {
+            return null;
+        }
+        try {
+            return OPERATIONS_READER.readValue(operations.get(0));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public void delete(long specificationFileId) {
+        jdbcTemplate.update(DELETE_OPERATIONS, specificationFileId);
+    }
+}
@@ -0,0 +1,21 @@
+package application.infrastructure;
+
+import application.infrastructure.models.SpecificationFile;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Keeps the stored bytes of specification files, gzipped or not as their content encoding says. Rows of
+ * specification_file stay in the database whichever store holds their content.
+ */
+public interface SpecificationStore {
+
+    StoredContentOutputStream openOutputStream(SpecificationFile specificationFile) throws IOException;
+
+    InputStream read(SpecificationFile specificationFile) throws IOException;
+
+    boolean contains(SpecificationFile specificationFile);
+
+    void delete(SpecificationFile specificationFile) throws IOException;
+}
@@ -0,0 +1,46 @@
+package application.infrastructure;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.util.StringUtils;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Picks the store holding the content of specification files: "database" or "filesystem". Naming the other
+ * store in catalogue.specification.store.migrate-from moves its content to the chosen store.
+ */
+@Configuration
+public class SpecificationStoreConfiguration {
+
+    static final String DATABASE = "database";
+    static final String FILESYSTEM = "filesystem";
+
+    @Bean
+    @Primary
+    public SpecificationStore specificationStore(@Value("${catalogue.specification.store.type:" + DATABASE + "}") String type,
+                                                 @Value("${catalogue.specification.store.migrate-from:}") String migrateFrom,
+                                                 @Qualifier("specificationFileContentRepository") SpecificationStore databaseStore,
+                                                 @Qualifier("fileSystemSpecificationStore") SpecificationStore fileSystemStore) {
+        Map<String, SpecificationStore> stores = new HashMap<>();
+        stores.put(DATABASE, databaseStore);
+        stores.put(FILESYSTEM, fileSystemStore);
+        SpecificationStore store = find(stores, type);
+        if (!StringUtils.hasText(migrateFrom) || migrateFrom.equals(type)) {
+            return store;
+        }
+        return new MigratingSpecificationStore(find(stores, migrateFrom), store);
+    }
+
+    private static SpecificationStore find(Map<String, SpecificationStore> stores, String type) {
+        SpecificationStore store = stores.get(type);
+        if (store == null) {
+            throw new IllegalArgumentException("Unknown specification store '" + type + "', expected one of " + stores.keySet());
+        }
+        return store;
+    }
+}
@@ -0,0 +1,14 @@
+package application.infrastructure;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+public abstract class StoredContentOutputStream extends OutputStream {
+
+    public abstract long getLength();
+
+    /**
+     * Closes the stream without storing what was written to it.
+     */
+    public abstract void abort() throws IOException;
+}
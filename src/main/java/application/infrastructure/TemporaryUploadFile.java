@@ -0,0 +1,82 @@
+package application.infrastructure;
+
+import org.springframework.util.FileCopyUtils;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Keeps an uploaded file past the end of its request by moving it to a temporary file, which is removed by delete.
+ */
+public class TemporaryUploadFile implements MultipartFile {
+
+    private final File file;
+    private final String name;
+    private final String originalFilename;
+    private final String contentType;
+
+    private TemporaryUploadFile(File file, MultipartFile uploadedFile) {
+        this.file = file;
+        this.name = uploadedFile.getName();
+        this.originalFilename = uploadedFile.getOriginalFilename();
+        this.contentType = uploadedFile.getContentType();
+    }
+
+    public static TemporaryUploadFile of(MultipartFile uploadedFile) throws IOException {
+        File file = File.createTempFile("api-upload", ".tmp");
+        try {
+            uploadedFile.transferTo(file);
+        } catch (IOException | RuntimeException transferFailure) {
+            file.delete();
+            throw transferFailure;
+        }
+        return new TemporaryUploadFile(file, uploadedFile);
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public String getOriginalFilename() {
+        return originalFilename;
+    }
+
+    @Override
+    public String getContentType() {
+        return contentType;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return file.length() == 0;
+    }
+
+    @Override
+    public long getSize() {
+        return file.length();
+    }
+
+    @Override
+    public byte[] getBytes() throws IOException {
+        return FileCopyUtils.copyToByteArray(file);
+    }
+
+    @Override
+    public InputStream getInputStream() throws IOException {
+        return new FileInputStream(file);
+    }
+
+    @Override
+    public void transferTo(File destination) throws IOException {
+        FileCopyUtils.copy(file, destination);
+    }
+
+    public void delete() {
+        file.delete();
+    }
+}
@@ -25,7 +25,13 @@ public class Api {
     private String specificationType;
 
     @JsonIgnore
-    @OneToOne(cascade = CascadeType.ALL, fetch = FetchType.EAGER, targetEntity = SpecificationFile.class)
+    private long revision;
+
+    @JsonIgnore
+    private long lastModified;
+
+    @JsonIgnore
+    @ManyToOne(fetch = FetchType.LAZY, targetEntity = SpecificationFile.class)
     @JoinTable(name = "API_SPECIFICATIONFILE", joinColumns = {@JoinColumn(name = "API_ID")}, inverseJoinColumns = {@JoinColumn(name = "SPECIFICATIONFILE_ID")})
     private SpecificationFile specificationFile;
 
@@ -73,6 +79,22 @@ public class Api {
         this.id = id;
     }
 
+    public long getRevision() {
+        return revision;
+    }
+
+    public void setRevision(long revision) {
+        this.revision = revision;
+    }
+
+    public long getLastModified() {
+        return lastModified;
+    }
+
+    public void setLastModified(long lastModified) {
+        this.lastModified = lastModified;
+    }
+
     public SpecificationFile getSpecificationFile() {
         return specificationFile;
     }
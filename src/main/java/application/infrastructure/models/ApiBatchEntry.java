@@ -0,0 +1,134 @@
+package application.infrastructure.models;
+
+import application.infrastructure.SpecificationContentSerializer;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import org.springframework.core.io.Resource;
+
+/**
+ * One line of a batch lookup: the API asked for, or only the id or name and version asked for when it was not found.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class ApiBatchEntry {
+
+    private boolean found;
+
+    private Long id;
+
+    private String name;
+
+    private String version;
+
+    private String specificationType;
+
+    private String specificationPath;
+
+    private String contentType;
+
+    private String contentHash;
+
+    @JsonSerialize(using = SpecificationContentSerializer.class)
+    private Resource specificationContent;
+
+    public ApiBatchEntry() {
+    }
+
+    public static ApiBatchEntry found(Api api) {
+        ApiBatchEntry entry = new ApiBatchEntry();
+        entry.found = true;
+        entry.id = api.getId();
+        entry.name = api.getName();
+        entry.version = api.getVersion();
+        entry.specificationType = api.getSpecificationType();
+        if (api.getSpecificationFile() != null) {
+            entry.contentType = api.getSpecificationFile().getContentType();
+            entry.contentHash = api.getSpecificationFile().getContentHash();
+        }
+        return entry;
+    }
+
+    public static ApiBatchEntry missing(Long id) {
+        ApiBatchEntry entry = new ApiBatchEntry();
+        entry.id = id;
+        return entry;
+    }
+
+    public static ApiBatchEntry missing(ApiBatchRequest.NameAndVersion nameAndVersion) {
+        ApiBatchEntry entry = new ApiBatchEntry();
+        entry.name = nameAndVersion.getName();
+        entry.version = nameAndVersion.getVersion();
+        return entry;
+    }
+
+    public boolean isFound() {
+        return found;
+    }
+
+    public void setFound(boolean found) {
+        this.found = found;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public String getVersion() {
+        return version;
+    }
+
+    public void setVersion(String version) {
+        this.version = version;
+    }
+
+    public String getSpecificationType() {
+        return specificationType;
+    }
+
+    public void setSpecificationType(String specificationType) {
+        this.specificationType = specificationType;
+    }
+
+    public String getSpecificationPath() {
+        return specificationPath;
+    }
+
+    public void setSpecificationPath(String specificationPath) {
+        this.specificationPath = specificationPath;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+
+    public void setContentType(String contentType) {
+        this.contentType = contentType;
+    }
+
+    public String getContentHash() {
+        return contentHash;
+    }
+
+    public void setContentHash(String contentHash) {
+        this.contentHash = contentHash;
+    }
+
+    public Resource getSpecificationContent() {
+        return specificationContent;
+    }
+
+    public void setSpecificationContent(Resource specificationContent) {
+        this.specificationContent = specificationContent;
+    }
+}
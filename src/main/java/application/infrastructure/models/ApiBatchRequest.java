@@ -0,0 +1,70 @@
+package application.infrastructure.models;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class ApiBatchRequest {
+
+    private List<Long> ids = new ArrayList<>();
+
+    private List<NameAndVersion> apis = new ArrayList<>();
+
+    public ApiBatchRequest() {
+    }
+
+    public ApiBatchRequest(List<Long> ids, List<NameAndVersion> apis) {
+        this.ids = ids;
+        this.apis = apis;
+    }
+
+    public List<Long> getIds() {
+        return ids;
+    }
+
+    public void setIds(List<Long> ids) {
+        this.ids = ids;
+    }
+
+    public List<NameAndVersion> getApis() {
+        return apis;
+    }
+
+    public void setApis(List<NameAndVersion> apis) {
+        this.apis = apis;
+    }
+
+    public int size() {
+        return (ids == null ? 0 : ids.size()) + (apis == null ? 0 : apis.size());
+    }
+
+    public static class NameAndVersion {
+
+        private String name;
+
+        private String version;
+
+        public NameAndVersion() {
+        }
+
+        public NameAndVersion(String name, String version) {
+            this.name = name;
+            this.version = version;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public void setName(String name) {
+            this.name = name;
+        }
+
+        public String getVersion() {
+            return version;
+        }
+
+        public void setVersion(String version) {
+            this.version = version;
+        }
+    }
+}
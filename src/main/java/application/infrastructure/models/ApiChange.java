@@ -0,0 +1,115 @@
+package application.infrastructure.models;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import javax.persistence.Entity;
+import javax.persistence.EnumType;
+import javax.persistence.Enumerated;
+import javax.persistence.Id;
+import javax.persistence.Index;
+import javax.persistence.Table;
+
+@Entity
+@Table(indexes = @Index(columnList = "apiId"))
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class ApiChange {
+
+    public enum Type {
+        SAVED, DELETED
+    }
+
+    @Id
+    private long sequence;
+
+    @Enumerated(EnumType.STRING)
+    private Type type;
+
+    private long apiId;
+
+    private String name;
+
+    private String version;
+
+    private String specificationType;
+
+    private Long revision;
+
+    private long changedAt;
+
+    public ApiChange() {
+    }
+
+    public ApiChange(Type type, long apiId, String name, String version, String specificationType, Long revision, long changedAt) {
+        this.type = type;
+        this.apiId = apiId;
+        this.name = name;
+        this.version = version;
+        this.specificationType = specificationType;
+        this.revision = revision;
+        this.changedAt = changedAt;
+    }
+
+    public long getSequence() {
+        return sequence;
+    }
+
+    public void setSequence(long sequence) {
+        this.sequence = sequence;
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public void setType(Type type) {
+        this.type = type;
+    }
+
+    public long getApiId() {
+        return apiId;
+    }
+
+    public void setApiId(long apiId) {
+        this.apiId = apiId;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public String getVersion() {
+        return version;
+    }
+
+    public void setVersion(String version) {
+        this.version = version;
+    }
+
+    public String getSpecificationType() {
+        return specificationType;
+    }
+
+    public void setSpecificationType(String specificationType) {
+        this.specificationType = specificationType;
+    }
+
+    public Long getRevision() {
+        return revision;
+    }
+
+    public void setRevision(Long revision) {
+        this.revision = revision;
+    }
+
+    public long getChangedAt() {
+        return changedAt;
+    }
+
+    public void setChangedAt(long changedAt) {
+        this.changedAt = changedAt;
+    }
+}
@@ -0,0 +1,27 @@
+package application.infrastructure.models;
+
+import javax.persistence.Entity;
+import javax.persistence.Id;
+
+/**
+ * Single row holding the last sequence number given to an {@link ApiChange}. Writers increment it as the last
+ * statement of their transaction, so its row lock orders commits by sequence number.
+ */
+@Entity
+public class ApiChangeSequence {
+
+    public static final long ID = 1;
+
+    @Id
+    private long id;
+
+    private long lastSequence;
+
+    public long getId() {
+        return id;
+    }
+
+    public long getLastSequence() {
+        return lastSequence;
+    }
+}
@@ -0,0 +1,38 @@
+package application.infrastructure.models;
+
+import java.util.List;
+
+public class ApiChangeSlice {
+
+    private List<ApiChange> content;
+
+    private long cursor;
+
+    public ApiChangeSlice() {
+    }
+
+    public ApiChangeSlice(List<ApiChange> content, long cursor) {
+        this.content = content;
+        this.cursor = cursor;
+    }
+
+    public List<ApiChange> getContent() {
+        return content;
+    }
+
+    public void setContent(List<ApiChange> content) {
+        this.content = content;
+    }
+
+    public int getNumberOfElements() {
+        return content.size();
+    }
+
+    public long getCursor() {
+        return cursor;
+    }
+
+    public void setCursor(long cursor) {
+        this.cursor = cursor;
+    }
+}
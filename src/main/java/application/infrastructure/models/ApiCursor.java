@@ -0,0 +1,62 @@
+package application.infrastructure.models;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Position in the APIs collection ordered by (name, version), handed to clients as an opaque token.
+ */
+public class ApiCursor {
+
+    private static final char SEPARATOR = ':';
+
+    private final String name;
+
+    private final String version;
+
+    public ApiCursor(String name, String version) {
+        this.name = name;
+        this.version = version;
+    }
+
+    public static ApiCursor after(ApiSummary api) {
+        return new ApiCursor(api.getName(), api.getVersion());
+    }
+
+    public static ApiCursor decode(String token) {
+        String position;
+        try {
+            position = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException invalidBase64) {
+            return null;
+        }
+        int separatorIndex = position.indexOf(SEPARATOR);
+        if (separatorIndex < 1) {
+            return null;
+        }
+        int nameLength;
+        try {
+            nameLength = Integer.parseInt(position.substring(0, separatorIndex));
+        } catch (NumberFormatException invalidLength) {
+            return null;
+        }
+        int versionIndex = separatorIndex + 1 + nameLength;
+        if (nameLength < 0 || versionIndex > position.length()) {
+            return null;
+        }
+        return new ApiCursor(position.substring(separatorIndex + 1, versionIndex), position.substring(versionIndex));
+    }
+
+    public String encode() {
+        String position = name.length() + String.valueOf(SEPARATOR) + name + version;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(position.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getVersion() {
+        return version;
+    }
+}
@@ -0,0 +1,62 @@
+package application.infrastructure.models;
+
+public class ApiImportEntry {
+
+    private String name;
+
+    private String version;
+
+    private String specificationType;
+
+    private String file;
+
+    private String contentType;
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public String getVersion() {
+        return version;
+    }
+
+    public void setVersion(String version) {
+        this.version = version;
+    }
+
+    public String getSpecificationType() {
+        return specificationType;
+    }
+
+    public void setSpecificationType(String specificationType) {
+        this.specificationType = specificationType;
+    }
+
+    public String getFile() {
+        return file;
+    }
+
+    public void setFile(String file) {
+        this.file = file;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+
+    public void setContentType(String contentType) {
+        this.contentType = contentType;
+    }
+
+    public Api toApi() {
+        Api api = new Api();
+        api.setName(name);
+        api.setVersion(version);
+        api.setSpecificationType(specificationType);
+        return api;
+    }
+}
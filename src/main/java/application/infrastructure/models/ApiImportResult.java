@@ -0,0 +1,80 @@
+package application.infrastructure.models;
+
+public class ApiImportResult {
+
+    private int line;
+
+    private String name;
+
+    private String version;
+
+    private Long id;
+
+    private String specificationPath;
+
+    private ApiError error;
+
+    public ApiImportResult() {
+    }
+
+    public ApiImportResult(int line, ApiImportEntry entry) {
+        this.line = line;
+        if (entry != null) {
+            this.name = entry.getName();
+            this.version = entry.getVersion();
+        }
+    }
+
+    public int getLine() {
+        return line;
+    }
+
+    public void setLine(int line) {
+        this.line = line;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public String getVersion() {
+        return version;
+    }
+
+    public void setVersion(String version) {
+        this.version = version;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getSpecificationPath() {
+        return specificationPath;
+    }
+
+    public void setSpecificationPath(String specificationPath) {
+        this.specificationPath = specificationPath;
+    }
+
+    public ApiError getError() {
+        return error;
+    }
+
+    public void setError(ApiError error) {
+        this.error = error;
+    }
+
+    public void imported(Api api) {
+        this.id = api.getId();
+        this.specificationPath = api.getSpecificationPath();
+    }
+}
@@ -0,0 +1,72 @@
+package application.infrastructure.models;
+
+public class ApiIngestJob {
+
+    public enum Status {
+        QUEUED, RUNNING, SUCCEEDED, FAILED
+    }
+
+    private final String id;
+
+    private final long submittedAt;
+
+    private volatile Status status = Status.QUEUED;
+
+    private volatile long startedAt;
+
+    private volatile long finishedAt;
+
+    private volatile Api api;
+
+    private volatile ApiError error;
+
+    public ApiIngestJob(String id) {
+        this.id = id;
+        this.submittedAt = System.currentTimeMillis();
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public long getSubmittedAt() {
+        return submittedAt;
+    }
+
+    public Long getStartedAt() {
+        return startedAt == 0 ? null : startedAt;
+    }
+
+    public Long getFinishedAt() {
+        return finishedAt == 0 ? null : finishedAt;
+    }
+
+    public Api getApi() {
+        return api;
+    }
+
+    public ApiError getError() {
+        return error;
+    }
+
+    public void started() {
+        startedAt = System.currentTimeMillis();
+        status = Status.RUNNING;
+    }
+
+    public void succeeded(Api savedApi) {
+        api = savedApi;
+        finishedAt = System.currentTimeMillis();
+        status = Status.SUCCEEDED;
+    }
+
+    public void failed(ApiError failure) {
+        error = failure;
+        finishedAt = System.currentTimeMillis();
+        status = Status.FAILED;
+    }
+}
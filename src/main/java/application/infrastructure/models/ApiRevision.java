@@ -0,0 +1,131 @@
+package application.infrastructure.models;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.IdClass;
+import java.io.Serializable;
+
+@Entity
+@IdClass(ApiRevision.RevisionId.class)
+public class ApiRevision {
+
+    @Id
+    @JsonIgnore
+    private long apiId;
+
+    @Id
+    private long revision;
+
+    private boolean snapshot;
+
+    private String contentType;
+
+    private long contentLength;
+
+    private String contentHash;
+
+    private long storedLength;
+
+    private long lastModified;
+
+    @JsonIgnore
+    @Column(length = Integer.MAX_VALUE)
+    private byte[] data;
+
+    public long getApiId() {
+        return apiId;
+    }
+
+    public void setApiId(long apiId) {
+        this.apiId = apiId;
+    }
+
+    public long getRevision() {
+        return revision;
+    }
+
+    public void setRevision(long revision) {
+        this.revision = revision;
+    }
+
+    public boolean isSnapshot() {
+        return snapshot;
+    }
+
+    public void setSnapshot(boolean snapshot) {
+        this.snapshot = snapshot;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+
+    public void setContentType(String contentType) {
+        this.contentType = contentType;
+    }
+
+    public long getContentLength() {
+        return contentLength;
+    }
+
+    public void setContentLength(long contentLength) {
+        this.contentLength = contentLength;
+    }
+
+    public String getContentHash() {
+        return contentHash;
+    }
+
+    public void setContentHash(String contentHash) {
+        this.contentHash = contentHash;
+    }
+
+    public long getStoredLength() {
+        return storedLength;
+    }
+
+    public void setStoredLength(long storedLength) {
+        this.storedLength = storedLength;
+    }
+
+    public long getLastModified() {
+        return lastModified;
+    }
+
+    public void setLastModified(long lastModified) {
+        this.lastModified = lastModified;
+    }
+
+    public byte[] getData() {
+        return data;
+    }
+
+    public void setData(byte[] data) {
+        this.data = data;
+    }
+
+    public static class RevisionId implements Serializable {
+        private long apiId;
+        private long revision;
+
+        @Override
+        public boolean equals(Object other) {
+            if (this == other) {
+                return true;
+            }
+            if (!(other instanceof RevisionId)) {
+                return false;
+            }
+            RevisionId revisionId = (RevisionId) other;
+            return apiId == revisionId.apiId && revision == revisionId.revision;
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * Long.hashCode(apiId) + Long.hashCode(revision);
+        }
+    }
+}
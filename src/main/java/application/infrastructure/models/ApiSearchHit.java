@@ -0,0 +1,22 @@
+package application.infrastructure.models;
+
+public class ApiSearchHit extends ApiSummary {
+
+    private float score;
+
+    public ApiSearchHit() {
+    }
+
+    public ApiSearchHit(ApiSummary api, float score) {
+        super(api.getId(), api.getName(), api.getVersion(), api.getSpecificationType());
+        this.score = score;
+    }
+
+    public float getScore() {
+        return score;
+    }
+
+    public void setScore(float score) {
+        this.score = score;
+    }
+}
@@ -0,0 +1,72 @@
+package application.infrastructure.models;
+
+import java.util.List;
+import java.util.Map;
+
+public class ApiSearchResult {
+
+    private List<ApiSearchHit> content;
+
+    private long totalElements;
+
+    private int number;
+
+    private int size;
+
+    private Map<String, Map<String, Integer>> facets;
+
+    public ApiSearchResult() {
+    }
+
+    public ApiSearchResult(List<ApiSearchHit> content, long totalElements, int number, int size, Map<String, Map<String, Integer>> facets) {
+        this.content = content;
+        this.totalElements = totalElements;
+        this.number = number;
+        this.size = size;
+        this.facets = facets;
+    }
+
+    public List<ApiSearchHit> getContent() {
+        return content;
+    }
+
+    public void setContent(List<ApiSearchHit> content) {
+        this.content = content;
+    }
+
+    public long getTotalElements() {
+        return totalElements;
+    }
+
+    public void setTotalElements(long totalElements) {
+        this.totalElements = totalElements;
+    }
+
+    public int getNumber() {
+        return number;
+    }
+
+    public void setNumber(int number) {
+        this.number = number;
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public void setSize(int size) {
+        this.size = size;
+    }
+
+    public int getNumberOfElements() {
+        return content.size();
+    }
+
+    public Map<String, Map<String, Integer>> getFacets() {
+        return facets;
+    }
+
+    public void setFacets(Map<String, Map<String, Integer>> facets) {
+        this.facets = facets;
+    }
+}
@@ -0,0 +1,64 @@
+package application.infrastructure.models;
+
+public class ApiSummary {
+
+    private long id;
+
+    private String name;
+
+    private String version;
+
+    private String specificationPath;
+
+    private String specificationType;
+
+    public ApiSummary() {
+    }
+
+    public ApiSummary(long id, String name, String version, String specificationType) {
+        this.id = id;
+        this.name = name;
+        this.version = version;
+        this.specificationType = specificationType;
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    public void setId(long id) {
+        this.id = id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public String getVersion() {
+        return version;
+    }
+
+    public void setVersion(String version) {
+        this.version = version;
+    }
+
+    public String getSpecificationPath() {
+        return specificationPath;
+    }
+
+    public void setSpecificationPath(String specificationPath) {
+        this.specificationPath = specificationPath;
+    }
+
+    public String getSpecificationType() {
+        return specificationType;
+    }
+
+    public void setSpecificationType(String specificationType) {
+        this.specificationType = specificationType;
+    }
+}
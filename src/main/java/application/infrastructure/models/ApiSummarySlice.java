@@ -0,0 +1,53 @@
+package application.infrastructure.models;
+
+import java.util.List;
+
+public class ApiSummarySlice {
+
+    private List<ApiSummary> content;
+
+    private int size;
+
+    private String nextCursor;
+
+    public ApiSummarySlice() {
+    }
+
+    public ApiSummarySlice(List<ApiSummary> content, int size, String nextCursor) {
+        this.content = content;
+        this.size = size;
+        this.nextCursor = nextCursor;
+    }
+
+    public List<ApiSummary> getContent() {
+        return content;
+    }
+
+    public void setContent(List<ApiSummary> content) {
+        this.content = content;
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public void setSize(int size) {
+        this.size = size;
+    }
+
+    public int getNumberOfElements() {
+        return content.size();
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public void setNextCursor(String nextCursor) {
+        this.nextCursor = nextCursor;
+    }
+
+    public boolean isLast() {
+        return nextCursor == null;
+    }
+}
@@ -0,0 +1,25 @@
+package application.infrastructure.models;
+
+public class ContentDigest {
+    private final String hash;
+    private final long length;
+    private final boolean compressible;
+
+    public ContentDigest(String hash, long length, boolean compressible) {
+        this.hash = hash;
+        this.length = length;
+        this.compressible = compressible;
+    }
+
+    public String getHash() {
+        return hash;
+    }
+
+    public long getLength() {
+        return length;
+    }
+
+    public boolean isCompressible() {
+        return compressible;
+    }
+}
@@ -0,0 +1,21 @@
+package application.infrastructure.models;
+
+public class RenderedPage {
+
+    private final byte[] content;
+
+    private final String eTag;
+
+    public RenderedPage(byte[] content, String eTag) {
+        this.content = content;
+        this.eTag = eTag;
+    }
+
+    public byte[] getContent() {
+        return content;
+    }
+
+    public String getETag() {
+        return eTag;
+    }
+}
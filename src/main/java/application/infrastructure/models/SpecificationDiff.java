@@ -0,0 +1,258 @@
+package application.infrastructure.models;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.util.List;
+
+/**
+ * Structural differences between the specifications of two APIs, going from {@code fromContentHash} to
+ * {@code toContentHash}. A change is breaking when clients written against the first specification may fail
+ * against the second one.
+ */
+public class SpecificationDiff {
+
+    private String fromContentHash;
+
+    private String toContentHash;
+
+    private boolean breaking;
+
+    private List<SpecificationOperation> addedOperations;
+
+    private List<SpecificationOperation> removedOperations;
+
+    private List<OperationChange> changedOperations;
+
+    private List<String> addedSchemas;
+
+    private List<String> removedSchemas;
+
+    private List<SchemaChange> changedSchemas;
+
+    public String getFromContentHash() {
+        return fromContentHash;
+    }
+
+    public void setFromContentHash(String fromContentHash) {
+        this.fromContentHash = fromContentHash;
+    }
+
+    public String getToContentHash() {
+        return toContentHash;
+    }
+
+    public void setToContentHash(String toContentHash) {
+        this.toContentHash = toContentHash;
+    }
+
+    public boolean isBreaking() {
+        return breaking;
+    }
+
+    public void setBreaking(boolean breaking) {
+        this.breaking = breaking;
+    }
+
+    public List<SpecificationOperation> getAddedOperations() {
+        return addedOperations;
+    }
+
+    public void setAddedOperations(List<SpecificationOperation> addedOperations) {
+        this.addedOperations = addedOperations;
+    }
+
+    public List<SpecificationOperation> getRemovedOperations() {
+        return removedOperations;
+    }
+
+    public void setRemovedOperations(List<SpecificationOperation> removedOperations) {
+        this.removedOperations = removedOperations;
+    }
+
+    public List<OperationChange> getChangedOperations() {
+        return changedOperations;
+    }
+
+    public void setChangedOperations(List<OperationChange> changedOperations) {
+        this.changedOperations = changedOperations;
+    }
+
+    public List<String> getAddedSchemas() {
+        return addedSchemas;
+    }
+
+    public void setAddedSchemas(List<String> addedSchemas) {
+        this.addedSchemas = addedSchemas;
+    }
+
+    public List<String> getRemovedSchemas() {
+        return removedSchemas;
+    }
+
+    public void setRemovedSchemas(List<String> removedSchemas) {
+        this.removedSchemas = removedSchemas;
+    }
+
+    public List<SchemaChange> getChangedSchemas() {
+        return changedSchemas;
+    }
+
+    public void setChangedSchemas(List<SchemaChange> changedSchemas) {
+        this.changedSchemas = changedSchemas;
+    }
+
+    public int size() {
+        return addedOperations.size() + removedOperations.size() + changedOperations.size()
+                + addedSchemas.size() + removedSchemas.size() + changedSchemas.size();
+    }
+
+    @JsonInclude(JsonInclude.Include.NON_EMPTY)
+    public static class OperationChange {
+
+        private String method;
+
+        private String path;
+
+        private String operationId;
+
+        private String previousOperationId;
+
+        private List<String> addedSchemas;
+
+        private List<String> removedSchemas;
+
+        private List<String> changedSchemas;
+
+        @JsonInclude(JsonInclude.Include.ALWAYS)
+        private boolean breaking;
+
+        public String getMethod() {
+            return method;
+        }
+
+        public void setMethod(String method) {
+            this.method = method;
+        }
+
+        public String getPath() {
+            return path;
+        }
+
+        public void setPath(String path) {
+            this.path = path;
+        }
+
+        public String getOperationId() {
+            return operationId;
+        }
+
+        public void setOperationId(String operationId) {
+            this.operationId = operationId;
+        }
+
+        public String getPreviousOperationId() {
+            return previousOperationId;
+        }
+
+        public void setPreviousOperationId(String previousOperationId) {
+            this.previousOperationId = previousOperationId;
+        }
+
+        public List<String> getAddedSchemas() {
+            return addedSchemas;
+        }
+
+        public void setAddedSchemas(List<String> addedSchemas) {
+            this.addedSchemas = addedSchemas;
+        }
+
+        public List<String> getRemovedSchemas() {
+            return removedSchemas;
+        }
+
+        public void setRemovedSchemas(List<String> removedSchemas) {
+            this.removedSchemas = removedSchemas;
+        }
+
+        public List<String> getChangedSchemas() {
+            return changedSchemas;
+        }
+
+        public void setChangedSchemas(List<String> changedSchemas) {
+            this.changedSchemas = changedSchemas;
+        }
+
+        public boolean isBreaking() {
+            return breaking;
+        }
+
+        public void setBreaking(boolean breaking) {
+            this.breaking = breaking;
+        }
+    }
+
+    @JsonInclude(JsonInclude.Include.NON_EMPTY)
+    public static class SchemaChange {
+
+        private String name;
+
+        private List<String> addedProperties;
+
+        private List<String> removedProperties;
+
+        private List<String> changedProperties;
+
+        private List<String> newlyRequiredProperties;
+
+        @JsonInclude(JsonInclude.Include.ALWAYS)
+        private boolean breaking;
+
+        public String getName() {
+            return name;
+        }
+
+        public void setName(String name) {
+            this.name = name;
+        }
+
+        public List<String> getAddedProperties() {
+            return addedProperties;
+        }
+
+        public void setAddedProperties(List<String> addedProperties) {
+            this.addedProperties = addedProperties;
+        }
+
+        public List<String> getRemovedProperties() {
+            return removedProperties;
+        }
+
+        public void setRemovedProperties(List<String> removedProperties) {
+            this.removedProperties = removedProperties;
+        }
+
+        public List<String> getChangedProperties() {
+            return changedProperties;
+        }
+
+        public void setChangedProperties(List<String> changedProperties) {
+            this.changedProperties = changedProperties;
+        }
+
+        public List<String> getNewlyRequiredProperties() {
+            return newlyRequiredProperties;
+        }
+
+        public void setNewlyRequiredProperties(List<String> newlyRequiredProperties) {
+            this.newlyRequiredProperties = newlyRequiredProperties;
+        }
+
+        public boolean isBreaking() {
+            return breaking;
+        }
+
+        public void setBreaking(boolean breaking) {
+            this.breaking = breaking;
+        }
+    }
+}
@@ -1,18 +1,34 @@
 package application.infrastructure.models;
 
-import javax.persistence.Entity;
-import javax.persistence.GeneratedValue;
-import javax.persistence.GenerationType;
-import javax.persistence.Id;
+import javax.persistence.*;
 
+@Table(
+        uniqueConstraints =
+        @UniqueConstraint(columnNames = {"contentHash", "contentType"})
+)
 @Entity
 public class SpecificationFile {
 
+    public static final String GZIP_ENCODING = "gzip";
+
     @Id
     @GeneratedValue(strategy = GenerationType.AUTO)
     private long id;
     private String contentType;
-    private String fileContent;
+    private long contentLength;
+    private String contentEncoding;
+    private long storedLength;
+    @Column(length = 64)
+    private String contentHash;
+    private int referenceCount;
+
+    public long getId() {
+        return id;
+    }
+
+    public void setId(long id) {
+        this.id = id;
+    }
 
     public String getContentType() {
         return contentType;
@@ -22,11 +38,47 @@ public class SpecificationFile {
         this.contentType = contentType;
     }
 
-    public String getFileContent() {
-        return fileContent;
+    public long getContentLength() {
+        return contentLength;
+    }
+
+    public void setContentLength(long contentLength) {
+        this.contentLength = contentLength;
+    }
+
+    public String getContentEncoding() {
+        return contentEncoding;
+    }
+
+    public void setContentEncoding(String contentEncoding) {
+        this.contentEncoding = contentEncoding;
+    }
+
+    public boolean isGzipEncoded() {
+        return GZIP_ENCODING.equals(contentEncoding);
+    }
+
+    public long getStoredLength() {
+        return storedLength;
+    }
+
+    public void setStoredLength(long storedLength) {
+        this.storedLength = storedLength;
+    }
+
+    public String getContentHash() {
+        return contentHash;
+    }
+
+    public void setContentHash(String contentHash) {
+        this.contentHash = contentHash;
+    }
+
+    public int getReferenceCount() {
+        return referenceCount;
     }
 
-    public void setFileContent(String fileContent) {
-        this.fileContent = fileContent;
+    public void setReferenceCount(int referenceCount) {
+        this.referenceCount = referenceCount;
     }
 }
@@ -0,0 +1,54 @@
+package application.infrastructure.models;
+
+import javax.persistence.*;
+import java.io.Serializable;
+
+@Entity
+@IdClass(SpecificationFileChunk.ChunkId.class)
+public class SpecificationFileChunk {
+
+    public static final int CHUNK_SIZE = 64 * 1024;
+
+    @Id
+    private long specificationFileId;
+
+    @Id
+    private int chunkIndex;
+
+    @Column(length = CHUNK_SIZE)
+    private byte[] data;
+
+    public long getSpecificationFileId() {
+        return specificationFileId;
+    }
+
+    public int getChunkIndex() {
+        return chunkIndex;
+    }
+
+    public byte[] getData() {
+        return data;
+    }
+
+    public static class ChunkId implements Serializable {
+        private long specificationFileId;
+        private int chunkIndex;
+
+        @Override
+        public boolean equals(Object other) {
+            if (this == other) {
+                return true;
+            }
+            if (!(other instanceof ChunkId)) {
+                return false;
+            }
+            ChunkId chunkId = (ChunkId) other;
+            return specificationFileId == chunkId.specificationFileId && chunkIndex == chunkId.chunkIndex;
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * Long.hashCode(specificationFileId) + chunkIndex;
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package application.infrastructure.models;
+
+import java.util.List;
+
+public class SpecificationModel {
+
+    private final List<SpecificationOperation> operations;
+
+    private final List<SpecificationSchema> schemas;
+
+    public SpecificationModel(List<SpecificationOperation> operations, List<SpecificationSchema> schemas) {
+        this.operations = operations;
+        this.schemas = schemas;
+    }
+
+    public List<SpecificationOperation> getOperations() {
+        return operations;
+    }
+
+    public List<SpecificationSchema> getSchemas() {
+        return schemas;
+    }
+}
@@ -0,0 +1,59 @@
+package application.infrastructure.models;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.util.List;
+
+@JsonInclude(JsonInclude.Include.NON_EMPTY)
+public class SpecificationOperation {
+
+    private String method;
+
+    private String path;
+
+    private String operationId;
+
+    private List<String> schemas;
+
+    public SpecificationOperation() {
+    }
+
+    public SpecificationOperation(String method, String path, String operationId, List<String> schemas) {
+        this.method = method;
+        this.path = path;
+        this.operationId = operationId;
+        this.schemas = schemas;
+    }
+
+    public String getMethod() {
+        return method;
+    }
+
+    public void setMethod(String method) {
+        this.method = method;
+    }
+
+    public String getPath() {
+        return path;
+    }
+
+    public void setPath(String path) {
+        this.path = path;
+    }
+
+    public String getOperationId() {
+        return operationId;
+    }
+
+    public void setOperationId(String operationId) {
+        this.operationId = operationId;
+    }
+
+    public List<String> getSchemas() {
+        return schemas;
+    }
+
+    public void setSchemas(List<String> schemas) {
+        this.schemas = schemas;
+    }
+}
@@ -0,0 +1,23 @@
+package application.infrastructure.models;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+
+@Entity
+public class SpecificationOperationIndex {
+
+    @Id
+    private long specificationFileId;
+
+    @Column(length = Integer.MAX_VALUE)
+    private byte[] operations;
+
+    public long getSpecificationFileId() {
+        return specificationFileId;
+    }
+
+    public byte[] getOperations() {
+        return operations;
+    }
+}
@@ -0,0 +1,49 @@
+package application.infrastructure.models;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.util.List;
+import java.util.Map;
+
+@JsonInclude(JsonInclude.Include.NON_EMPTY)
+public class SpecificationSchema {
+
+    private String name;
+
+    private Map<String, String> properties;
+
+    private List<String> required;
+
+    public SpecificationSchema() {
+    }
+
+    public SpecificationSchema(String name, Map<String, String> properties, List<String> required) {
+        this.name = name;
+        this.properties = properties;
+        this.required = required;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public Map<String, String> getProperties() {
+        return properties;
+    }
+
+    public void setProperties(Map<String, String> properties) {
+        this.properties = properties;
+    }
+
+    public List<String> getRequired() {
+        return required;
+    }
+
+    public void setRequired(List<String> required) {
+        this.required = required;
+    }
+}
@@ -0,0 +1,171 @@
+package application.services;
+
+import application.infrastructure.MetricRegistry;
+import application.infrastructure.models.Api;
+import application.infrastructure.models.ApiSummary;
+import application.infrastructure.models.RenderedPage;
+import application.infrastructure.models.SpecificationDiff;
+import application.infrastructure.models.SpecificationOperation;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Read-through cache for the catalogue reads. Entries are invalidated once the writing transaction has
+ * committed, and a generation counter keeps a read that raced with a write from caching what it loaded.
+ */
+@Component
+public class ApiCache {
+
+    private final Cache<Long, Api> apis;
+    private final Cache<PageRequest, Page<ApiSummary>> apiPages;
+    private final Cache<Long, List<SpecificationOperation>> operations;
+    private final Cache<String, SpecificationDiff> diffs;
+    private final Cache<PageRequest, RenderedPage> renderedPages;
+    private final AtomicLong generation = new AtomicLong();
+
+    @Autowired
+    public ApiCache(@Value("${catalogue.cache.apis.maximum-size:10000}") long maximumApis,
+                    @Value("${catalogue.cache.pages.maximum-weight:50000}") long maximumPageWeight,
+                    @Value("${catalogue.cache.operations.maximum-weight:100000}") long maximumOperationWeight,
+                    @Value("${catalogue.cache.diffs.maximum-weight:100000}") long maximumDiffWeight,
+                    @Value("${catalogue.cache.rendered-pages.maximum-bytes:16777216}") long maximumRenderedPageBytes) {
+        apis = CacheBuilder.newBuilder()
+                .maximumSize(maximumApis)
+                .recordStats()
+                .build();
+        apiPages = CacheBuilder.newBuilder()
+                .maximumWeight(maximumPageWeight)
+                .weigher((PageRequest pageRequest, Page<ApiSummary> page) -> Math.max(1, page.getNumberOfElements()))
+                .recordStats()
+                .build();
+        operations = CacheBuilder.newBuilder()
+                .maximumWeight(maximumOperationWeight)
+                .weigher((Long specificationFileId, List<SpecificationOperation> specificationOperations) -> Math.max(1, specificationOperations.size()))
+                .recordStats()
+                .build();
+        diffs = CacheBuilder.newBuilder()
+                .maximumWeight(maximumDiffWeight)
+                .weigher((String contentHashes, SpecificationDiff diff) -> Math.max(1, diff.size()))
+                .recordStats()
+                .build();
+        renderedPages = CacheBuilder.newBuilder()
+                .maximumWeight(maximumRenderedPageBytes)
+                .weigher((PageRequest pageRequest, RenderedPage page) -> Math.max(1, page.getContent().length))
+                .recordStats()
+                .build();
+    }
+
+    @Autowired
+    void registerMetrics(MetricRegistry metricRegistry) {
+        for (String cache : sizes().keySet()) {
+            metricRegistry.functionCounter("catalogue_cache_hits_total", "Reads served by the cache", () -> statistics().get(cache).hitCount(), "cache", cache);
+            metricRegistry.functionCounter("catalogue_cache_misses_total", "Reads loaded from the database", () -> statistics().get(cache).missCount(), "cache", cache);
+            metricRegistry.functionCounter("catalogue_cache_evictions_total", "Entries evicted to stay within bounds", () -> statistics().get(cache).evictionCount(), "cache", cache);
+            metricRegistry.gauge("catalogue_cache_hit_ratio", "Share of reads served by the cache", () -> statistics().get(cache).hitRate(), "cache", cache);
+            metricRegistry.gauge("catalogue_cache_size", "Entries in the cache", () -> sizes().get(cache), "cache", cache);
+        }
+    }
+
+    public Api getApi(long apiId, Supplier<Api> loader) {
+        return get(apis, apiId, loader);
+    }
+
+    public Page<ApiSummary> getApiPage(PageRequest pageRequest, Supplier<Page<ApiSummary>> loader) {
+        return get(apiPages, pageRequest, loader);
+    }
+
+    public List<SpecificationOperation> getOperations(long specificationFileId, Supplier<List<SpecificationOperation>> loader) {
+        return get(operations, specificationFileId, loader);
+    }
+
+    public RenderedPage getRenderedPage(PageRequest pageRequest, Supplier<RenderedPage> renderer) {
+        return get(renderedPages, pageRequest, renderer);
+    }
+
+    /**
+     * Diffs are keyed by the content hashes of both specifications, so they never need to be invalidated.
+     */
+    public SpecificationDiff getDiff(String fromContentHash, String toContentHash, Supplier<SpecificationDiff> loader) {
+        return get(diffs, fromContentHash + ":" + toContentHash, loader);
+    }
+
+    public void apiChanged(long apiId, boolean collectionChanged) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+                @Override
+                public void afterCommit() {
+                    invalidate(apiId, collectionChanged);
+                }
+            });
+        } else {
+            invalidate(apiId, collectionChanged);
+        }
+    }
+
+    public Map<String, CacheStats> statistics() {
+        Map<String, CacheStats> statistics = new LinkedHashMap<>();
+        statistics.put("apis", apis.stats());
+        statistics.put("apiPages", apiPages.stats());
+        statistics.put("operations", operations.stats());
+        statistics.put("diffs", diffs.stats());
+        statistics.put("renderedPages", renderedPages.stats());
+        return statistics;
+    }
+
+    public Map<String, Long> sizes() {
+        Map<String, Long> sizes = new LinkedHashMap<>();
+        sizes.put("apis", apis.size());
+        sizes.put("apiPages", apiPages.size());
+        sizes.put("operations", operations.size());
+        sizes.put("diffs", diffs.size());
+        sizes.put("renderedPages", renderedPages.size());
+        return sizes;
+    }
+
+    private <K, V> V get(Cache<K, V> cache, K key, Supplier<V> loader) {
+        V cached = cache.getIfPresent(key);
+        if (cached != null) {
+            return cached;
+        }
+        long loadGeneration = generation.get();
+        V loaded = loader.get();
+        if (loaded != null && loadGeneration == generation.get()) {
+            cache.put(key, loaded);
+        }
+        return loaded;
+    }
+
+    private void invalidate(long apiId, boolean collectionChanged) {
+        generation.incrementAndGet();
+        apis.invalidate(apiId);
+        renderedPages.invalidateAll();
+        if (collectionChanged) {
+            apiPages.invalidateAll();
+        } else {
+            apiPages.asMap().values().removeIf(page -> contains(page, apiId));
+        }
+    }
+
+    private static boolean contains(Page<ApiSummary> page, long apiId) {
+        for (ApiSummary api : page.getContent()) {
+            if (api.getId() == apiId) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
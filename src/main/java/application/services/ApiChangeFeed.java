@@ -0,0 +1,241 @@
+package application.services;
+
+import application.infrastructure.ApiChangeRepository;
+import application.infrastructure.MetricRegistry;
+import application.infrastructure.models.ApiChange;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Numbers every save and delete of an API and streams them to server-sent event subscribers. Subscribers are fed
+ * right after a local commit, and the feed is polled at a fixed interval to pick up the changes of other instances.
+ * Only the last retainedChanges changes are kept: older ones are deleted at each poll, and a reader whose position
+ * is older than the first change kept has missed some and must start over.
+ */
+@Service
+public class ApiChangeFeed {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ApiChangeFeed.class);
+    private static final long SHUTDOWN_TIMEOUT_SECONDS = 30;
+    private static final String KEEP_ALIVE = "keep-alive";
+
+    @Autowired
+    ApiChangeRepository apiChangeRepository;
+
+    private final long pollIntervalMillis;
+    private final long emitterTimeoutMillis;
+    private final int batchSize;
+    private final long retainedChanges;
+    private final List<Subscription> subscriptions = new CopyOnWriteArrayList<>();
+    private final ScheduledExecutorService dispatcher = Executors.newSingleThreadScheduledExecutor(new CustomizableThreadFactory("api-changes-"));
+
+    @Autowired
+    public ApiChangeFeed(@Value("${catalogue.changes.poll-interval-millis:5000}") long pollIntervalMillis,
+                         @Value("${catalogue.changes.emitter-timeout-millis:300000}") long emitterTimeoutMillis,
+                         @Value("${catalogue.changes.batch-size:100}") int batchSize,
+                         @Value("${catalogue.changes.retained-changes:100000}") long retainedChanges) {
+        this.pollIntervalMillis = pollIntervalMillis;
+        this.emitterTimeoutMillis = emitterTimeoutMillis;
+        this.batchSize = batchSize;
+        this.retainedChanges = retainedChanges;
+    }
+
+    @PostConstruct
+    public void start() {
+        dispatcher.scheduleWithFixedDelay(this::poll, pollIntervalMillis, pollIntervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @Autowired
+    void registerMetrics(MetricRegistry metricRegistry) {
+        metricRegistry.gauge("catalogue_change_feed_subscribers", "Clients following the change feed", this::getSubscriberCount);
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        for (Subscription subscription : subscriptions) {
+            subscription.emitter.complete();
+        }
+        dispatcher.shutdown();
+        dispatcher.awaitTermination(SHUTDOWN_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Stores the change with the next sequence number. Within a transaction, the changes are held until it commits
+     * and appended together, so the lock of the sequence row is only taken for the last writes of the transaction:
+     * a transaction saving many APIs does not hold up the others while it saves them.
+     */
+    public void record(ApiChange change) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            pendingChanges().changes.add(change);
+        } else {
+            apiChangeRepository.append(Collections.singletonList(change));
+            dispatchSoon();
+        }
+    }
+
+    private PendingChanges pendingChanges() {
+        for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+            if (synchronization instanceof PendingChanges && ((PendingChanges) synchronization).feed() == this) {
+                return (PendingChanges) synchronization;
+            }
+        }
+        PendingChanges pendingChanges = new PendingChanges();
+        TransactionSynchronizationManager.registerSynchronization(pendingChanges);
+        return pendingChanges;
+    }
+
+    public boolean isExpired(long sequence) {
+        Long firstSequence = apiChangeRepository.findFirstSequence();
+        return firstSequence != null && sequence < firstSequence - 1;
+    }
+
+    public List<ApiChange> getChangesAfter(long sequence, int limit) {
+        return apiChangeRepository.findChangesAfter(sequence, limit);
+    }
+
+    public SseEmitter subscribe(long sequence) {
+        SseEmitter emitter = new SseEmitter(emitterTimeoutMillis);
+        Subscription subscription = new Subscription(emitter, sequence);
+        emitter.onCompletion(() -> subscriptions.remove(subscription));
+        emitter.onTimeout(() -> subscriptions.remove(subscription));
+        subscriptions.add(subscription);
+        dispatchSoon();
+        return emitter;
+    }
+
+    public int getSubscriberCount() {
+        return subscriptions.size();
+    }
+
+    synchronized void dispatch() {
+        if (subscriptions.isEmpty()) {
+            return;
+        }
+        long sequence = Long.MAX_VALUE;
+        for (Subscription subscription : subscriptions) {
+            sequence = Math.min(sequence, subscription.sequence);
+        }
+        List<ApiChange> changes;
+        do {
+            changes = apiChangeRepository.findChangesAfter(sequence, batchSize);
+            for (Subscription subscription : subscriptions) {
+                subscription.send(changes);
+            }
+            if (!changes.isEmpty()) {
+                sequence = changes.get(changes.size() - 1).getSequence();
+            }
+        } while (changes.size() == batchSize);
+    }
+
+    void poll() {
+        deliver();
+        for (Subscription subscription : subscriptions) {
+            subscription.keepAlive();
+        }
+        prune();
+    }
+
+    void prune() {
+        try {
+            apiChangeRepository.deleteAllButLast(retainedChanges);
+        } catch (RuntimeException e) {
+            LOGGER.warn("Could not trim the change feed", e);
+        }
+    }
+
+    private void deliver() {
+        try {
+            dispatch();
+        } catch (RuntimeException e) {
+            LOGGER.warn("Could not read the change feed", e);
+        }
+    }
+
+    private void dispatchSoon() {
+        try {
+            dispatcher.execute(this::deliver);
+        } catch (RejectedExecutionException shuttingDown) {
+            // Subscribers are being completed, they will resume from their last event.
+        }
+    }
+
+    private class PendingChanges extends TransactionSynchronizationAdapter {
+
+        private final List<ApiChange> changes = new ArrayList<>();
+
+        private ApiChangeFeed feed() {
+            return ApiChangeFeed.this;
+        }
+
+        @Override
+        public void beforeCommit(boolean readOnly) {
+            apiChangeRepository.append(changes);
+        }
+
+        @Override
+        public void afterCommit() {
+            dispatchSoon();
+        }
+    }
+
+    private class Subscription {
+
+        private final SseEmitter emitter;
+        private long sequence;
+
+        private Subscription(SseEmitter emitter, long sequence) {
+            this.emitter = emitter;
+            this.sequence = sequence;
+        }
+
+        private void send(List<ApiChange> changes) {
+            try {
+                for (ApiChange change : changes) {
+                    if (change.getSequence() > sequence) {
+                        emitter.send(SseEmitter.event()
+                                .id(Long.toString(change.getSequence()))
+                                .name(change.getType().name())
+                                .data(change, MediaType.APPLICATION_JSON));
+                        sequence = change.getSequence();
+                    }
+                }
+            } catch (IOException | IllegalStateException disconnected) {
+                drop();
+            }
+        }
+
+        private void keepAlive() {
+            try {
+                emitter.send(SseEmitter.event().comment(KEEP_ALIVE));
+            } catch (IOException | IllegalStateException disconnected) {
+                drop();
+            }
+        }
+
+        private void drop() {
+            subscriptions.remove(this);
+            emitter.complete();
+        }
+    }
+}
@@ -0,0 +1,222 @@
+package application.services;
+
+import application.infrastructure.ArchiveEntryFile;
+import application.infrastructure.InvalidSpecificationFileException;
+import application.infrastructure.models.ApiError;
+import application.infrastructure.models.ApiImportEntry;
+import application.infrastructure.models.ApiImportResult;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.StringUtils;
+import org.springframework.web.multipart.MultipartFile;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipException;
+import java.util.zip.ZipFile;
+
+/**
+ * Imports the APIs listed in the apis.ndjson manifest of a zip archive, saving them in transactions of at most
+ * batchSize entries. A batch that fails, whether on an invalid specification file or on a database error, is rolled
+ * back and saved again entry by entry, each failing entry being reported in its own result.
+ */
+@Service
+public class ApiImportService {
+
+    static final String MANIFEST = "apis.ndjson";
+    private static final String DEFAULT_CONTENT_TYPE = "application/octet-stream";
+    private static final Logger LOGGER = LoggerFactory.getLogger(ApiImportService.class);
+    private static final ObjectReader ENTRY_READER = new ObjectMapper().readerFor(ApiImportEntry.class);
+
+    @Autowired
+    ApiService apiService;
+
+    @Autowired
+    ApiValidationService apiValidationService;
+
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
+    @PersistenceContext
+    EntityManager entityManager;
+
+    @Value("${catalogue.import.batch-size:100}")
+    int batchSize;
+
+    public interface ImportListener {
+        void imported(List<ApiImportResult> results) throws IOException;
+    }
+
+    public void importApis(MultipartFile uploadedArchive, ImportListener listener) throws IOException {
+        File archiveFile = File.createTempFile("api-import", ".zip");
+        try {
+            uploadedArchive.transferTo(archiveFile);
+            try (ZipFile archive = openArchive(archiveFile)) {
+                importManifest(archive, listener);
+            }
+        } finally {
+            archiveFile.delete();
+        }
+    }
+
+    private ZipFile openArchive(File archiveFile) throws IOException {
+        ZipFile archive;
+        try {
+            archive = new ZipFile(archiveFile);
+        } catch (ZipException notAZipFile) {
+            throw new InvalidSpecificationFileException(ApiValidationError.MALFORMATED_DATA, "The import archive is not a zip file");
+        }
+        if (archive.getEntry(MANIFEST) == null) {
+            archive.close();
+            throw new InvalidSpecificationFileException(ApiValidationError.MALFORMATED_DATA, "The import archive has no " + MANIFEST + " manifest");
+        }
+        return archive;
+    }
+
+    private void importManifest(ZipFile archive, ImportListener listener) throws IOException {
+        ZipEntry manifest = archive.getEntry(MANIFEST);
+        try (BufferedReader lines = new BufferedReader(new InputStreamReader(archive.getInputStream(manifest), StandardCharsets.UTF_8))) {
+            List<PendingImport> batch = new ArrayList<>(batchSize);
+            int lineNumber = 0;
+            String line;
+            while ((line = lines.readLine()) != null) {
+                lineNumber++;
+                if (line.trim().isEmpty()) {
+                    continue;
+                }
+                batch.add(prepare(archive, lineNumber, line));
+                if (batch.size() == batchSize) {
+                    importBatch(batch, listener);
+                    batch.clear();
+                }
+            }
+            importBatch(batch, listener);
+        }
+    }
+
+    private PendingImport prepare(ZipFile archive, int lineNumber, String line) {
+        ApiImportEntry entry;
+        try {
+            entry = ENTRY_READER.readValue(line);
+        } catch (IOException malformedLine) {
+            ApiImportResult result = new ApiImportResult(lineNumber, null);
+            result.setError(makeError(ApiValidationError.MALFORMATED_DATA, "Line " + lineNumber + " is not a valid API entry"));
+            return new PendingImport(null, null, result);
+        }
+        ApiImportResult result = new ApiImportResult(lineNumber, entry);
+        ApiError error = apiValidationService.validate(entry.toApi());
+        if (error != null) {
+            result.setError(error);
+            return new PendingImport(entry, null, result);
+        }
+        if (StringUtils.isEmpty(entry.getFile())) {
+            result.setError(makeError(ApiValidationError.MISSING_PARAMETER, "Required parameters are missing : file"));
+            return new PendingImport(entry, null, result);
+        }
+        ZipEntry specificationEntry = archive.getEntry(entry.getFile());
+        if (specificationEntry == null || specificationEntry.isDirectory()) {
+            result.setError(makeError(ApiValidationError.MISSING_PARAMETER, "File not found in the import archive : " + entry.getFile()));
+            return new PendingImport(entry, null, result);
+        }
+        String contentType = StringUtils.isEmpty(entry.getContentType()) ? DEFAULT_CONTENT_TYPE : entry.getContentType();
+        return new PendingImport(entry, new ArchiveEntryFile(archive, specificationEntry, contentType), result);
+    }
+
+    private void importBatch(List<PendingImport> batch, ImportListener listener) throws IOException {
+        if (batch.isEmpty()) {
+            return;
+        }
+        List<PendingImport> validImports = new ArrayList<>(batch.size());
+        for (PendingImport pendingImport : batch) {
+            if (pendingImport.result.getError() == null) {
+                validImports.add(pendingImport);
+            }
+        }
+        if (!saveInOneTransaction(validImports)) {
+            for (PendingImport pendingImport : validImports) {
+                saveAlone(pendingImport);
+            }
+        }
+        entityManager.clear();
+
+        List<ApiImportResult> results = new ArrayList<>(batch.size());
+        for (PendingImport pendingImport : batch) {
+            results.add(pendingImport.result);
+        }
+        listener.imported(results);
+    }
+
+    private boolean saveInOneTransaction(List<PendingImport> pendingImports) {
+        if (pendingImports.isEmpty()) {
+            return true;
+        }
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        try {
+            return transactionTemplate.execute(status -> {
+                try {
+                    for (PendingImport pendingImport : pendingImports) {
+                        pendingImport.result.imported(apiService.saveApi(pendingImport.entry.toApi(), pendingImport.file));
+                    }
+                    return true;
+                } catch (IOException | RuntimeException batchFailure) {
+                    status.setRollbackOnly();
+                    return false;
+                }
+            });
+        } catch (RuntimeException commitFailure) {
+            // Constraint violations may only surface when the batch is flushed at commit.
+            return false;
+        }
+    }
+
+    private void saveAlone(PendingImport pendingImport) {
+        try {
+            pendingImport.result.imported(apiService.saveApi(pendingImport.entry.toApi(), pendingImport.file));
+        } catch (InvalidSpecificationFileException invalidFileException) {
+            failed(pendingImport, invalidFileException.toApiError());
+        } catch (IOException | RuntimeException unexpectedFailure) {
+            LOGGER.error("Import of manifest line {} failed", pendingImport.result.getLine(), unexpectedFailure);
+            failed(pendingImport, makeError(ApiValidationError.PROCESSING_FAILED, "The API could not be saved"));
+        }
+    }
+
+    private void failed(PendingImport pendingImport, ApiError error) {
+        pendingImport.result.setId(null);
+        pendingImport.result.setSpecificationPath(null);
+        pendingImport.result.setError(error);
+    }
+
+    private ApiError makeError(ApiValidationError type, String message) {
+        ApiError error = new ApiError();
+        error.type = type;
+        error.message = message;
+        return error;
+    }
+
+    private static class PendingImport {
+        private final ApiImportEntry entry;
+        private final MultipartFile file;
+        private final ApiImportResult result;
+
+        private PendingImport(ApiImportEntry entry, MultipartFile file, ApiImportResult result) {
+            this.entry = entry;
+            this.file = file;
+            this.result = result;
+        }
+    }
+}
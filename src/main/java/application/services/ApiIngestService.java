@@ -0,0 +1,114 @@
+package application.services;
+
+import application.infrastructure.InvalidSpecificationFileException;
+import application.infrastructure.MetricRegistry;
+import application.infrastructure.TemporaryUploadFile;
+import application.infrastructure.models.Api;
+import application.infrastructure.models.ApiError;
+import application.infrastructure.models.ApiIngestJob;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Saves APIs on a bounded pool of workers so that request threads only pay for copying the upload. Submissions
+ * are refused with a RejectedExecutionException once queueCapacity jobs are waiting.
+ */
+@Service
+public class ApiIngestService {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ApiIngestService.class);
+    private static final long SHUTDOWN_TIMEOUT_SECONDS = 30;
+
+    @Autowired
+    ApiService apiService;
+
+    private final ThreadPoolExecutor executor;
+    private final Cache<String, ApiIngestJob> jobs;
+
+    @Autowired
+    public ApiIngestService(@Value("${catalogue.ingest.workers:2}") int workers,
+                            @Value("${catalogue.ingest.queue-capacity:50}") int queueCapacity,
+                            @Value("${catalogue.ingest.job-retention-minutes:60}") long jobRetentionMinutes) {
+        executor = new ThreadPoolExecutor(workers, workers, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), new CustomizableThreadFactory("api-ingest-"), new ThreadPoolExecutor.AbortPolicy());
+        jobs = CacheBuilder.newBuilder()
+                .expireAfterWrite(jobRetentionMinutes, TimeUnit.MINUTES)
+                .build();
+    }
+
+    @Autowired
+    void registerMetrics(MetricRegistry metricRegistry) {
+        metricRegistry.gauge("catalogue_ingest_queue_depth", "Background saves waiting for a worker", this::getQueueDepth);
+        metricRegistry.gauge("catalogue_ingest_active_workers", "Workers busy saving an API", executor::getActiveCount);
+    }
+
+    public ApiIngestJob submit(Api api, MultipartFile uploadedFile) throws IOException {
+        if (executor.getQueue().remainingCapacity() == 0) {
+            throw new RejectedExecutionException("The ingest queue is full");
+        }
+        TemporaryUploadFile specificationFile = TemporaryUploadFile.of(uploadedFile);
+        ApiIngestJob job = new ApiIngestJob(UUID.randomUUID().toString());
+        jobs.put(job.getId(), job);
+        try {
+            executor.execute(() -> ingest(job, api, specificationFile));
+        } catch (RejectedExecutionException queueFull) {
+            jobs.invalidate(job.getId());
+            specificationFile.delete();
+            throw queueFull;
+        }
+        return job;
+    }
+
+    public ApiIngestJob getJob(String jobId) {
+        return jobs.getIfPresent(jobId);
+    }
+
+    public int getQueueDepth() {
+        return executor.getQueue().size();
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        executor.shutdown();
+        executor.awaitTermination(SHUTDOWN_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+    }
+
+    private void ingest(ApiIngestJob job, Api api, TemporaryUploadFile specificationFile) {
+        job.started();
+        Api savedApi = null;
+        ApiError error = null;
+        try {
+            savedApi = apiService.saveApi(api, specificationFile);
+        } catch (InvalidSpecificationFileException invalidFileException) {
+            error = invalidFileException.toApiError();
+        } catch (IOException | RuntimeException unexpectedFailure) {
+            LOGGER.error("Ingest job {} failed", job.getId(), unexpectedFailure);
+            error = new ApiError();
+            error.type = ApiValidationError.PROCESSING_FAILED;
+            error.message = "The API could not be saved";
+        } finally {
+            specificationFile.delete();
+        }
+        if (error == null) {
+            job.succeeded(savedApi);
+        } else {
+            job.failed(error);
+        }
+        jobs.put(job.getId(), job);
+    }
+}
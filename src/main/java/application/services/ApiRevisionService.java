@@ -0,0 +1,164 @@
+package application.services;
+
+import application.infrastructure.ApiRevisionRepository;
+import application.infrastructure.BinaryDelta;
+import application.infrastructure.FileUtils;
+import application.infrastructure.models.Api;
+import application.infrastructure.models.ApiRevision;
+import application.infrastructure.models.ContentDigest;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.util.StreamUtils;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Keeps every uploaded specification of an API as an append-only log of revisions. A revision is stored as a delta
+ * against the previous one, with a full snapshot every {@code snapshotInterval} revisions so that reading any revision
+ * applies a bounded number of deltas. Deltas are computed in memory, so specifications larger than
+ * {@code maxDeltaContentLength} are always stored as snapshots, streamed from the upload.
+ */
+@Service
+public class ApiRevisionService {
+
+    static final int MAX_CHAIN_LENGTH = 32;
+
+    @Autowired
+    ApiRevisionRepository apiRevisionRepository;
+
+    @Autowired
+    FileUtils fileUtils;
+
+    private final int snapshotInterval;
+    private final long maxDeltaContentLength;
+
+    public ApiRevisionService(@Value("${catalogue.revisions.snapshot-interval:10}") int snapshotInterval,
+                              @Value("${catalogue.revisions.max-delta-content-length:1048576}") long maxDeltaContentLength) {
+        this.snapshotInterval = Math.min(snapshotInterval, MAX_CHAIN_LENGTH);
+        this.maxDeltaContentLength = maxDeltaContentLength;
+    }
+
+    @Transactional(rollbackFor = IOException.class)
+    public void recordRevision(Api api, MultipartFile uploadedFile, ContentDigest contentDigest) throws IOException {
+        ApiRevision revision = new ApiRevision();
+        revision.setApiId(api.getId());
+        revision.setRevision(api.getRevision());
+        revision.setContentType(uploadedFile.getContentType());
+        revision.setContentLength(contentDigest.getLength());
+        revision.setContentHash(contentDigest.getHash());
+        revision.setLastModified(api.getLastModified());
+
+        if (contentDigest.getLength() <= maxDeltaContentLength && followsDeltaChain(api)) {
+            byte[] content;
+            try (InputStream fileContent = fileUtils.openSpecificationFile(uploadedFile)) {
+                content = StreamUtils.copyToByteArray(fileContent);
+            }
+            byte[] delta = BinaryDelta.encode(rebuild(apiRevisionRepository.findChain(api.getId(), api.getRevision() - 1)), content);
+            if (delta.length < content.length) {
+                revision.setSnapshot(false);
+                byte[] data = gzip(delta);
+                apiRevisionRepository.append(revision, new ByteArrayInputStream(data), data.length);
+                return;
+            }
+        }
+        revision.setSnapshot(true);
+        appendSnapshot(revision, uploadedFile);
+    }
+
+    public List<ApiRevision> getRevisions(long apiId) {
+        return apiRevisionRepository.findRevisions(apiId);
+    }
+
+    public ApiRevision getRevision(long apiId, long revision) {
+        return apiRevisionRepository.findRevision(apiId, revision);
+    }
+
+    /**
+     * Returns the content of the revision, or null when it was not recorded. A snapshot is inflated as it is read;
+     * a delta is applied to content no larger than {@code maxDeltaContentLength}.
+     */
+    @Transactional(readOnly = true)
+    public InputStream getRevisionContent(long apiId, long revision) throws IOException {
+        List<ApiRevision> chain = apiRevisionRepository.findChain(apiId, revision);
+        if (chain.isEmpty() || chain.get(chain.size() - 1).getRevision() != revision) {
+            return null;
+        }
+        if (chain.size() == 1) {
+            return new GZIPInputStream(new ByteArrayInputStream(chain.get(0).getData()));
+        }
+        return new ByteArrayInputStream(rebuild(chain));
+    }
+
+    public void deleteRevisions(long apiId) {
+        apiRevisionRepository.deleteRevisions(apiId);
+    }
+
+    // A delta needs the previous revision rebuilt in memory: it must be recorded, small enough, and not end a chain.
+    private boolean followsDeltaChain(Api api) {
+        long[] latestRevisions = apiRevisionRepository.findLatestRevisions(api.getId());
+        long previousRevision = latestRevisions[0];
+        long latestSnapshot = latestRevisions[1];
+        if (previousRevision != api.getRevision() - 1 || latestSnapshot == 0 || api.getRevision() - latestSnapshot >= snapshotInterval) {
+            return false;
+        }
+        ApiRevision previous = apiRevisionRepository.findRevision(api.getId(), previousRevision);
+        return previous != null && previous.getContentLength() <= maxDeltaContentLength;
+    }
+
+    // Compresses the upload into a temporary file first: the length of the column has to be known before streaming.
+    private void appendSnapshot(ApiRevision revision, MultipartFile uploadedFile) throws IOException {
+        Path compressedFile = Files.createTempFile("api-revision", ".gz");
+        try {
+            try (InputStream fileContent = fileUtils.openSpecificationFile(uploadedFile);
+                 OutputStream outputStream = new GZIPOutputStream(Files.newOutputStream(compressedFile))) {
+                StreamUtils.copy(fileContent, outputStream);
+            }
+            try (InputStream data = Files.newInputStream(compressedFile)) {
+                apiRevisionRepository.append(revision, data, Files.size(compressedFile));
+            }
+        } finally {
+            Files.delete(compressedFile);
+        }
+    }
+
+    private byte[] rebuild(List<ApiRevision> chain) throws IOException {
+        if (chain.size() > MAX_CHAIN_LENGTH) {
+            throw new IOException("Revision " + chain.get(chain.size() - 1).getRevision() + " of API " + chain.get(0).getApiId() + " has "
+                    + chain.size() + " revisions to rebuild, more than " + MAX_CHAIN_LENGTH);
+        }
+        byte[] content = gunzip(chain.get(0).getData());
+        for (int i = 1; i < chain.size(); i++) {
+            if (chain.get(i).getRevision() != chain.get(i - 1).getRevision() + 1) {
+                throw new IOException("Revision " + (chain.get(i - 1).getRevision() + 1) + " of API " + chain.get(i).getApiId() + " is missing");
+            }
+            content = BinaryDelta.apply(content, gunzip(chain.get(i).getData()));
+        }
+        return content;
+    }
+
+    private static byte[] gzip(byte[] data) throws IOException {
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+        try (GZIPOutputStream outputStream = new GZIPOutputStream(compressed)) {
+            outputStream.write(data);
+        }
+        return compressed.toByteArray();
+    }
+
+    private static byte[] gunzip(byte[] data) throws IOException {
+        try (InputStream inputStream = new GZIPInputStream(new ByteArrayInputStream(data))) {
+            return StreamUtils.copyToByteArray(inputStream);
+        }
+    }
+}
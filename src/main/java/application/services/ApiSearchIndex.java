@@ -0,0 +1,344 @@
+package application.services;
+
+import application.infrastructure.models.ApiSearchHit;
+import application.infrastructure.models.ApiSearchResult;
+import application.infrastructure.models.ApiSummary;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * In-process inverted index over the catalogue. Names, versions, specification types and the words of each
+ * specification are indexed, and changes are applied once the writing transaction has committed.
+ * <p>
+ * Each entry carries the revision of the API it was built from: a put carrying an older revision than the indexed one,
+ * or one for a removed API, is ignored, so commits applied out of order and the startup rebuild cannot bring back stale
+ * content. Postings are held in sorted primitive arrays, about 12 bytes per term of each API, so the heap taken is
+ * bounded by the number of APIs times {@code catalogue.search.maximum-terms-per-specification}; rebuilding it at
+ * startup reads and tokenizes every specification once.
+ */
+@Component
+public class ApiSearchIndex {
+
+    public static final String SPECIFICATION_TYPE_FACET = "specificationType";
+
+    private static final float NAME_WEIGHT = 4;
+    private static final float VERSION_WEIGHT = 2;
+    private static final float SPECIFICATION_TYPE_WEIGHT = 2;
+    private static final float CONTENT_WEIGHT = 1;
+    private static final float TERM_SATURATION = 1.2f;
+    private static final int MAX_TERM_LENGTH = 64;
+    private static final int READ_BUFFER_SIZE = 8192;
+
+    private static final Comparator<ApiSearchHit> RANKING = Comparator.comparingDouble(ApiSearchHit::getScore).reversed()
+            .thenComparing(ApiSearchHit::getName)
+            .thenComparing(ApiSearchHit::getVersion);
+
+    private final int maximumContentTerms;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Long, IndexedApi> apis = new HashMap<>();
+    private final Set<Long> removedApis = new HashSet<>();
+    private final Map<String, Postings> postings = new HashMap<>();
+
+    @Autowired
+    public ApiSearchIndex(@Value("${catalogue.search.maximum-terms-per-specification:2000}") int maximumContentTerms) {
+        this.maximumContentTerms = maximumContentTerms;
+    }
+
+    public Map<String, Integer> tokenize(InputStream content) throws IOException {
+        Map<String, Integer> terms = new HashMap<>();
+        forEachTerm(new InputStreamReader(content, UTF_8), term -> countTerm(terms, term));
+        return terms;
+    }
+
+    public void apiSaved(ApiSummary api, long revision, Map<String, Integer> contentTerms) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+                @Override
+                public void afterCommit() {
+                    put(api, revision, contentTerms);
+                }
+            });
+        } else {
+            put(api, revision, contentTerms);
+        }
+    }
+
+    public void apiDeleted(long apiId) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+                @Override
+                public void afterCommit() {
+                    remove(apiId);
+                }
+            });
+        } else {
+            remove(apiId);
+        }
+    }
+
+    public void put(ApiSummary api, long revision, Map<String, Integer> contentTerms) {
+        Map<String, Float> weights = new HashMap<>();
+        for (Map.Entry<String, Integer> contentTerm : contentTerms.entrySet()) {
+            weights.put(contentTerm.getKey(), CONTENT_WEIGHT * contentTerm.getValue());
+        }
+        addField(weights, api.getName(), NAME_WEIGHT);
+        addField(weights, api.getVersion(), VERSION_WEIGHT);
+        addField(weights, api.getSpecificationType(), SPECIFICATION_TYPE_WEIGHT);
+        IndexedApi indexedApi = new IndexedApi(api, revision, weights.keySet().toArray(new String[weights.size()]));
+
+        lock.writeLock().lock();
+        try {
+            IndexedApi previouslyIndexed = apis.get(api.getId());
+            if (removedApis.contains(api.getId()) || previouslyIndexed != null && previouslyIndexed.revision > revision) {
+                return;
+            }
+            removeIndexed(api.getId());
+            apis.put(api.getId(), indexedApi);
+            for (Map.Entry<String, Float> weight : weights.entrySet()) {
+                postings.computeIfAbsent(weight.getKey(), term -> new Postings()).put(api.getId(), weight.getValue());
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(long apiId) {
+        lock.writeLock().lock();
+        try {
+            removeIndexed(apiId);
+            removedApis.add(apiId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return apis.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public ApiSearchResult search(String query, String specificationType, int page, int pageSize) {
+        Set<String> queryTerms = new LinkedHashSet<>();
+        addTerms(queryTerms, query);
+        Map<String, Integer> specificationTypes = new TreeMap<>();
+        PriorityQueue<ApiSearchHit> topHits = new PriorityQueue<>(RANKING.reversed());
+        // In longs, clamped to what the index can hold: a far page must not overflow into a negative count of hits.
+        long retainedHits = Math.min((page + 1L) * pageSize, Integer.MAX_VALUE);
+        long totalHits = 0;
+
+        lock.readLock().lock();
+        try {
+            List<Postings> termPostings = new ArrayList<>(queryTerms.size());
+            for (String queryTerm : queryTerms) {
+                Postings postingsOfTerm = postings.get(queryTerm);
+                if (postingsOfTerm == null) {
+                    return new ApiSearchResult(Collections.emptyList(), 0, page, pageSize, facets(specificationTypes));
+                }
+                termPostings.add(postingsOfTerm);
+            }
+            if (termPostings.isEmpty()) {
+                return new ApiSearchResult(Collections.emptyList(), 0, page, pageSize, facets(specificationTypes));
+            }
+            termPostings.sort(Comparator.comparingInt(termPosting -> termPosting.size));
+            float[] inverseFrequencies = new float[termPostings.size()];
+            for (int i = 0; i < inverseFrequencies.length; i++) {
+                int frequency = termPostings.get(i).size;
+                inverseFrequencies[i] = (float) Math.log(1 + (apis.size() - frequency + 0.5) / (frequency + 0.5));
+            }
+
+            Postings rarestTermPostings = termPostings.get(0);
+            for (int candidate = 0; candidate < rarestTermPostings.size; candidate++) {
+                long candidateId = rarestTermPostings.apiIds[candidate];
+                float score = 0;
+                boolean matchesAllTerms = true;
+                for (int i = 0; i < inverseFrequencies.length; i++) {
+                    Postings postingsOfTerm = termPostings.get(i);
+                    int position = i == 0 ? candidate : postingsOfTerm.indexOf(candidateId);
+                    if (position < 0) {
+                        matchesAllTerms = false;
+                        break;
+                    }
+                    float weight = postingsOfTerm.weights[position];
+                    score += inverseFrequencies[i] * weight / (weight + TERM_SATURATION);
+                }
+                if (!matchesAllTerms) {
+                    continue;
+                }
+                ApiSummary api = apis.get(candidateId).api;
+                specificationTypes.merge(String.valueOf(api.getSpecificationType()), 1, Integer::sum);
+                if (specificationType != null && !specificationType.equalsIgnoreCase(api.getSpecificationType())) {
+                    continue;
+                }
+                totalHits++;
+                ApiSearchHit hit = new ApiSearchHit(api, score);
+                if (topHits.size() < retainedHits) {
+                    topHits.add(hit);
+                } else if (RANKING.compare(hit, topHits.peek()) < 0) {
+                    topHits.poll();
+                    topHits.add(hit);
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        List<ApiSearchHit> rankedHits = new ArrayList<>(topHits);
+        rankedHits.sort(RANKING);
+        int firstHit = (int) Math.min((long) page * pageSize, rankedHits.size());
+        return new ApiSearchResult(new ArrayList<>(rankedHits.subList(firstHit, rankedHits.size())), totalHits, page, pageSize, facets(specificationTypes));
+    }
+
+    private void countTerm(Map<String, Integer> terms, String term) {
+        Integer count = terms.get(term);
+        if (count != null) {
+            terms.put(term, count + 1);
+        } else if (terms.size() < maximumContentTerms) {
+            terms.put(term, 1);
+        }
+    }
+
+    private void addField(Map<String, Float> weights, String value, float fieldWeight) {
+        Set<String> fieldTerms = new LinkedHashSet<>();
+        addTerms(fieldTerms, value);
+        for (String fieldTerm : fieldTerms) {
+            weights.merge(fieldTerm, fieldWeight, Float::sum);
+        }
+    }
+
+    private void addTerms(Set<String> terms, String value) {
+        if (value == null) {
+            return;
+        }
+        try {
+            forEachTerm(new StringReader(value), terms::add);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static void forEachTerm(Reader reader, Consumer<String> consumer) throws IOException {
+        char[] buffer = new char[READ_BUFFER_SIZE];
+        StringBuilder term = new StringBuilder(MAX_TERM_LENGTH);
+        int read;
+        while ((read = reader.read(buffer)) != -1) {
+            for (int i = 0; i < read; i++) {
+                char character = buffer[i];
+                if (Character.isLetterOrDigit(character)) {
+                    if (term.length() < MAX_TERM_LENGTH) {
+                        term.append(Character.toLowerCase(character));
+                    }
+                } else if (term.length() > 0) {
+                    consumer.accept(term.toString());
+                    term.setLength(0);
+                }
+            }
+        }
+        if (term.length() > 0) {
+            consumer.accept(term.toString());
+        }
+    }
+
+    private void removeIndexed(long apiId) {
+        IndexedApi indexedApi = apis.remove(apiId);
+        if (indexedApi == null) {
+            return;
+        }
+        for (String term : indexedApi.terms) {
+            Postings postingsOfTerm = postings.get(term);
+            if (postingsOfTerm != null) {
+                postingsOfTerm.remove(apiId);
+                if (postingsOfTerm.size == 0) {
+                    postings.remove(term);
+                }
+            }
+        }
+    }
+
+    private static Map<String, Map<String, Integer>> facets(Map<String, Integer> specificationTypes) {
+        return Collections.singletonMap(SPECIFICATION_TYPE_FACET, specificationTypes);
+    }
+
+    private static class IndexedApi {
+        private final ApiSummary api;
+        private final long revision;
+        private final String[] terms;
+
+        IndexedApi(ApiSummary api, long revision, String[] terms) {
+            this.api = api;
+            this.revision = revision;
+            this.terms = terms;
+        }
+    }
+
+    // The APIs holding a term and their weights, sorted by API id. APIs are indexed by increasing id at startup, so
+    // the rebuild only appends.
+    private static class Postings {
+        private static final int INITIAL_CAPACITY = 4;
+
+        private long[] apiIds = new long[INITIAL_CAPACITY];
+        private float[] weights = new float[INITIAL_CAPACITY];
+        private int size;
+
+        int indexOf(long apiId) {
+            return Arrays.binarySearch(apiIds, 0, size, apiId);
+        }
+
+        void put(long apiId, float weight) {
+            int position = indexOf(apiId);
+            if (position >= 0) {
+                weights[position] = weight;
+                return;
+            }
+            position = -position - 1;
+            if (size == apiIds.length) {
+                apiIds = Arrays.copyOf(apiIds, size * 2);
+                weights = Arrays.copyOf(weights, size * 2);
+            }
+            System.arraycopy(apiIds, position, apiIds, position + 1, size - position);
+            System.arraycopy(weights, position, weights, position + 1, size - position);
+            apiIds[position] = apiId;
+            weights[position] = weight;
+            size++;
+        }
+
+        void remove(long apiId) {
+            int position = indexOf(apiId);
+            if (position < 0) {
+                return;
+            }
+            System.arraycopy(apiIds, position + 1, apiIds, position, size - position - 1);
+            System.arraycopy(weights, position + 1, weights, position, size - position - 1);
+            size--;
+        }
+    }
+}
@@ -1,89 +1,380 @@
 package application.services;
 
+import application.infrastructure.ApiRegistrationRepository;
 import application.infrastructure.ApiRepository;
 import application.infrastructure.FileUtils;
+import application.infrastructure.InvalidSpecificationFileException;
+import application.infrastructure.MetricRegistry;
 import application.infrastructure.SpecificationFileRepository;
+import application.infrastructure.SpecificationFileResource;
+import application.infrastructure.SpecificationOperationRepository;
+import application.infrastructure.SpecificationStore;
+import application.infrastructure.StoredContentOutputStream;
 import application.infrastructure.models.Api;
+import application.infrastructure.models.ApiBatchEntry;
+import application.infrastructure.models.ApiBatchRequest;
+import application.infrastructure.models.ApiChange;
+import application.infrastructure.models.ApiCursor;
+import application.infrastructure.models.ApiSearchHit;
+import application.infrastructure.models.ApiSearchResult;
+import application.infrastructure.models.ApiSummary;
+import application.infrastructure.models.ContentDigest;
+import application.infrastructure.models.SpecificationDiff;
 import application.infrastructure.models.SpecificationFile;
+import application.infrastructure.models.SpecificationModel;
+import application.infrastructure.models.SpecificationOperation;
+import org.hibernate.Hibernate;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.io.Resource;
 import org.springframework.dao.EmptyResultDataAccessException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.rest.webmvc.ResourceNotFoundException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.util.StreamUtils;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.zip.GZIPOutputStream;
 
 @Service
 public class ApiService {
 
+    private static final int GZIP_BUFFER_SIZE = 8192;
+    private static final int INDEXING_BATCH_SIZE = 500;
+    private static final double[] THROUGHPUT_BUCKETS = {64 * 1024, 256 * 1024, 1024 * 1024, 4 * 1024 * 1024, 16 * 1024 * 1024, 64 * 1024 * 1024, 256 * 1024 * 1024};
+
     @Autowired
     ApiRepository apiRepository;
 
+    @Autowired
+    ApiRegistrationRepository apiRegistrationRepository;
+
     @Autowired
     SpecificationFileRepository specificationFileRepository;
 
+    @Autowired
+    SpecificationStore specificationStore;
+
     @Autowired
     FileUtils fileUtils;
 
+    @Autowired
+    ApiCache apiCache;
+
+    @Autowired
+    ApiSearchIndex apiSearchIndex;
+
+    @Autowired
+    SpecificationParser specificationParser;
+
+    @Autowired
+    SpecificationOperationRepository specificationOperationRepository;
+
+    @Autowired
+    ApiRevisionService apiRevisionService;
+
+    @Autowired
+    SpecificationDiffer specificationDiffer;
+
+    @Autowired
+    MetricRegistry metricRegistry;
+
+    @Autowired
+    ApiChangeFeed apiChangeFeed;
+
+    @Transactional(rollbackFor = IOException.class)
     public Api saveApi(Api newApi, MultipartFile uploadedFile) throws IOException {
-        Api foundApi = findApi(newApi);
-        if (foundApi != null) {
-            long foundApiId = foundApi.getId();
-            newApi.setId(foundApiId);
+        long start = System.nanoTime();
+        ContentDigest contentDigest = fileUtils.digest(uploadedFile);
+        Map<String, Integer> contentTerms;
+        try (InputStream fileContent = fileUtils.openSpecificationFile(uploadedFile)) {
+            contentTerms = apiSearchIndex.tokenize(fileContent);
         }
+        newApi.setLastModified(System.currentTimeMillis());
+        apiRegistrationRepository.upsertApi(newApi);
+        boolean apiCreated = newApi.getRevision() == 1;
 
-        SpecificationFile savedSpecificationFile = makeSpecificationFile(uploadedFile);
-        newApi.setSpecificationFile(savedSpecificationFile);
-
-        Api savedApi = apiRepository.save(newApi);
-        savedApi.setSpecificationPath(makeSpecificationPath(savedApi));
-        return savedApi;
+        long specificationFileId = makeSpecificationFile(uploadedFile, contentDigest);
+        if (apiCreated) {
+            apiRegistrationRepository.linkSpecificationFile(newApi.getId(), specificationFileId);
+        } else {
+            Long previousSpecificationFileId = apiRegistrationRepository.replaceSpecificationFile(newApi.getId(), specificationFileId);
+            if (previousSpecificationFileId != null) {
+                releaseSpecificationFile(previousSpecificationFileId);
+            }
+        }
+        apiRevisionService.recordRevision(newApi, uploadedFile, contentDigest);
+        apiCache.apiChanged(newApi.getId(), apiCreated);
+        apiSearchIndex.apiSaved(summaryOf(newApi), newApi.getRevision(), contentTerms);
+        newApi.setSpecificationPath(makeSpecificationPath(newApi.getId()));
+        apiChangeFeed.record(new ApiChange(ApiChange.Type.SAVED, newApi.getId(), newApi.getName(), newApi.getVersion(),
+                newApi.getSpecificationType(), newApi.getRevision(), newApi.getLastModified()));
+        recordUpload(contentDigest.getLength(), System.nanoTime() - start);
+        return newApi;
     }
 
+    @Transactional
     public void deleteApi(Long api) {
+        Api foundApi = apiRepository.findOne(api);
         try {
             apiRepository.delete(api);
         } catch (EmptyResultDataAccessException e) {
             throw new ResourceNotFoundException();
         }
+        apiRepository.flush();
+        if (foundApi != null && foundApi.getSpecificationFile() != null) {
+            releaseSpecificationFile(foundApi.getSpecificationFile().getId());
+        }
+        apiRevisionService.deleteRevisions(api);
+        apiCache.apiChanged(api, true);
+        apiSearchIndex.apiDeleted(api);
+        ApiChange change = new ApiChange(ApiChange.Type.DELETED, api, null, null, null, null, System.currentTimeMillis());
+        if (foundApi != null) {
+            change.setName(foundApi.getName());
+            change.setVersion(foundApi.getVersion());
+            change.setSpecificationType(foundApi.getSpecificationType());
+        }
+        apiChangeFeed.record(change);
     }
 
+    @Transactional(readOnly = true)
     public Api getApi(Long apiId) {
-        Api api = apiRepository.findOne(apiId);
+        Api api = apiCache.getApi(apiId, () -> loadApi(apiId));
         if (api == null) {
             throw new ResourceNotFoundException();
         }
-        api.setSpecificationPath(makeSpecificationPath(api));
         return api;
     }
 
-    public Page<Api> getAllApis(PageRequest pageRequest) {
-        Page<Api> apis = apiRepository.findAllByOrderByNameAscVersionAsc(pageRequest);
-        for (Api api : apis.getContent()) {
-            api.setSpecificationPath(makeSpecificationPath(api));
+    /**
+     * Looks up every API of the request with at most one query for the ids and one for the names, and answers
+     * one entry per id then per name and version, in the order they were asked for. Specification contents are
+     * only read when the entries are written.
+     */
+    @Transactional(readOnly = true)
+    public List<ApiBatchEntry> getApis(ApiBatchRequest request, boolean withContent) {
+        List<ApiBatchEntry> entries = new ArrayList<>(request.size());
+        if (request.getIds() != null && !request.getIds().isEmpty()) {
+            Map<Long, Api> apisById = new HashMap<>();
+            for (Api api : apiRepository.findWithSpecificationFileByIdIn(new HashSet<>(request.getIds()))) {
+                apisById.put(api.getId(), api);
+            }
+            for (Long id : request.getIds()) {
+                Api api = apisById.get(id);
+                entries.add(api == null ? ApiBatchEntry.missing(id) : batchEntryOf(api, withContent));
+            }
+        }
+        if (request.getApis() != null && !request.getApis().isEmpty()) {
+            Set<String> names = new HashSet<>();
+            for (ApiBatchRequest.NameAndVersion nameAndVersion : request.getApis()) {
+                names.add(nameAndVersion.getName());
+            }
+            names.remove(null);
+            Map<List<String>, Api> apisByNameAndVersion = new HashMap<>();
+            List<Api> apis = names.isEmpty() ? Collections.emptyList() : apiRepository.findWithSpecificationFileByNameIn(names);
+            for (Api api : apis) {
+                apisByNameAndVersion.put(Arrays.asList(api.getName(), api.getVersion()), api);
+            }
+            for (ApiBatchRequest.NameAndVersion nameAndVersion : request.getApis()) {
+                Api api = apisByNameAndVersion.get(Arrays.asList(nameAndVersion.getName(), nameAndVersion.getVersion()));
+                entries.add(api == null ? ApiBatchEntry.missing(nameAndVersion) : batchEntryOf(api, withContent));
+            }
+        }
+        return entries;
+    }
+
+    public Page<ApiSummary> getAllApis(PageRequest pageRequest) {
+        return apiCache.getApiPage(pageRequest, () -> loadApiPage(pageRequest));
+    }
+
+    public Slice<ApiSummary> getApisAfter(ApiCursor cursor, int pageSize) {
+        PageRequest sliceRequest = new PageRequest(0, pageSize);
+        Slice<ApiSummary> apis = cursor == null
+                ? apiRepository.findFirstSummaries(sliceRequest)
+                : apiRepository.findSummariesAfter(cursor.getName(), cursor.getVersion(), sliceRequest);
+        for (ApiSummary api : apis.getContent()) {
+            api.setSpecificationPath(makeSpecificationPath(api.getId()));
+        }
+        return apis;
+    }
+
+    public ApiSearchResult searchApis(String query, String specificationType, int page, int pageSize) {
+        ApiSearchResult result = apiSearchIndex.search(query, specificationType, page, pageSize);
+        for (ApiSearchHit hit : result.getContent()) {
+            hit.setSpecificationPath(makeSpecificationPath(hit.getId()));
+        }
+        return result;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void indexAllApis() throws IOException {
+        long lastApiId = Long.MIN_VALUE;
+        Slice<Api> apis;
+        do {
+            apis = apiRepository.findWithSpecificationFileAfter(lastApiId, new PageRequest(0, INDEXING_BATCH_SIZE));
+            for (Api api : apis.getContent()) {
+                Map<String, Integer> contentTerms = Collections.emptyMap();
+                if (api.getSpecificationFile() != null) {
+                    try (InputStream fileContent = getSpecificationFileContent(api.getSpecificationFile(), false).getInputStream()) {
+                        contentTerms = apiSearchIndex.tokenize(fileContent);
+                    }
+                }
+                apiSearchIndex.put(summaryOf(api), api.getRevision(), contentTerms);
+                lastApiId = api.getId();
+            }
+        } while (apis.hasNext());
+    }
+
+    public Resource getSpecificationFileContent(SpecificationFile specificationFile, boolean encoded) {
+        return new SpecificationFileResource(specificationFile, specificationStore, encoded);
+    }
+
+    public List<SpecificationOperation> getOperations(SpecificationFile specificationFile) {
+        return apiCache.getOperations(specificationFile.getId(), () -> loadOperations(specificationFile));
+    }
+
+    public SpecificationDiff diffApis(Long fromApiId, Long toApiId) {
+        SpecificationFile fromSpecificationFile = getApi(fromApiId).getSpecificationFile();
+        SpecificationFile toSpecificationFile = getApi(toApiId).getSpecificationFile();
+        return apiCache.getDiff(fromSpecificationFile.getContentHash(), toSpecificationFile.getContentHash(),
+                () -> diffSpecificationFiles(fromSpecificationFile, toSpecificationFile));
+    }
+
+    private Api loadApi(Long apiId) {
+        Api api = apiRepository.findOne(apiId);
+        if (api != null) {
+            Hibernate.initialize(api.getSpecificationFile());
+            api.setSpecificationPath(makeSpecificationPath(api.getId()));
+        }
+        return api;
+    }
+
+    private Page<ApiSummary> loadApiPage(PageRequest pageRequest) {
+        Page<ApiSummary> apis = apiRepository.findAllSummariesByOrderByNameAscVersionAsc(pageRequest);
+        for (ApiSummary api : apis.getContent()) {
+            api.setSpecificationPath(makeSpecificationPath(api.getId()));
         }
         return apis;
     }
 
-    private Api findApi(Api newApi) {
-        String apiName = newApi.getName();
-        String apiVersion = newApi.getVersion();
-        return apiRepository.findByNameAndVersion(apiName, apiVersion);
+    private List<SpecificationOperation> loadOperations(SpecificationFile specificationFile) {
+        List<SpecificationOperation> operations = specificationOperationRepository.find(specificationFile.getId());
+        if (operations != null) {
+            return operations;
+        }
+        try (InputStream fileContent = getSpecificationFileContent(specificationFile, false).getInputStream()) {
+            operations = specificationParser.parseOperations(fileContent);
+            specificationOperationRepository.save(specificationFile.getId(), operations);
+            return operations;
+        } catch (InvalidSpecificationFileException refusedSpecification) {
+            // Stored before such specifications were refused at upload.
+            return Collections.emptyList();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private SpecificationDiff diffSpecificationFiles(SpecificationFile fromSpecificationFile, SpecificationFile toSpecificationFile) {
+        SpecificationDiff diff = specificationDiffer.diff(parseModel(fromSpecificationFile), parseModel(toSpecificationFile));
+        diff.setFromContentHash(fromSpecificationFile.getContentHash());
+        diff.setToContentHash(toSpecificationFile.getContentHash());
+        return diff;
     }
 
-    private SpecificationFile makeSpecificationFile(MultipartFile uploadedFile) throws IOException {
-        String fileContent = fileUtils.multipartfileToString(uploadedFile);
-        String contentType = uploadedFile.getContentType();
+    private SpecificationModel parseModel(SpecificationFile specificationFile) {
+        try (InputStream fileContent = getSpecificationFileContent(specificationFile, false).getInputStream()) {
+            return specificationParser.parseModel(fileContent);
+        } catch (InvalidSpecificationFileException refusedSpecification) {
+            return new SpecificationModel(Collections.emptyList(), Collections.emptyList());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private long makeSpecificationFile(MultipartFile uploadedFile, ContentDigest contentDigest) throws IOException {
         SpecificationFile specificationFile = new SpecificationFile();
-        specificationFile.setContentType(contentType);
-        specificationFile.setFileContent(fileContent);
-        return specificationFileRepository.save(specificationFile);
+        specificationFile.setContentType(uploadedFile.getContentType());
+        specificationFile.setContentHash(contentDigest.getHash());
+        specificationFile.setContentLength(contentDigest.getLength());
+        if (contentDigest.isCompressible()) {
+            specificationFile.setContentEncoding(SpecificationFile.GZIP_ENCODING);
+        }
+        if (!apiRegistrationRepository.upsertSpecificationFile(specificationFile)) {
+            return specificationFile.getId();
+        }
+
+        StoredContentOutputStream storedContent = specificationStore.openOutputStream(specificationFile);
+        try (InputStream fileContent = fileUtils.openSpecificationFile(uploadedFile)) {
+            OutputStream outputStream = contentDigest.isCompressible() ? new GZIPOutputStream(storedContent, GZIP_BUFFER_SIZE) : storedContent;
+            StreamUtils.copy(fileContent, outputStream);
+            outputStream.close();
+        } catch (IOException | RuntimeException e) {
+            // Closing would store the content read so far.
+            storedContent.abort();
+            throw e;
+        }
+        apiRegistrationRepository.updateStoredLength(specificationFile.getId(), storedContent.getLength());
+        try (InputStream fileContent = fileUtils.openSpecificationFile(uploadedFile)) {
+            specificationOperationRepository.save(specificationFile.getId(), specificationParser.parseOperations(fileContent));
+        }
+        return specificationFile.getId();
+    }
+
+    private void releaseSpecificationFile(long specificationFileId) {
+        SpecificationFile specificationFile = specificationFileRepository.findOne(specificationFileId);
+        Hibernate.initialize(specificationFile);
+        specificationFileRepository.decrementReferenceCount(specificationFileId);
+        if (specificationFileRepository.deleteIfUnreferenced(specificationFileId) > 0) {
+            if (specificationFile != null) {
+                try {
+                    specificationStore.delete(specificationFile);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+            specificationOperationRepository.delete(specificationFileId);
+        }
+    }
+
+    private void recordUpload(long length, long nanos) {
+        metricRegistry.timer("catalogue_api_save_seconds", "Time spent saving an API and its specification file").recordNanos(nanos);
+        metricRegistry.histogram("catalogue_specification_size_bytes", "Size of the uploaded specification files", MetricRegistry.BYTES_BUCKETS).record(length);
+        metricRegistry.counter("catalogue_upload_bytes_total", "Bytes of specification files uploaded").increment(length);
+        metricRegistry.histogram("catalogue_upload_throughput_bytes_per_second", "Bytes of specification file saved per second, by upload",
+                THROUGHPUT_BUCKETS).record(length * 1e9 / Math.max(1, nanos));
+    }
+
+    private ApiBatchEntry batchEntryOf(Api api, boolean withContent) {
+        ApiBatchEntry entry = ApiBatchEntry.found(api);
+        entry.setSpecificationPath(makeSpecificationPath(api.getId()));
+        if (withContent && api.getSpecificationFile() != null) {
+            entry.setSpecificationContent(getSpecificationFileContent(api.getSpecificationFile(), false));
+        }
+        return entry;
+    }
+
+    private static ApiSummary summaryOf(Api api) {
+        return new ApiSummary(api.getId(), api.getName(), api.getVersion(), api.getSpecificationType());
     }
 
-    private String makeSpecificationPath(Api savedApi) {
-        return "/catalogueApi/apis/" + savedApi.getId() + "/specificationFile";
+    private String makeSpecificationPath(long apiId) {
+        return "/catalogueApi/apis/" + apiId + "/specificationFile";
     }
 
 }
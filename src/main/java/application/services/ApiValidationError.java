@@ -1,5 +1,5 @@
 package application.services;
 
 public enum ApiValidationError {
-    NONE, MALFORMATED_DATA, MISSING_PARAMETER
+    NONE, MALFORMATED_DATA, MISSING_PARAMETER, FILE_TOO_LARGE, PROCESSING_FAILED
 }
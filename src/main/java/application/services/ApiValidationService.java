@@ -1,15 +1,35 @@
 package application.services;
 
+import application.infrastructure.MetricRegistry;
 import application.infrastructure.models.Api;
 import application.infrastructure.models.ApiError;
+import com.google.common.util.concurrent.RateLimiter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.util.StringUtils;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
 
+/**
+ * Checks the fields of submitted APIs. Rejections are counted, and logged at most a few times per second with the
+ * number of rejections left out since the previous line, so that a misbehaving client cannot flood the logs.
+ */
 @Service
 public class ApiValidationService {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ApiValidationService.class);
+    private static final double LOGGED_REJECTIONS_PER_SECOND = 5;
+
+    @Autowired
+    MetricRegistry metricRegistry;
+
+    private final RateLimiter rejectionLogLimiter = RateLimiter.create(LOGGED_REJECTIONS_PER_SECOND);
+    private final AtomicLong unloggedRejections = new AtomicLong();
+
     public ApiError validate(Api api) {
         if (!StringUtils.isEmpty(api.getVersion())
                 && !StringUtils.isEmpty(api.getName())
@@ -19,6 +39,7 @@ public class ApiValidationService {
         ApiError error = new ApiError();
         error = makeErrorMessage(error, api);
         error.type = ApiValidationError.MISSING_PARAMETER;
+        logRejection(error, api);
         return error;
     }
 
@@ -36,7 +57,16 @@ public class ApiValidationService {
 
         String errorMessageTemplate = "Required parameters are missing : %s";
         error.message = String.format(errorMessageTemplate, String.join(", ", nullFields));
-        System.out.println(error.message);
         return error;
     }
+
+    private void logRejection(ApiError error, Api api) {
+        metricRegistry.counter("catalogue_validation_failures_total", "APIs rejected by validation", "type", error.type.name()).increment();
+        if (rejectionLogLimiter.tryAcquire()) {
+            LOGGER.info("API rejected type={} name=\"{}\" version=\"{}\" message=\"{}\" suppressed={}",
+                    error.type, api.getName(), api.getVersion(), error.message, unloggedRejections.getAndSet(0));
+        } else {
+            unloggedRejections.incrementAndGet();
+        }
+    }
 }
@@ -0,0 +1,190 @@
+package application.services;
+
+import application.infrastructure.models.SpecificationDiff;
+import application.infrastructure.models.SpecificationDiff.OperationChange;
+import application.infrastructure.models.SpecificationDiff.SchemaChange;
+import application.infrastructure.models.SpecificationModel;
+import application.infrastructure.models.SpecificationOperation;
+import application.infrastructure.models.SpecificationSchema;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Compares two parsed specifications. Operations are matched by method and path, schemas by name, so the comparison
+ * is linear in the size of both specifications. Removing an operation, removing or retyping a property and making a
+ * property required are breaking; so is an operation that no longer references a schema or references a schema that
+ * changed in a breaking way.
+ */
+@Component
+public class SpecificationDiffer {
+
+    public SpecificationDiff diff(SpecificationModel from, SpecificationModel to) {
+        Map<String, SpecificationSchema> fromSchemas = schemasByName(from.getSchemas());
+        Map<String, SpecificationSchema> toSchemas = schemasByName(to.getSchemas());
+        List<String> addedSchemas = new ArrayList<>();
+        List<SchemaChange> changedSchemas = new ArrayList<>();
+        Map<String, SchemaChange> changedSchemasByName = new HashMap<>();
+        for (SpecificationSchema toSchema : toSchemas.values()) {
+            SpecificationSchema fromSchema = fromSchemas.get(toSchema.getName());
+            if (fromSchema == null) {
+                addedSchemas.add(toSchema.getName());
+                continue;
+            }
+            SchemaChange change = compare(fromSchema, toSchema);
+            if (change != null) {
+                changedSchemas.add(change);
+                changedSchemasByName.put(change.getName(), change);
+            }
+        }
+        List<String> removedSchemas = new ArrayList<>();
+        for (String name : fromSchemas.keySet()) {
+            if (!toSchemas.containsKey(name)) {
+                removedSchemas.add(name);
+            }
+        }
+
+        Map<String, SpecificationOperation> fromOperations = operationsByKey(from.getOperations());
+        Map<String, SpecificationOperation> toOperations = operationsByKey(to.getOperations());
+        List<SpecificationOperation> addedOperations = new ArrayList<>();
+        List<OperationChange> changedOperations = new ArrayList<>();
+        for (Map.Entry<String, SpecificationOperation> toOperation : toOperations.entrySet()) {
+            SpecificationOperation fromOperation = fromOperations.get(toOperation.getKey());
+            if (fromOperation == null) {
+                addedOperations.add(toOperation.getValue());
+                continue;
+            }
+            OperationChange change = compare(fromOperation, toOperation.getValue(), changedSchemasByName);
+            if (change != null) {
+                changedOperations.add(change);
+            }
+        }
+        List<SpecificationOperation> removedOperations = new ArrayList<>();
+        for (Map.Entry<String, SpecificationOperation> fromOperation : fromOperations.entrySet()) {
+            if (!toOperations.containsKey(fromOperation.getKey())) {
+                removedOperations.add(fromOperation.getValue());
+            }
+        }
+
+        SpecificationDiff diff = new SpecificationDiff();
+        diff.setAddedOperations(addedOperations);
+        diff.setRemovedOperations(removedOperations);
+        diff.setChangedOperations(changedOperations);
+        diff.setAddedSchemas(addedSchemas);
+        diff.setRemovedSchemas(removedSchemas);
+        diff.setChangedSchemas(changedSchemas);
+        diff.setBreaking(!removedOperations.isEmpty()
+                || changedOperations.stream().anyMatch(OperationChange::isBreaking)
+                || changedSchemas.stream().anyMatch(SchemaChange::isBreaking));
+        return diff;
+    }
+
+    private SchemaChange compare(SpecificationSchema from, SpecificationSchema to) {
+        Map<String, String> fromProperties = orEmpty(from.getProperties());
+        Map<String, String> toProperties = orEmpty(to.getProperties());
+        List<String> addedProperties = new ArrayList<>();
+        List<String> changedProperties = new ArrayList<>();
+        for (Map.Entry<String, String> property : toProperties.entrySet()) {
+            if (!fromProperties.containsKey(property.getKey())) {
+                addedProperties.add(property.getKey());
+            } else if (!Objects.equals(fromProperties.get(property.getKey()), property.getValue())) {
+                changedProperties.add(property.getKey());
+            }
+        }
+        List<String> removedProperties = new ArrayList<>();
+        for (String property : fromProperties.keySet()) {
+            if (!toProperties.containsKey(property)) {
+                removedProperties.add(property);
+            }
+        }
+        Set<String> fromRequired = new HashSet<>(orEmpty(from.getRequired()));
+        List<String> newlyRequiredProperties = new ArrayList<>();
+        for (String property : orEmpty(to.getRequired())) {
+            if (!fromRequired.contains(property)) {
+                newlyRequiredProperties.add(property);
+            }
+        }
+        boolean breaking = !removedProperties.isEmpty() || !changedProperties.isEmpty() || !newlyRequiredProperties.isEmpty();
+        if (!breaking && addedProperties.isEmpty()) {
+            return null;
+        }
+        SchemaChange change = new SchemaChange();
+        change.setName(to.getName());
+        change.setAddedProperties(addedProperties);
+        change.setRemovedProperties(removedProperties);
+        change.setChangedProperties(changedProperties);
+        change.setNewlyRequiredProperties(newlyRequiredProperties);
+        change.setBreaking(breaking);
+        return change;
+    }
+
+    private OperationChange compare(SpecificationOperation from, SpecificationOperation to, Map<String, SchemaChange> changedSchemas) {
+        Set<String> fromSchemas = new HashSet<>(orEmpty(from.getSchemas()));
+        Set<String> toSchemas = new HashSet<>(orEmpty(to.getSchemas()));
+        List<String> addedSchemas = new ArrayList<>();
+        List<String> changedOperationSchemas = new ArrayList<>();
+        boolean breakingSchemaChange = false;
+        for (String schema : orEmpty(to.getSchemas())) {
+            if (!fromSchemas.contains(schema)) {
+                addedSchemas.add(schema);
+            } else if (changedSchemas.containsKey(schema)) {
+                changedOperationSchemas.add(schema);
+                breakingSchemaChange |= changedSchemas.get(schema).isBreaking();
+            }
+        }
+        List<String> removedSchemas = new ArrayList<>();
+        for (String schema : orEmpty(from.getSchemas())) {
+            if (!toSchemas.contains(schema)) {
+                removedSchemas.add(schema);
+            }
+        }
+        boolean renamed = !Objects.equals(from.getOperationId(), to.getOperationId());
+        if (!renamed && addedSchemas.isEmpty() && removedSchemas.isEmpty() && changedOperationSchemas.isEmpty()) {
+            return null;
+        }
+        OperationChange change = new OperationChange();
+        change.setMethod(to.getMethod());
+        change.setPath(to.getPath());
+        change.setOperationId(to.getOperationId());
+        if (renamed) {
+            change.setPreviousOperationId(from.getOperationId());
+        }
+        change.setAddedSchemas(addedSchemas);
+        change.setRemovedSchemas(removedSchemas);
+        change.setChangedSchemas(changedOperationSchemas);
+        change.setBreaking(!removedSchemas.isEmpty() || breakingSchemaChange);
+        return change;
+    }
+
+    private static Map<String, SpecificationSchema> schemasByName(List<SpecificationSchema> schemas) {
+        Map<String, SpecificationSchema> schemasByName = new LinkedHashMap<>();
+        for (SpecificationSchema schema : schemas) {
+            schemasByName.put(schema.getName(), schema);
+        }
+        return schemasByName;
+    }
+
+    private static Map<String, SpecificationOperation> operationsByKey(List<SpecificationOperation> operations) {
+        Map<String, SpecificationOperation> operationsByKey = new LinkedHashMap<>();
+        for (SpecificationOperation operation : operations) {
+            operationsByKey.put(operation.getMethod() + " " + operation.getPath(), operation);
+        }
+        return operationsByKey;
+    }
+
+    private static <T> List<T> orEmpty(List<T> list) {
+        return list == null ? Collections.emptyList() : list;
+    }
+
+    private static Map<String, String> orEmpty(Map<String, String> map) {
+        return map == null ? Collections.emptyMap() : map;
+    }
+}
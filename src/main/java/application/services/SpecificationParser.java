@@ -0,0 +1,349 @@
+package application.services;
+
+import application.infrastructure.InvalidSpecificationFileException;
+import application.infrastructure.models.SpecificationModel;
+import application.infrastructure.models.SpecificationOperation;
+import application.infrastructure.models.SpecificationSchema;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StreamUtils;
+import org.yaml.snakeyaml.Yaml;
+import org.yaml.snakeyaml.constructor.SafeConstructor;
+import org.yaml.snakeyaml.error.YAMLException;
+import org.yaml.snakeyaml.events.AliasEvent;
+import org.yaml.snakeyaml.events.CollectionEndEvent;
+import org.yaml.snakeyaml.events.CollectionStartEvent;
+import org.yaml.snakeyaml.events.Event;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Extracts the operations declared by a specification: OpenAPI / Swagger documents, in YAML or JSON, and
+ * API Blueprint documents. Content in any other format has no operations. YAML is read with the safe constructor
+ * since specifications come from clients. Schemas are described by their top-level properties only: nested objects
+ * are reduced to their type.
+ * <p>
+ * Documents are scanned before being loaded: YAML aliases are refused, since a recursive anchor or a tree of aliases
+ * makes the loaded document infinite or exponentially large, and so is nesting deeper than {@code MAX_DEPTH}.
+ */
+@Component
+public class SpecificationParser {
+
+    private static final ObjectReader JSON_READER = new ObjectMapper().readerFor(Object.class);
+    private static final List<String> HTTP_METHODS = Arrays.asList("get", "put", "post", "delete", "options", "head", "patch", "trace");
+    private static final List<String> SCHEMA_REFERENCE_PREFIXES = Arrays.asList("#/definitions/", "#/components/schemas/");
+    static final int MAX_DEPTH = 100;
+
+    private static final String BLUEPRINT_METHODS = "GET|PUT|POST|DELETE|OPTIONS|HEAD|PATCH|TRACE";
+    private static final Pattern BLUEPRINT_FORMAT = Pattern.compile("^FORMAT:\\s*1A", Pattern.MULTILINE);
+    private static final Pattern BLUEPRINT_ACTION = Pattern.compile("^#{1,6}\\s*(.*?)\\s*\\[(" + BLUEPRINT_METHODS + ")(?:\\s+(/[^\\]]*))?\\]\\s*$");
+    private static final Pattern BLUEPRINT_RESOURCE = Pattern.compile("^#{1,6}\\s*(?:.*?\\s*\\[(/[^\\]]*)\\]|(/\\S*))\\s*$");
+    private static final Pattern BLUEPRINT_BARE_ACTION = Pattern.compile("^#{1,6}\\s*(" + BLUEPRINT_METHODS + ")\\s+(/\\S*)\\s*$");
+    private static final Pattern BLUEPRINT_ATTRIBUTES = Pattern.compile("^\\s*[+-]\\s*Attributes\\s*\\((.*)\\)\\s*$");
+    private static final Pattern BLUEPRINT_TYPE_NAME = Pattern.compile("[^\\[\\],\\s]+");
+    private static final Pattern BLUEPRINT_DATA_STRUCTURES = Pattern.compile("^#\\s*Data Structures\\s*$");
+    private static final Pattern BLUEPRINT_DATA_STRUCTURE = Pattern.compile("^##\\s+([^#(][^(]*?)\\s*(?:\\((.*)\\))?\\s*$");
+    private static final Pattern BLUEPRINT_PROPERTY = Pattern.compile("^[+-]\\s+([^:(]+?)\\s*(?::[^(]*?)?\\s*(?:\\(([^)]*)\\))?(?:\\s+-\\s.*)?\\s*$");
+    private static final Set<String> BLUEPRINT_TYPE_MODIFIERS = new TreeSet<>(Arrays.asList(
+            "fixed", "fixed-type", "optional", "required", "nullable", "sample", "default"));
+    private static final Set<String> BLUEPRINT_BASE_TYPES = new TreeSet<>(Arrays.asList(
+            "array", "boolean", "enum", "fixed", "fixed-type", "number", "object", "optional", "required", "string", "nullable", "sample", "default"));
+
+    public List<SpecificationOperation> parseOperations(InputStream content) throws IOException {
+        return parse(content, false).getOperations();
+    }
+
+    public SpecificationModel parseModel(InputStream content) throws IOException {
+        return parse(content, true);
+    }
+
+    private SpecificationModel parse(InputStream content, boolean withSchemas) throws IOException {
+        String specification = StreamUtils.copyToString(content, UTF_8);
+        if (!BLUEPRINT_FORMAT.matcher(specification).find()) {
+            Object document = readDocument(specification);
+            if (document instanceof Map && (((Map<?, ?>) document).containsKey("swagger") || ((Map<?, ?>) document).containsKey("openapi"))) {
+                Map<?, ?> root = (Map<?, ?>) document;
+                return new SpecificationModel(parseOpenApi(root), withSchemas ? parseOpenApiSchemas(root) : Collections.emptyList());
+            }
+        }
+        return new SpecificationModel(parseBlueprint(specification), withSchemas ? parseBlueprintSchemas(specification) : Collections.emptyList());
+    }
+
+    private Object readDocument(String specification) throws IOException {
+        try {
+            if (specification.trim().startsWith("{")) {
+                checkJsonDepth(specification);
+                return JSON_READER.readValue(specification);
+            }
+            Yaml yaml = new Yaml(new SafeConstructor());
+            checkYamlEvents(yaml.parse(new StringReader(specification)));
+            return yaml.load(specification);
+        } catch (JsonProcessingException | YAMLException unreadableDocument) {
+            return null;
+        }
+    }
+
+    private static void checkJsonDepth(String specification) throws IOException {
+        try (JsonParser parser = JSON_READER.getFactory().createParser(specification)) {
+            int depth = 0;
+            JsonToken token;
+            while ((token = parser.nextToken()) != null) {
+                if (token.isStructStart()) {
+                    checkDepth(++depth);
+                } else if (token.isStructEnd()) {
+                    depth--;
+                }
+            }
+        }
+    }
+
+    private static void checkYamlEvents(Iterable<Event> events) throws InvalidSpecificationFileException {
+        int depth = 0;
+        for (Event event : events) {
+            if (event instanceof AliasEvent) {
+                throw new InvalidSpecificationFileException(ApiValidationError.MALFORMATED_DATA, "Specification file uses YAML aliases, which are not supported");
+            }
+            if (event instanceof CollectionStartEvent) {
+                checkDepth(++depth);
+            } else if (event instanceof CollectionEndEvent) {
+                depth--;
+            }
+        }
+    }
+
+    private static void checkDepth(int depth) throws InvalidSpecificationFileException {
+        if (depth > MAX_DEPTH) {
+            throw new InvalidSpecificationFileException(ApiValidationError.MALFORMATED_DATA, "Specification file is nested deeper than " + MAX_DEPTH + " levels");
+        }
+    }
+
+    private List<SpecificationOperation> parseOpenApi(Map<?, ?> root) throws InvalidSpecificationFileException {
+        List<SpecificationOperation> operations = new ArrayList<>();
+        Object paths = root.get("paths");
+        if (!(paths instanceof Map)) {
+            return operations;
+        }
+        for (Map.Entry<?, ?> pathItem : ((Map<?, ?>) paths).entrySet()) {
+            if (!(pathItem.getValue() instanceof Map)) {
+                continue;
+            }
+            Map<?, ?> pathOperations = (Map<?, ?>) pathItem.getValue();
+            Set<String> pathSchemas = new TreeSet<>();
+            collectSchemaReferences(pathOperations.get("parameters"), pathSchemas, identitySet(), 1);
+            for (Map.Entry<?, ?> operation : pathOperations.entrySet()) {
+                String method = String.valueOf(operation.getKey()).toLowerCase();
+                if (!HTTP_METHODS.contains(method) || !(operation.getValue() instanceof Map)) {
+                    continue;
+                }
+                Map<?, ?> operationObject = (Map<?, ?>) operation.getValue();
+                Set<String> schemas = new TreeSet<>(pathSchemas);
+                collectSchemaReferences(operationObject, schemas, identitySet(), 1);
+                Object operationId = operationObject.get("operationId");
+                operations.add(new SpecificationOperation(method.toUpperCase(), String.valueOf(pathItem.getKey()),
+                        operationId == null ? null : String.valueOf(operationId), new ArrayList<>(schemas)));
+            }
+        }
+        return operations;
+    }
+
+    private List<SpecificationSchema> parseOpenApiSchemas(Map<?, ?> root) throws InvalidSpecificationFileException {
+        Object definitions = root.get("definitions");
+        if (definitions == null && root.get("components") instanceof Map) {
+            definitions = ((Map<?, ?>) root.get("components")).get("schemas");
+        }
+        List<SpecificationSchema> schemas = new ArrayList<>();
+        if (!(definitions instanceof Map)) {
+            return schemas;
+        }
+        for (Map.Entry<?, ?> definition : ((Map<?, ?>) definitions).entrySet()) {
+            Map<String, String> properties = new TreeMap<>();
+            Set<String> required = new TreeSet<>();
+            collectProperties(definition.getValue(), properties, required, 1);
+            schemas.add(new SpecificationSchema(String.valueOf(definition.getKey()), properties, new ArrayList<>(required)));
+        }
+        return schemas;
+    }
+
+    private void collectProperties(Object schema, Map<String, String> properties, Set<String> required, int depth) throws InvalidSpecificationFileException {
+        if (!(schema instanceof Map)) {
+            return;
+        }
+        checkDepth(depth);
+        Map<?, ?> schemaObject = (Map<?, ?>) schema;
+        if (schemaObject.get("properties") instanceof Map) {
+            for (Map.Entry<?, ?> property : ((Map<?, ?>) schemaObject.get("properties")).entrySet()) {
+                properties.put(String.valueOf(property.getKey()), typeOf(property.getValue(), 1));
+            }
+        }
+        if (schemaObject.get("required") instanceof List) {
+            for (Object property : (List<?>) schemaObject.get("required")) {
+                required.add(String.valueOf(property));
+            }
+        }
+        if (schemaObject.get("allOf") instanceof List) {
+            for (Object member : (List<?>) schemaObject.get("allOf")) {
+                collectProperties(member, properties, required, depth + 1);
+            }
+        }
+    }
+
+    private String typeOf(Object schema, int depth) throws InvalidSpecificationFileException {
+        if (!(schema instanceof Map)) {
+            return "any";
+        }
+        checkDepth(depth);
+        Map<?, ?> schemaObject = (Map<?, ?>) schema;
+        if (schemaObject.get("$ref") instanceof String) {
+            String reference = (String) schemaObject.get("$ref");
+            return reference.substring(reference.lastIndexOf('/') + 1);
+        }
+        Object type = schemaObject.get("type");
+        if ("array".equals(type)) {
+            return "array[" + typeOf(schemaObject.get("items"), depth + 1) + "]";
+        }
+        String typeName = type == null ? "object" : String.valueOf(type);
+        return schemaObject.get("format") == null ? typeName : typeName + "(" + schemaObject.get("format") + ")";
+    }
+
+    // Visits each node once, should a document share nodes despite the checks made when reading it.
+    private void collectSchemaReferences(Object node, Set<String> schemas, Set<Object> visited, int depth) throws InvalidSpecificationFileException {
+        if (!(node instanceof Map || node instanceof List) || !visited.add(node)) {
+            return;
+        }
+        checkDepth(depth);
+        if (node instanceof Map) {
+            for (Map.Entry<?, ?> entry : ((Map<?, ?>) node).entrySet()) {
+                if ("$ref".equals(entry.getKey()) && entry.getValue() instanceof String) {
+                    addSchemaReference((String) entry.getValue(), schemas);
+                } else {
+                    collectSchemaReferences(entry.getValue(), schemas, visited, depth + 1);
+                }
+            }
+        } else {
+            for (Object element : (List<?>) node) {
+                collectSchemaReferences(element, schemas, visited, depth + 1);
+            }
+        }
+    }
+
+    private static Set<Object> identitySet() {
+        return Collections.newSetFromMap(new IdentityHashMap<>());
+    }
+
+    private void addSchemaReference(String reference, Set<String> schemas) {
+        for (String prefix : SCHEMA_REFERENCE_PREFIXES) {
+            if (reference.startsWith(prefix)) {
+                schemas.add(reference.substring(prefix.length()));
+                return;
+            }
+        }
+    }
+
+    private List<SpecificationOperation> parseBlueprint(String specification) {
+        List<SpecificationOperation> operations = new ArrayList<>();
+        List<Set<String>> schemasOfOperations = new ArrayList<>();
+        String resourcePath = null;
+        Set<String> actionSchemas = null;
+        for (String line : specification.split("\r?\n")) {
+            Matcher action = BLUEPRINT_ACTION.matcher(line);
+            Matcher bareAction = BLUEPRINT_BARE_ACTION.matcher(line);
+            Matcher resource = BLUEPRINT_RESOURCE.matcher(line);
+            if (action.matches()) {
+                String actionPath = action.group(3) != null ? action.group(3) : resourcePath;
+                String actionName = action.group(1).isEmpty() ? null : action.group(1);
+                operations.add(new SpecificationOperation(action.group(2), withoutQueryTemplate(actionPath), actionName, null));
+                actionSchemas = new TreeSet<>();
+                schemasOfOperations.add(actionSchemas);
+            } else if (bareAction.matches()) {
+                resourcePath = bareAction.group(2);
+                operations.add(new SpecificationOperation(bareAction.group(1), withoutQueryTemplate(resourcePath), null, null));
+                actionSchemas = new TreeSet<>();
+                schemasOfOperations.add(actionSchemas);
+            } else if (resource.matches()) {
+                resourcePath = resource.group(1) != null ? resource.group(1) : resource.group(2);
+                actionSchemas = null;
+            } else if (line.startsWith("#")) {
+                actionSchemas = null;
+            } else if (actionSchemas != null) {
+                Matcher attributes = BLUEPRINT_ATTRIBUTES.matcher(line);
+                if (attributes.matches()) {
+                    addBlueprintTypes(attributes.group(1), actionSchemas);
+                }
+            }
+        }
+        for (int i = 0; i < operations.size(); i++) {
+            operations.get(i).setSchemas(new ArrayList<>(schemasOfOperations.get(i)));
+        }
+        return operations;
+    }
+
+    private List<SpecificationSchema> parseBlueprintSchemas(String specification) {
+        List<SpecificationSchema> schemas = new ArrayList<>();
+        boolean inDataStructures = false;
+        SpecificationSchema schema = null;
+        for (String line : specification.split("\r?\n")) {
+            if (line.startsWith("#") && !line.startsWith("##")) {
+                inDataStructures = BLUEPRINT_DATA_STRUCTURES.matcher(line).matches();
+                schema = null;
+                continue;
+            }
+            if (!inDataStructures) {
+                continue;
+            }
+            Matcher dataStructure = BLUEPRINT_DATA_STRUCTURE.matcher(line);
+            Matcher property = BLUEPRINT_PROPERTY.matcher(line);
+            if (dataStructure.matches()) {
+                schema = new SpecificationSchema(dataStructure.group(1), new TreeMap<>(), new ArrayList<>());
+                schemas.add(schema);
+            } else if (schema != null && property.matches() && !property.group(1).startsWith("Include ")) {
+                String type = "string";
+                for (String attribute : property.group(2) == null ? new String[0] : property.group(2).split(",")) {
+                    String trimmedAttribute = attribute.trim();
+                    if ("required".equalsIgnoreCase(trimmedAttribute)) {
+                        schema.getRequired().add(property.group(1));
+                    } else if (!trimmedAttribute.isEmpty() && !BLUEPRINT_TYPE_MODIFIERS.contains(trimmedAttribute.toLowerCase()) && "string".equals(type)) {
+                        type = trimmedAttribute;
+                    }
+                }
+                schema.getProperties().put(property.group(1), type);
+            }
+        }
+        return schemas;
+    }
+
+    private void addBlueprintTypes(String typeDefinition, Set<String> schemas) {
+        Matcher typeName = BLUEPRINT_TYPE_NAME.matcher(typeDefinition);
+        while (typeName.find()) {
+            if (!BLUEPRINT_BASE_TYPES.contains(typeName.group().toLowerCase())) {
+                schemas.add(typeName.group());
+            }
+        }
+    }
+
+    private static String withoutQueryTemplate(String path) {
+        if (path == null) {
+            return null;
+        }
+        int queryTemplate = path.indexOf("{?");
+        return queryTemplate < 0 ? path : path.substring(0, queryTemplate);
+    }
+}
@@ -0,0 +1,126 @@
+package application.services;
+
+import application.infrastructure.MigratingSpecificationStore;
+import application.infrastructure.SpecificationFileRepository;
+import application.infrastructure.SpecificationStore;
+import application.infrastructure.StoredContentOutputStream;
+import application.infrastructure.models.SpecificationFile;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.StreamUtils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+
+/**
+ * Copies the content of every specification file from one store to another, then deletes it from the first store
+ * once everything has been copied. Files the target already holds are skipped, so an interrupted migration is
+ * resumed by running it again.
+ */
+@Service
+public class SpecificationStoreMigration {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(SpecificationStoreMigration.class);
+    private static final int BATCH_SIZE = 100;
+
+    @Autowired
+    SpecificationStore specificationStore;
+
+    @Autowired
+    SpecificationFileRepository specificationFileRepository;
+
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void migrateInBackground() {
+        if (specificationStore instanceof MigratingSpecificationStore) {
+            MigratingSpecificationStore migratingStore = (MigratingSpecificationStore) specificationStore;
+            new CustomizableThreadFactory("specification-store-migration-")
+                    .newThread(() -> migrate(migratingStore.getSource(), migratingStore.getTarget()))
+                    .start();
+        }
+    }
+
+    /**
+     * @return the number of specification files that could not be copied, in which case the source is left intact
+     */
+    public int migrate(SpecificationStore source, SpecificationStore target) {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        int copied = 0;
+        int failed = 0;
+        long lastSpecificationFileId = Long.MIN_VALUE;
+        Slice<SpecificationFile> specificationFiles;
+        do {
+            specificationFiles = specificationFileRepository.findAfter(lastSpecificationFileId, new PageRequest(0, BATCH_SIZE));
+            for (SpecificationFile specificationFile : specificationFiles.getContent()) {
+                lastSpecificationFileId = specificationFile.getId();
+                if (target.contains(specificationFile) || !source.contains(specificationFile)) {
+                    continue;
+                }
+                try {
+                    transactionTemplate.execute(status -> copy(specificationFile, source, target));
+                    copied++;
+                } catch (RuntimeException e) {
+                    LOGGER.warn("Could not migrate specification file {}", specificationFile.getId(), e);
+                    failed++;
+                }
+            }
+        } while (specificationFiles.hasNext());
+        LOGGER.info("Copied {} specification files to the new store, {} failed", copied, failed);
+        if (failed == 0) {
+            deleteMigrated(source, target);
+        }
+        return failed;
+    }
+
+    private void deleteMigrated(SpecificationStore source, SpecificationStore target) {
+        long lastSpecificationFileId = Long.MIN_VALUE;
+        Slice<SpecificationFile> specificationFiles;
+        do {
+            specificationFiles = specificationFileRepository.findAfter(lastSpecificationFileId, new PageRequest(0, BATCH_SIZE));
+            for (SpecificationFile specificationFile : specificationFiles.getContent()) {
+                lastSpecificationFileId = specificationFile.getId();
+                try {
+                    if (target.contains(specificationFile)) {
+                        source.delete(specificationFile);
+                    }
+                } catch (IOException | RuntimeException e) {
+                    LOGGER.warn("Could not delete migrated specification file {} from its former store", specificationFile.getId(), e);
+                }
+            }
+        } while (specificationFiles.hasNext());
+    }
+
+    private Long copy(SpecificationFile specificationFile, SpecificationStore source, SpecificationStore target) {
+        try (InputStream storedContent = source.read(specificationFile)) {
+            StoredContentOutputStream copiedContent = target.openOutputStream(specificationFile);
+            try {
+                StreamUtils.copy(storedContent, copiedContent);
+                if (copiedContent.getLength() != specificationFile.getStoredLength()) {
+                    throw new IOException("Read " + copiedContent.getLength() + " bytes of specification file " + specificationFile.getId()
+                            + " instead of " + specificationFile.getStoredLength());
+                }
+            } catch (IOException | RuntimeException e) {
+                copiedContent.abort();
+                throw e;
+            }
+            copiedContent.close();
+            return copiedContent.getLength();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
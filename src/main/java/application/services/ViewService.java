@@ -1,24 +1,48 @@
 package application.services;
 
-import application.infrastructure.models.Api;
-import application.infrastructure.models.ViewApi;
+import application.infrastructure.models.ApiSummary;
+import application.infrastructure.models.RenderedPage;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.util.DigestUtils;
+import org.thymeleaf.TemplateEngine;
+import org.thymeleaf.context.Context;
 
-import java.util.ArrayList;
 import java.util.List;
+import java.util.Locale;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
 
 @Service
 public class ViewService {
 
-    public List<ViewApi> listApis(List<Api> apis) {
-        List<ViewApi> viewApis = new ArrayList<>();
-        for (Api api : apis) {
-            ViewApi viewApi = new ViewApi();
-            viewApi.setDisplayName(String.format("<b>%s</b> - %s", api.getName(), api.getVersion()));
-            viewApi.setDownloadLink(api.getSpecificationPath());
-            viewApi.setSpecificationType(api.getSpecificationType());
-            viewApis.add(viewApi);
-        }
-        return viewApis;
+    private static final String API_LIST_TEMPLATE = "apis/list";
+
+    @Autowired
+    ApiService apiService;
+
+    @Autowired
+    ApiCache apiCache;
+
+    @Autowired
+    TemplateEngine templateEngine;
+
+    /**
+     * Returns the HTML of a page of the API list, rendered once and then served from the cache until the catalogue
+     * changes.
+     */
+    public RenderedPage renderApiList(PageRequest pageRequest) {
+        return apiCache.getRenderedPage(pageRequest, () -> render(apiService.getAllApis(pageRequest).getContent()));
+    }
+
+    /**
+     * The template iterates over the summaries as the repository projected them and escapes each field itself.
+     */
+    RenderedPage render(List<ApiSummary> apis) {
+        Context context = new Context(Locale.ROOT);
+        context.setVariable("apis", apis);
+        byte[] content = templateEngine.process(API_LIST_TEMPLATE, context).getBytes(UTF_8);
+        return new RenderedPage(content, DigestUtils.md5DigestAsHex(content));
     }
 }
@@ -0,0 +1,77 @@
+create sequence hibernate_sequence start with 1 increment by 1;
+
+create table api (
+    id bigint not null,
+    name varchar(255),
+    version varchar(255),
+    specification_path varchar(255),
+    specification_type varchar(255),
+    revision bigint not null,
+    last_modified bigint not null,
+    primary key (id),
+    constraint api_name_version_key unique (name, version)
+);
+
+create table specification_file (
+    id bigint not null,
+    content_type varchar(255),
+    content_length bigint not null,
+    content_encoding varchar(255),
+    stored_length bigint not null,
+    content_hash varchar(64),
+    reference_count integer not null,
+    primary key (id),
+    constraint specification_file_content_hash_content_type_key unique (content_hash, content_type)
+);
+
+create table api_specificationfile (
+    api_id bigint not null references api,
+    specificationfile_id bigint references specification_file,
+    primary key (api_id)
+);
+
+create table specification_file_chunk (
+    specification_file_id bigint not null,
+    chunk_index integer not null,
+    data bytea,
+    constraint specification_file_chunk_pkey primary key (chunk_index, specification_file_id)
+);
+
+create table specification_operation_index (
+    specification_file_id bigint not null,
+    operations bytea,
+    primary key (specification_file_id)
+);
+
+create table api_revision (
+    api_id bigint not null,
+    revision bigint not null,
+    content_type varchar(255),
+    content_hash varchar(255),
+    content_length bigint not null,
+    stored_length bigint not null,
+    snapshot boolean not null,
+    last_modified bigint not null,
+    data bytea,
+    primary key (api_id, revision)
+);
+
+create table api_change_sequence (
+    id bigint not null,
+    last_sequence bigint not null,
+    primary key (id)
+);
+
+create table api_change (
+    sequence bigint not null,
+    type varchar(255),
+    api_id bigint not null,
+    name varchar(255),
+    version varchar(255),
+    specification_type varchar(255),
+    revision bigint,
+    changed_at bigint not null,
+    primary key (sequence)
+);
+
+create index api_change_api_id_idx on api_change (api_id);
@@ -0,0 +1,6 @@
+-- Chunks are read, counted and deleted by specification file: lead the primary key with it.
+alter table specification_file_chunk drop constraint specification_file_chunk_pkey;
+alter table specification_file_chunk add constraint specification_file_chunk_pkey primary key (specification_file_id, chunk_index);
+
+-- Releasing a specification file checks that no API links to it any more.
+create index api_specificationfile_specificationfile_id_idx on api_specificationfile (specificationfile_id);
@@ -1,10 +1,12 @@
 package application;
 
 
+import application.infrastructure.SpecificationFileRepository;
 import application.infrastructure.models.Api;
 import application.infrastructure.models.ApiError;
 import application.services.ApiValidationError;
 import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.Before;
 import org.junit.Test;
@@ -21,8 +23,19 @@ import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.ResultActions;
 import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+import org.springframework.util.StreamUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.fileUpload;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -39,6 +52,9 @@ public class ApiControllerITTest {
     @Autowired
     private MockMvc mvc;
 
+    @Autowired
+    private SpecificationFileRepository specificationFileRepository;
+
     private Api api;
     private String apiName;
     private String apiVersion;
@@ -190,6 +206,220 @@ public class ApiControllerITTest {
         assertThat(result.getContentType()).isEqualTo(contentType);
     }
 
+    @Test
+    public void shouldDownloadSpecificationFile_SpanningSeveralChunks_WithContentLength() throws Exception {
+        // Given
+        StringBuilder largeContent = new StringBuilder();
+        while (largeContent.length() < 200 * 1024) {
+            largeContent.append("paths:\n  /orders/").append(largeContent.length()).append(":\n    get: {}\n");
+        }
+        dataFile = new MockMultipartFile("file", "large.yaml", contentType, largeContent.toString().getBytes());
+        long specificationId = getSpecificationId(uploadSpecification());
+        String specificationFileURL = APIS_ENDPOINT + "/" + specificationId + SPECIFICATION_FILE_ENDPOINT;
+
+        // When
+        MockHttpServletResponse result = get(specificationFileURL).getResponse();
+
+        // Then
+        assertThat(result.getStatus()).isEqualTo(200);
+        assertThat(result.getHeader("Content-Length")).isEqualTo(String.valueOf(largeContent.length()));
+        assertThat(result.getContentAsString()).isEqualTo(largeContent.toString());
+    }
+
+    @Test
+    public void shouldServeLargeSpecificationFile_GzippedOrDecompressed_DependingOnAcceptEncoding() throws Exception {
+        // Given
+        StringBuilder largeContent = new StringBuilder();
+        while (largeContent.length() < 100 * 1024) {
+            largeContent.append("paths:\n  /orders/").append(largeContent.length()).append(":\n    get: {}\n");
+        }
+        dataFile = new MockMultipartFile("file", "large.yaml", contentType, largeContent.toString().getBytes());
+        long specificationId = getSpecificationId(uploadSpecification());
+        String specificationFileURL = APIS_ENDPOINT + "/" + specificationId + SPECIFICATION_FILE_ENDPOINT;
+
+        // When
+        MockHttpServletResponse gzipped = mvc.perform(MockMvcRequestBuilders.get(specificationFileURL)
+                .header("Accept-Encoding", "gzip")).andReturn().getResponse();
+        MockHttpServletResponse plain = get(specificationFileURL).getResponse();
+
+        // Then
+        assertThat(gzipped.getHeader("Content-Encoding")).isEqualTo("gzip");
+        byte[] gzippedBody = gzipped.getContentAsByteArray();
+        assertThat(gzippedBody.length).isLessThan(largeContent.length() / 4);
+        assertThat(gzipped.getHeader("Content-Length")).isEqualTo(String.valueOf(gzippedBody.length));
+        String inflated = StreamUtils.copyToString(new GZIPInputStream(new ByteArrayInputStream(gzippedBody)), StandardCharsets.UTF_8);
+        assertThat(inflated).isEqualTo(largeContent.toString());
+        assertThat(plain.getHeader("Content-Encoding")).isNull();
+        assertThat(plain.getContentAsString()).isEqualTo(largeContent.toString());
+    }
+
+    @Test
+    public void shouldAnswerNotModified_WhenSpecificationFileETagMatches() throws Exception {
+        // Given
+        long specificationId = getSpecificationId(uploadSpecification());
+        String specificationFileURL = APIS_ENDPOINT + "/" + specificationId + SPECIFICATION_FILE_ENDPOINT;
+        String eTag = get(specificationFileURL).getResponse().getHeader("ETag");
+
+        // When
+        MockHttpServletResponse result = mvc.perform(MockMvcRequestBuilders.get(specificationFileURL)
+                .header("If-None-Match", eTag)).andReturn().getResponse();
+
+        // Then
+        assertThat(result.getStatus()).isEqualTo(304);
+        assertThat(result.getContentAsByteArray()).isEmpty();
+    }
+
+    @Test
+    public void shouldDownloadRangeOfSpecificationFile_WithPartialContentStatus() throws Exception {
+        // Given
+        long specificationId = getSpecificationId(uploadSpecification());
+        String specificationFileURL = APIS_ENDPOINT + "/" + specificationId + SPECIFICATION_FILE_ENDPOINT;
+
+        // When
+        MockHttpServletResponse result = mvc.perform(MockMvcRequestBuilders.get(specificationFileURL)
+                .header("Range", "bytes=1-3")).andReturn().getResponse();
+
+        // Then
+        assertThat(result.getStatus()).isEqualTo(206);
+        assertThat(result.getHeader("Content-Range")).isEqualTo("bytes 1-3/" + fileContent.length());
+        assertThat(result.getContentAsString()).isEqualTo(fileContent.substring(1, 4));
+        assertThat(result.getContentType()).isEqualTo(contentType);
+    }
+
+    @Test
+    public void shouldResumeDownloadOfSpecificationFile_SpanningSeveralChunks() throws Exception {
+        // Given
+        // Random characters of one and two bytes do not compress, so the file is stored and served as is.
+        Random random = new Random(42);
+        StringBuilder randomContent = new StringBuilder();
+        while (randomContent.length() < 150 * 1024) {
+            randomContent.append((char) (random.nextInt(3) < 2 ? random.nextInt(0x80) : 0x80 + random.nextInt(0x780)));
+        }
+        byte[] largeContent = randomContent.toString().getBytes(StandardCharsets.UTF_8);
+        dataFile = new MockMultipartFile("file", "large.yaml", contentType, largeContent);
+        long specificationId = getSpecificationId(uploadSpecification());
+        String specificationFileURL = APIS_ENDPOINT + "/" + specificationId + SPECIFICATION_FILE_ENDPOINT;
+        String eTag = get(specificationFileURL).getResponse().getHeader("ETag");
+
+        // When
+        MockHttpServletResponse result = mvc.perform(MockMvcRequestBuilders.get(specificationFileURL)
+                .header("Range", "bytes=150000-")
+                .header("If-Range", eTag)).andReturn().getResponse();
+
+        // Then
+        assertThat(result.getStatus()).isEqualTo(206);
+        assertThat(result.getHeader("Content-Length")).isEqualTo(String.valueOf(largeContent.length - 150000));
+        assertThat(result.getContentAsByteArray()).isEqualTo(Arrays.copyOfRange(largeContent, 150000, largeContent.length));
+    }
+
+    @Test
+    public void shouldSendWholeSpecificationFile_ForRangeOfGzippedFileServedDecompressed() throws Exception {
+        // Given
+        StringBuilder largeContent = new StringBuilder();
+        while (largeContent.length() < 100 * 1024) {
+            largeContent.append("paths:\n  /orders/").append(largeContent.length()).append(":\n    get: {}\n");
+        }
+        dataFile = new MockMultipartFile("file", "large.yaml", contentType, largeContent.toString().getBytes());
+        long specificationId = getSpecificationId(uploadSpecification());
+        String specificationFileURL = APIS_ENDPOINT + "/" + specificationId + SPECIFICATION_FILE_ENDPOINT;
+
+        // When
+        MockHttpServletResponse result = mvc.perform(MockMvcRequestBuilders.get(specificationFileURL)
+                .header("Range", "bytes=50000-")).andReturn().getResponse();
+
+        // Then
+        assertThat(result.getStatus()).isEqualTo(200);
+        assertThat(result.getHeader("Accept-Ranges")).isEqualTo("none");
+        assertThat(result.getContentAsString()).isEqualTo(largeContent.toString());
+    }
+
+    @Test
+    public void shouldAnswerRangeNotSatisfiable_WhenRangeStartsAfterSpecificationFile() throws Exception {
+        // Given
+        long specificationId = getSpecificationId(uploadSpecification());
+        String specificationFileURL = APIS_ENDPOINT + "/" + specificationId + SPECIFICATION_FILE_ENDPOINT;
+
+        // When
+        MockHttpServletResponse result = mvc.perform(MockMvcRequestBuilders.get(specificationFileURL)
+                .header("Range", "bytes=100-")).andReturn().getResponse();
+
+        // Then
+        assertThat(result.getStatus()).isEqualTo(416);
+        assertThat(result.getHeader("Content-Range")).isEqualTo("bytes */" + fileContent.length());
+    }
+
+    @Test
+    public void shouldAdvertiseRangeSupport_WhenDownloadingSpecificationFile() throws Exception {
+        // Given
+        long specificationId = getSpecificationId(uploadSpecification());
+
+        // When
+        MockHttpServletResponse result = get(APIS_ENDPOINT + "/" + specificationId + SPECIFICATION_FILE_ENDPOINT).getResponse();
+
+        // Then
+        assertThat(result.getHeader("Accept-Ranges")).isEqualTo("bytes");
+    }
+
+    @Test
+    public void shouldLookUpBatchOfApis_ByIdAndByNameAndVersion() throws Exception {
+        // Given
+        long apiId = getSpecificationId(uploadSpecification());
+        String batch = "{\"ids\":[" + apiId + "," + (apiId + 1000) + "],\"apis\":[{\"name\":\"" + api.getName() + "\",\"version\":\"" + api.getVersion() + "\"}]}";
+
+        // When
+        MockHttpServletResponse result = mvc.perform(MockMvcRequestBuilders.post(APIS_ENDPOINT + "/batch")
+                .param("content", "true")
+                .contentType("application/json")
+                .content(batch)).andReturn().getResponse();
+
+        // Then
+        assertThat(result.getStatus()).isEqualTo(200);
+        assertThat(result.getContentType()).isEqualTo("application/x-ndjson");
+        String[] lines = result.getContentAsString().split("\n");
+        assertThat(lines).hasSize(3);
+        ObjectMapper objectMapper = new ObjectMapper();
+        JsonNode byId = objectMapper.readTree(lines[0]);
+        assertThat(byId.get("id").asLong()).isEqualTo(apiId);
+        assertThat(byId.get("specificationContent").asText()).isEqualTo(fileContent);
+        assertThat(objectMapper.readTree(lines[1]).get("found").asBoolean()).isFalse();
+        JsonNode byName = objectMapper.readTree(lines[2]);
+        assertThat(byName.get("id").asLong()).isEqualTo(apiId);
+        assertThat(byName.get("specificationPath").asText()).isEqualTo(APIS_ENDPOINT + "/" + apiId + SPECIFICATION_FILE_ENDPOINT);
+    }
+
+    @Test
+    public void shouldAnswerWithNewApiETag_WhenApiWasUpdated() throws Exception {
+        // Given
+        long apiId = getSpecificationId(uploadSpecification());
+        String eTag = get(APIS_ENDPOINT + "/" + apiId).getResponse().getHeader("ETag");
+        uploadSpecification();
+
+        // When
+        MockHttpServletResponse result = mvc.perform(MockMvcRequestBuilders.get(APIS_ENDPOINT + "/" + apiId)
+                .header("If-None-Match", eTag)).andReturn().getResponse();
+
+        // Then
+        assertThat(result.getStatus()).isEqualTo(200);
+        assertThat(result.getHeader("ETag")).isNotEqualTo(eTag);
+        MockHttpServletResponse notModified = mvc.perform(MockMvcRequestBuilders.get(APIS_ENDPOINT + "/" + apiId)
+                .header("If-None-Match", result.getHeader("ETag"))).andReturn().getResponse();
+        assertThat(notModified.getStatus()).isEqualTo(304);
+    }
+
+    @Test
+    public void shouldReturnBadRequest_AndNotCreateApi_WhenFileIsNotValidUtf8() throws Exception {
+        // Given
+        dataFile = new MockMultipartFile("file", "broken.yaml", contentType, new byte[]{'a', (byte) 0xC3});
+
+        // When
+        MockHttpServletResponse response = uploadSpecification().getResponse();
+
+        // Then
+        assertThat(response.getStatus()).isEqualTo(400);
+        assertThat(getSpecificationErrorFromResponse(response).type).isEqualTo(ApiValidationError.MALFORMATED_DATA);
+        assertThat(get(APIS_ENDPOINT).getResponse().getContentAsString()).contains("\"totalElements\":0");
+    }
+
     @Test
     public void shouldReturnBadRequest_WithErrorStructure_WhenParametersAreMissing() throws Exception {
         // Given
@@ -245,6 +475,112 @@ public class ApiControllerITTest {
         assertThat(resultBody).isEqualTo(differentContent);
     }
 
+    @Test
+    public void shouldExposeRequestAndRepositoryMetrics_ForPrometheus() throws Exception {
+        // Given
+        long apiId = getSpecificationId(uploadSpecification());
+        get(APIS_ENDPOINT + "/" + apiId);
+
+        // When
+        MockHttpServletResponse response = get("/catalogueApi/metrics").getResponse();
+
+        // Then
+        assertThat(response.getContentType()).startsWith("text/plain");
+        assertThat(response.getContentAsString())
+                .contains("http_server_requests_seconds_count{method=\"GET\",uri=\"/catalogueApi/apis/{apiId}\",status=\"200\"} 1")
+                .contains("repository=\"ApiRegistrationRepository\",method=\"upsertApi\",outcome=\"success\"")
+                .contains("repository=\"ApiRepository\",method=\"findOne\"")
+                .contains("catalogue_specification_size_bytes_count 1")
+                .contains("catalogue_cache_misses_total{cache=\"apis\"} 1");
+    }
+
+    @Test
+    public void shouldDiffTwoApis_ByTheirParsedSpecifications() throws Exception {
+        // Given
+        dataFile = new MockMultipartFile("file", "shop.yaml", contentType,
+                "swagger: '2.0'\npaths:\n  /orders:\n    get: {}\n    delete: {}\n".getBytes());
+        api.setVersion("1.2");
+        long firstApiId = getSpecificationId(uploadSpecification());
+        dataFile = new MockMultipartFile("file", "shop.yaml", contentType,
+                "swagger: '2.0'\npaths:\n  /orders:\n    get: {}\n    post: {}\n".getBytes());
+        api.setVersion("1.4");
+        long secondApiId = getSpecificationId(uploadSpecification());
+
+        // When
+        JsonNode diff = getJson(APIS_ENDPOINT + "/" + firstApiId + "/diff/" + secondApiId);
+
+        // Then
+        assertThat(diff.get("breaking").asBoolean()).isTrue();
+        assertThat(diff.get("addedOperations").get(0).get("method").asText()).isEqualTo("POST");
+        assertThat(diff.get("removedOperations").get(0).get("method").asText()).isEqualTo("DELETE");
+        assertThat(get(APIS_ENDPOINT + "/" + firstApiId + "/diff/999").getResponse().getStatus()).isEqualTo(404);
+    }
+
+    @Test
+    public void shouldKeepEveryRevision_OfReplacedSpecificationFile() throws Exception {
+        // Given
+        long apiId = getSpecificationId(uploadSpecification());
+        dataFile = new MockMultipartFile("file", "foo.yum", contentType, "contentChanged".getBytes());
+        uploadSpecification();
+
+        // When
+        JsonNode revisions = getJson(APIS_ENDPOINT + "/" + apiId + "/revisions");
+        MockHttpServletResponse firstRevision = get(APIS_ENDPOINT + "/" + apiId + "/revisions/1").getResponse();
+        MockHttpServletResponse secondRevision = get(APIS_ENDPOINT + "/" + apiId + "/revisions/2").getResponse();
+
+        // Then
+        assertThat(revisions.size()).isEqualTo(2);
+        assertThat(revisions.get(0).get("revision").asLong()).isEqualTo(2L);
+        assertThat(firstRevision.getContentAsString()).isEqualTo(fileContent);
+        assertThat(firstRevision.getContentType()).isEqualTo(contentType);
+        assertThat(secondRevision.getContentAsString()).isEqualTo("contentChanged");
+        assertThat(get(APIS_ENDPOINT + "/" + apiId + "/revisions/3").getResponse().getStatus()).isEqualTo(404);
+    }
+
+    @Test
+    public void shouldForgetRevisions_WhenDeletingApi() throws Exception {
+        // Given
+        long apiId = getSpecificationId(uploadSpecification());
+
+        // When
+        delete(APIS_ENDPOINT + "/" + apiId);
+
+        // Then
+        assertThat(get(APIS_ENDPOINT + "/" + apiId + "/revisions/1").getResponse().getStatus()).isEqualTo(404);
+        assertThat(get(APIS_ENDPOINT + "/" + apiId + "/revisions").getResponse().getStatus()).isEqualTo(404);
+    }
+
+    @Test
+    public void shouldShareSpecificationFile_BetweenApisWithIdenticalContent() throws Exception {
+        // Given
+        long firstApiId = getSpecificationId(uploadSpecification());
+        api.setVersion("2.0");
+        long secondApiId = getSpecificationId(uploadSpecification());
+
+        // When
+        delete(APIS_ENDPOINT + "/" + firstApiId);
+
+        // Then
+        MockHttpServletResponse result = get(APIS_ENDPOINT + "/" + secondApiId + SPECIFICATION_FILE_ENDPOINT).getResponse();
+        assertThat(result.getStatus()).isEqualTo(200);
+        assertThat(result.getContentAsString()).isEqualTo(fileContent);
+    }
+
+    @Test
+    public void shouldGarbageCollectSpecificationFile_WhenNoApiReferencesItAnymore() throws Exception {
+        // Given
+        uploadSpecification();
+        dataFile = new MockMultipartFile("file", "other.yum", contentType, "otherContent".getBytes());
+        long apiId = getSpecificationId(uploadSpecification());
+        assertThat(specificationFileRepository.count()).isEqualTo(1);
+
+        // When
+        delete(APIS_ENDPOINT + "/" + apiId);
+
+        // Then
+        assertThat(specificationFileRepository.count()).isEqualTo(0);
+    }
+
     @Test
     public void should_deleteSpecification_withANoContentStatus() throws Exception {
         // Given
@@ -278,6 +614,218 @@ public class ApiControllerITTest {
         assertThat(deletionResponse.getStatus()).isEqualTo(404);
     }
 
+    @Test
+    public void shouldCreateApi_WhenApiIsSentAsJsonPart() throws Exception {
+        // Given
+        MockMultipartFile apiPart = new MockMultipartFile("apiJson", "api.json", "application/json", toJson(api).getBytes(StandardCharsets.UTF_8));
+
+        // When
+        MvcResult mvcResult = mvc.perform(fileUpload(APIS_ENDPOINT).file(dataFile).file(apiPart)).andReturn();
+
+        // Then
+        assertThat(mvcResult.getResponse().getStatus()).isEqualTo(200);
+        Api createdApi = new ObjectMapper().readValue(mvcResult.getResponse().getContentAsString(), Api.class);
+        assertThat(createdApi.getName()).isEqualTo(apiName);
+        assertThat(createdApi.getVersion()).isEqualTo(apiVersion);
+    }
+
+    @Test
+    public void shouldWalkThroughAllApis_WithCursor() throws Exception {
+        // Given
+        uploadApiVersion("2.0");
+        uploadApiVersion("1.0");
+        uploadApiVersion("1.1");
+
+        // When
+        JsonNode firstSlice = getJson(APIS_ENDPOINT + "?cursor=&pageSize=2");
+        JsonNode lastSlice = getJson(APIS_ENDPOINT + "?cursor=" + firstSlice.get("nextCursor").asText() + "&pageSize=2");
+
+        // Then
+        assertThat(firstSlice.get("content").findValuesAsText("version")).containsExactly("1.0", "1.1");
+        assertThat(firstSlice.has("totalElements")).isFalse();
+        assertThat(lastSlice.get("content").findValuesAsText("version")).containsExactly("2.0");
+        assertThat(lastSlice.get("nextCursor").isNull()).isTrue();
+        assertThat(lastSlice.get("last").asBoolean()).isTrue();
+    }
+
+    @Test
+    public void shouldReturnBadRequest_WhenCursorIsInvalid() throws Exception {
+        // When
+        MvcResult mvcResult = get(APIS_ENDPOINT + "?cursor=not-a-cursor");
+
+        // Then
+        assertThat(mvcResult.getResponse().getStatus()).isEqualTo(400);
+    }
+
+    @Test
+    public void shouldFindApi_BySpecificationContent_UntilItIsDeleted() throws Exception {
+        // Given
+        long apiId = getSpecificationId(uploadSpecification());
+
+        // When
+        JsonNode hits = getJson(APIS_ENDPOINT + "/search?q=CONTENT+testApiName");
+        delete(APIS_ENDPOINT + "/" + apiId);
+        JsonNode hitsAfterDeletion = getJson(APIS_ENDPOINT + "/search?q=content");
+
+        // Then
+        assertThat(hits.get("content").findValuesAsText("id")).containsExactly(String.valueOf(apiId));
+        assertThat(hits.get("content").get(0).get("specificationPath").asText()).isEqualTo(APIS_ENDPOINT + "/" + apiId + "/specificationFile");
+        assertThat(hits.get("facets").get("specificationType").get(specificationType).asInt()).isEqualTo(1);
+        assertThat(hitsAfterDeletion.get("totalElements").asLong()).isZero();
+    }
+
+    @Test
+    public void shouldListOperations_ParsedFromUploadedSpecification() throws Exception {
+        // Given
+        String specification = "swagger: '2.0'\npaths:\n  /orders:\n    get:\n      operationId: listOrders\n" +
+                "      responses:\n        200:\n          schema:\n            $ref: '#/definitions/Order'\n";
+        dataFile = new MockMultipartFile("file", "swagger.yaml", "application/yaml", specification.getBytes(StandardCharsets.UTF_8));
+        long apiId = getSpecificationId(uploadSpecification());
+
+        // When
+        MvcResult mvcResult = get(APIS_ENDPOINT + "/" + apiId + "/operations");
+
+        // Then
+        assertThat(mvcResult.getResponse().getStatus()).isEqualTo(200);
+        JsonNode operations = new ObjectMapper().readTree(mvcResult.getResponse().getContentAsString());
+        assertThat(operations).hasSize(1);
+        assertThat(operations.get(0).get("method").asText()).isEqualTo("GET");
+        assertThat(operations.get(0).get("path").asText()).isEqualTo("/orders");
+        assertThat(operations.get(0).get("operationId").asText()).isEqualTo("listOrders");
+        assertThat(operations.get(0).get("schemas").get(0).asText()).isEqualTo("Order");
+        assertThat(mvcResult.getResponse().getHeader("ETag")).endsWith("-operations\"");
+    }
+
+    @Test
+    public void shouldSaveApiInBackground_AndReportItThroughItsJob() throws Exception {
+        // When
+        MvcResult submission = mvc.perform(fileUpload(APIS_ENDPOINT)
+                .file(dataFile)
+                .param("api", toJson(api))
+                .header("Prefer", "wait=5, Respond-Async")).andReturn();
+
+        // Then
+        assertThat(submission.getResponse().getStatus()).isEqualTo(202);
+        String jobPath = submission.getResponse().getHeader("Location");
+        assertThat(jobPath).startsWith(APIS_ENDPOINT + "/jobs/");
+        JsonNode job = getJson(jobPath);
+        for (int attempt = 0; attempt < 100 && !job.get("status").asText().equals("SUCCEEDED"); attempt++) {
+            Thread.sleep(50);
+            job = getJson(jobPath);
+        }
+        assertThat(job.get("status").asText()).isEqualTo("SUCCEEDED");
+        String specificationPath = job.get("api").get("specificationPath").asText();
+        assertThat(get(specificationPath).getResponse().getContentAsString()).isEqualTo(fileContent);
+    }
+
+    @Test
+    public void shouldReturnNotFound_ForUnknownJob() throws Exception {
+        // When
+        MvcResult mvcResult = get(APIS_ENDPOINT + "/jobs/unknown");
+
+        // Then
+        assertThat(mvcResult.getResponse().getStatus()).isEqualTo(404);
+    }
+
+    @Test
+    public void shouldImportArchive_AndReportEachEntry() throws Exception {
+        // Given
+        ByteArrayOutputStream archiveContent = new ByteArrayOutputStream();
+        try (ZipOutputStream archive = new ZipOutputStream(archiveContent)) {
+            archive.putNextEntry(new ZipEntry("apis.ndjson"));
+            archive.write(("{\"name\":\"shop\",\"version\":\"1.0\",\"specificationType\":\"swagger\",\"file\":\"shop.json\",\"contentType\":\"application/json\"}\n" +
+                    "{\"name\":\"shop\",\"version\":\"2.0\",\"specificationType\":\"swagger\",\"file\":\"broken.json\"}\n" +
+                    "{\"name\":\"cart\",\"version\":\"1.0\",\"file\":\"shop.json\"}\n").getBytes(StandardCharsets.UTF_8));
+            archive.putNextEntry(new ZipEntry("shop.json"));
+            archive.write(fileContent.getBytes(StandardCharsets.UTF_8));
+            archive.putNextEntry(new ZipEntry("broken.json"));
+            archive.write(new byte[]{'a', (byte) 0xC3});
+        }
+        MockMultipartFile archiveFile = new MockMultipartFile("archive", "apis.zip", "application/zip", archiveContent.toByteArray());
+
+        // When
+        MvcResult mvcResult = mvc.perform(fileUpload(APIS_ENDPOINT + "/import").file(archiveFile)).andReturn();
+
+        // Then
+        assertThat(mvcResult.getResponse().getStatus()).isEqualTo(200);
+        String[] results = mvcResult.getResponse().getContentAsString().split("\n");
+        assertThat(results).hasSize(3);
+        ObjectMapper objectMapper = new ObjectMapper();
+        JsonNode imported = objectMapper.readTree(results[0]);
+        assertThat(imported.get("error").isNull()).isTrue();
+        assertThat(objectMapper.readTree(results[1]).get("error").get("type").asText()).isEqualTo("MALFORMATED_DATA");
+        assertThat(objectMapper.readTree(results[2]).get("error").get("type").asText()).isEqualTo("MISSING_PARAMETER");
+
+        MockHttpServletResponse specificationFile = get(imported.get("specificationPath").asText()).getResponse();
+        assertThat(specificationFile.getContentAsString()).isEqualTo(fileContent);
+        assertThat(specificationFile.getContentType()).isEqualTo("application/json");
+        JsonNode apis = getJson(APIS_ENDPOINT + "?cursor=");
+        assertThat(apis.get("content").findValuesAsText("version")).containsExactly("1.0");
+    }
+
+    @Test
+    public void shouldReturnBadRequest_WhenImportArchiveIsNotAZipFile() throws Exception {
+        // Given
+        MockMultipartFile archiveFile = new MockMultipartFile("archive", "apis.zip", "application/zip", "not a zip".getBytes());
+
+        // When
+        MvcResult mvcResult = mvc.perform(fileUpload(APIS_ENDPOINT + "/import").file(archiveFile)).andReturn();
+
+        // Then
+        assertThat(mvcResult.getResponse().getStatus()).isEqualTo(400);
+        assertThat(getSpecificationErrorFromResponse(mvcResult.getResponse()).type).isEqualTo(ApiValidationError.MALFORMATED_DATA);
+    }
+
+    @Test
+    public void shouldListChanges_OfSavedAndDeletedApis_InSequence() throws Exception {
+        // Given
+        long apiId = getSpecificationId(uploadSpecification());
+        delete(APIS_ENDPOINT + "/" + apiId);
+
+        // When
+        JsonNode changes = getJson(APIS_ENDPOINT + "/changes?since=0");
+        JsonNode nextChanges = getJson(APIS_ENDPOINT + "/changes?since=" + changes.get("cursor").asLong());
+
+        // Then
+        assertThat(changes.get("content")).extracting(change -> change.get("sequence").asLong(), change -> change.get("type").asText(),
+                change -> change.get("apiId").asLong(), change -> change.get("name").asText())
+                .containsExactly(tuple(1L, "SAVED", apiId, apiName), tuple(2L, "DELETED", apiId, apiName));
+        assertThat(changes.get("cursor").asLong()).isEqualTo(2L);
+        assertThat(nextChanges.get("content")).isEmpty();
+        assertThat(nextChanges.get("cursor").asLong()).isEqualTo(2L);
+    }
+
+    @Test
+    public void shouldStreamChanges_AfterLastEventId() throws Exception {
+        // Given
+        uploadSpecification();
+        api.setVersion("2.0");
+        uploadSpecification();
+
+        // When
+        MvcResult result = mvc.perform(MockMvcRequestBuilders.get(APIS_ENDPOINT + "/changes/stream").header("Last-Event-ID", "1")).andReturn();
+
+        // Then
+        assertThat(result.getRequest().isAsyncStarted()).isTrue();
+        MockHttpServletResponse response = result.getResponse();
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!response.getContentAsString().contains("event:SAVED") && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertThat(response.getContentAsString()).contains("id:2\nevent:SAVED\ndata:").contains("\"version\":\"2.0\"")
+                .doesNotContain("id:1\n");
+    }
+
+    private void uploadApiVersion(String version) throws Exception {
+        api.setVersion(version);
+        assertThat(uploadSpecification().getResponse().getStatus()).isEqualTo(200);
+    }
+
+    private JsonNode getJson(String url) throws Exception {
+        String jsonResponse = get(url).getResponse().getContentAsString();
+        return new ObjectMapper().readTree(jsonResponse);
+    }
+
     private String toJson(Api apiObject) throws JsonProcessingException {
         ObjectMapper objectMapper = new ObjectMapper();
         return objectMapper.writeValueAsString(apiObject);
@@ -0,0 +1,201 @@
+package application;
+
+import application.infrastructure.ApiChangeRepository;
+import application.infrastructure.ApiRepository;
+import application.infrastructure.SpecificationFileRepository;
+import application.infrastructure.models.Api;
+import application.infrastructure.models.SpecificationFile;
+import application.services.ApiChangeFeed;
+import application.services.ApiService;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntFunction;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest
+@DirtiesContext(classMode = DirtiesContext.ClassMode.BEFORE_EACH_TEST_METHOD)
+@ActiveProfiles("test")
+public class ApiServiceITTest {
+
+    private static final int WRITERS = 8;
+    private static final long SINGLE_SAVE_TIMEOUT_SECONDS = 10;
+
+    @Autowired
+    private ApiService apiService;
+
+    @Autowired
+    private ApiRepository apiRepository;
+
+    @Autowired
+    private SpecificationFileRepository specificationFileRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ApiChangeRepository apiChangeRepository;
+
+    @Autowired
+    private ApiChangeFeed apiChangeFeed;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private ExecutorService writers;
+
+    @Before
+    public void setUp() throws Exception {
+        writers = Executors.newFixedThreadPool(WRITERS);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        writers.shutdownNow();
+    }
+
+    @Test
+    public void shouldRegisterApiOnce_WhenSameApiIsUploadedConcurrently() throws Exception {
+        // When
+        List<Api> savedApis = uploadConcurrently(writer -> "shop", writer -> "same content");
+
+        // Then
+        assertThat(apiRepository.count()).isEqualTo(1);
+        assertThat(savedApis).extracting("id").containsOnly(savedApis.get(0).getId());
+        assertThat(revisions(savedApis)).containsExactly(LongStream.rangeClosed(1, WRITERS).boxed().toArray(Long[]::new));
+        List<SpecificationFile> specificationFiles = allSpecificationFiles();
+        assertThat(specificationFiles).hasSize(1);
+        assertThat(specificationFiles.get(0).getReferenceCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void shouldShareOneSpecificationFile_WhenApisWithSameContentAreUploadedConcurrently() throws Exception {
+        // When
+        uploadConcurrently(writer -> "shop-" + writer, writer -> "same content");
+
+        // Then
+        assertThat(apiRepository.count()).isEqualTo(WRITERS);
+        List<SpecificationFile> specificationFiles = allSpecificationFiles();
+        assertThat(specificationFiles).hasSize(1);
+        assertThat(specificationFiles.get(0).getReferenceCount()).isEqualTo(WRITERS);
+        assertThat(specificationFiles.get(0).getStoredLength()).isEqualTo("same content".length());
+    }
+
+    @Test
+    public void shouldKeepOnlyLastSpecificationFile_WhenSameApiIsUploadedConcurrentlyWithDifferentContents() throws Exception {
+        // When
+        uploadConcurrently(writer -> "shop", writer -> "content " + writer);
+
+        // Then
+        assertThat(apiRepository.count()).isEqualTo(1);
+        List<SpecificationFile> specificationFiles = allSpecificationFiles();
+        assertThat(specificationFiles).hasSize(1);
+        assertThat(specificationFiles.get(0).getReferenceCount()).isEqualTo(1);
+        Long chunkedFiles = jdbcTemplate.queryForObject("select count(distinct specification_file_id) from specification_file_chunk", Long.class);
+        assertThat(chunkedFiles).isEqualTo(1);
+    }
+
+    @Test
+    public void shouldSaveApi_WhileAnImportBatchIsInProgress() throws Exception {
+        // Given
+        TransactionTemplate importTransaction = new TransactionTemplate(transactionManager);
+
+        // When
+        importTransaction.execute(status -> {
+            try {
+                apiService.saveApi(api("imported-1"), file("imported content 1"));
+                Future<Api> singleSave = writers.submit(() -> apiService.saveApi(api("single"), file("single content")));
+                singleSave.get(SINGLE_SAVE_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+                return apiService.saveApi(api("imported-2"), file("imported content 2"));
+            } catch (Exception importFailure) {
+                throw new IllegalStateException(importFailure);
+            }
+        });
+
+        // Then
+        List<String> changedApis = jdbcTemplate.queryForList("select name from api_change order by sequence", String.class);
+        assertThat(changedApis).containsExactly("single", "imported-1", "imported-2");
+    }
+
+    @Test
+    public void shouldKeepOnlyRetainedChanges_AndExpireOlderPositions() throws Exception {
+        // Given
+        for (int i = 0; i < 3; i++) {
+            apiService.saveApi(api("shop-" + i), file("content " + i));
+        }
+
+        // When
+        apiChangeRepository.deleteAllButLast(1);
+
+        // Then
+        assertThat(apiChangeRepository.findChangesAfter(0, 10)).extracting("sequence").containsExactly(3L);
+        assertThat(apiChangeFeed.isExpired(1)).isTrue();
+        assertThat(apiChangeFeed.isExpired(2)).isFalse();
+    }
+
+    private List<Api> uploadConcurrently(IntFunction<String> apiName, IntFunction<String> fileContent) throws Exception {
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Api>> uploads = new ArrayList<>();
+        for (int writer = 0; writer < WRITERS; writer++) {
+            Api api = api(apiName.apply(writer));
+            MockMultipartFile file = file(fileContent.apply(writer));
+            Callable<Api> upload = () -> {
+                start.await();
+                return apiService.saveApi(api, file);
+            };
+            uploads.add(writers.submit(upload));
+        }
+        start.countDown();
+        List<Api> savedApis = new ArrayList<>();
+        for (Future<Api> upload : uploads) {
+            savedApis.add(upload.get());
+        }
+        return savedApis;
+    }
+
+    private static Api api(String name) {
+        Api api = new Api();
+        api.setName(name);
+        api.setVersion("1.0");
+        api.setSpecificationType("swagger");
+        return api;
+    }
+
+    private static MockMultipartFile file(String content) {
+        return new MockMultipartFile("file", "shop.json", "application/json", content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private List<Long> revisions(List<Api> apis) {
+        return apis.stream().map(Api::getRevision).sorted().collect(Collectors.toList());
+    }
+
+    private List<SpecificationFile> allSpecificationFiles() {
+        List<SpecificationFile> specificationFiles = new ArrayList<>();
+        specificationFileRepository.findAll().forEach(specificationFiles::add);
+        return specificationFiles;
+    }
+}
@@ -51,6 +51,24 @@ public class ViewApiControllerITTest {
         assertThat(pageContent).contains("<a href=\"/catalogueApi/apis/2/specificationFile\">blueprint</a>");
     }
 
+    @Test
+    public void shouldAnswerNotModified_UntilAnApiIsSaved() throws Exception {
+        // Given
+        uploadSpecification("My test API", "42.23", "swagger");
+        String eTag = this.mockMvc.perform(get("/")).andReturn().getResponse().getHeader("ETag");
+
+        // When
+        MockHttpServletResponse unchanged = this.mockMvc.perform(get("/").header("If-None-Match", eTag)).andReturn().getResponse();
+        uploadSpecification("My other test API", "4.8", "blueprint");
+        MockHttpServletResponse changed = this.mockMvc.perform(get("/").header("If-None-Match", eTag)).andReturn().getResponse();
+
+        // Then
+        assertThat(unchanged.getStatus()).isEqualTo(HttpStatus.NOT_MODIFIED.value());
+        assertThat(changed.getStatus()).isEqualTo(HttpStatus.OK.value());
+        assertThat(changed.getHeader("ETag")).isNotEqualTo(eTag);
+        assertThat(changed.getContentAsString()).contains("<b>My other test API</b> - 4.8");
+    }
+
     @Test
     public void shouldReturnFormWithFieldsForApiCreation() throws Exception {
         // When
@@ -1,11 +1,32 @@
 package application.controllers;
 
+import application.infrastructure.InvalidSpecificationFileException;
 import application.infrastructure.models.Api;
+import application.infrastructure.models.ApiBatchEntry;
+import application.infrastructure.models.ApiBatchRequest;
+import application.infrastructure.models.ApiChange;
+import application.infrastructure.models.ApiChangeSlice;
+import application.infrastructure.models.ApiCursor;
 import application.infrastructure.models.ApiError;
+import application.infrastructure.models.ApiImportResult;
+import application.infrastructure.models.ApiIngestJob;
+import application.infrastructure.models.ApiRevision;
+import application.infrastructure.models.ApiSearchResult;
+import application.infrastructure.models.ApiSummary;
+import application.infrastructure.models.ApiSummarySlice;
+import application.infrastructure.models.SpecificationDiff;
 import application.infrastructure.models.SpecificationFile;
+import application.infrastructure.models.SpecificationOperation;
+import application.services.ApiChangeFeed;
+import application.services.ApiImportService;
+import application.services.ApiImportService.ImportListener;
+import application.services.ApiIngestService;
+import application.services.ApiRevisionService;
 import application.services.ApiService;
+import application.services.ApiValidationError;
 import application.services.ApiValidationService;
 import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import javassist.tools.web.BadHttpRequest;
 import org.junit.Before;
@@ -15,13 +36,27 @@ import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.runners.MockitoJUnitRunner;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.Resource;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.rest.webmvc.ResourceNotFoundException;
 import org.springframework.http.HttpStatus;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.mock.web.MockMultipartFile;
 import org.springframework.http.ResponseEntity;
+import org.springframework.util.StreamUtils;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.RejectedExecutionException;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.Mockito.*;
@@ -38,6 +73,18 @@ public class ApiControllerTest {
     @Mock
     ApiValidationService apiValidationService;
 
+    @Mock
+    ApiImportService apiImportService;
+
+    @Mock
+    ApiIngestService apiIngestService;
+
+    @Mock
+    ApiRevisionService apiRevisionService;
+
+    @Mock
+    ApiChangeFeed apiChangeFeed;
+
     @Before
     public void setUp() throws Exception {
         when(apiValidationService.validate(any(Api.class))).thenReturn(null);
@@ -50,7 +97,7 @@ public class ApiControllerTest {
         MultipartFile uploadedFile = mock(MultipartFile.class);
 
         // When
-        apiController.saveApi(apiParameter, uploadedFile);
+        apiController.saveApi(apiParameter, null, uploadedFile, null);
 
         // Then
         verify(apiService).saveApi(any(Api.class), eq(uploadedFile));
@@ -69,7 +116,7 @@ public class ApiControllerTest {
         specificationParameter.setSpecificationType(specificationType);
 
         // When
-        apiController.saveApi(toJson(specificationParameter), uploadedFile);
+        apiController.saveApi(toJson(specificationParameter), null, uploadedFile, null);
 
         // Then
         ArgumentCaptor<Api> specificationArgumentCaptor = ArgumentCaptor.forClass(Api.class);
@@ -80,6 +127,31 @@ public class ApiControllerTest {
         assertThat(api.getSpecificationType()).isEqualTo("sWagger");
     }
 
+    @Test
+    public void shouldReadApi_FromJsonPart() throws IOException, BadHttpRequest {
+        // Given
+        MultipartFile apiPart = new MockMultipartFile("api", "api.json", "application/json", "{\"name\":\"testApiName\",\"version\":\"1.0\"}".getBytes());
+
+        // When
+        apiController.saveApi(null, apiPart, mock(MultipartFile.class), null);
+
+        // Then
+        ArgumentCaptor<Api> apiArgumentCaptor = ArgumentCaptor.forClass(Api.class);
+        verify(apiService).saveApi(apiArgumentCaptor.capture(), any(MultipartFile.class));
+        assertThat(apiArgumentCaptor.getValue().getName()).isEqualTo("testApiName");
+        assertThat(apiArgumentCaptor.getValue().getVersion()).isEqualTo("1.0");
+    }
+
+    @Test
+    public void shouldReturnBadRequest_WhenApiIsMissing() throws IOException, BadHttpRequest {
+        // When
+        ResponseEntity responseEntity = apiController.saveApi(null, null, mock(MultipartFile.class), null);
+
+        // Then
+        assertThat(responseEntity.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+        verifyZeroInteractions(apiService);
+    }
+
     @Test
     public void shouldReturnBadRequest_WithMissingParameters_WhenParametersAreMissing() throws IOException, BadHttpRequest {
         // Given
@@ -88,7 +160,7 @@ public class ApiControllerTest {
         when(apiValidationService.validate(any(Api.class))).thenReturn(givenError);
 
         // When
-        ResponseEntity specificationResponseEntity = apiController.saveApi(givenSpecification, mock(MultipartFile.class));
+        ResponseEntity specificationResponseEntity = apiController.saveApi(givenSpecification, null, mock(MultipartFile.class), null);
 
         // Then
         assertThat(specificationResponseEntity.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
@@ -96,6 +168,22 @@ public class ApiControllerTest {
         assertThat(error).isEqualTo(givenError);
     }
 
+    @Test
+    public void shouldReturnBadRequest_WithErrorStructure_WhenUploadedFileIsInvalid() throws IOException, BadHttpRequest {
+        // Given
+        when(apiService.saveApi(any(Api.class), any(MultipartFile.class)))
+                .thenThrow(new InvalidSpecificationFileException(ApiValidationError.FILE_TOO_LARGE, "too large"));
+
+        // When
+        ResponseEntity responseEntity = apiController.saveApi("{}", null, mock(MultipartFile.class), null);
+
+        // Then
+        assertThat(responseEntity.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+        ApiError error = (ApiError) responseEntity.getBody();
+        assertThat(error.type).isEqualTo(ApiValidationError.FILE_TOO_LARGE);
+        assertThat(error.message).isEqualTo("too large");
+    }
+
     @Test
     public void shouldSaveSpecification_WhenSpecificationAlreadyExists() throws IOException, BadHttpRequest {
         // Given
@@ -104,7 +192,7 @@ public class ApiControllerTest {
         when(apiService.saveApi(any(Api.class), any(MultipartFile.class))).thenReturn(savedApi);
 
         // When
-        ResponseEntity responseEntity = apiController.saveApi(givenSpecification, mock(MultipartFile.class));
+        ResponseEntity responseEntity = apiController.saveApi(givenSpecification, null, mock(MultipartFile.class), null);
 
         // Then
         assertThat(responseEntity.getBody()).isEqualTo(savedApi);
@@ -119,12 +207,178 @@ public class ApiControllerTest {
         when(apiService.getApi(givenSpecificationId)).thenReturn(givenApi);
 
         // When
-        Api api = apiController.getApi(givenSpecificationId);
+        Api api = apiController.getApi(givenSpecificationId).getBody();
 
         // Then
         assertThat(api.getId()).isEqualTo(givenSpecificationId);
     }
 
+    @Test
+    public void shouldReturnApi_WithETagFromRevision_AndLastModified() {
+        // Given
+        Api givenApi = new Api();
+        givenApi.setId(42L);
+        givenApi.setRevision(3L);
+        givenApi.setLastModified(1479000000000L);
+        when(apiService.getApi(42L)).thenReturn(givenApi);
+
+        // When
+        ResponseEntity<Api> response = apiController.getApi(42L);
+
+        // Then
+        assertThat(response.getHeaders().getETag()).isEqualTo("\"42.3\"");
+        assertThat(response.getHeaders().getLastModified()).isEqualTo(1479000000000L);
+    }
+
+    @Test
+    public void shouldReturnSpecificationFile_WithETagFromContentHash() {
+        // Given
+        SpecificationFile serverSpecificationFile = mock(SpecificationFile.class);
+        when(serverSpecificationFile.getContentHash()).thenReturn("abc123");
+        Api api = mock(Api.class);
+        when(api.getSpecificationFile()).thenReturn(serverSpecificationFile);
+        when(apiService.getApi(anyLong())).thenReturn(api);
+
+        // When
+        ResponseEntity<Resource> specificationFile = apiController.getSpecificationFile(42L, null);
+
+        // Then
+        assertThat(specificationFile.getHeaders().getETag()).isEqualTo("\"abc123\"");
+    }
+
+    @Test
+    public void shouldSendRequestedRange_OfSpecificationFile() throws IOException {
+        // Given
+        givenSpecificationFileContent("0123456789");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        // When
+        ResponseEntity<Resource> specificationFile = apiController.downloadSpecificationFile(42L, null, "bytes=2-5", null, null, response);
+
+        // Then
+        assertThat(specificationFile).isNull();
+        assertThat(response.getStatus()).isEqualTo(206);
+        assertThat(response.getContentAsString()).isEqualTo("2345");
+        assertThat(response.getHeader("Content-Range")).isEqualTo("bytes 2-5/10");
+        assertThat(response.getHeader("Content-Length")).isEqualTo("4");
+        assertThat(response.getContentType()).isEqualTo("application/json");
+        assertThat(response.getHeader("ETag")).isEqualTo("\"abc123\"");
+    }
+
+    @Test
+    public void shouldSendSeveralRanges_AsMultipartByteRanges() throws IOException {
+        // Given
+        givenSpecificationFileContent("0123456789");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        // When
+        apiController.downloadSpecificationFile(42L, null, "bytes=0-1,-2", null, null, response);
+
+        // Then
+        assertThat(response.getStatus()).isEqualTo(206);
+        assertThat(response.getContentType()).startsWith("multipart/byteranges; boundary=");
+        assertThat(response.getContentAsString())
+                .contains("Content-Range: bytes 0-1/10\r\n\r\n01\r\n")
+                .contains("Content-Range: bytes 8-9/10\r\n\r\n89\r\n");
+    }
+
+    @Test
+    public void shouldRefuseRange_StartingAfterTheEndOfSpecificationFile() throws IOException {
+        // Given
+        givenSpecificationFileContent("0123456789");
+
+        // When
+        ResponseEntity<Resource> specificationFile = apiController.downloadSpecificationFile(42L, null, "bytes=10-", null, null, new MockHttpServletResponse());
+
+        // Then
+        assertThat(specificationFile.getStatusCode()).isEqualTo(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE);
+        assertThat(specificationFile.getHeaders().getFirst("Content-Range")).isEqualTo("bytes */10");
+    }
+
+    @Test
+    public void shouldSendWholeSpecificationFile_WhenIfRangeDoesNotMatch() throws IOException {
+        // Given
+        givenSpecificationFileContent("0123456789");
+
+        // When
+        ResponseEntity<Resource> specificationFile = apiController.downloadSpecificationFile(42L, null, "bytes=2-5", "\"older\"", null, new MockHttpServletResponse());
+
+        // Then
+        assertThat(specificationFile.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(specificationFile.getHeaders().getFirst("Accept-Ranges")).isEqualTo("bytes");
+        assertThat(specificationFile.getHeaders().getContentLength()).isEqualTo(10L);
+    }
+
+    @Test
+    public void shouldSendRange_WhenIfRangeMatchesLastModifiedDate() throws IOException {
+        // Given
+        givenSpecificationFileContent("0123456789");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        // When
+        apiController.downloadSpecificationFile(42L, null, "bytes=5-", "Sun, 13 Nov 2016 01:20:00 GMT", null, response);
+
+        // Then
+        assertThat(response.getStatus()).isEqualTo(206);
+        assertThat(response.getContentAsString()).isEqualTo("56789");
+    }
+
+    @Test
+    public void shouldSendRange_WhenIfNoneMatchDoesNotMatch() throws IOException {
+        // Given
+        givenSpecificationFileContent("0123456789");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        // When
+        ResponseEntity<Resource> specificationFile = apiController.downloadSpecificationFile(42L, null, "bytes=2-5", null, "\"older\"", response);
+
+        // Then
+        assertThat(specificationFile).isNull();
+        assertThat(response.getStatus()).isEqualTo(206);
+        assertThat(response.getContentAsString()).isEqualTo("2345");
+    }
+
+    @Test
+    public void shouldLeaveMatchingIfNoneMatch_ToTheNotModifiedCheck() throws IOException {
+        // Given
+        givenSpecificationFileContent("0123456789");
+
+        // When
+        ResponseEntity<Resource> specificationFile = apiController.downloadSpecificationFile(42L, null, "bytes=2-5", null, "\"older\", W/\"abc123\"", new MockHttpServletResponse());
+
+        // Then
+        assertThat(specificationFile.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(specificationFile.getHeaders().getETag()).isEqualTo("\"abc123\"");
+    }
+
+    @Test
+    public void shouldSendWholeSpecificationFile_WhenGzippedFileIsServedDecompressed() throws IOException {
+        // Given
+        givenSpecificationFileContent("0123456789");
+        apiService.getApi(42L).getSpecificationFile().setContentEncoding(SpecificationFile.GZIP_ENCODING);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        // When
+        ResponseEntity<Resource> specificationFile = apiController.downloadSpecificationFile(42L, null, "bytes=2-5", null, null, response);
+
+        // Then
+        assertThat(specificationFile.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(specificationFile.getHeaders().getFirst("Accept-Ranges")).isEqualTo("none");
+        assertThat(specificationFile.getHeaders().getContentLength()).isEqualTo(10L);
+    }
+
+    @Test
+    public void shouldIgnoreMalformedRange() throws IOException {
+        // Given
+        givenSpecificationFileContent("0123456789");
+
+        // When
+        ResponseEntity<Resource> specificationFile = apiController.downloadSpecificationFile(42L, null, "lines=1-2", null, null, new MockHttpServletResponse());
+
+        // Then
+        assertThat(specificationFile.getStatusCode()).isEqualTo(HttpStatus.OK);
+    }
+
     @Test
     public void shouldAskForSpecificationPage_fromRequestParameters() {
         // Given
@@ -161,41 +415,333 @@ public class ApiControllerTest {
     }
 
     @Test
-    public void shouldReturnSpecificationFile_WithFilePath() {
+    public void shouldStartFromFirstApis_WhenCursorIsEmpty() {
+        // Given
+        when(apiService.getApisAfter(null, 20)).thenReturn(new SliceImpl<>(Arrays.<ApiSummary>asList()));
+
+        // When
+        ResponseEntity<ApiSummarySlice> response = apiController.getApisAfter("", 20);
+
+        // Then
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getBody().getNextCursor()).isNull();
+    }
+
+    @Test
+    public void shouldSeekAfterDecodedCursor_AndGiveNextCursor() {
+        // Given
+        String cursor = new ApiCursor("name a", "1.0").encode();
+        ApiSummary lastApi = new ApiSummary(24L, "name b", "2.0", "swagger");
+        SliceImpl<ApiSummary> slice = new SliceImpl<>(Arrays.asList(lastApi), new PageRequest(0, 1), true);
+        when(apiService.getApisAfter(any(ApiCursor.class), eq(1))).thenReturn(slice);
+
+        // When
+        ResponseEntity<ApiSummarySlice> response = apiController.getApisAfter(cursor, 1);
+
+        // Then
+        ArgumentCaptor<ApiCursor> cursorArgumentCaptor = ArgumentCaptor.forClass(ApiCursor.class);
+        verify(apiService).getApisAfter(cursorArgumentCaptor.capture(), eq(1));
+        assertThat(cursorArgumentCaptor.getValue().getName()).isEqualTo("name a");
+        assertThat(cursorArgumentCaptor.getValue().getVersion()).isEqualTo("1.0");
+        ApiCursor nextCursor = ApiCursor.decode(response.getBody().getNextCursor());
+        assertThat(nextCursor.getName()).isEqualTo("name b");
+        assertThat(nextCursor.getVersion()).isEqualTo("2.0");
+    }
+
+    @Test
+    public void shouldReturnBadRequest_WhenCursorIsInvalid() {
+        // When
+        ResponseEntity<ApiSummarySlice> response = apiController.getApisAfter("%%%", 20);
+
+        // Then
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+        verifyZeroInteractions(apiService);
+    }
+
+    @Test
+    public void shouldCapSlicePageSize_ToFifty() {
+        // Given
+        when(apiService.getApisAfter(null, 50)).thenReturn(new SliceImpl<>(Arrays.<ApiSummary>asList()));
+
+        // When
+        apiController.getApisAfter("", 100);
+
+        // Then
+        verify(apiService).getApisAfter(null, 50);
+    }
+
+    @Test
+    public void shouldStreamImportResults_AsJsonLines() throws IOException {
+        // Given
+        MultipartFile archive = mock(MultipartFile.class);
+        ApiImportResult firstResult = new ApiImportResult();
+        firstResult.setLine(1);
+        ApiImportResult secondResult = new ApiImportResult();
+        secondResult.setLine(2);
+        doAnswer(invocation -> {
+            ImportListener listener = (ImportListener) invocation.getArguments()[1];
+            listener.imported(Arrays.asList(firstResult, secondResult));
+            return null;
+        }).when(apiImportService).importApis(eq(archive), any(ImportListener.class));
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        // When
+        apiController.importApis(archive, response);
+
+        // Then
+        assertThat(response.getContentType()).isEqualTo("application/x-ndjson");
+        String[] lines = response.getContentAsString().split("\n");
+        assertThat(lines).hasSize(2);
+        assertThat(new ObjectMapper().readValue(lines[1], ApiImportResult.class).getLine()).isEqualTo(2);
+    }
+
+    @Test
+    public void shouldWriteOneLinePerBatchEntry_WithEmbeddedSpecificationContent() throws IOException {
+        // Given
+        Api api = new Api();
+        api.setId(1L);
+        api.setName("payments");
+        api.setVersion("1.0");
+        ApiBatchEntry found = ApiBatchEntry.found(api);
+        found.setSpecificationContent(new ByteArrayResource("{\"swagger\": \"2.0\"}".getBytes(Charset.forName("UTF-8"))));
+        ApiBatchRequest request = new ApiBatchRequest(Arrays.asList(1L, 2L), Collections.emptyList());
+        when(apiService.getApis(request, true)).thenReturn(Arrays.asList(found, ApiBatchEntry.missing(2L)));
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        // When
+        apiController.getApis(request, true, response);
+
+        // Then
+        assertThat(response.getContentType()).isEqualTo("application/x-ndjson");
+        String[] lines = response.getContentAsString().split("\n");
+        assertThat(lines).hasSize(2);
+        JsonNode first = new ObjectMapper().readTree(lines[0]);
+        assertThat(first.get("found").asBoolean()).isTrue();
+        assertThat(first.get("specificationContent").asText()).isEqualTo("{\"swagger\": \"2.0\"}");
+        assertThat(lines[1]).isEqualTo("{\"found\":false,\"id\":2}");
+    }
+
+    @Test
+    public void shouldReturnBadRequest_WhenBatchIsTooLarge() throws IOException {
+        // Given
+        List<Long> ids = new ArrayList<>();
+        for (long id = 0; id <= 1000; id++) {
+            ids.add(id);
+        }
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        // When
+        apiController.getApis(new ApiBatchRequest(ids, Collections.emptyList()), false, response);
+
+        // Then
+        assertThat(response.getStatus()).isEqualTo(400);
+        verify(apiService, never()).getApis(any(ApiBatchRequest.class), anyBoolean());
+    }
+
+    @Test
+    public void shouldReturnBadRequest_WhenImportArchiveIsInvalid() throws IOException {
+        // Given
+        MultipartFile archive = mock(MultipartFile.class);
+        doThrow(new InvalidSpecificationFileException(ApiValidationError.MALFORMATED_DATA, "not a zip"))
+                .when(apiImportService).importApis(eq(archive), any(ImportListener.class));
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        // When
+        apiController.importApis(archive, response);
+
+        // Then
+        assertThat(response.getStatus()).isEqualTo(400);
+        ApiError error = new ObjectMapper().readValue(response.getContentAsString(), ApiError.class);
+        assertThat(error.type).isEqualTo(ApiValidationError.MALFORMATED_DATA);
+    }
+
+    @Test
+    public void shouldReturnSpecificationFile_WithFilePath() throws IOException {
         // Given
         SpecificationFile serverSpecificationFile = mock(SpecificationFile.class);
         String fileContent = "fileContent";
-        when(serverSpecificationFile.getFileContent()).thenReturn(fileContent);
+        when(apiService.getSpecificationFileContent(serverSpecificationFile, false)).thenReturn(new ByteArrayResource(fileContent.getBytes()));
         Api api = mock(Api.class);
         when(api.getSpecificationFile()).thenReturn(serverSpecificationFile);
         when(apiService.getApi(anyLong())).thenReturn(api);
 
         // When
-        ResponseEntity specificationFile = apiController.getSpecificationFile(42L);
+        ResponseEntity<Resource> specificationFile = apiController.getSpecificationFile(42L, null);
 
         // Then
-        byte[] body = (byte[]) specificationFile.getBody();
+        byte[] body = StreamUtils.copyToByteArray(specificationFile.getBody().getInputStream());
         String actual = new String(body, Charset.forName("UTF-8"));
         assertThat(actual).isEqualTo(fileContent);
     }
 
+    @Test
+    public void shouldReturnSpecificationFile_WithContentLength() {
+        // Given
+        SpecificationFile serverSpecificationFile = mock(SpecificationFile.class);
+        when(serverSpecificationFile.getContentLength()).thenReturn(11L);
+        Api api = mock(Api.class);
+        when(api.getSpecificationFile()).thenReturn(serverSpecificationFile);
+        when(apiService.getApi(anyLong())).thenReturn(api);
+
+        // When
+        ResponseEntity<Resource> specificationFile = apiController.getSpecificationFile(42L, null);
+
+        // Then
+        assertThat(specificationFile.getHeaders().getContentLength()).isEqualTo(11L);
+    }
+
     @Test
     public void shouldReturnSpecificationFile_WithContentType() {
         // Given
         SpecificationFile serverSpecificationFile = mock(SpecificationFile.class);
-        when(serverSpecificationFile.getFileContent()).thenReturn("fileContent");
         when(serverSpecificationFile.getContentType()).thenReturn("application/yumyum");
         Api api = mock(Api.class);
         when(api.getSpecificationFile()).thenReturn(serverSpecificationFile);
         when(apiService.getApi(anyLong())).thenReturn(api);
 
         // When
-        ResponseEntity specificationFile = apiController.getSpecificationFile(42L);
+        ResponseEntity specificationFile = apiController.getSpecificationFile(42L, null);
 
         // Then
         assertThat(specificationFile.getHeaders().getFirst("Content-Type")).isEqualTo("application/yumyum");
     }
 
+    @Test
+    public void shouldReturnStoredGzipContent_WhenClientAcceptsGzip() {
+        // Given
+        SpecificationFile serverSpecificationFile = mock(SpecificationFile.class);
+        when(serverSpecificationFile.isGzipEncoded()).thenReturn(true);
+        when(serverSpecificationFile.getContentHash()).thenReturn("abc123");
+        when(serverSpecificationFile.getContentLength()).thenReturn(100L);
+        when(serverSpecificationFile.getStoredLength()).thenReturn(20L);
+        Resource storedContent = new ByteArrayResource(new byte[20]);
+        when(apiService.getSpecificationFileContent(serverSpecificationFile, true)).thenReturn(storedContent);
+        Api api = mock(Api.class);
+        when(api.getSpecificationFile()).thenReturn(serverSpecificationFile);
+        when(apiService.getApi(anyLong())).thenReturn(api);
+
+        // When
+        ResponseEntity<Resource> specificationFile = apiController.getSpecificationFile(42L, "deflate, gzip;q=0.8");
+
+        // Then
+        assertThat(specificationFile.getBody()).isEqualTo(storedContent);
+        assertThat(specificationFile.getHeaders().getFirst("Content-Encoding")).isEqualTo("gzip");
+        assertThat(specificationFile.getHeaders().getContentLength()).isEqualTo(20L);
+        assertThat(specificationFile.getHeaders().getETag()).isEqualTo("\"abc123-gzip\"");
+    }
+
+    @Test
+    public void shouldDecompressContent_WhenClientRefusesGzip() {
+        // Given
+        SpecificationFile serverSpecificationFile = mock(SpecificationFile.class);
+        when(serverSpecificationFile.isGzipEncoded()).thenReturn(true);
+        when(serverSpecificationFile.getContentLength()).thenReturn(100L);
+        Api api = mock(Api.class);
+        when(api.getSpecificationFile()).thenReturn(serverSpecificationFile);
+        when(apiService.getApi(anyLong())).thenReturn(api);
+
+        // When
+        ResponseEntity<Resource> specificationFile = apiController.getSpecificationFile(42L, "gzip;q=0");
+
+        // Then
+        verify(apiService).getSpecificationFileContent(serverSpecificationFile, false);
+        assertThat(specificationFile.getHeaders().getFirst("Content-Encoding")).isNull();
+        assertThat(specificationFile.getHeaders().getContentLength()).isEqualTo(100L);
+    }
+
+    @Test
+    public void shouldIgnoreMalformedQuality_InAcceptEncoding() {
+        // Given
+        SpecificationFile serverSpecificationFile = mock(SpecificationFile.class);
+        when(serverSpecificationFile.isGzipEncoded()).thenReturn(true);
+        when(serverSpecificationFile.getStoredLength()).thenReturn(20L);
+        Api api = mock(Api.class);
+        when(api.getSpecificationFile()).thenReturn(serverSpecificationFile);
+        when(apiService.getApi(anyLong())).thenReturn(api);
+
+        // When
+        ResponseEntity<Resource> specificationFile = apiController.getSpecificationFile(42L, "gzip;q=abc");
+
+        // Then
+        verify(apiService).getSpecificationFileContent(serverSpecificationFile, true);
+        assertThat(specificationFile.getHeaders().getFirst("Content-Encoding")).isEqualTo("gzip");
+    }
+
+    @Test
+    public void shouldReturnOperations_TaggedWithSpecificationContentHash() {
+        // Given
+        SpecificationFile serverSpecificationFile = mock(SpecificationFile.class);
+        when(serverSpecificationFile.getContentHash()).thenReturn("abc123");
+        Api api = mock(Api.class);
+        when(api.getSpecificationFile()).thenReturn(serverSpecificationFile);
+        when(apiService.getApi(42L)).thenReturn(api);
+        List<SpecificationOperation> operations = Collections.singletonList(new SpecificationOperation("GET", "/orders", "listOrders", null));
+        when(apiService.getOperations(serverSpecificationFile)).thenReturn(operations);
+
+        // When
+        ResponseEntity<List<SpecificationOperation>> responseEntity = apiController.getOperations(42L);
+
+        // Then
+        assertThat(responseEntity.getBody()).isEqualTo(operations);
+        assertThat(responseEntity.getHeaders().getETag()).isEqualTo("\"abc123-operations\"");
+    }
+
+    @Test
+    public void shouldReturnDiff_TaggedWithBothContentHashes() {
+        // Given
+        SpecificationDiff diff = new SpecificationDiff();
+        diff.setFromContentHash("abc");
+        diff.setToContentHash("def");
+        when(apiService.diffApis(12L, 14L)).thenReturn(diff);
+
+        // When
+        ResponseEntity<SpecificationDiff> responseEntity = apiController.diffApis(12L, 14L);
+
+        // Then
+        assertThat(responseEntity.getBody()).isSameAs(diff);
+        assertThat(responseEntity.getHeaders().getETag()).isEqualTo("\"abc-def-diff\"");
+    }
+
+    @Test
+    public void shouldReturnRevisionContent_TaggedWithItsContentHash() throws IOException {
+        // Given
+        ApiRevision revision = new ApiRevision();
+        revision.setContentType("application/json");
+        revision.setContentHash("abc123");
+        revision.setContentLength(2L);
+        revision.setLastModified(1479110400000L);
+        when(apiRevisionService.getRevision(42L, 2L)).thenReturn(revision);
+        when(apiRevisionService.getRevisionContent(42L, 2L)).thenReturn(new ByteArrayInputStream("{}".getBytes(Charset.forName("UTF-8"))));
+
+        // When
+        ResponseEntity<Resource> responseEntity = apiController.getRevisionContent(42L, 2L);
+
+        // Then
+        assertThat(StreamUtils.copyToString(responseEntity.getBody().getInputStream(), Charset.forName("UTF-8"))).isEqualTo("{}");
+        assertThat(responseEntity.getHeaders().getETag()).isEqualTo("\"abc123\"");
+        assertThat(responseEntity.getHeaders().getContentLength()).isEqualTo(2L);
+        assertThat(responseEntity.getHeaders().getContentType().toString()).isEqualTo("application/json");
+        assertThat(responseEntity.getHeaders().getLastModified()).isEqualTo(1479110400000L);
+    }
+
+    @Test(expected = ResourceNotFoundException.class)
+    public void shouldThrowResourceNotFound_WhenRevisionDoesNotExist() throws IOException {
+        // Given
+        when(apiRevisionService.getRevision(42L, 9L)).thenReturn(null);
+
+        // When
+        apiController.getRevisionContent(42L, 9L);
+    }
+
+    @Test(expected = ResourceNotFoundException.class)
+    public void shouldThrowResourceNotFound_WhenListingRevisionsOfUnknownApi() {
+        // Given
+        when(apiService.getApi(42L)).thenThrow(new ResourceNotFoundException());
+
+        // When
+        apiController.getRevisions(42L);
+    }
+
     @Test
     public void shouldDeleteApi_AndAnswerNoContent() {
         // Given
@@ -215,12 +761,207 @@ public class ApiControllerTest {
         String api = "{";
 
         // When
-        ResponseEntity responseEntity = apiController.saveApi(api, mock(MultipartFile.class));
+        ResponseEntity responseEntity = apiController.saveApi(api, null, mock(MultipartFile.class), null);
 
         // Then
         assertThat(responseEntity.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
     }
 
+    @Test
+    public void shouldAcceptApi_ForSavingInBackground() throws IOException {
+        // Given
+        MultipartFile uploadedFile = mock(MultipartFile.class);
+        ApiIngestJob job = new ApiIngestJob("job-1");
+        when(apiIngestService.submit(any(Api.class), eq(uploadedFile))).thenReturn(job);
+
+        // When
+        ResponseEntity responseEntity = apiController.submitApi("{}", null, uploadedFile);
+
+        // Then
+        assertThat(responseEntity.getStatusCode()).isEqualTo(HttpStatus.ACCEPTED);
+        assertThat(responseEntity.getHeaders().getLocation().toString()).isEqualTo("/catalogueApi/apis/jobs/job-1");
+        assertThat(responseEntity.getBody()).isSameAs(job);
+        verifyZeroInteractions(apiService);
+    }
+
+    @Test
+    public void shouldSaveApiInBackground_WhenRespondAsyncIsAmongPreferences() throws Exception {
+        // Given
+        MultipartFile uploadedFile = mock(MultipartFile.class);
+        when(apiIngestService.submit(any(Api.class), eq(uploadedFile))).thenReturn(new ApiIngestJob("job-1"));
+
+        // When
+        ResponseEntity responseEntity = apiController.saveApi("{}", null, uploadedFile, "wait=5, Respond-Async");
+
+        // Then
+        assertThat(responseEntity.getStatusCode()).isEqualTo(HttpStatus.ACCEPTED);
+        verifyZeroInteractions(apiService);
+    }
+
+    @Test
+    public void shouldRecognizeRespondAsync_AmongSeveralPreferences() {
+        assertThat(ApiController.prefersAsync("respond-async")).isTrue();
+        assertThat(ApiController.prefersAsync("respond-async, wait=10")).isTrue();
+        assertThat(ApiController.prefersAsync("wait=5, respond-async")).isTrue();
+        assertThat(ApiController.prefersAsync("RESPOND-ASYNC;foo=bar")).isTrue();
+        assertThat(ApiController.prefersAsync("return=minimal, wait=5")).isFalse();
+        assertThat(ApiController.prefersAsync("respond-asynchronously")).isFalse();
+        assertThat(ApiController.prefersAsync(null)).isFalse();
+    }
+
+    @Test
+    public void shouldAnswerServiceUnavailable_WhenIngestQueueIsFull() throws IOException {
+        // Given
+        when(apiIngestService.submit(any(Api.class), any(MultipartFile.class))).thenThrow(new RejectedExecutionException());
+
+        // When
+        ResponseEntity responseEntity = apiController.submitApi("{}", null, mock(MultipartFile.class));
+
+        // Then
+        assertThat(responseEntity.getStatusCode()).isEqualTo(HttpStatus.SERVICE_UNAVAILABLE);
+        assertThat(responseEntity.getHeaders().getFirst("Retry-After")).isEqualTo("5");
+    }
+
+    @Test
+    public void shouldReturnBadRequest_WithoutQueueing_WhenApiIsInvalid() throws IOException {
+        // Given
+        when(apiValidationService.validate(any(Api.class))).thenReturn(new ApiError());
+
+        // When
+        ResponseEntity responseEntity = apiController.submitApi("{}", null, mock(MultipartFile.class));
+
+        // Then
+        assertThat(responseEntity.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+        verifyZeroInteractions(apiIngestService);
+    }
+
+    @Test
+    public void shouldCapSearchPageSize() {
+        // When
+        apiController.searchApis("orders", "swagger", 2, 1000);
+
+        // Then
+        verify(apiService).searchApis("orders", "swagger", 2, 50);
+    }
+
+    @Test
+    public void shouldReturnBadRequest_WhenSearchQueryIsBlank() {
+        // When
+        ResponseEntity<ApiSearchResult> responseEntity = apiController.searchApis(" ", null, 0, 10);
+
+        // Then
+        assertThat(responseEntity.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+        verifyZeroInteractions(apiService);
+    }
+
+    @Test
+    public void shouldReturnBadRequest_WhenSearchPageIsNegative() {
+        // When
+        ResponseEntity<ApiSearchResult> responseEntity = apiController.searchApis("orders", null, -1, 10);
+
+        // Then
+        assertThat(responseEntity.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+        verifyZeroInteractions(apiService);
+    }
+
+    @Test
+    public void shouldReturnBadRequest_WhenSearchPageSizeIsNotPositive() {
+        // When
+        ResponseEntity<ApiSearchResult> responseEntity = apiController.searchApis("orders", null, 0, 0);
+
+        // Then
+        assertThat(responseEntity.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+        verifyZeroInteractions(apiService);
+    }
+
+    @Test
+    public void shouldSearchLastPossiblePage() {
+        // When
+        apiController.searchApis("orders", null, Integer.MAX_VALUE, 50);
+
+        // Then
+        verify(apiService).searchApis("orders", null, Integer.MAX_VALUE, 50);
+    }
+
+    @Test
+    public void shouldReturnChanges_WithLastSequenceAsCursor() {
+        // Given
+        ApiChange change = new ApiChange(ApiChange.Type.SAVED, 2L, "shop", "1.0", "swagger", 1L, 0L);
+        change.setSequence(12L);
+        when(apiChangeFeed.getChangesAfter(10L, 500)).thenReturn(Collections.singletonList(change));
+
+        // When
+        ResponseEntity<ApiChangeSlice> responseEntity = apiController.getChanges(10L, 1000);
+
+        // Then
+        assertThat(responseEntity.getBody().getContent()).containsExactly(change);
+        assertThat(responseEntity.getBody().getCursor()).isEqualTo(12L);
+    }
+
+    @Test
+    public void shouldKeepCursor_WhenThereAreNoNewChanges() {
+        // Given
+        when(apiChangeFeed.getChangesAfter(12L, 100)).thenReturn(Collections.emptyList());
+
+        // When
+        ResponseEntity<ApiChangeSlice> responseEntity = apiController.getChanges(12L, 100);
+
+        // Then
+        assertThat(responseEntity.getBody().getNumberOfElements()).isZero();
+        assertThat(responseEntity.getBody().getCursor()).isEqualTo(12L);
+    }
+
+    @Test
+    public void shouldReturnBadRequest_WhenChangesSinceIsNegative() {
+        // When
+        ResponseEntity<ApiChangeSlice> responseEntity = apiController.getChanges(-1L, 100);
+
+        // Then
+        assertThat(responseEntity.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+        verifyZeroInteractions(apiChangeFeed);
+    }
+
+    @Test
+    public void shouldAnswerGone_WhenChangesSinceWereTrimmed() {
+        // Given
+        when(apiChangeFeed.isExpired(3L)).thenReturn(true);
+
+        // When
+        ResponseEntity<ApiChangeSlice> changesResponse = apiController.getChanges(3L, 100);
+        ResponseEntity<SseEmitter> streamResponse = apiController.streamChanges(0L, 3L);
+
+        // Then
+        assertThat(changesResponse.getStatusCode()).isEqualTo(HttpStatus.GONE);
+        assertThat(streamResponse.getStatusCode()).isEqualTo(HttpStatus.GONE);
+        verify(apiChangeFeed, never()).getChangesAfter(anyLong(), anyInt());
+        verify(apiChangeFeed, never()).subscribe(anyLong());
+    }
+
+    @Test
+    public void shouldResumeChangeStream_FromLastEventId() {
+        // Given
+        SseEmitter emitter = new SseEmitter();
+        when(apiChangeFeed.subscribe(7L)).thenReturn(emitter);
+
+        // When
+        ResponseEntity<SseEmitter> responseEntity = apiController.streamChanges(0L, 7L);
+
+        // Then
+        assertThat(responseEntity.getBody()).isSameAs(emitter);
+    }
+
+    private void givenSpecificationFileContent(String content) {
+        SpecificationFile specificationFile = new SpecificationFile();
+        specificationFile.setContentType("application/json");
+        specificationFile.setContentHash("abc123");
+        specificationFile.setContentLength(content.length());
+        Api api = new Api();
+        api.setLastModified(1479000000000L);
+        api.setSpecificationFile(specificationFile);
+        when(apiService.getApi(42L)).thenReturn(api);
+        when(apiService.getSpecificationFileContent(specificationFile, false)).thenReturn(new ByteArrayResource(content.getBytes(Charset.forName("UTF-8"))));
+    }
+
     private String toJson(Api apiObject) throws JsonProcessingException {
         ObjectMapper objectMapper = new ObjectMapper();
         return objectMapper.writeValueAsString(apiObject);
@@ -1,9 +1,11 @@
 package application.controllers;
 
+import application.infrastructure.InvalidSpecificationFileException;
 import application.infrastructure.models.Api;
 import application.infrastructure.models.ApiError;
-import application.infrastructure.models.ViewApi;
+import application.infrastructure.models.RenderedPage;
 import application.services.ApiService;
+import application.services.ApiValidationError;
 import application.services.ApiValidationService;
 import application.services.ViewService;
 import org.junit.Test;
@@ -12,13 +14,12 @@ import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.runners.MockitoJUnitRunner;
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.http.ResponseEntity;
 import org.springframework.ui.Model;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
-import java.util.List;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.Matchers.any;
@@ -40,28 +41,31 @@ public class ViewApiControllerTest {
     private ApiValidationService apiValidationService;
 
     @Test
-    public void shouldReturnTemplateForApiList_WhenRequestingApiList() {
+    public void shouldReturnRenderedApiList_TaggedWithItsETag_WhenRequestingApiList() {
         // Given
-        when(apiService.getAllApis(any(PageRequest.class))).thenReturn(mock(Page.class));
+        RenderedPage page = new RenderedPage("<html></html>".getBytes(), "abc123");
+        when(viewService.renderApiList(any(PageRequest.class))).thenReturn(page);
 
         // When
-        String result = apiViewController.list(0, mock(Model.class));
+        ResponseEntity<byte[]> result = apiViewController.list(0);
 
         // Then
-        assertThat(result).isEqualTo("apis/list");
+        assertThat(result.getBody()).isEqualTo(page.getContent());
+        assertThat(result.getHeaders().getETag()).isEqualTo("\"abc123\"");
+        assertThat(result.getHeaders().getContentType().toString()).isEqualTo("text/html;charset=UTF-8");
     }
 
     @Test
     public void shouldAskForAPage_Of50Apis_WhenRequestingApiList() {
         // Given
-        when(apiService.getAllApis(any(PageRequest.class))).thenReturn(mock(Page.class));
+        when(viewService.renderApiList(any(PageRequest.class))).thenReturn(new RenderedPage(new byte[0], "abc123"));
 
         // When
-        apiViewController.list(0, mock(Model.class));
+        apiViewController.list(0);
 
         // Then
         ArgumentCaptor<PageRequest> pageRequestArgumentCaptor = ArgumentCaptor.forClass(PageRequest.class);
-        verify(apiService).getAllApis(pageRequestArgumentCaptor.capture());
+        verify(viewService).renderApiList(pageRequestArgumentCaptor.capture());
         PageRequest pageRequest = pageRequestArgumentCaptor.getValue();
         int maxPageSize = 50;
         assertThat(pageRequest.getPageSize()).isEqualTo(maxPageSize);
@@ -70,35 +74,19 @@ public class ViewApiControllerTest {
     @Test
     public void shouldAskForThirdPage_WhenRequestingApiList_WithThirdPageArgument() {
         // Given
-        when(apiService.getAllApis(any(PageRequest.class))).thenReturn(mock(Page.class));
+        when(viewService.renderApiList(any(PageRequest.class))).thenReturn(new RenderedPage(new byte[0], "abc123"));
 
         // When
-        apiViewController.list(3, mock(Model.class));
+        apiViewController.list(3);
 
         // Then
         ArgumentCaptor<PageRequest> pageRequestArgumentCaptor = ArgumentCaptor.forClass(PageRequest.class);
-        verify(apiService).getAllApis(pageRequestArgumentCaptor.capture());
+        verify(viewService).renderApiList(pageRequestArgumentCaptor.capture());
         PageRequest pageRequest = pageRequestArgumentCaptor.getValue();
         int thirdPage = 3;
         assertThat(pageRequest.getPageNumber()).isEqualTo(thirdPage);
     }
 
-    @Test
-    public void shouldPrepareApiListForView_WhenRequestingApiList() {
-        // Given
-        Model model = mock(Model.class);
-        Page apisPage = mock(Page.class);
-        List<ViewApi> viewApiList = mock(List.class);
-        when(apiService.getAllApis(any(PageRequest.class))).thenReturn(apisPage);
-        when(viewService.listApis(eq(apisPage.getContent()))).thenReturn(viewApiList);
-
-        // When
-        apiViewController.list(0, model);
-
-        // Then
-        verify(model).addAttribute(eq("apis"), eq(viewApiList));
-    }
-
     @Test
     public void shouldReturnShowNewPage() {
         // When
@@ -236,4 +224,20 @@ public class ViewApiControllerTest {
         // Then
         verify(model).addAttribute(eq("errormsg"), eq(errorMessage));
     }
-}
\ No newline at end of file
+
+    @Test
+    public void shouldSetModelErrorMessageField_WhenUploadedFileIsInvalid() throws IOException {
+        // Given
+        Model model = mock(Model.class);
+        when(apiValidationService.validate(any(Api.class))).thenReturn(null);
+        when(apiService.saveApi(any(Api.class), any(MultipartFile.class)))
+                .thenThrow(new InvalidSpecificationFileException(ApiValidationError.MALFORMATED_DATA, "not utf-8"));
+
+        // When
+        apiViewController.createApi("name", "1.2", "blueprint", mock(MultipartFile.class), model);
+
+        // Then
+        verify(model).addAttribute(eq("success"), eq(false));
+        verify(model).addAttribute(eq("errormsg"), eq("not utf-8"));
+    }
+}
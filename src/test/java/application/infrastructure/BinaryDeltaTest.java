@@ -0,0 +1,79 @@
+package application.infrastructure;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Random;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+
+public class BinaryDeltaTest {
+
+    @Test
+    public void shouldRebuildTarget_FromBaseAndDelta() throws IOException {
+        // Given
+        byte[] base = specification(200, "").getBytes(UTF_8);
+        byte[] target = specification(200, "      deprecated: true\n").getBytes(UTF_8);
+
+        // When
+        byte[] delta = BinaryDelta.encode(base, target);
+
+        // Then
+        assertThat(BinaryDelta.apply(base, delta)).isEqualTo(target);
+        assertThat(delta.length).isLessThan(target.length / 20);
+    }
+
+    @Test
+    public void shouldRebuildTarget_WithMovedAndRemovedBlocks() throws IOException {
+        // Given
+        byte[] base = new byte[64 * 1024];
+        new Random(7).nextBytes(base);
+        byte[] target = new byte[base.length];
+        System.arraycopy(base, 32 * 1024, target, 0, 32 * 1024);
+        System.arraycopy(base, 0, target, 32 * 1024, 16 * 1024);
+        byte[] insertedBytes = new byte[16 * 1024];
+        new Random(11).nextBytes(insertedBytes);
+        System.arraycopy(insertedBytes, 0, target, 48 * 1024, insertedBytes.length);
+
+        // When
+        byte[] delta = BinaryDelta.encode(base, target);
+
+        // Then
+        assertThat(BinaryDelta.apply(base, delta)).isEqualTo(target);
+        assertThat(delta.length).isLessThan(20 * 1024);
+    }
+
+    @Test
+    public void shouldRebuildTarget_FromUnrelatedOrTinyContent() throws IOException {
+        assertThat(BinaryDelta.apply(new byte[0], BinaryDelta.encode(new byte[0], "swagger".getBytes(UTF_8)))).isEqualTo("swagger".getBytes(UTF_8));
+        assertThat(BinaryDelta.apply("swagger".getBytes(UTF_8), BinaryDelta.encode("swagger".getBytes(UTF_8), new byte[0]))).isEmpty();
+        byte[] base = specification(10, "").getBytes(UTF_8);
+        byte[] target = "FORMAT: 1A\n# Another API".getBytes(UTF_8);
+        assertThat(BinaryDelta.apply(base, BinaryDelta.encode(base, target))).isEqualTo(target);
+    }
+
+    @Test
+    public void shouldRefuseCorruptDelta() {
+        // Given
+        byte[] base = specification(10, "").getBytes(UTF_8);
+        byte[] delta = BinaryDelta.encode(base, specification(10, "x").getBytes(UTF_8));
+
+        // Then
+        assertThat(catchThrowable(() -> BinaryDelta.apply(base, Arrays.copyOf(delta, delta.length / 2)))).isInstanceOf(IOException.class);
+        assertThat(catchThrowable(() -> BinaryDelta.apply(new byte[4], delta))).isInstanceOf(IOException.class);
+    }
+
+    private static String specification(int pathCount, String extraOperationLine) {
+        StringBuilder specification = new StringBuilder("swagger: '2.0'\npaths:\n");
+        for (int i = 0; i < pathCount; i++) {
+            specification.append("  /resources").append(i).append(":\n    get:\n      operationId: getResource").append(i).append('\n');
+            if (i == pathCount / 2) {
+                specification.append(extraOperationLine);
+            }
+        }
+        return specification.toString();
+    }
+}
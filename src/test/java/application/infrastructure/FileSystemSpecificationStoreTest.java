@@ -0,0 +1,240 @@
+package application.infrastructure;
+
+import application.infrastructure.models.SpecificationFile;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.util.StreamUtils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class FileSystemSpecificationStoreTest {
+
+    private static final String CONTENT_HASH = "9f86d081884c7d659a2feaa0c55ad015a3bf4f1b2b0b822cd15d6c15b0f00a08";
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private FileSystemSpecificationStore specificationStore;
+    private SpecificationFileRepository specificationFileRepository;
+    private SpecificationFile specificationFile;
+
+    @Before
+    public void setUp() throws Exception {
+        specificationStore = new FileSystemSpecificationStore(temporaryFolder.getRoot().getPath());
+        specificationFileRepository = mock(SpecificationFileRepository.class);
+        specificationStore.specificationFileRepository = specificationFileRepository;
+        specificationStore.transactionManager = mock(PlatformTransactionManager.class);
+        specificationFile = new SpecificationFile();
+        specificationFile.setId(7L);
+        specificationFile.setContentHash(CONTENT_HASH);
+    }
+
+    @After
+    public void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    public void shouldReadStoredContent_FromFileNamedAfterContentHash() throws IOException {
+        // When
+        StoredContentOutputStream outputStream = store("paths: /orders");
+
+        // Then
+        assertThat(outputStream.getLength()).isEqualTo(14L);
+        assertThat(specificationStore.pathOf(specificationFile))
+                .isEqualTo(temporaryFolder.getRoot().toPath().resolve("9f").resolve("86").resolve(CONTENT_HASH));
+        assertThat(specificationStore.contains(specificationFile)).isTrue();
+        assertThat(read()).isEqualTo("paths: /orders");
+    }
+
+    @Test
+    public void shouldKeepGzippedContent_InItsOwnFile() throws IOException {
+        // Given
+        store("plain");
+        specificationFile.setContentEncoding(SpecificationFile.GZIP_ENCODING);
+
+        // Then
+        assertThat(specificationStore.contains(specificationFile)).isFalse();
+        assertThat(specificationStore.pathOf(specificationFile).getFileName().toString()).isEqualTo(CONTENT_HASH + ".gz");
+    }
+
+    @Test
+    public void shouldNotShowContent_UntilStreamIsClosed() throws IOException {
+        // When
+        StoredContentOutputStream outputStream = specificationStore.openOutputStream(specificationFile);
+        outputStream.write("paths".getBytes(UTF_8));
+
+        // Then
+        assertThat(specificationStore.contains(specificationFile)).isFalse();
+        outputStream.close();
+        assertThat(specificationStore.contains(specificationFile)).isTrue();
+    }
+
+    @Test
+    public void shouldLeaveNoFile_WhenWriteIsAborted() throws IOException {
+        // Given
+        StoredContentOutputStream outputStream = specificationStore.openOutputStream(specificationFile);
+        outputStream.write("paths".getBytes(UTF_8));
+
+        // When
+        outputStream.abort();
+
+        // Then
+        assertThat(specificationStore.contains(specificationFile)).isFalse();
+        assertThat(listFiles(specificationStore.pathOf(specificationFile).getParent())).isZero();
+    }
+
+    @Test
+    public void shouldKeepExistingFile_WhenSameContentIsStoredAgain() throws IOException {
+        // Given
+        store("paths: /orders");
+
+        // When
+        store("paths: /orders");
+
+        // Then
+        assertThat(read()).isEqualTo("paths: /orders");
+        assertThat(listFiles(specificationStore.pathOf(specificationFile).getParent())).isEqualTo(1);
+    }
+
+    @Test
+    public void shouldDeleteFile_RightAway_OutsideOfATransaction() throws IOException {
+        // Given
+        store("paths: /orders");
+
+        // When
+        specificationStore.delete(specificationFile);
+
+        // Then
+        assertThat(specificationStore.contains(specificationFile)).isFalse();
+    }
+
+    @Test
+    public void shouldDeleteFile_AfterCommit_WhenNoSpecificationFileSharesItsContent() throws IOException {
+        // Given
+        store("paths: /orders");
+        TransactionSynchronizationManager.initSynchronization();
+        when(specificationFileRepository.countByContentHash(CONTENT_HASH)).thenReturn(0L);
+
+        // When
+        specificationStore.delete(specificationFile);
+
+        // Then
+        assertThat(specificationStore.contains(specificationFile)).isTrue();
+        commit();
+        assertThat(specificationStore.contains(specificationFile)).isFalse();
+    }
+
+    @Test
+    public void shouldKeepFile_AfterCommit_WhenAnotherSpecificationFileSharesItsContent() throws IOException {
+        // Given
+        store("paths: /orders");
+        TransactionSynchronizationManager.initSynchronization();
+        when(specificationFileRepository.countByContentHash(CONTENT_HASH)).thenReturn(1L);
+
+        // When
+        specificationStore.delete(specificationFile);
+        commit();
+
+        // Then
+        assertThat(specificationStore.contains(specificationFile)).isTrue();
+    }
+
+    @Test
+    public void shouldDeleteWrittenFile_WhenTransactionRollsBack() throws IOException {
+        // Given
+        TransactionSynchronizationManager.initSynchronization();
+        when(specificationFileRepository.countByContentHash(CONTENT_HASH)).thenReturn(0L);
+
+        // When
+        store("paths: /orders");
+        for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+            synchronization.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK);
+        }
+
+        // Then
+        assertThat(specificationStore.contains(specificationFile)).isFalse();
+    }
+
+    @Test
+    public void shouldPutWrittenFileInPlace_WhenTransactionCommits() throws IOException {
+        // Given
+        TransactionSynchronizationManager.initSynchronization();
+
+        // When
+        store("paths: /orders");
+
+        // Then
+        assertThat(specificationStore.contains(specificationFile)).isFalse();
+        commit();
+        assertThat(read()).isEqualTo("paths: /orders");
+        assertThat(listFiles(specificationStore.pathOf(specificationFile).getParent())).isEqualTo(1);
+    }
+
+    @Test
+    public void shouldKeepUploadedFile_WhenDeleteOfSameContentCommitsBeforeTheUpload() throws IOException {
+        // Given
+        store("paths: /orders");
+        TransactionSynchronizationManager.initSynchronization();
+        store("paths: /orders");
+        List<TransactionSynchronization> upload = TransactionSynchronizationManager.getSynchronizations();
+        TransactionSynchronizationManager.clearSynchronization();
+        TransactionSynchronizationManager.initSynchronization();
+        when(specificationFileRepository.countByContentHash(CONTENT_HASH)).thenReturn(0L);
+
+        // When
+        specificationStore.delete(specificationFile);
+        commit();
+        for (TransactionSynchronization synchronization : upload) {
+            synchronization.afterCommit();
+            synchronization.afterCompletion(TransactionSynchronization.STATUS_COMMITTED);
+        }
+
+        // Then
+        assertThat(read()).isEqualTo("paths: /orders");
+    }
+
+    private StoredContentOutputStream store(String content) throws IOException {
+        StoredContentOutputStream outputStream = specificationStore.openOutputStream(specificationFile);
+        outputStream.write(content.getBytes(UTF_8));
+        outputStream.close();
+        return outputStream;
+    }
+
+    private String read() throws IOException {
+        try (InputStream inputStream = specificationStore.read(specificationFile)) {
+            return StreamUtils.copyToString(inputStream, UTF_8);
+        }
+    }
+
+    private void commit() {
+        for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+            synchronization.afterCommit();
+            synchronization.afterCompletion(TransactionSynchronization.STATUS_COMMITTED);
+        }
+    }
+
+    private static long listFiles(Path directory) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.count();
+        }
+    }
+}
@@ -1,12 +1,18 @@
 package application.infrastructure;
 
+import application.infrastructure.models.ContentDigest;
+import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.mockito.InjectMocks;
 import org.mockito.runners.MockitoJUnitRunner;
+import org.springframework.util.StreamUtils;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.Mockito.mock;
@@ -18,6 +24,10 @@ public class FileUtilsTest {
     @InjectMocks
     FileUtils fileUtils;
 
+    @Before
+    public void setUp() throws Exception {
+        fileUtils.maxSpecificationSize = 4096;
+    }
 
     @Test
     public void shouldExtractFileContent_FromMultipartFile() throws IOException {
@@ -25,12 +35,56 @@ public class FileUtilsTest {
         MultipartFile uploadedFile = mock(MultipartFile.class);
         String fileContent = "fileContent";
         byte[] fileBytesContent = fileContent.getBytes();
-        when(uploadedFile.getBytes()).thenReturn(fileBytesContent);
+        when(uploadedFile.getInputStream()).thenReturn(new ByteArrayInputStream(fileBytesContent));
+
+        // When
+        InputStream result = fileUtils.openSpecificationFile(uploadedFile);
+
+        // Then
+        assertThat(StreamUtils.copyToString(result, StandardCharsets.UTF_8)).isEqualTo(fileContent);
+    }
+
+    @Test
+    public void shouldComputeSha256_AndLength_OfUploadedFile() throws IOException {
+        // Given
+        MultipartFile uploadedFile = mock(MultipartFile.class);
+        when(uploadedFile.getInputStream()).thenReturn(new ByteArrayInputStream("abc".getBytes()));
+
+        // When
+        ContentDigest digest = fileUtils.digest(uploadedFile);
+
+        // Then
+        assertThat(digest.getHash()).isEqualTo("ba7816bf8f01cfea414140de5dae2223b00361a396177a9cb410ff61f20015ad");
+        assertThat(digest.getLength()).isEqualTo(3L);
+    }
+
+    @Test
+    public void shouldFlagRepetitiveContent_AsCompressible() throws IOException {
+        // Given
+        StringBuilder content = new StringBuilder();
+        while (content.length() < 2048) {
+            content.append("  /orders/{id}:\n    get:\n      operationId: getOrder\n");
+        }
+        MultipartFile uploadedFile = mock(MultipartFile.class);
+        when(uploadedFile.getInputStream()).thenReturn(new ByteArrayInputStream(content.toString().getBytes()));
+
+        // When
+        ContentDigest digest = fileUtils.digest(uploadedFile);
+
+        // Then
+        assertThat(digest.isCompressible()).isTrue();
+    }
+
+    @Test
+    public void shouldNotFlagTinyContent_AsCompressible() throws IOException {
+        // Given
+        MultipartFile uploadedFile = mock(MultipartFile.class);
+        when(uploadedFile.getInputStream()).thenReturn(new ByteArrayInputStream("aaaaaaaaaaaaaaaa".getBytes()));
 
         // When
-        String result = fileUtils.multipartfileToString(uploadedFile);
+        ContentDigest digest = fileUtils.digest(uploadedFile);
 
         // Then
-        assertThat(result).isEqualTo(fileContent);
+        assertThat(digest.isCompressible()).isFalse();
     }
-}
\ No newline at end of file
+}
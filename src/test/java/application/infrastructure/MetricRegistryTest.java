@@ -0,0 +1,77 @@
+package application.infrastructure;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.StringWriter;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+
+public class MetricRegistryTest {
+
+    private final MetricRegistry metricRegistry = new MetricRegistry();
+
+    @Test
+    public void shouldWriteCounters_InPrometheusTextFormat() throws IOException {
+        // Given
+        metricRegistry.counter("uploads_total", "Uploads", "type", "swagger").increment(3);
+        metricRegistry.counter("uploads_total", "Uploads", "type", "swagger").increment();
+        metricRegistry.counter("uploads_total", "Uploads", "type", "say \"hi\"").increment();
+
+        // When
+        String metrics = write();
+
+        // Then
+        assertThat(metrics).startsWith("# HELP uploads_total Uploads\n# TYPE uploads_total counter\n")
+                .contains("uploads_total{type=\"swagger\"} 4\n")
+                .contains("uploads_total{type=\"say \\\"hi\\\"\"} 1\n");
+    }
+
+    @Test
+    public void shouldWriteCumulativeHistogramBuckets() throws IOException {
+        // Given
+        MetricRegistry.Histogram histogram = metricRegistry.histogram("size_bytes", "Sizes", new double[]{10, 100});
+        histogram.record(5);
+        histogram.record(10);
+        histogram.record(50);
+        histogram.record(500);
+
+        // When
+        String metrics = write();
+
+        // Then
+        assertThat(metrics).contains(
+                "size_bytes_bucket{le=\"10\"} 2\n" +
+                "size_bytes_bucket{le=\"100\"} 3\n" +
+                "size_bytes_bucket{le=\"+Inf\"} 4\n" +
+                "size_bytes_count 4\n" +
+                "size_bytes_sum 565\n");
+    }
+
+    @Test
+    public void shouldReadGauges_WhenWritten() throws IOException {
+        // Given
+        double[] queueDepth = {1};
+        metricRegistry.gauge("queue_depth", "Depth", () -> queueDepth[0]);
+        queueDepth[0] = 2.5;
+
+        // Then
+        assertThat(write()).contains("# TYPE queue_depth gauge\nqueue_depth 2.5\n");
+    }
+
+    @Test
+    public void shouldRefuseMetric_RegisteredWithAnotherType() {
+        // Given
+        metricRegistry.counter("requests", "Requests");
+
+        // Then
+        assertThat(catchThrowable(() -> metricRegistry.timer("requests", "Requests"))).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private String write() throws IOException {
+        StringWriter writer = new StringWriter();
+        metricRegistry.writeTo(writer);
+        return writer.toString();
+    }
+}
@@ -0,0 +1,54 @@
+package application.infrastructure;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import org.junit.Test;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.Resource;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class SpecificationContentSerializerTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    public void shouldWriteContent_AsEscapedJsonString() throws IOException {
+        // Given
+        String content = "swagger: \"2.0\"\ninfo:\n  title: \\ café\n";
+
+        // When
+        byte[] json = objectMapper.writeValueAsBytes(new Holder(content));
+
+        // Then
+        assertThat(objectMapper.readTree(json).get("content").asText()).isEqualTo(content);
+    }
+
+    @Test
+    public void shouldKeepSurrogatePairs_SpanningTwoChunks() throws IOException {
+        // Given
+        StringBuilder content = new StringBuilder();
+        for (int i = 0; i < 8191; i++) {
+            content.append('a');
+        }
+        content.append("🚀 launched");
+
+        // When
+        byte[] json = objectMapper.writeValueAsBytes(new Holder(content.toString()));
+
+        // Then
+        assertThat(objectMapper.readTree(json).get("content").asText()).isEqualTo(content.toString());
+    }
+
+    private static class Holder {
+        @JsonSerialize(using = SpecificationContentSerializer.class)
+        public final Resource content;
+
+        private Holder(String content) {
+            this.content = new ByteArrayResource(content.getBytes(StandardCharsets.UTF_8));
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package application.infrastructure;
+
+import application.infrastructure.models.SpecificationFile;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.util.StreamUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.List;
+
+import static application.infrastructure.models.SpecificationFileChunk.CHUNK_SIZE;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.*;
+
+@RunWith(MockitoJUnitRunner.class)
+public class SpecificationFileContentRepositoryTest {
+
+    @InjectMocks
+    SpecificationFileContentRepository contentRepository;
+
+    @Mock
+    JdbcTemplate jdbcTemplate;
+
+    private byte[] content;
+
+    @Before
+    public void setUp() throws Exception {
+        content = new byte[CHUNK_SIZE * 2 + 10];
+        for (int i = 0; i < content.length; i++) {
+            content[i] = (byte) i;
+        }
+    }
+
+    @Test
+    public void shouldSplitContent_InFixedSizeChunks_WhenSaving() throws IOException {
+        // When
+        SpecificationFileContentRepository.ChunkOutputStream outputStream = contentRepository.openOutputStream(specificationFile(content.length));
+        StreamUtils.copy(new ByteArrayInputStream(content), outputStream);
+        outputStream.close();
+
+        // Then
+        assertThat(outputStream.getLength()).isEqualTo(content.length);
+        ArgumentCaptor<Object> argumentsCaptor = ArgumentCaptor.forClass(Object.class);
+        verify(jdbcTemplate, times(3)).update(anyString(), argumentsCaptor.capture(), argumentsCaptor.capture(), argumentsCaptor.capture());
+        List<Object> arguments = argumentsCaptor.getAllValues();
+        assertThat(arguments.get(1)).isEqualTo(0);
+        assertThat(arguments.get(4)).isEqualTo(1);
+        assertThat(arguments.get(7)).isEqualTo(2);
+        assertThat((byte[]) arguments.get(8)).hasSize(10);
+    }
+
+    @Test
+    public void shouldReadContent_ChunkByChunk() throws IOException {
+        // Given
+        for (int chunkIndex = 0; chunkIndex < 3; chunkIndex++) {
+            int from = chunkIndex * CHUNK_SIZE;
+            byte[] chunk = Arrays.copyOfRange(content, from, Math.min(from + CHUNK_SIZE, content.length));
+            when(jdbcTemplate.queryForObject(anyString(), eq(byte[].class), eq(42L), eq(chunkIndex))).thenReturn(chunk);
+        }
+
+        // When
+        InputStream inputStream = contentRepository.read(specificationFile(content.length));
+
+        // Then
+        assertThat(StreamUtils.copyToByteArray(inputStream)).isEqualTo(content);
+    }
+
+    @Test
+    public void shouldNotQueryChunks_WhenContentIsEmpty() throws IOException {
+        // When
+        InputStream inputStream = contentRepository.read(specificationFile(0));
+
+        // Then
+        assertThat(inputStream.read()).isEqualTo(-1);
+        verify(jdbcTemplate, never()).queryForObject(anyString(), any(Class.class), any());
+    }
+
+    @Test
+    public void shouldContainContent_OnlyOnceItsFirstChunkIsStored() {
+        // Given
+        when(jdbcTemplate.queryForObject(anyString(), eq(Long.class), eq(42L))).thenReturn(0L, 1L);
+
+        // Then
+        assertThat(contentRepository.contains(specificationFile(content.length))).isFalse();
+        assertThat(contentRepository.contains(specificationFile(content.length))).isTrue();
+        assertThat(contentRepository.contains(specificationFile(0))).isTrue();
+    }
+
+    private static SpecificationFile specificationFile(long storedLength) {
+        SpecificationFile specificationFile = new SpecificationFile();
+        specificationFile.setId(42L);
+        specificationFile.setStoredLength(storedLength);
+        return specificationFile;
+    }
+}
@@ -0,0 +1,73 @@
+package application.infrastructure;
+
+import org.junit.Test;
+import org.springframework.util.StreamUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class SpecificationFileInputStreamTest {
+
+    @Test
+    public void shouldPassThroughValidUtf8Content() throws IOException {
+        // Given
+        String content = "title: Café API – 🚀";
+        InputStream inputStream = validating(content.getBytes(StandardCharsets.UTF_8), 1024);
+
+        // When
+        String result = StreamUtils.copyToString(inputStream, StandardCharsets.UTF_8);
+
+        // Then
+        assertThat(result).isEqualTo(content);
+    }
+
+    @Test
+    public void shouldRejectContent_LargerThanMaximumSize() {
+        // Given
+        InputStream inputStream = validating(new byte[2048], 1024);
+
+        // Then
+        assertThatThrownBy(() -> StreamUtils.copyToByteArray(inputStream))
+                .isInstanceOf(InvalidSpecificationFileException.class)
+                .hasMessage("Specification file exceeds the maximum size of 1024 bytes");
+    }
+
+    @Test
+    public void shouldRejectInvalidUtf8Bytes() {
+        // Given
+        InputStream inputStream = validating(new byte[]{'a', (byte) 0xC0, (byte) 0xAF}, 1024);
+
+        // Then
+        assertThatThrownBy(() -> StreamUtils.copyToByteArray(inputStream))
+                .isInstanceOf(InvalidSpecificationFileException.class);
+    }
+
+    @Test
+    public void shouldRejectEncodedSurrogates() {
+        // Given
+        InputStream inputStream = validating(new byte[]{(byte) 0xED, (byte) 0xA0, (byte) 0x80}, 1024);
+
+        // Then
+        assertThatThrownBy(() -> StreamUtils.copyToByteArray(inputStream))
+                .isInstanceOf(InvalidSpecificationFileException.class);
+    }
+
+    @Test
+    public void shouldRejectTruncatedSequence_AtEndOfFile() {
+        // Given
+        InputStream inputStream = validating(new byte[]{'a', (byte) 0xE2, (byte) 0x82}, 1024);
+
+        // Then
+        assertThatThrownBy(() -> StreamUtils.copyToByteArray(inputStream))
+                .isInstanceOf(InvalidSpecificationFileException.class);
+    }
+
+    private InputStream validating(byte[] content, long maxSize) {
+        return new SpecificationFileInputStream(new ByteArrayInputStream(content), maxSize);
+    }
+}
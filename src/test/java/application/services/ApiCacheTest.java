@@ -0,0 +1,145 @@
+package application.services;
+
+import application.infrastructure.MetricRegistry;
+import application.infrastructure.models.Api;
+import application.infrastructure.models.ApiSummary;
+import application.infrastructure.models.SpecificationDiff;
+import application.infrastructure.models.SpecificationModel;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.Collections;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ApiCacheTest {
+
+    private ApiCache apiCache;
+
+    @Before
+    public void setUp() throws Exception {
+        apiCache = new ApiCache(2, 100, 100, 100, 1000);
+    }
+
+    @Test
+    public void shouldLoadApiOnce_AndCountHitsAndMisses() {
+        // Given
+        Api api = new Api();
+
+        // When
+        apiCache.getApi(1L, () -> api);
+        Api cachedApi = apiCache.getApi(1L, () -> null);
+
+        // Then
+        assertThat(cachedApi).isSameAs(api);
+        assertThat(apiCache.statistics().get("apis").hitCount()).isEqualTo(1);
+        assertThat(apiCache.statistics().get("apis").missCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void shouldEvictLeastRecentlyUsedApis_BeyondMaximumSize() {
+        // When
+        apiCache.getApi(1L, Api::new);
+        apiCache.getApi(2L, Api::new);
+        apiCache.getApi(3L, Api::new);
+
+        // Then
+        assertThat(apiCache.sizes().get("apis")).isEqualTo(2);
+        assertThat(apiCache.statistics().get("apis").evictionCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void shouldKeepDiffs_ByContentHashesRegardlessOfApiChanges() {
+        // Given
+        SpecificationModel specification = new SpecificationModel(Collections.emptyList(), Collections.emptyList());
+        SpecificationDiff diff = new SpecificationDiffer().diff(specification, specification);
+        apiCache.getDiff("abc", "def", () -> diff);
+
+        // When
+        apiCache.apiChanged(1L, true);
+
+        // Then
+        assertThat(apiCache.getDiff("abc", "def", () -> null)).isSameAs(diff);
+        assertThat(apiCache.getDiff("def", "abc", () -> null)).isNull();
+    }
+
+    @Test
+    public void shouldExportHitsAndMisses_AsMetrics() throws IOException {
+        // Given
+        MetricRegistry metricRegistry = new MetricRegistry();
+        apiCache.registerMetrics(metricRegistry);
+        apiCache.getApi(1L, Api::new);
+        apiCache.getApi(1L, Api::new);
+
+        // When
+        StringWriter metrics = new StringWriter();
+        metricRegistry.writeTo(metrics);
+
+        // Then
+        assertThat(metrics.toString())
+                .contains("catalogue_cache_hits_total{cache=\"apis\"} 1\n")
+                .contains("catalogue_cache_misses_total{cache=\"apis\"} 1\n")
+                .contains("catalogue_cache_hit_ratio{cache=\"apis\"} 0.5\n")
+                .contains("catalogue_cache_size{cache=\"diffs\"} 0\n");
+    }
+
+    @Test
+    public void shouldNotCacheMissingApis() {
+        // When
+        apiCache.getApi(1L, () -> null);
+
+        // Then
+        assertThat(apiCache.sizes().get("apis")).isEqualTo(0);
+    }
+
+    @Test
+    public void shouldOnlyInvalidatePagesContainingApi_WhenApiIsReplaced() {
+        // Given
+        PageRequest firstPage = new PageRequest(0, 1);
+        PageRequest secondPage = new PageRequest(1, 1);
+        apiCache.getApiPage(firstPage, () -> page(1L));
+        apiCache.getApiPage(secondPage, () -> page(2L));
+
+        // When
+        apiCache.apiChanged(2L, false);
+
+        // Then
+        assertThat(apiCache.getApiPage(firstPage, () -> null)).isNotNull();
+        assertThat(apiCache.getApiPage(secondPage, () -> null)).isNull();
+    }
+
+    @Test
+    public void shouldInvalidateAllPages_WhenCollectionChanged() {
+        // Given
+        PageRequest firstPage = new PageRequest(0, 1);
+        apiCache.getApiPage(firstPage, () -> page(1L));
+
+        // When
+        apiCache.apiChanged(5L, true);
+
+        // Then
+        assertThat(apiCache.getApiPage(firstPage, () -> null)).isNull();
+    }
+
+    @Test
+    public void shouldNotCacheValueLoaded_WhileApiChanged() {
+        // When
+        apiCache.getApi(1L, () -> {
+            apiCache.apiChanged(1L, false);
+            return new Api();
+        });
+
+        // Then
+        assertThat(apiCache.getApi(1L, () -> null)).isNull();
+    }
+
+    private Page<ApiSummary> page(long apiId) {
+        ApiSummary api = new ApiSummary(apiId, "name", "1.0", "swagger");
+        return new PageImpl<>(Collections.singletonList(api), new PageRequest(0, 1), 2);
+    }
+}
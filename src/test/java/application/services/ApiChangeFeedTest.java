@@ -0,0 +1,149 @@
+package application.services;
+
+import application.infrastructure.ApiChangeRepository;
+import application.infrastructure.models.ApiChange;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionSynchronizationUtils;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Matchers.anyInt;
+import static org.mockito.Matchers.anyListOf;
+import static org.mockito.Matchers.anyLong;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class ApiChangeFeedTest {
+
+    private ApiChangeFeed apiChangeFeed;
+    private ApiChangeRepository apiChangeRepository;
+
+    @Before
+    public void setUp() {
+        apiChangeFeed = new ApiChangeFeed(60000, 60000, 2, 1000);
+        apiChangeRepository = mock(ApiChangeRepository.class);
+        apiChangeFeed.apiChangeRepository = apiChangeRepository;
+        when(apiChangeRepository.findChangesAfter(anyLong(), anyInt())).thenReturn(Collections.emptyList());
+    }
+
+    @After
+    public void tearDown() throws InterruptedException {
+        apiChangeFeed.shutdown();
+    }
+
+    @Test
+    public void shouldAppendChange_WhenRecording() {
+        // Given
+        ApiChange change = change(0);
+
+        // When
+        apiChangeFeed.record(change);
+
+        // Then
+        verify(apiChangeRepository).append(Collections.singletonList(change));
+    }
+
+    @Test
+    public void shouldAppendChangesTogether_BeforeTransactionCommits() {
+        // Given
+        ApiChange firstChange = change(0);
+        ApiChange secondChange = change(0);
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            apiChangeFeed.record(firstChange);
+            apiChangeFeed.record(secondChange);
+            verify(apiChangeRepository, never()).append(anyListOf(ApiChange.class));
+
+            // When
+            TransactionSynchronizationUtils.triggerBeforeCommit(false);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        // Then
+        verify(apiChangeRepository).append(Arrays.asList(firstChange, secondChange));
+    }
+
+    @Test
+    public void shouldNotReadFeed_WithoutSubscribers() {
+        // When
+        apiChangeFeed.dispatch();
+
+        // Then
+        verify(apiChangeRepository, never()).findChangesAfter(anyLong(), anyInt());
+    }
+
+    @Test
+    public void shouldReadFeed_FromTheOldestSubscriberPosition_InBatches() {
+        // Given
+        List<ApiChange> firstBatch = Arrays.asList(change(3), change(4));
+        when(apiChangeRepository.findChangesAfter(2, 2)).thenReturn(firstBatch);
+        apiChangeFeed.subscribe(5);
+        apiChangeFeed.subscribe(2);
+
+        // When
+        apiChangeFeed.dispatch();
+
+        // Then
+        verify(apiChangeRepository, atLeastOnce()).findChangesAfter(2, 2);
+        verify(apiChangeRepository, atLeastOnce()).findChangesAfter(4, 2);
+        assertThat(apiChangeFeed.getSubscriberCount()).isEqualTo(2);
+    }
+
+    @Test
+    public void shouldReturnChangesAfterSequence() {
+        // Given
+        List<ApiChange> changes = Collections.singletonList(change(8));
+        when(apiChangeRepository.findChangesAfter(7, 10)).thenReturn(changes);
+
+        // When
+        List<ApiChange> result = apiChangeFeed.getChangesAfter(7, 10);
+
+        // Then
+        assertThat(result).isSameAs(changes);
+    }
+
+    @Test
+    public void shouldTrimFeed_ToRetainedChanges_WhenPolling() {
+        // When
+        apiChangeFeed.poll();
+
+        // Then
+        verify(apiChangeRepository).deleteAllButLast(1000);
+    }
+
+    @Test
+    public void shouldExpirePosition_OlderThanFirstChangeKept() {
+        // Given
+        when(apiChangeRepository.findFirstSequence()).thenReturn(11L);
+
+        // Then
+        assertThat(apiChangeFeed.isExpired(9)).isTrue();
+        assertThat(apiChangeFeed.isExpired(10)).isFalse();
+        assertThat(apiChangeFeed.isExpired(12)).isFalse();
+    }
+
+    @Test
+    public void shouldNotExpireAnyPosition_WhenNoChangeIsKept() {
+        // Given
+        when(apiChangeRepository.findFirstSequence()).thenReturn(null);
+
+        // Then
+        assertThat(apiChangeFeed.isExpired(0)).isFalse();
+    }
+
+    private static ApiChange change(long sequence) {
+        ApiChange change = new ApiChange(ApiChange.Type.SAVED, 1L, "shop", "1.0", "swagger", sequence, 0L);
+        change.setSequence(sequence);
+        return change;
+    }
+}
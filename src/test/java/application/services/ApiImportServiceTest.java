@@ -0,0 +1,220 @@
+package application.services;
+
+import application.infrastructure.InvalidSpecificationFileException;
+import application.infrastructure.models.Api;
+import application.infrastructure.models.ApiImportResult;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.web.multipart.MultipartFile;
+
+import javax.persistence.EntityManager;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.*;
+
+@RunWith(MockitoJUnitRunner.class)
+public class ApiImportServiceTest {
+
+    @InjectMocks
+    ApiImportService apiImportService;
+
+    @Mock
+    ApiService apiService;
+
+    @Mock
+    ApiValidationService apiValidationService;
+
+    @Mock
+    PlatformTransactionManager transactionManager;
+
+    @Mock
+    EntityManager entityManager;
+
+    private TransactionStatus transactionStatus;
+    private List<List<ApiImportResult>> importedBatches;
+
+    @Before
+    public void setUp() throws Exception {
+        apiImportService.batchSize = 2;
+        importedBatches = new ArrayList<>();
+        transactionStatus = mock(TransactionStatus.class);
+        when(transactionManager.getTransaction(any(TransactionDefinition.class))).thenReturn(transactionStatus);
+        when(apiService.saveApi(any(Api.class), any(MultipartFile.class))).thenAnswer(invocation -> {
+            Api api = (Api) invocation.getArguments()[0];
+            api.setId(api.getVersion().hashCode());
+            api.setSpecificationPath("/catalogueApi/apis/" + api.getId() + "/specificationFile");
+            return api;
+        });
+    }
+
+    @Test
+    public void shouldSaveManifestEntries_InTransactionsOfBatchSize() throws IOException {
+        // Given
+        MultipartFile archive = archive(
+                "{\"name\":\"shop\",\"version\":\"1.0\",\"specificationType\":\"swagger\",\"file\":\"shop-1.0.json\"}\n" +
+                        "{\"name\":\"shop\",\"version\":\"1.1\",\"specificationType\":\"swagger\",\"file\":\"shop-1.1.json\"}\n" +
+                        "\n" +
+                        "{\"name\":\"shop\",\"version\":\"2.0\",\"specificationType\":\"swagger\",\"file\":\"shop-2.0.json\"}\n",
+                "shop-1.0.json", "shop-1.1.json", "shop-2.0.json");
+
+        // When
+        apiImportService.importApis(archive, importedBatches::add);
+
+        // Then
+        verify(transactionManager, times(2)).commit(any(TransactionStatus.class));
+        verify(apiService, times(3)).saveApi(any(Api.class), any(MultipartFile.class));
+        assertThat(importedBatches).hasSize(2);
+        assertThat(importedBatches.get(0)).extracting("version").containsExactly("1.0", "1.1");
+        assertThat(importedBatches.get(1)).extracting("line").containsExactly(4);
+        assertThat(importedBatches.get(1).get(0).getId()).isEqualTo((long) "2.0".hashCode());
+        assertThat(importedBatches.get(1).get(0).getError()).isNull();
+    }
+
+    @Test
+    public void shouldReportInvalidEntries_WithoutSavingThem() throws IOException {
+        // Given
+        MultipartFile archive = archive(
+                "not json\n" +
+                        "{\"name\":\"shop\",\"version\":\"1.0\",\"specificationType\":\"swagger\",\"file\":\"missing.json\"}\n",
+                "shop-1.0.json");
+
+        // When
+        apiImportService.importApis(archive, importedBatches::add);
+
+        // Then
+        verify(apiService, never()).saveApi(any(Api.class), any(MultipartFile.class));
+        List<ApiImportResult> results = importedBatches.get(0);
+        assertThat(results.get(0).getError().type).isEqualTo(ApiValidationError.MALFORMATED_DATA);
+        assertThat(results.get(1).getError().type).isEqualTo(ApiValidationError.MISSING_PARAMETER);
+        assertThat(results.get(1).getId()).isNull();
+    }
+
+    @Test
+    public void shouldSaveEntriesOneByOne_WhenABatchHoldsAnInvalidFile() throws IOException {
+        // Given
+        MultipartFile archive = archive(
+                "{\"name\":\"shop\",\"version\":\"1.0\",\"specificationType\":\"swagger\",\"file\":\"shop-1.0.json\"}\n" +
+                        "{\"name\":\"shop\",\"version\":\"1.1\",\"specificationType\":\"swagger\",\"file\":\"shop-1.1.json\"}\n",
+                "shop-1.0.json", "shop-1.1.json");
+        InvalidSpecificationFileException invalidFile = new InvalidSpecificationFileException(ApiValidationError.MALFORMATED_DATA, "not UTF-8");
+        doAnswer(invocation -> savedApi(invocation.getArguments()[0])).doThrow(invalidFile)
+                .doAnswer(invocation -> savedApi(invocation.getArguments()[0])).doThrow(invalidFile)
+                .when(apiService).saveApi(any(Api.class), any(MultipartFile.class));
+
+        // When
+        apiImportService.importApis(archive, importedBatches::add);
+
+        // Then
+        verify(transactionStatus).setRollbackOnly();
+        verify(apiService, times(4)).saveApi(any(Api.class), any(MultipartFile.class));
+        List<ApiImportResult> results = importedBatches.get(0);
+        assertThat(results.get(0).getError()).isNull();
+        assertThat(results.get(0).getId()).isEqualTo(1L);
+        assertThat(results.get(1).getError().type).isEqualTo(ApiValidationError.MALFORMATED_DATA);
+        assertThat(results.get(1).getId()).isNull();
+    }
+
+    @Test
+    public void shouldSaveEntriesOneByOne_AndGoOnImporting_WhenABatchFailsOnTheDatabase() throws IOException {
+        // Given
+        MultipartFile archive = archive(
+                "{\"name\":\"shop\",\"version\":\"1.0\",\"specificationType\":\"swagger\",\"file\":\"shop-1.0.json\"}\n" +
+                        "{\"name\":\"shop\",\"version\":\"1.1\",\"specificationType\":\"swagger\",\"file\":\"shop-1.1.json\"}\n" +
+                        "{\"name\":\"shop\",\"version\":\"2.0\",\"specificationType\":\"swagger\",\"file\":\"shop-2.0.json\"}\n",
+                "shop-1.0.json", "shop-1.1.json", "shop-2.0.json");
+        DataIntegrityViolationException databaseFailure = new DataIntegrityViolationException("duplicate key");
+        doAnswer(invocation -> savedApi(invocation.getArguments()[0])).doThrow(databaseFailure)
+                .doAnswer(invocation -> savedApi(invocation.getArguments()[0])).doThrow(databaseFailure)
+                .doAnswer(invocation -> savedApi(invocation.getArguments()[0]))
+                .when(apiService).saveApi(any(Api.class), any(MultipartFile.class));
+
+        // When
+        apiImportService.importApis(archive, importedBatches::add);
+
+        // Then
+        verify(transactionStatus).setRollbackOnly();
+        verify(apiService, times(5)).saveApi(any(Api.class), any(MultipartFile.class));
+        assertThat(importedBatches).hasSize(2);
+        List<ApiImportResult> results = importedBatches.get(0);
+        assertThat(results.get(0).getError()).isNull();
+        assertThat(results.get(1).getError().type).isEqualTo(ApiValidationError.PROCESSING_FAILED);
+        assertThat(results.get(1).getId()).isNull();
+        assertThat(importedBatches.get(1).get(0).getError()).isNull();
+    }
+
+    @Test
+    public void shouldSaveEntriesOneByOne_WhenABatchFailsToCommit() throws IOException {
+        // Given
+        MultipartFile archive = archive(
+                "{\"name\":\"shop\",\"version\":\"1.0\",\"specificationType\":\"swagger\",\"file\":\"shop-1.0.json\"}\n" +
+                        "{\"name\":\"shop\",\"version\":\"1.1\",\"specificationType\":\"swagger\",\"file\":\"shop-1.1.json\"}\n",
+                "shop-1.0.json", "shop-1.1.json");
+        doThrow(new DataIntegrityViolationException("duplicate key")).when(transactionManager).commit(transactionStatus);
+
+        // When
+        apiImportService.importApis(archive, importedBatches::add);
+
+        // Then
+        verify(apiService, times(4)).saveApi(any(Api.class), any(MultipartFile.class));
+        assertThat(importedBatches.get(0)).extracting("error").containsExactly(null, null);
+    }
+
+    @Test
+    public void shouldRejectArchive_WithoutManifest() throws IOException {
+        // Given
+        MultipartFile archive = archive(null, "shop-1.0.json");
+
+        // Then
+        assertThatThrownBy(() -> apiImportService.importApis(archive, importedBatches::add))
+                .isInstanceOf(InvalidSpecificationFileException.class);
+    }
+
+    @Test
+    public void shouldRejectArchive_ThatIsNotAZipFile() {
+        // Given
+        MultipartFile archive = new MockMultipartFile("archive", "not a zip".getBytes());
+
+        // Then
+        assertThatThrownBy(() -> apiImportService.importApis(archive, importedBatches::add))
+                .isInstanceOf(InvalidSpecificationFileException.class);
+    }
+
+    private Api savedApi(Object api) {
+        Api savedApi = (Api) api;
+        savedApi.setId(1L);
+        return savedApi;
+    }
+
+    private MultipartFile archive(String manifest, String... files) throws IOException {
+        ByteArrayOutputStream archiveContent = new ByteArrayOutputStream();
+        try (ZipOutputStream archive = new ZipOutputStream(archiveContent)) {
+            if (manifest != null) {
+                archive.putNextEntry(new ZipEntry(ApiImportService.MANIFEST));
+                archive.write(manifest.getBytes(StandardCharsets.UTF_8));
+            }
+            for (String file : files) {
+                archive.putNextEntry(new ZipEntry(file));
+                archive.write("{}".getBytes(StandardCharsets.UTF_8));
+            }
+        }
+        return new MockMultipartFile("archive", "apis.zip", "application/zip", archiveContent.toByteArray());
+    }
+}
@@ -0,0 +1,158 @@
+package application.services;
+
+import application.infrastructure.InvalidSpecificationFileException;
+import application.infrastructure.models.Api;
+import application.infrastructure.models.ApiIngestJob;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.util.StreamUtils;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class ApiIngestServiceTest {
+
+    private static final long JOB_TIMEOUT_MILLIS = 5000;
+
+    private ApiIngestService apiIngestService;
+    private ApiService apiService;
+    private Api api;
+    private MockMultipartFile uploadedFile;
+
+    @Before
+    public void setUp() {
+        apiIngestService = new ApiIngestService(1, 1, 60);
+        apiService = mock(ApiService.class);
+        apiIngestService.apiService = apiService;
+        api = new Api();
+        api.setName("shop");
+        api.setVersion("1.0");
+        uploadedFile = new MockMultipartFile("file", "shop.json", "application/json", "{}".getBytes(StandardCharsets.UTF_8));
+    }
+
+    @After
+    public void tearDown() throws InterruptedException {
+        apiIngestService.shutdown();
+    }
+
+    @Test
+    public void shouldSaveApi_InBackground_WithACopyOfTheUpload() throws Exception {
+        // Given
+        AtomicReference<String> savedContent = new AtomicReference<>();
+        AtomicReference<String> savedContentType = new AtomicReference<>();
+        when(apiService.saveApi(any(Api.class), any(MultipartFile.class))).thenAnswer(invocation -> {
+            MultipartFile file = (MultipartFile) invocation.getArguments()[1];
+            try (InputStream content = file.getInputStream()) {
+                savedContent.set(StreamUtils.copyToString(content, StandardCharsets.UTF_8));
+            }
+            savedContentType.set(file.getContentType());
+            return invocation.getArguments()[0];
+        });
+
+        // When
+        ApiIngestJob job = apiIngestService.submit(api, uploadedFile);
+        awaitCompletion(job);
+
+        // Then
+        assertThat(job.getStatus()).isEqualTo(ApiIngestJob.Status.SUCCEEDED);
+        assertThat(job.getApi()).isSameAs(api);
+        assertThat(job.getFinishedAt()).isNotNull();
+        assertThat(savedContent.get()).isEqualTo("{}");
+        assertThat(savedContentType.get()).isEqualTo("application/json");
+        assertThat(apiIngestService.getJob(job.getId())).isSameAs(job);
+    }
+
+    @Test
+    public void shouldReportInvalidSpecificationFile_AsFailedJob() throws Exception {
+        // Given
+        when(apiService.saveApi(any(Api.class), any(MultipartFile.class)))
+                .thenThrow(new InvalidSpecificationFileException(ApiValidationError.MALFORMATED_DATA, "not UTF-8"));
+
+        // When
+        ApiIngestJob job = apiIngestService.submit(api, uploadedFile);
+        awaitCompletion(job);
+
+        // Then
+        assertThat(job.getStatus()).isEqualTo(ApiIngestJob.Status.FAILED);
+        assertThat(job.getError().type).isEqualTo(ApiValidationError.MALFORMATED_DATA);
+        assertThat(job.getApi()).isNull();
+    }
+
+    @Test
+    public void shouldReportUnexpectedErrors_AsFailedJob() throws Exception {
+        // Given
+        when(apiService.saveApi(any(Api.class), any(MultipartFile.class))).thenThrow(new IllegalStateException("database is gone"));
+
+        // When
+        ApiIngestJob job = apiIngestService.submit(api, uploadedFile);
+        awaitCompletion(job);
+
+        // Then
+        assertThat(job.getStatus()).isEqualTo(ApiIngestJob.Status.FAILED);
+        assertThat(job.getError().type).isEqualTo(ApiValidationError.PROCESSING_FAILED);
+    }
+
+    @Test
+    public void shouldRefuseSubmissions_WhenQueueIsFull() throws Exception {
+        // Given
+        CountDownLatch saving = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(apiService.saveApi(any(Api.class), any(MultipartFile.class))).thenAnswer(invocation -> {
+            saving.countDown();
+            release.await();
+            return invocation.getArguments()[0];
+        });
+        ApiIngestJob runningJob = apiIngestService.submit(api, uploadedFile);
+        saving.await(JOB_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+        ApiIngestJob queuedJob = apiIngestService.submit(api, uploadedFile);
+
+        // When
+        Throwable refusal = catchThrowable(() -> apiIngestService.submit(api, uploadedFile));
+
+        // Then
+        assertThat(refusal).isInstanceOf(RejectedExecutionException.class);
+        assertThat(runningJob.getStatus()).isEqualTo(ApiIngestJob.Status.RUNNING);
+        assertThat(queuedJob.getStatus()).isEqualTo(ApiIngestJob.Status.QUEUED);
+        assertThat(apiIngestService.getQueueDepth()).isEqualTo(1);
+        release.countDown();
+        awaitCompletion(queuedJob);
+        assertThat(queuedJob.getStatus()).isEqualTo(ApiIngestJob.Status.SUCCEEDED);
+    }
+
+    @Test
+    public void shouldDeleteCopyOfTheUpload_OnceJobIsDone() throws Exception {
+        // Given
+        AtomicReference<MultipartFile> savedFile = new AtomicReference<>();
+        when(apiService.saveApi(any(Api.class), any(MultipartFile.class))).thenAnswer(invocation -> {
+            savedFile.set((MultipartFile) invocation.getArguments()[1]);
+            return invocation.getArguments()[0];
+        });
+
+        // When
+        ApiIngestJob job = apiIngestService.submit(api, uploadedFile);
+        awaitCompletion(job);
+
+        // Then
+        assertThat(savedFile.get().isEmpty()).isTrue();
+    }
+
+    private void awaitCompletion(ApiIngestJob job) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + JOB_TIMEOUT_MILLIS;
+        while (job.getFinishedAt() == null && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+    }
+}
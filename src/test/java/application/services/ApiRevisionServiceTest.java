@@ -0,0 +1,182 @@
+package application.services;
+
+import application.infrastructure.ApiRevisionRepository;
+import application.infrastructure.FileUtils;
+import application.infrastructure.models.Api;
+import application.infrastructure.models.ApiRevision;
+import application.infrastructure.models.ContentDigest;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.util.StreamUtils;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyLong;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class ApiRevisionServiceTest {
+
+    private ApiRevisionService apiRevisionService;
+    private final List<ApiRevision> storedRevisions = new ArrayList<>();
+
+    @Before
+    public void setUp() throws IOException {
+        apiRevisionService = new ApiRevisionService(3, 16 * 1024);
+        apiRevisionService.fileUtils = mock(FileUtils.class);
+        when(apiRevisionService.fileUtils.openSpecificationFile(any(MultipartFile.class)))
+                .thenAnswer(invocation -> ((MultipartFile) invocation.getArguments()[0]).getInputStream());
+        apiRevisionService.apiRevisionRepository = inMemoryRepository();
+    }
+
+    @Test
+    public void shouldStoreDeltas_BetweenPeriodicSnapshots() throws IOException {
+        // When
+        for (int revision = 1; revision <= 7; revision++) {
+            save(revision, specification(revision));
+        }
+
+        // Then
+        assertThat(storedRevisions).extracting("revision", "snapshot").containsExactly(
+                tuple(1L, true), tuple(2L, false),
+                tuple(3L, false), tuple(4L, true),
+                tuple(5L, false), tuple(6L, false),
+                tuple(7L, true));
+        assertThat(storedRevisions.get(1).getStoredLength()).isLessThan(storedRevisions.get(0).getStoredLength() / 4);
+    }
+
+    @Test
+    public void shouldRebuildEveryRevision() throws IOException {
+        // Given
+        for (int revision = 1; revision <= 7; revision++) {
+            save(revision, specification(revision));
+        }
+
+        // Then
+        for (int revision = 1; revision <= 7; revision++) {
+            assertThat(content(revision)).isEqualTo(specification(revision));
+        }
+        assertThat(apiRevisionService.getRevisionContent(23L, 8)).isNull();
+    }
+
+    @Test
+    public void shouldStoreSnapshot_WhenPreviousRevisionWasNotRecorded() throws IOException {
+        // Given
+        save(4, specification(4));
+
+        // When
+        save(6, specification(6));
+
+        // Then
+        assertThat(storedRevisions).extracting("snapshot").containsExactly(true, true);
+        assertThat(content(6)).isEqualTo(specification(6));
+        assertThat(apiRevisionService.getRevisionContent(23L, 5)).isNull();
+    }
+
+    @Test
+    public void shouldKeepRevisionMetadata() throws IOException {
+        // When
+        save(1, "swagger: '2.0'");
+
+        // Then
+        ApiRevision revision = storedRevisions.get(0);
+        assertThat(revision.getApiId()).isEqualTo(23L);
+        assertThat(revision.getContentType()).isEqualTo("application/yaml");
+        assertThat(revision.getContentHash()).isEqualTo("hash1");
+        assertThat(revision.getContentLength()).isEqualTo(14L);
+        assertThat(revision.getLastModified()).isEqualTo(1000L);
+    }
+
+    @Test
+    public void shouldStoreSnapshots_OfSpecificationsTooLargeForDeltas() throws IOException {
+        // Given
+        save(1, specification(1));
+
+        // When
+        save(2, specification(1000));
+        save(3, specification(1001));
+
+        // Then
+        assertThat(storedRevisions).extracting("snapshot").containsExactly(true, true, true);
+        assertThat(content(3)).isEqualTo(specification(1001));
+    }
+
+    @Test
+    public void shouldCapChainLength_WhenSnapshotIntervalIsLarger() throws IOException {
+        // Given
+        apiRevisionService = new ApiRevisionService(1000, 16 * 1024);
+        apiRevisionService.fileUtils = mock(FileUtils.class);
+        when(apiRevisionService.fileUtils.openSpecificationFile(any(MultipartFile.class)))
+                .thenAnswer(invocation -> ((MultipartFile) invocation.getArguments()[0]).getInputStream());
+        apiRevisionService.apiRevisionRepository = inMemoryRepository();
+
+        // When
+        for (int revision = 1; revision <= ApiRevisionService.MAX_CHAIN_LENGTH + 1; revision++) {
+            save(revision, specification(revision));
+        }
+
+        // Then
+        assertThat(storedRevisions).filteredOn("snapshot", true).extracting("revision")
+                .containsExactly(1L, ApiRevisionService.MAX_CHAIN_LENGTH + 1L);
+        assertThat(content(ApiRevisionService.MAX_CHAIN_LENGTH)).isEqualTo(specification(ApiRevisionService.MAX_CHAIN_LENGTH));
+    }
+
+    private String content(long revision) throws IOException {
+        try (InputStream content = apiRevisionService.getRevisionContent(23L, revision)) {
+            return StreamUtils.copyToString(content, UTF_8);
+        }
+    }
+
+    private void save(long revision, String content) throws IOException {
+        Api api = new Api();
+        api.setId(23L);
+        api.setRevision(revision);
+        api.setLastModified(revision * 1000);
+        byte[] bytes = content.getBytes(UTF_8);
+        MultipartFile file = new MockMultipartFile("file", "shop.yaml", "application/yaml", bytes);
+        apiRevisionService.recordRevision(api, file, new ContentDigest("hash" + revision, bytes.length, false));
+    }
+
+    private ApiRevisionRepository inMemoryRepository() {
+        ApiRevisionRepository repository = mock(ApiRevisionRepository.class);
+        doAnswer(invocation -> {
+            ApiRevision revision = (ApiRevision) invocation.getArguments()[0];
+            revision.setData(StreamUtils.copyToByteArray((InputStream) invocation.getArguments()[1]));
+            revision.setStoredLength((Long) invocation.getArguments()[2]);
+            return storedRevisions.add(revision);
+        }).when(repository).append(any(ApiRevision.class), any(InputStream.class), anyLong());
+        when(repository.findRevision(anyLong(), anyLong())).thenAnswer(invocation -> storedRevisions.stream()
+                .filter(stored -> stored.getRevision() == (Long) invocation.getArguments()[1]).findFirst().orElse(null));
+        when(repository.findLatestRevisions(anyLong())).thenAnswer(invocation -> new long[]{
+                storedRevisions.stream().mapToLong(ApiRevision::getRevision).max().orElse(0),
+                storedRevisions.stream().filter(ApiRevision::isSnapshot).mapToLong(ApiRevision::getRevision).max().orElse(0)});
+        when(repository.findChain(anyLong(), anyLong())).thenAnswer(invocation -> {
+            long revision = (Long) invocation.getArguments()[1];
+            long snapshot = storedRevisions.stream().filter(stored -> stored.isSnapshot() && stored.getRevision() <= revision)
+                    .mapToLong(ApiRevision::getRevision).max().orElse(Long.MAX_VALUE);
+            return storedRevisions.stream().filter(stored -> stored.getRevision() >= snapshot && stored.getRevision() <= revision)
+                    .sorted(Comparator.comparingLong(ApiRevision::getRevision)).collect(Collectors.toList());
+        });
+        return repository;
+    }
+
+    private static String specification(int revision) {
+        StringBuilder specification = new StringBuilder("swagger: '2.0'\ninfo:\n  version: '" + revision + "'\npaths:\n");
+        for (int i = 0; i < 100 + revision; i++) {
+            specification.append("  /resources").append(i).append(":\n    get:\n      operationId: getResource").append(i).append('\n');
+        }
+        return specification.toString();
+    }
+}
@@ -0,0 +1,193 @@
+package application.services;
+
+import application.infrastructure.models.ApiSearchResult;
+import application.infrastructure.models.ApiSummary;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.Map;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.entry;
+
+public class ApiSearchIndexTest {
+
+    private ApiSearchIndex apiSearchIndex;
+
+    @Before
+    public void setUp() {
+        apiSearchIndex = new ApiSearchIndex(100);
+    }
+
+    @Test
+    public void shouldCountLowerCasedTerms_OfSpecificationContent() throws IOException {
+        // When
+        Map<String, Integer> terms = tokenize("paths:\n  /orders/{orderId}:\n    get: List Orders");
+
+        // Then
+        assertThat(terms).containsOnly(entry("paths", 1), entry("orders", 2), entry("orderid", 1), entry("get", 1), entry("list", 1));
+    }
+
+    @Test
+    public void shouldStopCollectingNewTerms_WhenSpecificationHasTooManyTerms() throws IOException {
+        // Given
+        apiSearchIndex = new ApiSearchIndex(2);
+
+        // When
+        Map<String, Integer> terms = tokenize("orders carts orders users");
+
+        // Then
+        assertThat(terms).containsOnly(entry("orders", 2), entry("carts", 1));
+    }
+
+    @Test
+    public void shouldFindApis_MatchingEveryTermOfTheQuery() throws IOException {
+        // Given
+        apiSearchIndex.put(new ApiSummary(1L, "Shop API", "1.0", "swagger"), 1L, tokenize("/orders /carts"));
+        apiSearchIndex.put(new ApiSummary(2L, "Billing API", "1.0", "swagger"), 1L, tokenize("/orders /invoices"));
+
+        // When
+        ApiSearchResult result = apiSearchIndex.search("/orders carts", null, 0, 10);
+
+        // Then
+        assertThat(result.getContent()).extracting("id").containsExactly(1L);
+        assertThat(result.getTotalElements()).isEqualTo(1);
+    }
+
+    @Test
+    public void shouldRankNameMatches_BeforeContentMatches() throws IOException {
+        // Given
+        apiSearchIndex.put(new ApiSummary(1L, "Shop API", "1.0", "swagger"), 1L, tokenize("/orders"));
+        apiSearchIndex.put(new ApiSummary(2L, "Orders API", "1.0", "swagger"), 1L, tokenize("/items"));
+        apiSearchIndex.put(new ApiSummary(3L, "Users API", "1.0", "swagger"), 1L, tokenize("/users"));
+
+        // When
+        ApiSearchResult result = apiSearchIndex.search("orders", null, 0, 10);
+
+        // Then
+        assertThat(result.getContent()).extracting("id").containsExactly(2L, 1L);
+        assertThat(result.getContent().get(0).getScore()).isGreaterThan(result.getContent().get(1).getScore());
+    }
+
+    @Test
+    public void shouldReturnNoHits_WhenPageIsBeyondTheLastOne() throws IOException {
+        // Given
+        apiSearchIndex.put(new ApiSummary(1L, "Shop API", "1.0", "swagger"), 1L, tokenize("/orders"));
+        apiSearchIndex.put(new ApiSummary(2L, "Orders API", "1.0", "swagger"), 1L, tokenize("/items"));
+
+        // When
+        ApiSearchResult result = apiSearchIndex.search("orders", null, Integer.MAX_VALUE, 50);
+
+        // Then
+        assertThat(result.getContent()).isEmpty();
+        assertThat(result.getTotalElements()).isEqualTo(2);
+    }
+
+    @Test
+    public void shouldCountSpecificationTypes_OfAllMatchingApis_WhenFilteringOnOne() {
+        // Given
+        apiSearchIndex.put(new ApiSummary(1L, "Shop API", "1.0", "swagger"), 1L, Collections.emptyMap());
+        apiSearchIndex.put(new ApiSummary(2L, "Shop API", "2.0", "swagger"), 1L, Collections.emptyMap());
+        apiSearchIndex.put(new ApiSummary(3L, "Shop API", "3.0", "blueprint"), 1L, Collections.emptyMap());
+
+        // When
+        ApiSearchResult result = apiSearchIndex.search("shop", "blueprint", 0, 10);
+
+        // Then
+        assertThat(result.getContent()).extracting("id").containsExactly(3L);
+        assertThat(result.getFacets().get(ApiSearchIndex.SPECIFICATION_TYPE_FACET)).containsOnly(entry("blueprint", 1), entry("swagger", 2));
+    }
+
+    @Test
+    public void shouldReturnRequestedPage_OfRankedHits() {
+        // Given
+        for (long id = 1; id <= 5; id++) {
+            apiSearchIndex.put(new ApiSummary(id, "Shop API", "1." + id, "swagger"), 1L, Collections.emptyMap());
+        }
+
+        // When
+        ApiSearchResult result = apiSearchIndex.search("shop", null, 1, 2);
+
+        // Then
+        assertThat(result.getContent()).extracting("version").containsExactly("1.3", "1.4");
+        assertThat(result.getTotalElements()).isEqualTo(5);
+        assertThat(result.getNumber()).isEqualTo(1);
+    }
+
+    @Test
+    public void shouldForgetPreviousTerms_WhenApiIsIndexedAgain() throws IOException {
+        // Given
+        apiSearchIndex.put(new ApiSummary(1L, "Shop API", "1.0", "swagger"), 1L, tokenize("/orders"));
+
+        // When
+        apiSearchIndex.put(new ApiSummary(1L, "Shop API", "1.0", "swagger"), 1L, tokenize("/carts"));
+
+        // Then
+        assertThat(apiSearchIndex.search("orders", null, 0, 10).getContent()).isEmpty();
+        assertThat(apiSearchIndex.search("carts", null, 0, 10).getContent()).extracting("id").containsExactly(1L);
+        assertThat(apiSearchIndex.size()).isEqualTo(1);
+    }
+
+    @Test
+    public void shouldNotFindApi_OnceRemoved() {
+        // Given
+        apiSearchIndex.put(new ApiSummary(1L, "Shop API", "1.0", "swagger"), 1L, Collections.emptyMap());
+
+        // When
+        apiSearchIndex.remove(1L);
+
+        // Then
+        assertThat(apiSearchIndex.search("shop", null, 0, 10).getTotalElements()).isZero();
+        assertThat(apiSearchIndex.size()).isZero();
+    }
+
+    @Test
+    public void shouldKeepNewerRevision_WhenOlderOneIsPutAfterIt() throws IOException {
+        // Given
+        apiSearchIndex.put(new ApiSummary(1L, "Shop API", "1.0", "swagger"), 2L, tokenize("/carts"));
+
+        // When
+        apiSearchIndex.put(new ApiSummary(1L, "Shop API", "1.0", "swagger"), 1L, tokenize("/orders"));
+
+        // Then
+        assertThat(apiSearchIndex.search("orders", null, 0, 10).getContent()).isEmpty();
+        assertThat(apiSearchIndex.search("carts", null, 0, 10).getContent()).extracting("id").containsExactly(1L);
+    }
+
+    @Test
+    public void shouldNotIndexApiAgain_WhenPutAfterItsRemoval() {
+        // Given
+        apiSearchIndex.put(new ApiSummary(1L, "Shop API", "1.0", "swagger"), 1L, Collections.emptyMap());
+        apiSearchIndex.remove(1L);
+
+        // When
+        apiSearchIndex.put(new ApiSummary(1L, "Shop API", "1.0", "swagger"), 1L, Collections.emptyMap());
+
+        // Then
+        assertThat(apiSearchIndex.search("shop", null, 0, 10).getTotalElements()).isZero();
+        assertThat(apiSearchIndex.size()).isZero();
+    }
+
+    @Test
+    public void shouldFindApis_IndexedInAnyOrder() {
+        // Given
+        for (long id : new long[]{5, 1, 9, 3, 7, 2, 8}) {
+            apiSearchIndex.put(new ApiSummary(id, "Shop API", "1." + id, "swagger"), 1L, Collections.emptyMap());
+        }
+        apiSearchIndex.remove(3L);
+
+        // When
+        ApiSearchResult result = apiSearchIndex.search("shop api", null, 0, 10);
+
+        // Then
+        assertThat(result.getContent()).extracting("id").containsOnly(1L, 2L, 5L, 7L, 8L, 9L);
+    }
+
+    private Map<String, Integer> tokenize(String content) throws IOException {
+        return apiSearchIndex.tokenize(new ByteArrayInputStream(content.getBytes(UTF_8)));
+    }
+}
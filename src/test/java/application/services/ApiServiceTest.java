@@ -1,28 +1,53 @@
 package application.services;
 
+import application.infrastructure.ApiRegistrationRepository;
 import application.infrastructure.ApiRepository;
 import application.infrastructure.FileUtils;
+import application.infrastructure.InvalidSpecificationFileException;
+import application.infrastructure.MetricRegistry;
 import application.infrastructure.SpecificationFileRepository;
+import application.infrastructure.SpecificationOperationRepository;
+import application.infrastructure.SpecificationStore;
+import application.infrastructure.StoredContentOutputStream;
 import application.infrastructure.models.Api;
+import application.infrastructure.models.ApiBatchEntry;
+import application.infrastructure.models.ApiBatchRequest;
+import application.infrastructure.models.ApiBatchRequest.NameAndVersion;
+import application.infrastructure.models.ApiChange;
+import application.infrastructure.models.ApiCursor;
+import application.infrastructure.models.ApiSearchResult;
+import application.infrastructure.models.ApiSummary;
+import application.infrastructure.models.ContentDigest;
+import application.infrastructure.models.SpecificationDiff;
 import application.infrastructure.models.SpecificationFile;
+import application.infrastructure.models.SpecificationModel;
+import application.infrastructure.models.SpecificationOperation;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.runners.MockitoJUnitRunner;
 import org.springframework.dao.EmptyResultDataAccessException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.data.rest.webmvc.ResourceNotFoundException;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.util.Collections;
+import java.util.List;
 
 import static java.util.Arrays.asList;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
 import static org.mockito.Matchers.any;
 import static org.mockito.Mockito.*;
 
@@ -38,43 +63,75 @@ public class ApiServiceTest {
     @Mock
     FileUtils fileUtils;
 
+    @Mock
+    ApiRegistrationRepository apiRegistrationRepository;
+
     @Mock
     SpecificationFileRepository specificationFileRepository;
+
+    @Mock
+    SpecificationStore specificationStore;
+
+    @Spy
+    ApiCache apiCache = new ApiCache(100, 1000, 1000, 1000, 100000);
+
+    @Spy
+    ApiSearchIndex apiSearchIndex = new ApiSearchIndex(1000);
+
+    @Mock
+    SpecificationParser specificationParser;
+
+    @Mock
+    SpecificationOperationRepository specificationOperationRepository;
+
+    @Mock
+    ApiRevisionService apiRevisionService;
+
+    @Spy
+    SpecificationDiffer specificationDiffer = new SpecificationDiffer();
+
+    @Spy
+    MetricRegistry metricRegistry = new MetricRegistry();
+
+    @Mock
+    ApiChangeFeed apiChangeFeed;
+
     private Api apiToSave;
-    private Api savedApi;
     private MultipartFile fileToSave;
+    private StoredContentOutputStream storedContent;
 
     @Before
     public void setUp() throws Exception {
         apiToSave = new Api();
-        savedApi = mock(Api.class);
+        apiToSave.setName("name");
+        apiToSave.setVersion("2.1");
         fileToSave = mock(MultipartFile.class);
-        when(fileUtils.multipartfileToString(any(MultipartFile.class))).thenReturn("fileContent");
-        when(apiRepository.save(any(Api.class))).thenReturn(mock(Api.class));
+        when(fileUtils.openSpecificationFile(any(MultipartFile.class))).thenAnswer(invocation -> new ByteArrayInputStream("fileContent".getBytes()));
+        when(fileUtils.digest(any(MultipartFile.class))).thenReturn(new ContentDigest("fileContentHash", 11L, false));
+        storedContent = mock(StoredContentOutputStream.class);
+        when(specificationStore.openOutputStream(any(SpecificationFile.class))).thenReturn(storedContent);
+        givenUpsertedApi(23L, 1L);
+        doAnswer(invocation -> {
+            ((SpecificationFile) invocation.getArguments()[0]).setId(5L);
+            return true;
+        }).when(apiRegistrationRepository).upsertSpecificationFile(any(SpecificationFile.class));
     }
 
     @Test
     public void shouldReturnApiWithId_ComingFromDatabase_WhenSavingAPI() throws IOException {
         // Given
-        long apiId = 42L;
-        when(savedApi.getId()).thenReturn(apiId);
-        when(apiRepository.save(apiToSave)).thenReturn(savedApi);
+        givenUpsertedApi(42L, 1L);
 
         // When
         Api resultingApi = apiService.saveApi(apiToSave, fileToSave);
 
         // Then
         long resultingApiId = resultingApi.getId();
-        assertThat(resultingApiId).isEqualTo(apiId);
+        assertThat(resultingApiId).isEqualTo(42L);
     }
 
     @Test
     public void shouldReturnApiWithSpecification() throws IOException {
-        // Given
-        Api apiFromDatabase = new Api();
-        apiFromDatabase.setId(23L);
-        when(apiRepository.save(apiToSave)).thenReturn(apiFromDatabase);
-
         // When
         Api resultingApi = apiService.saveApi(apiToSave, fileToSave);
 
@@ -84,50 +141,110 @@ public class ApiServiceTest {
     }
 
     @Test
-    public void shouldReturnApiWithApiName_WhenSavingAPI() throws IOException {
+    public void shouldReturnApiWithApiName_AndVersion_WhenSavingAPI() throws IOException {
+        // When
+        Api resultingApi = apiService.saveApi(apiToSave, fileToSave);
+
+        // Then
+        assertThat(resultingApi.getName()).isEqualTo("name");
+        assertThat(resultingApi.getVersion()).isEqualTo("2.1");
+    }
+
+    @Test
+    public void shouldSetFileContentInSpecification_WhenSavingAPI() throws IOException {
         // Given
-        String apiName = "apiName";
-        when(savedApi.getName()).thenReturn(apiName);
-        when(apiRepository.save(apiToSave)).thenReturn(savedApi);
+        when(fileUtils.openSpecificationFile(fileToSave)).thenAnswer(invocation -> new ByteArrayInputStream("fileContent".getBytes()));
 
         // When
-        Api resultingApi = apiService.saveApi(apiToSave, fileToSave);
+        apiService.saveApi(apiToSave, fileToSave);
 
         // Then
-        String resultingApiVersion = resultingApi.getName();
-        assertThat(resultingApiVersion).isEqualTo(apiName);
+        ArgumentCaptor<SpecificationFile> specificationFileCaptor = ArgumentCaptor.forClass(SpecificationFile.class);
+        verify(specificationStore).openOutputStream(specificationFileCaptor.capture());
+        assertThat(specificationFileCaptor.getValue().getId()).isEqualTo(5L);
+        verify(storedContent).write(any(byte[].class), eq(0), eq(11));
+        verify(storedContent).close();
     }
 
     @Test
-    public void shouldReturnApiWithApiVersion_WhenSavingAPI() throws IOException {
+    public void shouldStoreCompressibleContent_Gzipped_WhenSavingAPI() throws IOException {
         // Given
-        String apiVersion = "apiVersion";
-        when(savedApi.getVersion()).thenReturn(apiVersion);
-        when(apiRepository.save(apiToSave)).thenReturn(savedApi);
+        when(fileUtils.digest(any(MultipartFile.class))).thenReturn(new ContentDigest("fileContentHash", 11L, true));
+        when(storedContent.getLength()).thenReturn(7L);
 
         // When
-        Api resultingApi = apiService.saveApi(apiToSave, fileToSave);
+        apiService.saveApi(apiToSave, fileToSave);
 
         // Then
-        String resultingApiVersion = resultingApi.getVersion();
-        assertThat(resultingApiVersion).isEqualTo(apiVersion);
+        ArgumentCaptor<SpecificationFile> specificationFileCaptor = ArgumentCaptor.forClass(SpecificationFile.class);
+        verify(apiRegistrationRepository).upsertSpecificationFile(specificationFileCaptor.capture());
+        SpecificationFile capturedSpecificationFile = specificationFileCaptor.getValue();
+        assertThat(capturedSpecificationFile.getContentEncoding()).isEqualTo("gzip");
+        assertThat(capturedSpecificationFile.getContentLength()).isEqualTo(11L);
+        verify(apiRegistrationRepository).updateStoredLength(5L, 7L);
     }
 
     @Test
-    public void shouldSetFileContentInSpecification_WhenSavingAPI() throws IOException {
+    public void shouldAbortStoredContent_WhenContentCannotBeCopied() throws IOException {
         // Given
-        String fileContent = "fileContent";
-        when(fileUtils.multipartfileToString(fileToSave)).thenReturn(fileContent);
+        doThrow(new IOException("No space left on device")).when(storedContent).write(any(byte[].class), anyInt(), anyInt());
+
+        // When
+        assertThatThrownBy(() -> apiService.saveApi(apiToSave, fileToSave)).isInstanceOf(IOException.class);
+
+        // Then
+        verify(storedContent).abort();
+        verify(storedContent, never()).close();
+        verify(apiRegistrationRepository, never()).updateStoredLength(anyLong(), anyLong());
+    }
 
+    @Test
+    public void shouldSetContentLengthInSpecification_WhenSavingAPI() throws IOException {
         // When
         apiService.saveApi(apiToSave, fileToSave);
 
         // Then
         ArgumentCaptor<SpecificationFile> specificationFileCaptor = ArgumentCaptor.forClass(SpecificationFile.class);
-        verify(specificationFileRepository).save(specificationFileCaptor.capture());
+        verify(apiRegistrationRepository).upsertSpecificationFile(specificationFileCaptor.capture());
         SpecificationFile capturedSpecificationFile = specificationFileCaptor.getValue();
-        String capturedFileContent = capturedSpecificationFile.getFileContent();
-        assertThat(capturedFileContent).isEqualTo(fileContent);
+        assertThat(capturedSpecificationFile.getContentLength()).isEqualTo(11L);
+        assertThat(capturedSpecificationFile.getContentHash()).isEqualTo("fileContentHash");
+    }
+
+    @Test
+    public void shouldReuseSpecificationFile_WithSameContentHash_WhenSavingAPI() throws IOException {
+        // Given
+        doAnswer(invocation -> {
+            ((SpecificationFile) invocation.getArguments()[0]).setId(8L);
+            return false;
+        }).when(apiRegistrationRepository).upsertSpecificationFile(any(SpecificationFile.class));
+
+        // When
+        apiService.saveApi(apiToSave, fileToSave);
+
+        // Then
+        verify(specificationStore, never()).openOutputStream(any(SpecificationFile.class));
+        verify(apiRegistrationRepository, never()).updateStoredLength(anyLong(), anyLong());
+        verify(apiRegistrationRepository).linkSpecificationFile(23L, 8L);
+    }
+
+    @Test
+    public void shouldReleasePreviousSpecificationFile_WhenReplacingApi() throws IOException {
+        // Given
+        givenUpsertedApi(23L, 2L);
+        when(apiRegistrationRepository.replaceSpecificationFile(23L, 5L)).thenReturn(3L);
+        SpecificationFile previousSpecificationFile = new SpecificationFile();
+        previousSpecificationFile.setId(3L);
+        when(specificationFileRepository.findOne(3L)).thenReturn(previousSpecificationFile);
+        when(specificationFileRepository.deleteIfUnreferenced(3L)).thenReturn(1);
+
+        // When
+        apiService.saveApi(apiToSave, fileToSave);
+
+        // Then
+        verify(apiRegistrationRepository, never()).linkSpecificationFile(anyLong(), anyLong());
+        verify(specificationFileRepository).decrementReferenceCount(3L);
+        verify(specificationStore).delete(previousSpecificationFile);
     }
 
     @Test
@@ -141,50 +258,164 @@ public class ApiServiceTest {
 
         // Then
         ArgumentCaptor<SpecificationFile> specificationFileCaptor = ArgumentCaptor.forClass(SpecificationFile.class);
-        verify(specificationFileRepository).save(specificationFileCaptor.capture());
+        verify(apiRegistrationRepository).upsertSpecificationFile(specificationFileCaptor.capture());
         SpecificationFile capturedSpecificationFile = specificationFileCaptor.getValue();
         String capturedContentType = capturedSpecificationFile.getContentType();
         assertThat(capturedContentType).isEqualTo(contentType);
     }
 
     @Test
-    public void shouldSetApiId_FromExistingApi_WithSameName_AndVersion_WhenSavingApi() throws IOException {
+    public void shouldUpsertApi_WithLastModifiedDate_WhenSavingApi() throws IOException {
+        // When
+        apiService.saveApi(apiToSave, fileToSave);
+
+        // Then
+        ArgumentCaptor<Api> apiArgumentCaptor = ArgumentCaptor.forClass(Api.class);
+        verify(apiRegistrationRepository).upsertApi(apiArgumentCaptor.capture());
+        assertThat(apiArgumentCaptor.getValue().getName()).isEqualTo("name");
+        assertThat(apiArgumentCaptor.getValue().getLastModified()).isPositive();
+    }
+
+    @Test
+    public void shouldStoreOperations_OfNewSpecificationFile_WhenSavingApi() throws IOException {
         // Given
-        String apiName = "name";
-        String apiVersion = "2.1";
-        apiToSave.setName(apiName);
-        apiToSave.setVersion(apiVersion);
-        Api foundApi = new Api();
-        long expectedApiId = 42L;
-        foundApi.setId(expectedApiId);
-        when(apiRepository.findByNameAndVersion(apiName, apiVersion)).thenReturn(foundApi);
+        List<SpecificationOperation> operations = asList(new SpecificationOperation("GET", "/orders", "listOrders", null));
+        when(specificationParser.parseOperations(any(InputStream.class))).thenReturn(operations);
 
         // When
         apiService.saveApi(apiToSave, fileToSave);
 
         // Then
-        ArgumentCaptor<Api> apiArgumentCaptor = ArgumentCaptor.forClass(Api.class);
-        verify(apiRepository).save(apiArgumentCaptor.capture());
-        Api capturedApi = apiArgumentCaptor.getValue();
-        Long capturedApiId = capturedApi.getId();
-        assertThat(capturedApiId).isEqualTo(expectedApiId);
+        verify(specificationOperationRepository).save(5L, operations);
     }
 
     @Test
-    public void shouldSetApiWithSpecification_ComingFromDatabase_WhenSavingAPI() throws IOException {
+    public void shouldNotParseSpecificationFile_AlreadyStored_WhenSavingApi() throws IOException {
         // Given
-        SpecificationFile savedSpecificationFile = mock(SpecificationFile.class);
-        when(specificationFileRepository.save(any(SpecificationFile.class))).thenReturn(savedSpecificationFile);
+        doAnswer(invocation -> {
+            ((SpecificationFile) invocation.getArguments()[0]).setId(8L);
+            return false;
+        }).when(apiRegistrationRepository).upsertSpecificationFile(any(SpecificationFile.class));
 
         // When
         apiService.saveApi(apiToSave, fileToSave);
 
         // Then
-        ArgumentCaptor<Api> apiArgumentCaptor = ArgumentCaptor.forClass(Api.class);
-        verify(apiRepository).save(apiArgumentCaptor.capture());
-        Api capturedApiArgument = apiArgumentCaptor.getValue();
-        SpecificationFile specificationFile = capturedApiArgument.getSpecificationFile();
-        assertThat(specificationFile).isEqualTo(savedSpecificationFile);
+        verifyZeroInteractions(specificationParser, specificationOperationRepository);
+    }
+
+    @Test
+    public void shouldServeStoredOperations_FromCache() {
+        // Given
+        SpecificationFile specificationFile = new SpecificationFile();
+        specificationFile.setId(7L);
+        List<SpecificationOperation> operations = asList(new SpecificationOperation("GET", "/orders", "listOrders", null));
+        when(specificationOperationRepository.find(7L)).thenReturn(operations);
+
+        // When
+        apiService.getOperations(specificationFile);
+        List<SpecificationOperation> cachedOperations = apiService.getOperations(specificationFile);
+
+        // Then
+        assertThat(cachedOperations).isEqualTo(operations);
+        verify(specificationOperationRepository, times(1)).find(7L);
+        verifyZeroInteractions(specificationParser, specificationStore);
+    }
+
+    @Test
+    public void shouldParseAndStoreOperations_OfSpecificationFileNeverParsed() throws IOException {
+        // Given
+        SpecificationFile specificationFile = new SpecificationFile();
+        specificationFile.setId(7L);
+        specificationFile.setStoredLength(11L);
+        when(specificationOperationRepository.find(7L)).thenReturn(null);
+        InputStream storedContent = new ByteArrayInputStream("fileContent".getBytes());
+        when(specificationStore.read(specificationFile)).thenReturn(storedContent);
+        List<SpecificationOperation> operations = asList(new SpecificationOperation("GET", "/orders", "listOrders", null));
+        when(specificationParser.parseOperations(storedContent)).thenReturn(operations);
+
+        // When
+        List<SpecificationOperation> parsedOperations = apiService.getOperations(specificationFile);
+
+        // Then
+        assertThat(parsedOperations).isEqualTo(operations);
+        verify(specificationOperationRepository).save(7L, operations);
+    }
+
+    @Test
+    public void shouldDiffSpecificationFiles_OncePerPairOfContentHashes() throws IOException {
+        // Given
+        givenApiWithSpecificationFile(1L, 7L, "hashOf12");
+        givenApiWithSpecificationFile(2L, 8L, "hashOf14");
+        when(specificationStore.read(any(SpecificationFile.class))).thenAnswer(invocation -> new ByteArrayInputStream("fileContent".getBytes()));
+        when(specificationParser.parseModel(any(InputStream.class))).thenReturn(
+                new SpecificationModel(asList(new SpecificationOperation("GET", "/orders", null, null)), Collections.emptyList()),
+                new SpecificationModel(Collections.emptyList(), Collections.emptyList()));
+
+        // When
+        SpecificationDiff diff = apiService.diffApis(1L, 2L);
+        SpecificationDiff cachedDiff = apiService.diffApis(1L, 2L);
+
+        // Then
+        assertThat(cachedDiff).isSameAs(diff);
+        assertThat(diff.getFromContentHash()).isEqualTo("hashOf12");
+        assertThat(diff.getToContentHash()).isEqualTo("hashOf14");
+        assertThat(diff.getRemovedOperations()).extracting("path").containsExactly("/orders");
+        verify(specificationParser, times(2)).parseModel(any(InputStream.class));
+    }
+
+    @Test
+    public void shouldThrowResourceNotFound_WhenDiffingUnknownApi() {
+        // Given
+        givenApiWithSpecificationFile(1L, 7L, "hashOf12");
+
+        // Then
+        assertThatThrownBy(() -> apiService.diffApis(1L, 2L)).isInstanceOf(ResourceNotFoundException.class);
+    }
+
+    @Test
+    public void shouldLinkNewApi_ToSpecificationFile_WhenSavingApi() throws IOException {
+        // When
+        apiService.saveApi(apiToSave, fileToSave);
+
+        // Then
+        verify(apiRegistrationRepository).linkSpecificationFile(23L, 5L);
+        verify(apiRegistrationRepository, never()).replaceSpecificationFile(anyLong(), anyLong());
+    }
+
+    @Test
+    public void shouldRecordSpecificationSize_WhenSavingApi() throws IOException {
+        // When
+        apiService.saveApi(apiToSave, fileToSave);
+
+        // Then
+        assertThat(metricRegistry.counter("catalogue_upload_bytes_total", "").count()).isEqualTo(11L);
+        assertThat(metricRegistry.histogram("catalogue_specification_size_bytes", "", MetricRegistry.BYTES_BUCKETS).sum()).isEqualTo(11.0);
+        assertThat(metricRegistry.timer("catalogue_api_save_seconds", "").count()).isEqualTo(1L);
+    }
+
+    @Test
+    public void shouldRecordRevision_WhenSavingApi() throws IOException {
+        // Given
+        givenUpsertedApi(23L, 3L);
+
+        // When
+        apiService.saveApi(apiToSave, fileToSave);
+
+        // Then
+        ArgumentCaptor<ContentDigest> contentDigest = ArgumentCaptor.forClass(ContentDigest.class);
+        verify(apiRevisionService).recordRevision(same(apiToSave), same(fileToSave), contentDigest.capture());
+        assertThat(contentDigest.getValue().getHash()).isEqualTo("fileContentHash");
+    }
+
+    @Test
+    public void shouldNotWriteAnything_WhenSpecificationFileIsInvalid() throws IOException {
+        // Given
+        when(fileUtils.digest(any(MultipartFile.class))).thenThrow(new InvalidSpecificationFileException(ApiValidationError.MALFORMATED_DATA, "not UTF-8"));
+
+        // Then
+        assertThatThrownBy(() -> apiService.saveApi(apiToSave, fileToSave)).isInstanceOf(InvalidSpecificationFileException.class);
+        verifyZeroInteractions(apiRegistrationRepository);
     }
 
     @Test
@@ -202,6 +433,40 @@ public class ApiServiceTest {
         assertThat(api.getSpecificationPath()).isEqualTo("/catalogueApi/apis/23/specificationFile");
     }
 
+    @Test
+    public void shouldServeApi_FromCache_UntilItChanges() {
+        // Given
+        Api givenApi = new Api();
+        givenApi.setId(23L);
+        when(apiRepository.findOne(23L)).thenReturn(givenApi);
+        apiService.getApi(23L);
+
+        // When
+        apiService.getApi(23L);
+        apiService.deleteApi(23L);
+        apiService.getApi(23L);
+
+        // Then
+        verify(apiRepository, times(3)).findOne(23L);
+    }
+
+    @Test
+    public void shouldServeApiPage_FromCache_UntilAnApiIsAdded() throws IOException {
+        // Given
+        Page<ApiSummary> page = mock(Page.class);
+        when(apiRepository.findAllSummariesByOrderByNameAscVersionAsc(any(PageRequest.class))).thenReturn(page);
+        PageRequest pageRequest = new PageRequest(0, 10);
+        apiService.getAllApis(pageRequest);
+
+        // When
+        apiService.getAllApis(pageRequest);
+        apiService.saveApi(apiToSave, fileToSave);
+        apiService.getAllApis(pageRequest);
+
+        // Then
+        verify(apiRepository, times(2)).findAllSummariesByOrderByNameAscVersionAsc(pageRequest);
+    }
+
     @Test
     public void shouldThrowRessourceNotFound_WhenRequestedApiDoesntExist() {
         // Given
@@ -214,24 +479,138 @@ public class ApiServiceTest {
     @Test
     public void shouldReturnApis_WithSpecificationPaths() {
         // Given
-        Api givenApi1 = new Api();
-        givenApi1.setId(23L);
-        Api givenApi2 = new Api();
-        givenApi2.setId(24L);
+        ApiSummary givenApi1 = new ApiSummary(23L, "name a", "1.0", "swagger");
+        ApiSummary givenApi2 = new ApiSummary(24L, "name b", "1.0", "blueprint");
 
-        Page<Api> page = mock(Page.class);
+        Page<ApiSummary> page = mock(Page.class);
         when(page.getContent()).thenReturn(asList(givenApi1, givenApi2));
-        when(apiRepository.findAllByOrderByNameAscVersionAsc(any(PageRequest.class))).thenReturn(page);
+        when(apiRepository.findAllSummariesByOrderByNameAscVersionAsc(any(PageRequest.class))).thenReturn(page);
         PageRequest pageRequest = new PageRequest(0, 10);
 
         // When
-        Page<Api> allApis = apiService.getAllApis(pageRequest);
+        Page<ApiSummary> allApis = apiService.getAllApis(pageRequest);
 
         // Then
         allApis.getContent();
         assertThat(allApis.getContent()).extracting("specificationPath").contains("/catalogueApi/apis/23/specificationFile", "/catalogueApi/apis/24/specificationFile");
     }
 
+    @Test
+    public void shouldSeekApisAfterCursor_WithoutCounting() {
+        // Given
+        ApiSummary givenApi = new ApiSummary(23L, "name b", "1.0", "swagger");
+        Slice<ApiSummary> slice = new SliceImpl<>(asList(givenApi));
+        when(apiRepository.findSummariesAfter(eq("name a"), eq("2.0"), any(PageRequest.class))).thenReturn(slice);
+
+        // When
+        Slice<ApiSummary> apis = apiService.getApisAfter(new ApiCursor("name a", "2.0"), 10);
+
+        // Then
+        ArgumentCaptor<PageRequest> pageRequestArgumentCaptor = ArgumentCaptor.forClass(PageRequest.class);
+        verify(apiRepository).findSummariesAfter(eq("name a"), eq("2.0"), pageRequestArgumentCaptor.capture());
+        assertThat(pageRequestArgumentCaptor.getValue().getOffset()).isEqualTo(0);
+        assertThat(pageRequestArgumentCaptor.getValue().getPageSize()).isEqualTo(10);
+        assertThat(apis.getContent()).extracting("specificationPath").containsExactly("/catalogueApi/apis/23/specificationFile");
+        verify(apiRepository, never()).count();
+    }
+
+    @Test
+    public void shouldStartFromFirstApis_WhenThereIsNoCursor() {
+        // Given
+        when(apiRepository.findFirstSummaries(any(PageRequest.class))).thenReturn(new SliceImpl<>(Collections.<ApiSummary>emptyList()));
+
+        // When
+        apiService.getApisAfter(null, 10);
+
+        // Then
+        verify(apiRepository).findFirstSummaries(any(PageRequest.class));
+        verify(apiRepository, never()).findSummariesAfter(anyString(), anyString(), any(PageRequest.class));
+    }
+
+    @Test
+    public void shouldLookUpBatchOfApis_InRequestOrder_WithOneQueryByIdsAndOneByNames() {
+        // Given
+        when(apiRepository.findWithSpecificationFileByIdIn(anyCollectionOf(Long.class))).thenReturn(asList(apiNamed(2L, "b", "1.0"), apiNamed(1L, "a", "1.0")));
+        when(apiRepository.findWithSpecificationFileByNameIn(anyCollectionOf(String.class))).thenReturn(asList(apiNamed(3L, "c", "1.0"), apiNamed(4L, "c", "2.0")));
+        ApiBatchRequest request = new ApiBatchRequest(asList(1L, 9L, 2L), asList(new NameAndVersion("c", "2.0"), new NameAndVersion("c", "3.0")));
+
+        // When
+        List<ApiBatchEntry> entries = apiService.getApis(request, false);
+
+        // Then
+        assertThat(entries).extracting("found", "id", "name", "version").containsExactly(
+                tuple(true, 1L, "a", "1.0"),
+                tuple(false, 9L, null, null),
+                tuple(true, 2L, "b", "1.0"),
+                tuple(true, 4L, "c", "2.0"),
+                tuple(false, null, "c", "3.0"));
+        assertThat(entries.get(0).getSpecificationPath()).isEqualTo("/catalogueApi/apis/1/specificationFile");
+        assertThat(entries.get(0).getSpecificationContent()).isNull();
+        verify(apiRepository).findWithSpecificationFileByNameIn(Collections.singleton("c"));
+        verify(apiRepository, never()).findOne(anyLong());
+    }
+
+    @Test
+    public void shouldNotQueryNames_WhenBatchOnlyHasIds() {
+        // Given
+        when(apiRepository.findWithSpecificationFileByIdIn(anyCollectionOf(Long.class))).thenReturn(asList(apiNamed(1L, "a", "1.0")));
+
+        // When
+        List<ApiBatchEntry> entries = apiService.getApis(new ApiBatchRequest(asList(1L), Collections.emptyList()), true);
+
+        // Then
+        assertThat(entries).hasSize(1);
+        assertThat(entries.get(0).getSpecificationContent()).isNotNull();
+        verify(apiRepository, never()).findWithSpecificationFileByNameIn(anyCollectionOf(String.class));
+    }
+
+    @Test
+    public void shouldIndexApi_WithSpecificationContent_WhenSavingApi() throws IOException {
+        // Given
+        apiToSave.setSpecificationType("swagger");
+
+        // When
+        apiService.saveApi(apiToSave, fileToSave);
+
+        // Then
+        ApiSearchResult result = apiService.searchApis("filecontent", null, 0, 10);
+        assertThat(result.getContent()).extracting("id", "name", "specificationPath")
+                .containsExactly(tuple(23L, "name", "/catalogueApi/apis/23/specificationFile"));
+    }
+
+    @Test
+    public void shouldRemoveApiFromSearchIndex_WhenDeletingApi() throws IOException {
+        // Given
+        apiService.saveApi(apiToSave, fileToSave);
+
+        // When
+        apiService.deleteApi(23L);
+
+        // Then
+        assertThat(apiService.searchApis("name", null, 0, 10).getTotalElements()).isZero();
+    }
+
+    @Test
+    public void shouldIndexStoredApis_WhenApplicationIsReady() throws IOException {
+        // Given
+        SpecificationFile specificationFile = new SpecificationFile();
+        specificationFile.setId(7L);
+        specificationFile.setStoredLength(15L);
+        Api storedApi = new Api();
+        storedApi.setId(23L);
+        storedApi.setName("Shop API");
+        storedApi.setVersion("1.0");
+        storedApi.setSpecificationFile(specificationFile);
+        when(apiRepository.findWithSpecificationFileAfter(anyLong(), any(PageRequest.class))).thenReturn(new SliceImpl<>(asList(storedApi)));
+        when(specificationStore.read(specificationFile)).thenReturn(new ByteArrayInputStream("paths: /orders".getBytes()));
+
+        // When
+        apiService.indexAllApis();
+
+        // Then
+        assertThat(apiService.searchApis("shop orders", null, 0, 10).getContent()).extracting("id").containsExactly(23L);
+    }
+
     @Test
     public void shouldDeleteApi_WhenCallingDeleteWithAnId() {
         // Given
@@ -244,6 +623,86 @@ public class ApiServiceTest {
         verify(apiRepository).delete(eq(23L));
     }
 
+    @Test
+    public void shouldGarbageCollectSpecificationFile_WhenLastReferencingApiIsDeleted() throws IOException {
+        // Given
+        SpecificationFile specificationFile = mock(SpecificationFile.class);
+        when(specificationFile.getId()).thenReturn(7L);
+        Api api = new Api();
+        api.setSpecificationFile(specificationFile);
+        when(apiRepository.findOne(23L)).thenReturn(api);
+        when(specificationFileRepository.findOne(7L)).thenReturn(specificationFile);
+        when(specificationFileRepository.deleteIfUnreferenced(7L)).thenReturn(1);
+
+        // When
+        apiService.deleteApi(23L);
+
+        // Then
+        verify(specificationFileRepository).decrementReferenceCount(7L);
+        verify(specificationStore).delete(specificationFile);
+        verify(specificationOperationRepository).delete(7L);
+    }
+
+    @Test
+    public void shouldDeleteRevisions_WhenDeletingApi() {
+        // When
+        apiService.deleteApi(23L);
+
+        // Then
+        verify(apiRevisionService).deleteRevisions(23L);
+    }
+
+    @Test
+    public void shouldRecordChange_WhenSavingApi() throws IOException {
+        // Given
+        givenUpsertedApi(42L, 3L);
+        apiToSave.setSpecificationType("swagger");
+        ArgumentCaptor<ApiChange> change = ArgumentCaptor.forClass(ApiChange.class);
+
+        // When
+        Api savedApi = apiService.saveApi(apiToSave, fileToSave);
+
+        // Then
+        verify(apiChangeFeed).record(change.capture());
+        assertThat(change.getValue()).extracting("type", "apiId", "name", "version", "specificationType", "revision", "changedAt")
+                .containsExactly(ApiChange.Type.SAVED, 42L, "name", "2.1", "swagger", 3L, savedApi.getLastModified());
+    }
+
+    @Test
+    public void shouldRecordChange_WhenDeletingApi() {
+        // Given
+        Api api = new Api();
+        api.setName("name");
+        api.setVersion("2.1");
+        when(apiRepository.findOne(23L)).thenReturn(api);
+        ArgumentCaptor<ApiChange> change = ArgumentCaptor.forClass(ApiChange.class);
+
+        // When
+        apiService.deleteApi(23L);
+
+        // Then
+        verify(apiChangeFeed).record(change.capture());
+        assertThat(change.getValue()).extracting("type", "apiId", "name", "version", "revision")
+                .containsExactly(ApiChange.Type.DELETED, 23L, "name", "2.1", null);
+    }
+
+    @Test
+    public void shouldKeepSpecificationFileContent_WhenStillReferenced_AfterDeletingApi() throws IOException {
+        // Given
+        SpecificationFile specificationFile = mock(SpecificationFile.class);
+        when(specificationFile.getId()).thenReturn(7L);
+        Api api = new Api();
+        api.setSpecificationFile(specificationFile);
+        when(apiRepository.findOne(23L)).thenReturn(api);
+        when(specificationFileRepository.deleteIfUnreferenced(7L)).thenReturn(0);
+
+        // When
+        apiService.deleteApi(23L);
+
+        // Then
+        verify(specificationStore, never()).delete(any(SpecificationFile.class));
+    }
+
     @Test
     public void shouldThrowRessourceNotFound_WhenSpecificationFileToDeleteIsNotFound() {
         // Given
@@ -251,5 +710,37 @@ public class ApiServiceTest {
 
         // Then
         assertThatThrownBy(() -> apiService.deleteApi(23L)).isInstanceOf(ResourceNotFoundException.class);
+        verify(apiRevisionService, never()).deleteRevisions(anyLong());
+        verify(apiChangeFeed, never()).record(any(ApiChange.class));
+    }
+
+    private void givenApiWithSpecificationFile(long apiId, long specificationFileId, String contentHash) {
+        SpecificationFile specificationFile = new SpecificationFile();
+        specificationFile.setId(specificationFileId);
+        specificationFile.setContentHash(contentHash);
+        Api api = new Api();
+        api.setId(apiId);
+        api.setSpecificationFile(specificationFile);
+        when(apiRepository.findOne(apiId)).thenReturn(api);
+    }
+
+    private Api apiNamed(long id, String name, String version) {
+        SpecificationFile specificationFile = new SpecificationFile();
+        specificationFile.setContentHash("hash" + id);
+        Api api = new Api();
+        api.setId(id);
+        api.setName(name);
+        api.setVersion(version);
+        api.setSpecificationFile(specificationFile);
+        return api;
+    }
+
+    private void givenUpsertedApi(long id, long revision) {
+        doAnswer(invocation -> {
+            Api api = (Api) invocation.getArguments()[0];
+            api.setId(id);
+            api.setRevision(revision);
+            return null;
+        }).when(apiRegistrationRepository).upsertApi(any(Api.class));
     }
-}
\ No newline at end of file
+}
@@ -1,10 +1,12 @@
 package application.services;
 
+import application.infrastructure.MetricRegistry;
 import application.infrastructure.models.Api;
 import application.infrastructure.models.ApiError;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.mockito.InjectMocks;
+import org.mockito.Spy;
 import org.mockito.runners.MockitoJUnitRunner;
 
 import static org.assertj.core.api.AssertionsForInterfaceTypes.assertThat;
@@ -15,6 +17,9 @@ public class ApiValidationServiceTest {
     @InjectMocks
     ApiValidationService specificationValidationService;
 
+    @Spy
+    MetricRegistry metricRegistry = new MetricRegistry();
+
     @Test
     public void shouldReturnNone_WhenSpecificationIsOk() {
         // Given
@@ -106,4 +111,17 @@ public class ApiValidationServiceTest {
         assertThat(errorMessage.message).contains("version");
         assertThat(errorMessage.message).contains("specificationType");
     }
-}
\ No newline at end of file
+
+    @Test
+    public void shouldCountRejections_ByErrorType() {
+        // Given
+        Api api = new Api();
+
+        // When
+        specificationValidationService.validate(api);
+        specificationValidationService.validate(api);
+
+        // Then
+        assertThat(metricRegistry.counter("catalogue_validation_failures_total", "", "type", "MISSING_PARAMETER").count()).isEqualTo(2);
+    }
+}
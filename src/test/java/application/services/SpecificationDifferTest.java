@@ -0,0 +1,141 @@
+package application.services;
+
+import application.infrastructure.models.SpecificationDiff;
+import application.infrastructure.models.SpecificationModel;
+import application.infrastructure.models.SpecificationOperation;
+import application.infrastructure.models.SpecificationSchema;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+public class SpecificationDifferTest {
+
+    private final SpecificationDiffer specificationDiffer = new SpecificationDiffer();
+
+    @Test
+    public void shouldListAddedAndRemovedOperations_AsBreakingWhenRemoved() {
+        // Given
+        SpecificationModel from = model(operations(operation("GET", "/orders", "Order"), operation("DELETE", "/orders/{id}")), schemas());
+        SpecificationModel to = model(operations(operation("GET", "/orders", "Order"), operation("POST", "/orders", "Order")), schemas());
+
+        // When
+        SpecificationDiff diff = specificationDiffer.diff(from, to);
+
+        // Then
+        assertThat(diff.getAddedOperations()).extracting("method", "path").containsExactly(tuple("POST", "/orders"));
+        assertThat(diff.getRemovedOperations()).extracting("method", "path").containsExactly(tuple("DELETE", "/orders/{id}"));
+        assertThat(diff.getChangedOperations()).isEmpty();
+        assertThat(diff.isBreaking()).isTrue();
+    }
+
+    @Test
+    public void shouldNotBeBreaking_WhenOnlyAddingOperationsAndOptionalProperties() {
+        // Given
+        SpecificationModel from = model(operations(operation("GET", "/orders", "Order")),
+                schemas(schema("Order", properties("id", "integer"))));
+        SpecificationModel to = model(operations(operation("GET", "/orders", "Order"), operation("GET", "/carts")),
+                schemas(schema("Order", properties("id", "integer", "note", "string"))));
+
+        // When
+        SpecificationDiff diff = specificationDiffer.diff(from, to);
+
+        // Then
+        assertThat(diff.isBreaking()).isFalse();
+        assertThat(diff.getChangedSchemas()).extracting("name", "addedProperties", "breaking")
+                .containsExactly(tuple("Order", Collections.singletonList("note"), false));
+        assertThat(diff.getChangedOperations()).extracting("path", "changedSchemas", "breaking")
+                .containsExactly(tuple("/orders", Collections.singletonList("Order"), false));
+    }
+
+    @Test
+    public void shouldFlagOperations_UsingSchemasChangedInABreakingWay() {
+        // Given
+        SpecificationModel from = model(operations(operation("GET", "/orders", "Order"), operation("GET", "/carts", "Cart")),
+                schemas(schema("Order", properties("id", "integer", "total", "number", "note", "string")), schema("Cart", properties())));
+        SpecificationSchema changedOrder = schema("Order", properties("id", "string", "note", "string"));
+        changedOrder.setRequired(Collections.singletonList("note"));
+        SpecificationModel to = model(operations(operation("GET", "/orders", "Order"), operation("GET", "/carts", "Cart")),
+                schemas(changedOrder, schema("Cart", properties())));
+
+        // When
+        SpecificationDiff diff = specificationDiffer.diff(from, to);
+
+        // Then
+        assertThat(diff.isBreaking()).isTrue();
+        assertThat(diff.getChangedSchemas()).extracting("name", "removedProperties", "changedProperties", "newlyRequiredProperties", "breaking")
+                .containsExactly(tuple("Order", Collections.singletonList("total"), Collections.singletonList("id"), Collections.singletonList("note"), true));
+        assertThat(diff.getChangedOperations()).extracting("path", "breaking").containsExactly(tuple("/orders", true));
+    }
+
+    @Test
+    public void shouldReportRenamedOperations_AndDroppedSchemaReferences() {
+        // Given
+        SpecificationModel from = model(operations(operation("GET", "/orders", "Order", "listOrders")), schemas(schema("Order", properties())));
+        SpecificationModel to = model(operations(operation("GET", "/orders", null, "findOrders")), schemas());
+
+        // When
+        SpecificationDiff diff = specificationDiffer.diff(from, to);
+
+        // Then
+        assertThat(diff.getRemovedSchemas()).containsExactly("Order");
+        assertThat(diff.getChangedOperations()).extracting("operationId", "previousOperationId", "removedSchemas", "breaking")
+                .containsExactly(tuple("findOrders", "listOrders", Collections.singletonList("Order"), true));
+    }
+
+    @Test
+    public void shouldFindNoDifferences_BetweenIdenticalSpecifications() {
+        // Given
+        SpecificationModel specification = model(operations(operation("GET", "/orders", "Order")), schemas(schema("Order", properties("id", "integer"))));
+
+        // When
+        SpecificationDiff diff = specificationDiffer.diff(specification, specification);
+
+        // Then
+        assertThat(diff.size()).isEqualTo(0);
+        assertThat(diff.isBreaking()).isFalse();
+    }
+
+    private static SpecificationModel model(List<SpecificationOperation> operations, List<SpecificationSchema> schemas) {
+        return new SpecificationModel(operations, schemas);
+    }
+
+    private static List<SpecificationOperation> operations(SpecificationOperation... operations) {
+        return Arrays.asList(operations);
+    }
+
+    private static SpecificationOperation operation(String method, String path, String schema, String operationId) {
+        return new SpecificationOperation(method, path, operationId, schema == null ? new ArrayList<>() : Collections.singletonList(schema));
+    }
+
+    private static SpecificationOperation operation(String method, String path, String schema) {
+        return operation(method, path, schema, null);
+    }
+
+    private static SpecificationOperation operation(String method, String path) {
+        return operation(method, path, null, null);
+    }
+
+    private static List<SpecificationSchema> schemas(SpecificationSchema... schemas) {
+        return Arrays.asList(schemas);
+    }
+
+    private static SpecificationSchema schema(String name, Map<String, String> properties) {
+        return new SpecificationSchema(name, properties, null);
+    }
+
+    private static Map<String, String> properties(String... namesAndTypes) {
+        Map<String, String> properties = new TreeMap<>();
+        for (int i = 0; i < namesAndTypes.length; i += 2) {
+            properties.put(namesAndTypes[i], namesAndTypes[i + 1]);
+        }
+        return properties;
+    }
+}
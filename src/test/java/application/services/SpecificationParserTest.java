@@ -0,0 +1,238 @@
+package application.services;
+
+import application.infrastructure.InvalidSpecificationFileException;
+import application.infrastructure.models.SpecificationModel;
+import application.infrastructure.models.SpecificationOperation;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.entry;
+import static org.assertj.core.api.Assertions.tuple;
+
+public class SpecificationParserTest {
+
+    private final SpecificationParser specificationParser = new SpecificationParser();
+
+    @Test
+    public void shouldListSwaggerOperations_WithReferencedDefinitions() throws IOException {
+        // Given
+        String specification = lines(
+                "swagger: '2.0'",
+                "paths:",
+                "  /orders/{orderId}:",
+                "    parameters:",
+                "      - $ref: '#/parameters/orderId'",
+                "    get:",
+                "      operationId: getOrder",
+                "      responses:",
+                "        200:",
+                "          schema:",
+                "            $ref: '#/definitions/Order'",
+                "    delete:",
+                "      responses:",
+                "        204:",
+                "          description: deleted",
+                "  /orders:",
+                "    post:",
+                "      operationId: createOrder",
+                "      parameters:",
+                "        - in: body",
+                "          schema:",
+                "            type: array",
+                "            items:",
+                "              $ref: '#/definitions/OrderLine'",
+                "      responses:",
+                "        201:",
+                "          schema:",
+                "            $ref: '#/definitions/Order'",
+                "    x-internal: true");
+
+        // When
+        List<SpecificationOperation> operations = parse(specification);
+
+        // Then
+        assertThat(operations).extracting("method", "path", "operationId", "schemas").containsExactly(
+                tuple("GET", "/orders/{orderId}", "getOrder", Arrays.asList("Order")),
+                tuple("DELETE", "/orders/{orderId}", null, Arrays.asList()),
+                tuple("POST", "/orders", "createOrder", Arrays.asList("Order", "OrderLine")));
+    }
+
+    @Test
+    public void shouldListOpenApiOperations_FromJson() throws IOException {
+        // Given
+        String specification = "{\"openapi\":\"3.0.0\",\"paths\":{\"/carts\":{\"put\":{\"operationId\":\"updateCart\"," +
+                "\"requestBody\":{\"content\":{\"application/json\":{\"schema\":{\"$ref\":\"#/components/schemas/Cart\"}}}}}}}}";
+
+        // When
+        List<SpecificationOperation> operations = parse(specification);
+
+        // Then
+        assertThat(operations).extracting("method", "path", "operationId", "schemas")
+                .containsExactly(tuple("PUT", "/carts", "updateCart", Arrays.asList("Cart")));
+    }
+
+    @Test
+    public void shouldListBlueprintActions_WithTheirAttributes() throws IOException {
+        // Given
+        String specification = lines(
+                "FORMAT: 1A",
+                "# Shop API",
+                "## Orders [/orders{?page}]",
+                "### List orders [GET]",
+                "+ Response 200 (application/json)",
+                "    + Attributes (array[Order])",
+                "### Create an order [POST]",
+                "+ Request (application/json)",
+                "    + Attributes (Order, fixed)",
+                "## Order [/orders/{id}]",
+                "+ Attributes (Order)",
+                "### [DELETE]",
+                "## GET /health",
+                "# Data Structures",
+                "## Order (object)",
+                "+ Attributes (Money)");
+
+        // When
+        List<SpecificationOperation> operations = parse(specification);
+
+        // Then
+        assertThat(operations).extracting("method", "path", "operationId", "schemas").containsExactly(
+                tuple("GET", "/orders", "List orders", Arrays.asList("Order")),
+                tuple("POST", "/orders", "Create an order", Arrays.asList("Order")),
+                tuple("DELETE", "/orders/{id}", null, Arrays.asList()),
+                tuple("GET", "/health", null, Arrays.asList()));
+    }
+
+    @Test
+    public void shouldDescribeOpenApiSchemas_ByTheirTopLevelProperties() throws IOException {
+        // Given
+        String specification = lines(
+                "swagger: '2.0'",
+                "paths: {}",
+                "definitions:",
+                "  Order:",
+                "    required: [id]",
+                "    properties:",
+                "      id: {type: integer, format: int64}",
+                "      lines: {type: array, items: {$ref: '#/definitions/OrderLine'}}",
+                "      customer: {properties: {name: {type: string}}}",
+                "    allOf:",
+                "      - properties:",
+                "          total: {$ref: '#/definitions/Money'}");
+
+        // When
+        SpecificationModel model = parseModel(specification);
+
+        // Then
+        assertThat(model.getSchemas()).extracting("name", "required").containsExactly(tuple("Order", Arrays.asList("id")));
+        assertThat(model.getSchemas().get(0).getProperties()).containsExactly(
+                entry("customer", "object"), entry("id", "integer(int64)"), entry("lines", "array[OrderLine]"), entry("total", "Money"));
+    }
+
+    @Test
+    public void shouldDescribeBlueprintDataStructures_ByTheirTopLevelProperties() throws IOException {
+        // Given
+        String specification = lines(
+                "FORMAT: 1A",
+                "# Shop API",
+                "## GET /orders",
+                "+ id: 42 (number) - ignored outside of data structures",
+                "# Data Structures",
+                "## Order (object)",
+                "+ id: 42 (number, required) - The order identifier",
+                "+ lines (array[OrderLine])",
+                "+ note",
+                "    + nested (number)",
+                "+ Include Timestamps",
+                "## OrderLine",
+                "+ quantity: 1 (number, required)");
+
+        // When
+        SpecificationModel model = parseModel(specification);
+
+        // Then
+        assertThat(model.getOperations()).hasSize(1);
+        assertThat(model.getSchemas()).extracting("name", "required").containsExactly(
+                tuple("Order", Arrays.asList("id")), tuple("OrderLine", Arrays.asList("quantity")));
+        assertThat(model.getSchemas().get(0).getProperties()).containsExactly(
+                entry("id", "number"), entry("lines", "array[OrderLine]"), entry("note", "string"));
+    }
+
+    @Test
+    public void shouldFindNoOperations_InOtherContent() throws IOException {
+        assertThat(parse("just some text")).isEmpty();
+        assertThat(parse("{\"name\": \"not a specification\"}")).isEmpty();
+        assertThat(parse("paths: [unclosed")).isEmpty();
+    }
+
+    @Test
+    public void shouldNotInstantiateClasses_NamedInYamlTags() throws IOException {
+        assertThat(parse("swagger: !!java.io.File [/tmp]\npaths: {}")).isEmpty();
+    }
+
+    private SpecificationModel parseModel(String specification) throws IOException {
+        return specificationParser.parseModel(new ByteArrayInputStream(specification.getBytes(UTF_8)));
+    }
+
+    @Test
+    public void shouldRefuseSpecification_WithRecursiveAnchor() {
+        // Given
+        String specification = lines(
+                "swagger: '2.0'",
+                "paths:",
+                "  /orders:",
+                "    get: &a {x: *a}");
+
+        // Then
+        assertThatThrownBy(() -> parse(specification)).isInstanceOf(InvalidSpecificationFileException.class);
+    }
+
+    @Test
+    public void shouldRefuseSpecification_WithAliasBomb() {
+        // Given
+        StringBuilder specification = new StringBuilder("swagger: '2.0'\nl0: &l0 [x, x, x, x, x, x, x, x, x, x]\n");
+        for (int level = 1; level < 30; level++) {
+            specification.append("l").append(level).append(": &l").append(level).append(" [");
+            for (int alias = 0; alias < 10; alias++) {
+                specification.append(alias == 0 ? "" : ", ").append("*l").append(level - 1);
+            }
+            specification.append("]\n");
+        }
+        specification.append("paths:\n  /orders:\n    get: {responses: *l29}\n");
+
+        // Then
+        assertThatThrownBy(() -> parse(specification.toString())).isInstanceOf(InvalidSpecificationFileException.class);
+    }
+
+    @Test
+    public void shouldRefuseSpecification_NestedTooDeeply() {
+        // Given
+        StringBuilder specification = new StringBuilder("{\"swagger\": \"2.0\", \"paths\": ");
+        for (int level = 0; level <= SpecificationParser.MAX_DEPTH; level++) {
+            specification.append("{\"a\": ");
+        }
+        specification.append("1");
+        for (int level = 0; level <= SpecificationParser.MAX_DEPTH; level++) {
+            specification.append("}");
+        }
+        specification.append("}");
+
+        // Then
+        assertThatThrownBy(() -> parse(specification.toString())).isInstanceOf(InvalidSpecificationFileException.class);
+    }
+
+    private List<SpecificationOperation> parse(String specification) throws IOException {
+        return specificationParser.parseOperations(new ByteArrayInputStream(specification.getBytes(UTF_8)));
+    }
+
+    private static String lines(String... lines) {
+        return String.join("\n", lines);
+    }
+}
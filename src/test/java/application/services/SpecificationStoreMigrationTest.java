@@ -0,0 +1,147 @@
+package application.services;
+
+import application.infrastructure.SpecificationFileRepository;
+import application.infrastructure.SpecificationStore;
+import application.infrastructure.StoredContentOutputStream;
+import application.infrastructure.models.SpecificationFile;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyLong;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.*;
+
+@RunWith(MockitoJUnitRunner.class)
+public class SpecificationStoreMigrationTest {
+
+    @InjectMocks
+    SpecificationStoreMigration specificationStoreMigration;
+
+    @Mock
+    SpecificationFileRepository specificationFileRepository;
+
+    @Mock
+    PlatformTransactionManager transactionManager;
+
+    @Mock
+    SpecificationStore source;
+
+    @Mock
+    SpecificationStore target;
+
+    private SpecificationFile migratedFile;
+    private SpecificationFile pendingFile;
+    private CopyOutputStream copiedContent;
+
+    @Before
+    public void setUp() throws Exception {
+        migratedFile = specificationFile(1L, 5L);
+        pendingFile = specificationFile(2L, 14L);
+        when(specificationFileRepository.findAfter(anyLong(), any(PageRequest.class)))
+                .thenReturn(new SliceImpl<>(Arrays.asList(migratedFile, pendingFile)));
+        when(target.contains(migratedFile)).thenReturn(true);
+        when(source.contains(any(SpecificationFile.class))).thenReturn(true);
+        when(source.read(pendingFile)).thenReturn(new ByteArrayInputStream("paths: /orders".getBytes(UTF_8)));
+        copiedContent = new CopyOutputStream();
+        when(target.openOutputStream(pendingFile)).thenReturn(copiedContent);
+    }
+
+    @Test
+    public void shouldCopyFilesMissingFromTarget_ThenDeleteThemFromSource() throws IOException {
+        // Given
+        when(target.contains(pendingFile)).thenReturn(false, true);
+
+        // When
+        int failed = specificationStoreMigration.migrate(source, target);
+
+        // Then
+        assertThat(failed).isZero();
+        assertThat(copiedContent.toString()).isEqualTo("paths: /orders");
+        assertThat(copiedContent.closed).isTrue();
+        verify(target, never()).openOutputStream(migratedFile);
+        verify(source).delete(migratedFile);
+        verify(source).delete(pendingFile);
+    }
+
+    @Test
+    public void shouldAbortCopy_AndKeepSource_WhenContentIsShorterThanStored() throws IOException {
+        // Given
+        pendingFile.setStoredLength(20L);
+
+        // When
+        int failed = specificationStoreMigration.migrate(source, target);
+
+        // Then
+        assertThat(failed).isEqualTo(1);
+        assertThat(copiedContent.aborted).isTrue();
+        assertThat(copiedContent.closed).isFalse();
+        verify(source, never()).delete(any(SpecificationFile.class));
+    }
+
+    @Test
+    public void shouldWalkThroughSpecificationFiles_ByBatches() {
+        // Given
+        when(target.contains(pendingFile)).thenReturn(true);
+        when(specificationFileRepository.findAfter(eq(Long.MIN_VALUE), any(PageRequest.class)))
+                .thenReturn(new SliceImpl<>(Arrays.asList(migratedFile), new PageRequest(0, 1), true));
+
+        // When
+        specificationStoreMigration.migrate(source, target);
+
+        // Then
+        verify(specificationFileRepository, times(2)).findAfter(eq(1L), any(PageRequest.class));
+    }
+
+    private static SpecificationFile specificationFile(long id, long storedLength) {
+        SpecificationFile specificationFile = new SpecificationFile();
+        specificationFile.setId(id);
+        specificationFile.setStoredLength(storedLength);
+        return specificationFile;
+    }
+
+    private static class CopyOutputStream extends StoredContentOutputStream {
+        private final ByteArrayOutputStream content = new ByteArrayOutputStream();
+        private boolean closed;
+        private boolean aborted;
+
+        @Override
+        public long getLength() {
+            return content.size();
+        }
+
+        @Override
+        public void abort() {
+            aborted = true;
+        }
+
+        @Override
+        public void write(int b) {
+            content.write(b);
+        }
+
+        @Override
+        public void close() {
+            closed = true;
+        }
+
+        @Override
+        public String toString() {
+            return new String(content.toByteArray(), UTF_8);
+        }
+    }
+}
@@ -1,17 +1,28 @@
 package application.services;
 
-import application.infrastructure.models.Api;
-import application.infrastructure.models.ViewApi;
+import application.infrastructure.models.ApiSummary;
+import application.infrastructure.models.RenderedPage;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.runners.MockitoJUnitRunner;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.util.DigestUtils;
+import org.thymeleaf.TemplateEngine;
+import org.thymeleaf.spring4.SpringTemplateEngine;
+import org.thymeleaf.templateresolver.ClassLoaderTemplateResolver;
 
-import java.util.List;
+import java.util.Collections;
 
+import static java.nio.charset.StandardCharsets.UTF_8;
 import static java.util.Arrays.asList;
 import static org.assertj.core.api.Assertions.assertThat;
-import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
 
 @RunWith(MockitoJUnitRunner.class)
 public class ViewServiceTest {
@@ -19,28 +30,78 @@ public class ViewServiceTest {
     @InjectMocks
     ViewService viewService;
 
+    @Mock
+    ApiService apiService;
+
+    @Spy
+    ApiCache apiCache = new ApiCache(100, 1000, 1000, 1000, 100000);
+
+    @Spy
+    TemplateEngine templateEngine = templateEngine();
+
     @Test
-    public void shouldFormatApis_ForView_WhenGivenApiModels() {
+    public void shouldRenderEachApi_FromItsSummary() {
         // Given
-        Api api1 = new Api();
-        api1.setName("test name a");
-        api1.setVersion("1.2");
-        api1.setSpecificationType("Swagger");
+        ApiSummary api1 = new ApiSummary(1L, "test name a", "1.2", "Swagger");
         api1.setSpecificationPath("/catalogueApi/apis/1/specificationFile");
-        Api api2 = new Api();
-        api2.setName("test name b");
-        api2.setVersion("1.3");
-        api2.setSpecificationType("Blueprint");
+        ApiSummary api2 = new ApiSummary(2L, "test name b", "1.3", "Blueprint");
         api2.setSpecificationPath("/catalogueApi/apis/2/specificationFile");
-        List<Api> apis = asList(api1, api2);
 
         // When
-        List<ViewApi> result = viewService.listApis(apis);
+        RenderedPage page = viewService.render(asList(api1, api2));
+
+        // Then
+        assertThat(new String(page.getContent(), UTF_8))
+                .contains("<span><b>test name a</b> - 1.2</span>")
+                .contains("<a href=\"/catalogueApi/apis/1/specificationFile\">Swagger</a>")
+                .contains("<span><b>test name b</b> - 1.3</span>")
+                .contains("<a href=\"/catalogueApi/apis/2/specificationFile\">Blueprint</a>");
+    }
+
+    @Test
+    public void shouldEscapeApiNamesAndVersions() {
+        // Given
+        ApiSummary api = new ApiSummary(1L, "<script>alert(1)</script>", "1.0 & up", "swagger");
+        api.setSpecificationPath("/catalogueApi/apis/1/specificationFile");
+
+        // When
+        RenderedPage page = viewService.render(Collections.singletonList(api));
 
         // Then
-        assertThat(result).extracting("displayName","downloadLink", "specificationType").contains(
-                tuple("<b>test name a</b> - 1.2", "/catalogueApi/apis/1/specificationFile", "Swagger"),
-                tuple("<b>test name b</b> - 1.3", "/catalogueApi/apis/2/specificationFile", "Blueprint")
-        );
+        assertThat(new String(page.getContent(), UTF_8))
+                .contains("<b>&lt;script&gt;alert(1)&lt;/script&gt;</b> - 1.0 &amp; up")
+                .doesNotContain("<script>");
+    }
+
+    @Test
+    public void shouldRenderApiListOnce_UntilCatalogueChanges() {
+        // Given
+        PageRequest pageRequest = new PageRequest(0, 50);
+        ApiSummary api = new ApiSummary(1L, "shop", "1.2", "swagger");
+        api.setSpecificationPath("/catalogueApi/apis/1/specificationFile");
+        when(apiService.getAllApis(pageRequest)).thenReturn(new PageImpl<>(Collections.singletonList(api)));
+
+        // When
+        RenderedPage page = viewService.renderApiList(pageRequest);
+        RenderedPage cachedPage = viewService.renderApiList(pageRequest);
+        apiCache.apiChanged(1L, false);
+        viewService.renderApiList(pageRequest);
+
+        // Then
+        assertThat(new String(page.getContent(), UTF_8)).contains("<span><b>shop</b> - 1.2</span>")
+                .contains("<a href=\"/catalogueApi/apis/1/specificationFile\">swagger</a>");
+        assertThat(page.getETag()).isEqualTo(DigestUtils.md5DigestAsHex(page.getContent()));
+        assertThat(cachedPage).isSameAs(page);
+        verify(apiService, times(2)).getAllApis(pageRequest);
+    }
+
+    private static TemplateEngine templateEngine() {
+        ClassLoaderTemplateResolver templateResolver = new ClassLoaderTemplateResolver();
+        templateResolver.setPrefix("templates/");
+        templateResolver.setSuffix(".html");
+        templateResolver.setTemplateMode("HTML5");
+        SpringTemplateEngine templateEngine = new SpringTemplateEngine();
+        templateEngine.setTemplateResolver(templateResolver);
+        return templateEngine;
     }
-}
\ No newline at end of file
+}